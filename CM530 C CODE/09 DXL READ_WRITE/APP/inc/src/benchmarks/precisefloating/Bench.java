@@ -0,0 +1,79 @@
+package benchmarks.precisefloating;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Minimal timing harness for the benchmarks in this package: a few warm up rounds, then the
+ * average time and the average number of bytes allocated per operation, measured on the
+ * current thread. The allocation figure needs a HotSpot based JVM and is printed as n/a
+ * elsewhere.
+ */
+public abstract class Bench {
+
+    /** Results are stored here so that the JIT cannot drop the measured work. */
+    public static volatile Object sink;
+
+    private final String name;
+
+    protected Bench(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs one round of the measured operation.
+     *
+     * @return the number of operations done
+     */
+    protected abstract int run();
+
+    /**
+     * Called before every round, outside the measured time.
+     */
+    protected void setUp() {
+    }
+
+    public void measure(int warmUpRounds, int rounds) {
+        for (int i = 0; i < warmUpRounds; i++) {
+            setUp();
+            run();
+        }
+
+        long ops = 0, nanos = 0, bytes = 0;
+
+        for (int i = 0; i < rounds; i++) {
+            setUp();
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            ops += run();
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes() - allocated;
+        }
+
+        String alloc = allocatedBytes() < 0 ? "n/a" : String.valueOf(bytes / ops);
+        StringBuffer line = new StringBuffer(name);
+        pad(line, 40);
+        line.append(nanos / ops);
+        pad(line, 52);
+        line.append(" ns/op  ").append(alloc);
+        pad(line, 70);
+        line.append(" B/op");
+        System.out.println(line);
+    }
+
+    private static void pad(StringBuffer sb, int column) {
+        while (sb.length() < column) {
+            sb.append(' ');
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,138 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Rational;
+import precisefloating.directedrounding.ErrorFreeRoundingModeControl;
+import precisefloating.directedrounding.RoundingMode;
+import precisefloating.directedrounding.RoundingModeControl;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Throughput of the memoized Rational values, of the rounded conversions and of one shared
+ * RoundingModeControl when 1, 2, 4 ... threads use the same instances. With the values cached
+ * and no lock taken on the way, the total should grow with the number of cores.
+ * Usage: java benchmarks.precisefloating.ConcurrencyBenchmark [maxThreads [millis]]
+ */
+public class ConcurrencyBenchmark {
+
+    static final int N = 256;
+
+    interface Workload {
+        /** One batch of operations on the shared data, returns the number of operations. */
+        int run(Random rnd);
+    }
+
+    static volatile boolean stop;
+
+    /**
+     * Runs the workload on the given number of threads for millis milliseconds.
+     *
+     * @return millions of operations per second, all threads together
+     */
+    static double throughput(final Workload w, int threads, long millis) throws InterruptedException {
+        final long[] ops = new long[threads];
+        Thread[] ts = new Thread[threads];
+        stop = false;
+
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            ts[t] = new Thread() {
+                public void run() {
+                    Random rnd = new Random(id);
+                    long n = 0;
+                    while (!stop) {
+                        n += w.run(rnd);
+                    }
+                    ops[id] = n;
+                }
+            };
+        }
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            ts[t].start();
+        }
+        Thread.sleep(millis);
+        stop = true;
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            ts[t].join();
+            total += ops[t];
+        }
+
+        return total * 1000.0 / (System.nanoTime() - start);
+    }
+
+    static void measure(String name, Workload w, int maxThreads, long millis) throws InterruptedException {
+        // warm up
+        throughput(w, 1, millis);
+
+        StringBuffer line = new StringBuffer(name);
+        while (line.length() < 32) {
+            line.append(' ');
+        }
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            line.append(threads).append(": ").append((int) throughput(w, threads, millis)).append(" Mop/s  ");
+        }
+        System.out.println(line);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+        Random rnd = new Random(1);
+        final Rational[] shared = new Rational[N];
+        for (int i = 0; i < N; i++) {
+            shared[i] = Rational.create(BigInteger.valueOf(rnd.nextInt(1000000) + 1), BigInteger.valueOf(rnd.nextInt(1000) + 1));
+        }
+        final RoundingMode[] modes = {RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN, RoundingMode.ROUND_CEILING};
+        final RoundingModeControl control = new ErrorFreeRoundingModeControl();
+
+        measure("doubleValue(mode)", new Workload() {
+            public int run(Random rnd) {
+                double s = 0;
+                for (int i = 0; i < N; i++) {
+                    s += shared[i].doubleValue(modes[i % 3]);
+                }
+                Bench.sink = Double.valueOf(s);
+                return N;
+            }
+        }, maxThreads, millis);
+
+        measure("DOUBLE_MAX_VALUE.doubleValue", new Workload() {
+            public int run(Random rnd) {
+                double s = 0;
+                for (int i = 0; i < N; i++) {
+                    s += Rational.DOUBLE_MAX_VALUE.doubleValue();
+                }
+                Bench.sink = Double.valueOf(s);
+                return N;
+            }
+        }, maxThreads, millis);
+
+        measure("inverse, negate, floor", new Workload() {
+            public int run(Random rnd) {
+                for (int i = 0; i < N; i++) {
+                    Bench.sink = shared[i].inverse().negate().floor();
+                }
+                return N;
+            }
+        }, maxThreads, millis);
+
+        measure("addRoundFloor, shared", new Workload() {
+            public int run(Random rnd) {
+                double s = 0, x = rnd.nextDouble();
+                for (int i = 0; i < N; i++) {
+                    s = control.addRoundFloor(s, x);
+                }
+                Bench.sink = Double.valueOf(s);
+                return N;
+            }
+        }, maxThreads, millis);
+    }
+
+}
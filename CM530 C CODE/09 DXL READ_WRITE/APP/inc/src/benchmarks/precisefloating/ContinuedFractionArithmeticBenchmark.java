@@ -0,0 +1,50 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Rational;
+import precisefloating.continuedfractions.ContinuedFraction;
+import precisefloating.continuedfractions.ERadicalExpansion;
+import precisefloating.continuedfractions.PartialQuotients;
+import precisefloating.continuedfractions.RationalExpansion;
+
+/**
+ * Sums and products of continued fractions, which run through the Gosper tensor and matrix
+ * states of TensorStartPartialQuotients and MatrixStartPartialQuotients: time per output
+ * partial quotient, for the first N of them unless stated otherwise.
+ * Usage: java benchmarks.precisefloating.ContinuedFractionArithmeticBenchmark
+ */
+public class ContinuedFractionArithmeticBenchmark {
+
+    static final int N = 200;
+
+    static void measure(String name, final ContinuedFraction cf, final int n) {
+        new Bench(name) {
+            protected int run() {
+                PartialQuotients pq = cf.partialQuotients();
+                int i = 0;
+                while (i < n && pq.hasNext()) {
+                    sink = pq.nextPartialQuotient();
+                    i++;
+                }
+                return i;
+            }
+        }.measure(2000, 1000);
+    }
+
+    public static void main(String[] args) {
+        ContinuedFraction e2 = new ERadicalExpansion(2), e3 = new ERadicalExpansion(3);
+        ContinuedFraction r1 = new RationalExpansion(Rational.create(355, 113));
+        ContinuedFraction r2 = new RationalExpansion(Rational.create(1234567, 7654321));
+
+        // about the digits a double needs: the tensor of two irrational operands grows by a
+        // couple of bits per partial quotient, and leaves the longs after a few dozen
+        measure("e^(1/2) + e^(1/3), 20", e2.add(e3), 20);
+        measure("e^(1/2) * e^(1/3), 20", e2.multiply(e3), 20);
+        measure("e^(1/2) + e^(1/3)", e2.add(e3), N);
+        measure("e^(1/2) * e^(1/3)", e2.multiply(e3), N);
+        measure("e^(1/2) + 355/113", e2.add(r1), N);
+        measure("e^(1/2) * 355/113", e2.multiply(r1), N);
+        measure("355/113 + 1234567/7654321", r1.add(r2), N);
+        measure("355/113 * 1234567/7654321", r1.multiply(r2), N);
+    }
+
+}
@@ -0,0 +1,58 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Rational;
+import precisefloating.continuedfractions.Convergents;
+import precisefloating.continuedfractions.ContinuedFraction;
+import precisefloating.continuedfractions.ERadicalExpansion;
+import precisefloating.continuedfractions.RationalExpansion;
+import precisefloating.directedrounding.RoundingMode;
+
+/**
+ * A value traversed the way the rounding code does it: floor, ceil, a comparison, the first
+ * convergents and the double value in three directions, each one from the first partial
+ * quotient on. Time per value, with and without the PartialQuotientsMemo; the memo is new with
+ * every value, so the first traversal pays for the recording.
+ * Usage: java benchmarks.precisefloating.ContinuedFractionMemoBenchmark
+ */
+public class ContinuedFractionMemoBenchmark {
+
+    static final RoundingMode[] MODES = {
+        RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN, RoundingMode.ROUND_CEILING};
+
+    static final ContinuedFraction THREE = new RationalExpansion(Rational.valueOf(3));
+
+    static void measure(String name, final boolean memoize) {
+        new Bench(name) {
+            protected int run() {
+                ContinuedFraction x = ContinuedFraction.exponential(Rational.create(1, 3))
+                        .add(new ERadicalExpansion(5));
+                if (memoize) {
+                    x = x.memoize();
+                }
+
+                Object[] results = new Object[4 + MODES.length];
+                results[0] = x.floor();
+                results[1] = x.ceil();
+                results[2] = Integer.valueOf(x.compareTo(THREE));
+
+                Convergents convergents = x.convergents();
+                for (int i = 0; i < 20; i++) {
+                    results[3] = convergents.nextConvergent();
+                }
+
+                for (int m = 0; m < MODES.length; m++) {
+                    results[4 + m] = Double.valueOf(x.doubleValue(MODES[m]));
+                }
+
+                sink = results;
+                return 1;
+            }
+        }.measure(300, 300);
+    }
+
+    public static void main(String[] args) {
+        measure("e^(1/3) + e^(1/5), recomputed", false);
+        measure("e^(1/3) + e^(1/5), memoized", true);
+    }
+
+}
@@ -0,0 +1,50 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Rational;
+import precisefloating.continuedfractions.ContinuedFraction;
+import precisefloating.continuedfractions.ContinuedFractionConstants;
+import precisefloating.continuedfractions.ERadicalExpansion;
+import precisefloating.continuedfractions.RoundContinuedFraction;
+import precisefloating.directedrounding.RoundingMode;
+
+/**
+ * RoundContinuedFraction.doubleValue and floatValue of exponentials and radicals, in the three
+ * directions: time per rounded value. A new RoundContinuedFraction every time, as it keeps the
+ * values it has computed; the continued fraction itself is shared, and computes nothing
+ * before it is traversed.
+ * Usage: java benchmarks.precisefloating.ContinuedFractionRoundingBenchmark
+ */
+public class ContinuedFractionRoundingBenchmark {
+
+    static final RoundingMode[] MODES = {
+        RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN, RoundingMode.ROUND_CEILING};
+
+    static void measure(String name, final ContinuedFraction cf, final boolean toFloat) {
+        new Bench(name) {
+            protected int run() {
+                for (int m = 0; m < MODES.length; m++) {
+                    RoundContinuedFraction rcf = new RoundContinuedFraction(cf);
+                    rcf.setRoundingMode(MODES[m]);
+                    sink = toFloat ? (Object) Float.valueOf(rcf.floatValue()) : Double.valueOf(rcf.doubleValue());
+                }
+                return MODES.length;
+            }
+        }.measure(500, 500);
+    }
+
+    public static void main(String[] args) {
+        ContinuedFraction[] cfs = {ContinuedFraction.exponential(Rational.create(1, 3)),
+                                   ContinuedFraction.exponential(Rational.create(-17, 5)),
+                                   new ERadicalExpansion(2), new ERadicalExpansion(7),
+                                   ContinuedFractionConstants.Pythagoras};
+        String[] names = {"e^(1/3)", "e^(-17/5)", "e^(1/2)", "e^(1/7)", "sqrt(2)"};
+
+        for (int i = 0; i < cfs.length; i++) {
+            measure(names[i] + " double", cfs[i], false);
+        }
+        for (int i = 0; i < cfs.length; i++) {
+            measure(names[i] + " float", cfs[i], true);
+        }
+    }
+
+}
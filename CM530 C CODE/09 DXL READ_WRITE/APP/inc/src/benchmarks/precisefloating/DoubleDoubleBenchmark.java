@@ -0,0 +1,113 @@
+package benchmarks.precisefloating;
+
+import precisefloating.DoubleDouble;
+import precisefloating.Formulas;
+import precisefloating.Rational;
+
+import java.util.Random;
+
+/**
+ * Cost of the double-double tier against plain double and Rational: time per element of a dot
+ * product, of a Horner evaluation and of chained DoubleDouble operations.
+ * Usage: java benchmarks.precisefloating.DoubleDoubleBenchmark
+ */
+public class DoubleDoubleBenchmark {
+
+    static final int N = 1000;
+
+    public static void main(String[] args) {
+        Random rnd = new Random(1);
+        final double[] x = new double[N], y = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = rnd.nextDouble() - 0.5;
+            y[i] = rnd.nextDouble() - 0.5;
+        }
+        final double[] pair = new double[2];
+
+        new Bench("dot, double") {
+            protected int run() {
+                double s = 0;
+                for (int i = 0; i < N; i++) {
+                    s += x[i] * y[i];
+                }
+                sink = Double.valueOf(s);
+                return N;
+            }
+        }.measure(20000, 20000);
+
+        new Bench("dot, DoubleDouble.dot") {
+            protected int run() {
+                sink = DoubleDouble.dot(x, y);
+                return N;
+            }
+        }.measure(20000, 20000);
+
+        new Bench("dot, twoProductDekker") {
+            protected int run() {
+                double s = 0, c = 0;
+                for (int i = 0; i < N; i++) {
+                    Formulas.twoProductDekker(x[i], y[i], pair, 0);
+                    double p = pair[0];
+                    c += pair[1];
+                    Formulas.twoSum(s, p, pair, 0);
+                    s = pair[0];
+                    c += pair[1];
+                }
+                sink = Double.valueOf(s + c);
+                return N;
+            }
+        }.measure(20000, 20000);
+
+        new Bench("dot, DoubleDouble objects") {
+            protected int run() {
+                DoubleDouble s = DoubleDouble.ZERO;
+                for (int i = 0; i < N; i++) {
+                    s = s.add(DoubleDouble.valueOf(x[i]).multiply(y[i]));
+                }
+                sink = s;
+                return N;
+            }
+        }.measure(5000, 5000);
+
+        new Bench("dot, Rational") {
+            protected int run() {
+                Rational s = Rational.ZERO;
+                for (int i = 0; i < N; i++) {
+                    s = s.add(Rational.create(x[i]).multiply(Rational.create(y[i])));
+                }
+                sink = s;
+                return N;
+            }
+        }.measure(5, 10);
+
+        new Bench("Horner, double") {
+            protected int run() {
+                double s = x[N - 1];
+                for (int i = N - 2; i >= 0; i--) {
+                    s = s * 0.75 + x[i];
+                }
+                sink = Double.valueOf(s);
+                return N;
+            }
+        }.measure(20000, 20000);
+
+        new Bench("Horner, DoubleDouble.polynomial") {
+            protected int run() {
+                sink = DoubleDouble.polynomial(x, 0.75);
+                return N;
+            }
+        }.measure(20000, 20000);
+
+        new Bench("divide and sqrt, DoubleDouble") {
+            protected int run() {
+                DoubleDouble s = DoubleDouble.ONE;
+                for (int i = 0; i < N; i++) {
+                    s = s.add(DoubleDouble.valueOf(y[i]).divide(s).abs().sqrt());
+                }
+                sink = s;
+                return N;
+            }
+        }.measure(2000, 2000);
+    }
+
+}
@@ -0,0 +1,54 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Rational;
+import precisefloating.continuedfractions.EGeneratedTable;
+import precisefloating.continuedfractions.EResourceTable;
+import precisefloating.continuedfractions.ETable;
+import precisefloating.continuedfractions.ExponentialPartialQuotients;
+import precisefloating.continuedfractions.PartialQuotients;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Time to load the e table and to compute a first exponential with it, and the heap the table
+ * keeps, for EGeneratedTable and EResourceTable. Class initialization happens once per JVM, so
+ * run one table per JVM.
+ * Usage: java benchmarks.precisefloating.ETableLoadBenchmark generated|resource
+ */
+public class ETableLoadBenchmark {
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) {
+        Logger.getLogger("precisefloating").setLevel(Level.WARNING);
+        boolean generated = args[0].equals("generated");
+
+        long heap = usedHeap();
+        long start = System.nanoTime();
+        ETable table = generated ? (ETable) EGeneratedTable.getInstance() : EResourceTable.getInstance();
+        long loaded = System.nanoTime();
+
+        PartialQuotients pq = new ExponentialPartialQuotients(Rational.create(1, 3), table);
+        for (int i = 0; i < 20; i++) {
+            Bench.sink = pq.nextPartialQuotient();
+        }
+        long first = System.nanoTime();
+
+        System.out.println(args[0] + ": load " + (loaded - start) / 1000 + " us, first exp "
+                + (first - loaded) / 1000 + " us, heap " + (usedHeap() - heap) / 1024 + " KB");
+
+        // every entry decoded
+        for (int i = -105; i < 10; i++) {
+            Bench.sink = table.getBuffer(i);
+        }
+        System.out.println(args[0] + ": heap with every entry " + (usedHeap() - heap) / 1024 + " KB");
+    }
+
+}
@@ -0,0 +1,116 @@
+package benchmarks.precisefloating;
+
+import precisefloating.directedrounding.ErrorFreeRoundingModeControl;
+import precisefloating.directedrounding.Interval;
+import precisefloating.directedrounding.IntervalArray;
+import precisefloating.directedrounding.RoundingModeControl;
+
+import java.util.Random;
+
+/**
+ * Interval add, multiply and dot product over arrays, against the same loops on plain doubles
+ * and against one Interval object or one RoundingModeControl call per bound.
+ * Usage: java benchmarks.precisefloating.IntervalBenchmark
+ */
+public class IntervalBenchmark {
+
+    static final int N = 4096;
+
+    public static void main(String[] args) {
+        Random rnd = new Random(1);
+        final double[] xs = new double[N], ys = new double[N], zs = new double[N];
+        for (int i = 0; i < N; i++) {
+            xs[i] = rnd.nextGaussian();
+            ys[i] = rnd.nextGaussian();
+        }
+
+        final IntervalArray x = IntervalArray.valueOf(xs), y = IntervalArray.valueOf(ys), z = new IntervalArray(N);
+        final Interval[] xi = new Interval[N], yi = new Interval[N];
+        for (int i = 0; i < N; i++) {
+            xi[i] = x.get(i);
+            yi[i] = y.get(i);
+        }
+        final RoundingModeControl control = new ErrorFreeRoundingModeControl();
+        final double[] zlo = new double[N], zhi = new double[N];
+
+        new Bench("double add") {
+            protected int run() {
+                for (int i = 0; i < N; i++) {
+                    zs[i] = xs[i] + ys[i];
+                }
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("IntervalArray.add") {
+            protected int run() {
+                IntervalArray.add(x, y, z);
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("Interval.add") {
+            protected int run() {
+                for (int i = 0; i < N; i++) {
+                    sink = xi[i].add(yi[i]);
+                }
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("RoundingModeControl add") {
+            protected int run() {
+                for (int i = 0; i < N; i++) {
+                    zlo[i] = control.addRoundFloor(xs[i], ys[i]);
+                    zhi[i] = control.addRoundCeiling(xs[i], ys[i]);
+                }
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("double multiply") {
+            protected int run() {
+                for (int i = 0; i < N; i++) {
+                    zs[i] = xs[i] * ys[i];
+                }
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("IntervalArray.multiply") {
+            protected int run() {
+                IntervalArray.multiply(x, y, z);
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("RoundingModeControl multiply") {
+            protected int run() {
+                for (int i = 0; i < N; i++) {
+                    zlo[i] = control.multiplyRoundFloor(xs[i], ys[i]);
+                    zhi[i] = control.multiplyRoundCeiling(xs[i], ys[i]);
+                }
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("double dot") {
+            protected int run() {
+                double s = 0;
+                for (int i = 0; i < N; i++) {
+                    s += xs[i] * ys[i];
+                }
+                sink = Double.valueOf(s);
+                return N;
+            }
+        }.measure(2000, 2000);
+
+        new Bench("IntervalArray.dot") {
+            protected int run() {
+                sink = x.dot(y);
+                return N;
+            }
+        }.measure(2000, 2000);
+    }
+
+}
@@ -0,0 +1,96 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Rational;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * add, multiply, compareTo and doubleValue on rationals whose numerator and denominator fit in
+ * a long ("long") and on the same values scaled by 2^70 / 2^70, which keeps them on the
+ * BigInteger path ("big"). Usage: java benchmarks.precisefloating.RationalBenchmark [bits]
+ * where bits (default 20) is the size of the random numerators and denominators.
+ */
+public class RationalBenchmark {
+
+    static final int N = 1024;
+
+    public static void main(String[] args) {
+        int bits = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Random rnd = new Random(1);
+        BigInteger k = BigInteger.ONE.shiftLeft(70);
+
+        final Rational[] small = new Rational[N], big = new Rational[N];
+        for (int i = 0; i < N; i++) {
+            small[i] = new Rational(bits, rnd);
+            if (rnd.nextBoolean()) {
+                small[i] = small[i].negate();
+            }
+            big[i] = Rational.create(small[i].getNumerator().multiply(k), small[i].getDenominator().multiply(k));
+        }
+
+        System.out.println(bits + " bit numerators and denominators");
+        for (int pass = 0; pass < 2; pass++) {
+            final Rational[] values = pass == 0 ? small : big;
+            String kind = pass == 0 ? "long" : "big";
+
+            new Bench(kind + " add") {
+                protected int run() {
+                    for (int i = 0; i < N; i++) {
+                        sink = values[i].add(values[N - 1 - i]);
+                    }
+                    return N;
+                }
+            }.measure(2000, 2000);
+
+            new Bench(kind + " add reduced") {
+                protected int run() {
+                    for (int i = 0; i < N; i++) {
+                        sink = values[i].add(values[N - 1 - i], true);
+                    }
+                    return N;
+                }
+            }.measure(500, 500);
+
+            new Bench(kind + " multiply") {
+                protected int run() {
+                    for (int i = 0; i < N; i++) {
+                        sink = values[i].multiply(values[N - 1 - i]);
+                    }
+                    return N;
+                }
+            }.measure(2000, 2000);
+
+            new Bench(kind + " compareTo") {
+                protected int run() {
+                    int c = 0;
+                    for (int i = 0; i < N; i++) {
+                        c += values[i].compareTo(values[N - 1 - i]);
+                    }
+                    sink = Integer.valueOf(c);
+                    return N;
+                }
+            }.measure(500, 500);
+
+            // every operand is new, so that doubleValue() is computed rather than read from the cache
+            final Rational[] fresh = new Rational[N];
+            new Bench(kind + " doubleValue") {
+                protected void setUp() {
+                    for (int i = 0; i < N; i++) {
+                        fresh[i] = Rational.create(values[i].getNumerator(), values[i].getDenominator());
+                    }
+                }
+
+                protected int run() {
+                    double d = 0;
+                    for (int i = 0; i < N; i++) {
+                        d += fresh[i].doubleValue();
+                    }
+                    sink = Double.valueOf(d);
+                    return N;
+                }
+            }.measure(200, 200);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package benchmarks.precisefloating;
+
+import precisefloating.Gcd;
+import precisefloating.Rational;
+import precisefloating.continuedfractions.Convergents;
+import precisefloating.continuedfractions.RationalExpansion;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Where the rationals spend their time in gcd:
+ * <br>the whole convergent chain of a random rational, each convergent rounded to a double;
+ * <br>a running sum of random fractions, reduced after every step;
+ * <br>Gcd.gcd against BigInteger.gcd at several sizes.
+ * Usage: java benchmarks.precisefloating.ReductionBenchmark [bits]
+ * where bits (default 1000) is the size of the expanded rational.
+ */
+public class ReductionBenchmark {
+
+    static final int N = 64;
+
+    public static void main(String[] args) {
+        int bits = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final Random rnd = new Random(1);
+
+        final Rational expanded = new Rational(bits, rnd);
+        new Bench("convergents of " + bits + " bits, doubleValue") {
+            protected int run() {
+                Convergents convergents = new RationalExpansion(expanded).convergents();
+                int n = 0;
+                double d = 0;
+                while (convergents.hasNext()) {
+                    d += convergents.nextConvergent().doubleValue();
+                    n++;
+                }
+                sink = Double.valueOf(d);
+                return n;
+            }
+        }.measure(5, 10);
+
+        final Rational[] terms = new Rational[N];
+        for (int i = 0; i < N; i++) {
+            // smooth denominators, so that the partial sums have common factors to cancel
+            terms[i] = Rational.create(new BigInteger(64, rnd), BigInteger.valueOf(i + 1).pow(8));
+        }
+        new Bench("reduced running sum of " + N + " terms") {
+            protected int run() {
+                Rational sum = Rational.ZERO;
+                for (int i = 0; i < N; i++) {
+                    sum = sum.add(terms[i], true);
+                }
+                sink = sum;
+                return N;
+            }
+        }.measure(200, 200);
+
+        int[] sizes = {62, 200, 1000, 4000};
+        for (int k = 0; k < sizes.length; k++) {
+            final BigInteger[] a = new BigInteger[N], b = new BigInteger[N];
+            for (int i = 0; i < N; i++) {
+                BigInteger common = new BigInteger(sizes[k] / 4, rnd);
+                a[i] = new BigInteger(sizes[k], rnd).multiply(common);
+                b[i] = new BigInteger(sizes[k], rnd).multiply(common);
+            }
+
+            int rounds = sizes[k] > 1000 ? 20 : 200;
+            new Bench("BigInteger.gcd " + sizes[k] + " bits") {
+                protected int run() {
+                    for (int i = 0; i < N; i++) {
+                        sink = a[i].gcd(b[i]);
+                    }
+                    return N;
+                }
+            }.measure(rounds, rounds);
+            new Bench("Gcd.gcd " + sizes[k] + " bits") {
+                protected int run() {
+                    for (int i = 0; i < N; i++) {
+                        sink = Gcd.gcd(a[i], b[i]);
+                    }
+                    return N;
+                }
+            }.measure(rounds, rounds);
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package benchmarks.precisefloating;
+
+import precisefloating.directedrounding.ErrorFreeRoundingModeControl;
+import precisefloating.directedrounding.ManagedRoundingModeControl;
+
+import java.util.Random;
+
+/**
+ * Directed add and multiply of ManagedRoundingModeControl against ErrorFreeRoundingModeControl,
+ * on random operands of similar magnitude ("near") and with exponents up to 60 apart, where
+ * ManagedRoundingModeControl needs BigInteger for most sums ("far").
+ * Usage: java benchmarks.precisefloating.RoundingModeControlBenchmark
+ */
+public class RoundingModeControlBenchmark {
+
+    static final int N = 4096;
+
+    public static void main(String[] args) {
+        Random rnd = new Random(1);
+        ManagedRoundingModeControl[] controls = {new ManagedRoundingModeControl(), new ErrorFreeRoundingModeControl()};
+
+        for (int spread = 0; spread < 2; spread++) {
+            final double[] x = new double[N], y = new double[N];
+            for (int i = 0; i < N; i++) {
+                x[i] = rnd.nextDouble() + 0.5;
+                y[i] = (rnd.nextDouble() - 0.5) * Math.scalb(1.0, spread == 0 ? rnd.nextInt(5) : rnd.nextInt(120) - 60);
+            }
+            String operands = spread == 0 ? "near" : "far";
+
+            for (int k = 0; k < controls.length; k++) {
+                final ManagedRoundingModeControl control = controls[k];
+                String name = k == 0 ? "managed" : "error free";
+                final double[] a = new double[2];
+
+                new Bench(name + " add " + operands) {
+                    protected int run() {
+                        double s = 0;
+                        for (int i = 0; i < N; i++) {
+                            control.add(x[i], y[i], a, 0);
+                            s += a[1] - a[0];
+                        }
+                        sink = Double.valueOf(s);
+                        return N;
+                    }
+                }.measure(500, 500);
+
+                new Bench(name + " multiply " + operands) {
+                    protected int run() {
+                        double s = 0;
+                        for (int i = 0; i < N; i++) {
+                            control.multiply(x[i], y[i], a, 0);
+                            s += a[1] - a[0];
+                        }
+                        sink = Double.valueOf(s);
+                        return N;
+                    }
+                }.measure(500, 500);
+            }
+        }
+    }
+
+}
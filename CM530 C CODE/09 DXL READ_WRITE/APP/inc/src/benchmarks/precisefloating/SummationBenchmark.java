@@ -0,0 +1,81 @@
+package benchmarks.precisefloating;
+
+import precisefloating.ExactSum;
+import precisefloating.Formulas;
+import precisefloating.Rational;
+import precisefloating.directedrounding.RoundingMode;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Time per summed element of Formulas.kahanSummation, of the exact ExactSum, sequential and on
+ * the common fork-join pool, and of an exact Rational sum, for arrays of 10^3 to 10^maxExponent
+ * doubles of mixed signs and magnitudes. The Rational sum only goes up to 10^5 elements.
+ * 10^8 elements need about 1 GB of heap.
+ * Usage: java benchmarks.precisefloating.SummationBenchmark [maxExponent]
+ */
+public class SummationBenchmark {
+
+    /** About this many elements are summed by every measurement. */
+    static final int ELEMENTS = 20000000;
+
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    public static void main(String[] args) {
+        int maxExponent = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+        Random rnd = new Random(1);
+        int maxLength = (int) Math.pow(10, maxExponent);
+        final double[] all = new double[maxLength];
+        for (int i = 0; i < maxLength; i++) {
+            all[i] = Math.scalb(rnd.nextDouble() - 0.5, rnd.nextInt(80) - 40);
+        }
+
+        for (int n = 1000; n <= maxLength; n *= 10) {
+            final int length = n;
+            int rounds = Math.max(1, ELEMENTS / n);
+
+            new Bench("kahanSummation, " + n) {
+                protected int run() {
+                    sink = Double.valueOf(Formulas.kahanSummation(all, 0, length));
+                    return length;
+                }
+            }.measure(rounds, rounds);
+
+            new Bench("exactSummation, " + n) {
+                protected int run() {
+                    sink = Double.valueOf(Formulas.exactSummation(all, 0, length, RoundingMode.ROUND_HALF_EVEN));
+                    return length;
+                }
+            }.measure(rounds, rounds);
+
+            // the allocation figure only counts the calling thread
+            new Bench("ExactSum.task, " + n) {
+                protected int run() {
+                    ExactSum sum = (ExactSum) ForkJoinPool.commonPool().invoke(
+                            ExactSum.task(all, 0, length, PARALLEL_THRESHOLD));
+                    sink = Double.valueOf(sum.doubleValue());
+                    return length;
+                }
+            }.measure(rounds, rounds);
+
+            if (n <= 100000) {
+                int rationalRounds = Math.max(1, ELEMENTS / 100 / n);
+
+                new Bench("Rational sum, " + n) {
+                    protected int run() {
+                        Rational sum = Rational.ZERO;
+                        for (int i = 0; i < length; i++) {
+                            sum = sum.add(Rational.create(all[i]));
+                        }
+                        sink = Double.valueOf(sum.doubleValue());
+                        return length;
+                    }
+                }.measure(rationalRounds, rationalRounds);
+            }
+        }
+    }
+
+}
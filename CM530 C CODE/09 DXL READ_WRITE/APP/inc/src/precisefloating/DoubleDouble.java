@@ -0,0 +1,292 @@
+package precisefloating;
+
+/**
+ * Unevaluated sum hi + lo of two doubles with |lo| <= ulp(hi) / 2, about 106 bits of precision
+ * for a few double operations each: between double and Rational, for when double is not precise
+ * enough and exact arithmetic is too slow. The operations inline the error-free
+ * transformations of Formulas, twoSum and twoProduct with a fused multiply-add, as in the QD
+ * library of Hida, Li and Bailey; their relative error is a small multiple of 2^-106 while no
+ * intermediate result overflows or underflows. They are not correctly rounded.
+ * A non finite hi has lo = 0. Needs Java 9 for Math.fma. Immutable and thread safe.
+ */
+public final class DoubleDouble implements Comparable {
+
+    public static final DoubleDouble ZERO = new DoubleDouble(0, 0);
+    public static final DoubleDouble ONE = new DoubleDouble(1, 0);
+
+    private final double hi;
+    private final double lo;
+
+    private DoubleDouble(double hi, double lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    public static DoubleDouble valueOf(double x) {
+        return new DoubleDouble(x, 0);
+    }
+
+    /**
+     * The double-double nearest to x + y.
+     */
+    public static DoubleDouble valueOf(double x, double y) {
+        double s = x + y;
+        double yy = s - x;
+        return create(s, (x - (s - yy)) + (y - yy));
+    }
+
+    /**
+     * r rounded to nearest, then the rest of r rounded to nearest.
+     */
+    public static DoubleDouble valueOf(Rational r) {
+        double hi = r.doubleValue();
+
+        if (hi == 0 || Double.isInfinite(hi)) {
+            return valueOf(hi);
+        }
+
+        return valueOf(hi, r.subtract(Rational.create(hi)).doubleValue());
+    }
+
+    private static boolean isFinite(double d) {
+        return Math.abs(d) <= Double.MAX_VALUE;
+    }
+
+    /**
+     * hi and lo with |lo| <= ulp(hi) / 2, or a non finite hi.
+     */
+    private static DoubleDouble create(double hi, double lo) {
+        if (!isFinite(hi)) {
+            return new DoubleDouble(hi, 0);
+        }
+
+        return new DoubleDouble(hi, lo);
+    }
+
+    /**
+     * FastTwoSum, |x| >= |y|.
+     */
+    private static DoubleDouble fastTwoSum(double x, double y) {
+        double s = x + y;
+        return create(s, y - (s - x));
+    }
+
+    public double getHi() {
+        return hi;
+    }
+
+    public double getLo() {
+        return lo;
+    }
+
+    /**
+     * hi, which is this number rounded to nearest, except in the rare case of a tie.
+     */
+    public double doubleValue() {
+        return hi;
+    }
+
+    /**
+     * The exact value, for finite numbers.
+     */
+    public Rational toRational() {
+        Rational r = hi == 0 ? Rational.ZERO : Rational.create(hi);
+        return lo == 0 ? r : r.add(Rational.create(lo));
+    }
+
+    public DoubleDouble negate() {
+        return new DoubleDouble(-hi, -lo);
+    }
+
+    public DoubleDouble abs() {
+        return hi < 0 || hi == 0 && lo < 0 ? negate() : this;
+    }
+
+    public int signum() {
+        return hi > 0 ? +1 : hi < 0 ? -1 : 0;
+    }
+
+    public DoubleDouble add(DoubleDouble that) {
+        // TwoSum of both parts, then two renormalizations
+        double s = hi + that.hi;
+        if (!isFinite(s)) {
+            return valueOf(s);
+        }
+
+        double v = s - hi;
+        double e = (hi - (s - v)) + (that.hi - v);
+
+        double t = lo + that.lo;
+        double w = t - lo;
+        double f = (lo - (t - w)) + (that.lo - w);
+
+        e += t;
+        double s2 = s + e;
+        e = e - (s2 - s);
+        e += f;
+
+        return fastTwoSum(s2, e);
+    }
+
+    public DoubleDouble add(double that) {
+        double s = hi + that;
+        if (!isFinite(s)) {
+            return valueOf(s);
+        }
+
+        double v = s - hi;
+        double e = (hi - (s - v)) + (that - v);
+        e += lo;
+        return fastTwoSum(s, e);
+    }
+
+    public DoubleDouble subtract(DoubleDouble that) {
+        return add(that.negate());
+    }
+
+    public DoubleDouble multiply(DoubleDouble that) {
+        double p = hi * that.hi;
+        if (!isFinite(p)) {
+            return valueOf(p);
+        }
+
+        double e = Math.fma(hi, that.hi, -p);
+        e += hi * that.lo + lo * that.hi;
+        return fastTwoSum(p, e);
+    }
+
+    public DoubleDouble multiply(double that) {
+        double p = hi * that;
+        if (!isFinite(p)) {
+            return valueOf(p);
+        }
+
+        double e = Math.fma(hi, that, -p);
+        e += lo * that;
+        return fastTwoSum(p, e);
+    }
+
+    /**
+     * Three quotients of the leading parts, each correcting the remainder of the previous one.
+     */
+    public DoubleDouble divide(DoubleDouble that) {
+        double q1 = hi / that.hi;
+
+        if (!isFinite(q1) || q1 == 0) {
+            return valueOf(q1);
+        }
+
+        DoubleDouble r = subtract(that.multiply(q1));
+        double q2 = r.hi / that.hi;
+        r = r.subtract(that.multiply(q2));
+        double q3 = r.hi / that.hi;
+
+        return fastTwoSum(q1, q2).add(q3);
+    }
+
+    /**
+     * One Newton step from the double square root: sqrt(a) = ax + (a - ax^2) x / 2, where x is
+     * 1 / sqrt(hi) and ax = hi x, and ax^2 is exact.
+     */
+    public DoubleDouble sqrt() {
+        if (!(hi > 0) || !isFinite(hi)) {
+            return valueOf(Math.sqrt(hi));
+        }
+
+        double x = 1 / Math.sqrt(hi);
+        double ax = hi * x;
+        double axSquare = ax * ax;
+        DoubleDouble square = new DoubleDouble(axSquare, Math.fma(ax, ax, -axSquare));
+
+        return valueOf(ax).add(subtract(square).hi * (x * 0.5));
+    }
+
+    /**
+     * Compensated dot product (Dot2 of Ogita, Rump and Oishi): as accurate as if computed with
+     * twice the precision of double, without any allocation on the way.
+     */
+    public static DoubleDouble dot(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x.length " + x.length + " != y.length " + y.length);
+        }
+
+        double s = 0, c = 0;
+
+        for (int i = 0; i < x.length; i++) {
+            double p = x[i] * y[i];
+            double pe = Math.fma(x[i], y[i], -p);
+
+            double t = s + p;
+            double v = t - s;
+            double se = (s - (t - v)) + (p - v);
+            s = t;
+
+            c += pe + se;
+        }
+
+        return valueOf(s, c);
+    }
+
+    /**
+     * Compensated Horner scheme (CompHorner of Graillat, Langlois and Louvet) for
+     * a[0] + a[1] x + ... + a[n] x^n.
+     */
+    public static DoubleDouble polynomial(double[] a, double x) {
+        if (a.length == 0) {
+            return ZERO;
+        }
+
+        double s = a[a.length - 1], c = 0;
+
+        for (int i = a.length - 2; i >= 0; i--) {
+            double p = s * x;
+            double pe = Math.fma(s, x, -p);
+
+            double t = p + a[i];
+            double v = t - p;
+            double se = (p - (t - v)) + (a[i] - v);
+            s = t;
+
+            c = c * x + (pe + se);
+        }
+
+        return valueOf(s, c);
+    }
+
+    public int compareTo(DoubleDouble that) {
+        if (hi != that.hi) {
+            return hi < that.hi ? -1 : +1;
+        }
+        if (lo != that.lo) {
+            return lo < that.lo ? -1 : +1;
+        }
+        return 0;
+    }
+
+    public int compareTo(Object o) {
+        return compareTo((DoubleDouble) o);
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DoubleDouble)) {
+            return false;
+        }
+
+        DoubleDouble that = (DoubleDouble) o;
+        return Double.doubleToLongBits(hi) == Double.doubleToLongBits(that.hi)
+                && Double.doubleToLongBits(lo) == Double.doubleToLongBits(that.lo);
+    }
+
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(hi) * 31 + Double.doubleToLongBits(lo);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    public String toString() {
+        return hi + " + " + lo;
+    }
+
+}
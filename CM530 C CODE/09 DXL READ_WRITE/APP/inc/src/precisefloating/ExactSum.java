@@ -0,0 +1,322 @@
+package precisefloating;
+
+import precisefloating.directedrounding.RoundingMode;
+
+import java.math.BigInteger;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact sum of doubles, rounded only once, when it is read. Every double is a multiple of
+ * 2^-1074 below 2^1024, so the sum is kept as one fixed point number of 68 chunks of 32 bits
+ * (a superaccumulator): a double goes to at most 3 chunks, which are plain long additions, and
+ * the carries are propagated only every 2^30 additions and on reading.
+ * <p>
+ * Two sums of disjoint parts can be merged, in any order, which gives the same result as a
+ * single sum; so chunks of an array can be summed by fork-join tasks (see task), and a
+ * DoubleStream by collect(ExactSum::new, ExactSum::add, ExactSum::merge).
+ * <p>
+ * As with the IEEE 754 addition, NaN or both infinities give NaN, an infinity gives that
+ * infinity, and an exact zero is -0 when all the terms are -0, or when rounding towards
+ * negative infinity, and +0 otherwise.
+ * Not safe for use in concurrent threads when any of them writes.
+ */
+public class ExactSum implements Cloneable {
+
+    private static final int CHUNK_BITS = 32;
+    private static final long CHUNK_MASK = 0xFFFFFFFFL;
+    private static final int CHUNKS = 68;
+
+    /** Each chunk is below 2^62 in absolute value as long as count stays below this. */
+    private static final int MAX_COUNT = 1 << 30;
+
+    /** chunks[i] is the coefficient of 2^(32 i - 1074). */
+    private long[] chunks = new long[CHUNKS];
+    private int count;
+    private int nanCount, positiveInfinityCount, negativeInfinityCount;
+    private boolean empty = true, allNegativeZero = true;
+
+    public ExactSum() {
+    }
+
+    public ExactSum(double[] x) {
+        add(x, 0, x.length);
+    }
+
+    public void add(double x) {
+        empty = false;
+        long bits = Double.doubleToRawLongBits(x);
+        int biasedExponent = (int) (bits >>> 52) & 0x7FF;
+
+        if (biasedExponent == 0x7FF) {
+            addSpecial(x);
+            return;
+        }
+
+        long mantissa = bits & Formulas.DOUBLE_MAX_SUBNORMAL_BITS;
+        int position;
+
+        if (biasedExponent == 0) {
+            if (mantissa == 0) {
+                allNegativeZero &= bits < 0;
+                return;
+            }
+            position = 0;
+        } else {
+            mantissa |= Formulas.DOUBLE_MIN_NORMAL_BITS;
+            position = biasedExponent - 1;
+        }
+        allNegativeZero = false;
+
+        if (count == MAX_COUNT) {
+            normalize(chunks);
+            count = 0;
+        }
+        count++;
+
+        int index = position >>> 5, offset = position & (CHUNK_BITS - 1);
+        long low = (mantissa << offset) & CHUNK_MASK;
+        // two steps, for offset == 0
+        long high = (mantissa >>> (CHUNK_BITS - 1 - offset)) >>> 1;
+
+        if (bits < 0) {
+            chunks[index] -= low;
+            chunks[index + 1] -= high & CHUNK_MASK;
+            chunks[index + 2] -= high >>> CHUNK_BITS;
+        } else {
+            chunks[index] += low;
+            chunks[index + 1] += high & CHUNK_MASK;
+            chunks[index + 2] += high >>> CHUNK_BITS;
+        }
+    }
+
+    public void add(double[] x, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            add(x[i]);
+        }
+    }
+
+    private void addSpecial(double x) {
+        allNegativeZero = false;
+
+        if (x != x) {
+            nanCount++;
+        } else if (x > 0) {
+            positiveInfinityCount++;
+        } else {
+            negativeInfinityCount++;
+        }
+    }
+
+    /**
+     * Adds the terms of that to this sum; that is not changed.
+     */
+    public void merge(ExactSum that) {
+        normalize(chunks);
+        long[] thatChunks = that.chunks.clone();
+        normalize(thatChunks);
+
+        for (int i = 0; i < CHUNKS; i++) {
+            chunks[i] += thatChunks[i];
+        }
+        count = 2;
+
+        nanCount += that.nanCount;
+        positiveInfinityCount += that.positiveInfinityCount;
+        negativeInfinityCount += that.negativeInfinityCount;
+        empty &= that.empty;
+        allNegativeZero &= that.allNegativeZero;
+    }
+
+    /**
+     * Propagates the carries: all the chunks but the last one end up in [0, 2^32).
+     */
+    private static void normalize(long[] c) {
+        long carry = 0;
+
+        for (int i = 0; i < CHUNKS - 1; i++) {
+            long x = c[i] + carry;
+            c[i] = x & CHUNK_MASK;
+            carry = x >> CHUNK_BITS;
+        }
+
+        c[CHUNKS - 1] += carry;
+    }
+
+    /**
+     * The sign of the exact sum of the finite terms.
+     */
+    private int signum(long[] normalized) {
+        for (int i = CHUNKS - 1; i >= 0; i--) {
+            if (normalized[i] != 0) {
+                return normalized[i] > 0 ? +1 : -1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * The normalized absolute value of the exact sum of the finite terms, and its sign.
+     */
+    private int magnitude(long[] c) {
+        System.arraycopy(chunks, 0, c, 0, CHUNKS);
+        normalize(c);
+        int signum = signum(c);
+
+        if (signum < 0) {
+            for (int i = 0; i < CHUNKS; i++) {
+                c[i] = -c[i];
+            }
+            normalize(c);
+        }
+
+        return signum;
+    }
+
+    /**
+     * The exact sum of the finite terms.
+     */
+    public Rational rationalValue() {
+        long[] c = new long[CHUNKS];
+        int signum = magnitude(c);
+        BigInteger numerator = BigInteger.ZERO;
+
+        for (int i = CHUNKS - 1; i >= 0; i--) {
+            numerator = numerator.shiftLeft(CHUNK_BITS).add(BigInteger.valueOf(c[i]));
+        }
+
+        if (signum < 0) {
+            numerator = numerator.negate();
+        }
+
+        return Rational.create(numerator, BigInteger.ONE.shiftLeft(-Formulas.DOUBLE_MIN_TWO_EXPONENT));
+    }
+
+    public double doubleValue() {
+        return doubleValue(RoundingMode.ROUND_HALF_EVEN);
+    }
+
+    /**
+     * The exact sum rounded once in the given mode.
+     */
+    public double doubleValue(RoundingMode mode) {
+        if (nanCount > 0 || positiveInfinityCount > 0 && negativeInfinityCount > 0) {
+            return Double.NaN;
+        }
+        if (positiveInfinityCount > 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (negativeInfinityCount > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        long[] c = new long[CHUNKS];
+        int signum = magnitude(c);
+
+        if (signum == 0) {
+            return !empty && allNegativeZero || mode == RoundingMode.ROUND_FLOOR ? -0.0 : 0.0;
+        }
+
+        int top = CHUNKS - 1;
+        while (c[top] == 0) {
+            top--;
+        }
+        int bitLength = CHUNK_BITS * top + 64 - Long.numberOfLeadingZeros(c[top]);
+
+        if (bitLength <= Formulas.N_DOUBLE) {
+            // a multiple of Double.MIN_VALUE below 2^53 of them is exact
+            return signum * Math.scalb((double) bits(c, 0, bitLength), Formulas.DOUBLE_MIN_TWO_EXPONENT);
+        }
+
+        int shift = bitLength - Formulas.N_DOUBLE;
+        long mantissa = bits(c, shift, Formulas.N_DOUBLE);
+        boolean half = bits(c, shift - 1, 1) != 0;
+        boolean sticky = isNonZero(c, shift - 1);
+
+        boolean away = mode != RoundingMode.ROUND_HALF_EVEN
+                && (mode == RoundingMode.ROUND_CEILING) == (signum > 0);
+        boolean up;
+
+        if (mode == RoundingMode.ROUND_HALF_EVEN) {
+            up = half && (sticky || (mantissa & 1) != 0);
+        } else {
+            up = away && (half || sticky);
+        }
+
+        if (up) {
+            mantissa++;
+        }
+
+        double result = Math.scalb((double) mantissa, shift + Formulas.DOUBLE_MIN_TWO_EXPONENT);
+
+        if (result == Double.POSITIVE_INFINITY && mode != RoundingMode.ROUND_HALF_EVEN && !away) {
+            // rounded towards zero
+            result = Double.MAX_VALUE;
+        }
+
+        return signum * result;
+    }
+
+    /**
+     * The count bits, count < 64, of the magnitude c from the given position on.
+     */
+    private static long bits(long[] c, int from, int count) {
+        long result = 0;
+
+        for (int i = count - 1; i >= 0; i--) {
+            int position = from + i;
+            result = (result << 1) | ((c[position >>> 5] >>> (position & (CHUNK_BITS - 1))) & 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Whether any of the bits of the magnitude c below the given position is set.
+     */
+    private static boolean isNonZero(long[] c, int position) {
+        int index = position >>> 5;
+
+        for (int i = 0; i < index; i++) {
+            if (c[i] != 0) {
+                return true;
+            }
+        }
+
+        return (c[index] & ((1L << (position & (CHUNK_BITS - 1))) - 1)) != 0;
+    }
+
+    public Object clone() {
+        try {
+            ExactSum clone = (ExactSum) super.clone();
+            clone.chunks = chunks.clone();
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e.toString());
+        }
+    }
+
+    /**
+     * A fork-join task that sums x[start], ... x[start + length - 1], split in halves down to
+     * threshold elements; its result is an ExactSum.
+     */
+    public static RecursiveTask task(final double[] x, final int start, final int length, final int threshold) {
+        return new RecursiveTask() {
+            protected Object compute() {
+                if (length <= threshold) {
+                    ExactSum sum = new ExactSum();
+                    sum.add(x, start, length);
+                    return sum;
+                }
+
+                int half = length / 2;
+                RecursiveTask right = task(x, start + half, length - half, threshold);
+                right.fork();
+                ExactSum sum = (ExactSum) task(x, start, half, threshold).invoke();
+                sum.merge((ExactSum) right.join());
+                return sum;
+            }
+        };
+    }
+
+}
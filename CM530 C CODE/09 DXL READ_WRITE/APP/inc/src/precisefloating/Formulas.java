@@ -1,5 +1,7 @@
 package precisefloating;
 
+import precisefloating.directedrounding.RoundingMode;
+
 import java.math.BigInteger;
 import java.util.logging.Logger;
 import java.util.Arrays;
@@ -160,6 +162,19 @@ public class Formulas {
         return s;
     }
 
+    /**
+     * The exact sum of x, rounded once in the given mode; see ExactSum.
+     */
+    public static double exactSummation(double[] x, RoundingMode mode) {
+        return exactSummation(x, 0, x.length, mode);
+    }
+
+    public static double exactSummation(double[] x, int start, int length, RoundingMode mode) {
+        ExactSum sum = new ExactSum();
+        sum.add(x, start, length);
+        return sum.doubleValue(mode);
+    }
+
     public static double kahanSummation(float[] x) {
         return kahanSummation(x, 0, x.length);
     }
@@ -274,6 +289,7 @@ public class Formulas {
      * k = ceil(53.0 / 2.0) = 27
      * x is split as x = xh + xl where each xi is representable using
      * floor(53.0 / 2.0 ) = 26 bits of precision.
+     * The product m * x must not overflow: |x| < 2 ^ 996.
      * 
      * @param x the floating point number to be split
      * @return x = xh + xl
@@ -284,13 +300,63 @@ public class Formulas {
         return highLow;
     }
 
-    private static final double m = 2 ^ 27 + 1;
+    /**
+     * 2 ^ 27 + 1, Dekker's splitter.
+     */
+    private static final double m = 134217729.0;
 
     public static void split(double x, double[] highLow, int start) {
-        highLow[start] = (m * x) - ((m * x) - x);
+        double mx = m * x;
+        highLow[start] = mx - (mx - x);
         highLow[start + 1] = x - highLow[start];
     }
 
+    /**
+     * Knuth's TwoSum: s = fl(x + y) and the exact error e = (x + y) - s, with no condition on
+     * the order of magnitude of x and y. Exact unless an intermediate result overflows.
+     */
+    public static void twoSum(double x, double y, double[] sumError, int start) {
+        double s = x + y;
+        double yy = s - x;
+        sumError[start] = s;
+        sumError[start + 1] = (x - (s - yy)) + (y - yy);
+    }
+
+    /**
+     * Dekker's FastTwoSum, as twoSum but in 3 operations instead of 6: needs |x| >= |y|, or x = 0.
+     */
+    public static void fastTwoSum(double x, double y, double[] sumError, int start) {
+        double s = x + y;
+        sumError[start] = s;
+        sumError[start + 1] = y - (s - x);
+    }
+
+    /**
+     * p = fl(x * y) and the exact error e = x * y - p, from a fused multiply-add. The error is
+     * exact when it does not underflow: with ex and ey the exponents of x and y, ex + ey >= -970.
+     * Needs Java 9 for Math.fma.
+     */
+    public static void twoProduct(double x, double y, double[] productError, int start) {
+        double p = x * y;
+        productError[start] = p;
+        productError[start + 1] = Math.fma(x, y, -p);
+    }
+
+    /**
+     * The same as twoProduct, with Dekker's algorithm: split and 17 operations, for the platforms
+     * where Math.fma is not a single instruction. Also needs |x|, |y| < 2 ^ 996.
+     */
+    public static void twoProductDekker(double x, double y, double[] productError, int start) {
+        double p = x * y;
+
+        double mx = m * x, my = m * y;
+        double xh = mx - (mx - x), xl = x - xh;
+        double yh = my - (my - y), yl = y - yh;
+
+        productError[start] = p;
+        productError[start + 1] = xl * yl - (((p - xh * yh) - xl * yh) - xh * yl);
+    }
+
     /**
      * Computes exactly the 2 power or infinity if overflow occurs.
      * 
@@ -0,0 +1,133 @@
+package precisefloating;
+
+import java.math.BigInteger;
+
+/**
+ * Greatest common divisors for the reduction of rationals. Picks the algorithm from the size of
+ * the operands:
+ * <br>both fit in a long: the binary algorithm (Stein), only shifts and subtractions;
+ * <br>one of them fits in a long: a single BigInteger remainder brings the other one down, then
+ * as above;
+ * <br>both are longer than LEHMER_BITS: Lehmer's algorithm, which runs the Euclidean steps on
+ * the leading 62 bits in long arithmetic and applies them to the full numbers in one go;
+ * <br>otherwise BigInteger.gcd.
+ */
+public final class Gcd {
+
+    /**
+     * Below this size BigInteger.gcd, which works in place, is faster than Lehmer's algorithm
+     * written on top of immutable BigIntegers.
+     */
+    static final int LEHMER_BITS = 512;
+
+    private Gcd() {
+    }
+
+    /**
+     * Binary gcd, a >= 0 and b >= 0. gcd(0, 0) is 0.
+     */
+    public static long gcd(long a, long b) {
+        if (a == 0) {
+            return b;
+        }
+        if (b == 0) {
+            return a;
+        }
+
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+
+        // a is odd from now on
+        while (b != 0) {
+            b >>>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            b -= a;
+        }
+
+        return a << shift;
+    }
+
+    /**
+     * Always nonnegative. gcd(0, 0) is 0.
+     */
+    public static BigInteger gcd(BigInteger a, BigInteger b) {
+        a = a.abs();
+        b = b.abs();
+
+        if (a.compareTo(b) < 0) {
+            BigInteger t = a;
+            a = b;
+            b = t;
+        }
+
+        if (b.bitLength() >= LEHMER_BITS) {
+            return lehmer(a, b);
+        }
+
+        return small(a, b);
+    }
+
+    /**
+     * a >= b >= 0.
+     */
+    private static BigInteger small(BigInteger a, BigInteger b) {
+        if (b.bitLength() < 63) {
+            long y = b.longValue();
+            if (y == 0) {
+                return a;
+            }
+            long x = a.bitLength() < 63 ? a.longValue() : a.mod(b).longValue();
+            return BigInteger.valueOf(gcd(x, y));
+        }
+
+        return a.gcd(b);
+    }
+
+    /**
+     * a >= b >= 0. Knuth, TAOCP vol. 2, 4.5.2, Algorithm L, with 62 bit leading digits so that
+     * the cofactors and the single precision quotients never overflow.
+     */
+    private static BigInteger lehmer(BigInteger a, BigInteger b) {
+        while (b.bitLength() >= LEHMER_BITS) {
+            int shift = a.bitLength() - 62;
+            long x = a.shiftRight(shift).longValue(), y = b.shiftRight(shift).longValue();
+            long p = 1, q = 0, r = 0, s = 1;
+
+            // (x + p) / (y + r) and (x + q) / (y + s) bracket the true quotient
+            while (y + r != 0 && y + s != 0) {
+                long quotient = (x + p) / (y + r);
+                if (quotient != (x + q) / (y + s)) {
+                    break;
+                }
+
+                long t = p - quotient * r;
+                p = r;
+                r = t;
+                t = q - quotient * s;
+                q = s;
+                s = t;
+                t = x - quotient * y;
+                x = y;
+                y = t;
+            }
+
+            if (q == 0) {
+                // the leading digits could not decide a single step, a full division is needed
+                BigInteger remainder = a.mod(b);
+                a = b;
+                b = remainder;
+            } else {
+                BigInteger newA = a.multiply(BigInteger.valueOf(p)).add(b.multiply(BigInteger.valueOf(q)));
+                b = a.multiply(BigInteger.valueOf(r)).add(b.multiply(BigInteger.valueOf(s)));
+                a = newA;
+            }
+        }
+
+        return small(a, b);
+    }
+
+}
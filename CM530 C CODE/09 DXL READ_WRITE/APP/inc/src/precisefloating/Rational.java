@@ -10,21 +10,45 @@ import java.math.BigInteger;
 import java.util.Random;
 
 /**
- * Immutable and thread safe class. Reduced rationals usually have better performance.
+ * Immutable and thread safe class, also when an instance is shared between threads without
+ * synchronization. Reduced rationals usually have better performance.
  * If the numerator is zero, than the denominator has the value one. The denominator is always
  * positive. If one tries to use a denominator equal to zero, the methods of this class
  * throw DivideByZeroException. Otherwise, getNumerator() and getDenonimator() return whatever
  * values were passed in the constructor.
  * <pre>Implementation note:
- * <br>The number methods are synchronized.
+ * <br>Thread safety: the value is held in final fields. Everything else (the gcd, the reduced
+ * form, the inverse, floor and so on) is memoized with the racy single-check idiom: the result is
+ * computed into a local variable, completed, and only then stored into a plain field. The values
+ * stored are immutable, so a thread that reads such a field sees either null, and computes the
+ * same value again, or a complete value. No method takes a lock except those inherited from
+ * DirectedNumber on the first conversion in a rounding direction.
+ * <br>When both the numerator and the denominator fit in a long, they are kept as longs and
+ * the BigInteger values are only created on demand. Arithmetic between two such rationals is
+ * done in long arithmetic when the operands are short enough for it not to overflow, and
+ * with BigInteger otherwise.
+ * <br>Reduction is deferred: comparisons work on the cross products, and a fraction is only
+ * brought to lowest terms when asked to (reduced(), the reduce flag, hashCode()) or when a sum or
+ * product built without the reduce flag doubles the bit length of its denominator past
+ * REDUCTION_BITS. Results that are known to be in lowest terms (reduced sums and products,
+ * createReduced) are marked as such, so that a later reduced() costs nothing. The gcd
+ * algorithm is chosen by Gcd from the size of the operands.
  * 
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
 public class Rational extends DirectedNumber implements SignAware, Cloneable, Comparable {
 
+    /** Null for the rationals created from longs, see getNumerator(). */
     private final BigInteger numerator;
     private final BigInteger denominator;
 
+    /** True when the value is also held in smallNumerator/smallDenominator. */
+    private final boolean small;
+    private final long smallNumerator, smallDenominator;
+
+    /** numerator and denominator of the small rationals that were created from longs */
+    private BigInteger bigNumerator, bigDenominator;
+
     private BigInteger gcd;
 
     /** More instances of ZERO may exist, but none of them has a nonzero signum. */
@@ -135,7 +159,7 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
 
     public int hashCode() {
         if (isReduced()) {
-            return numerator.hashCode() ^ denominator.hashCode();
+            return getNumerator().hashCode() ^ getDenominator().hashCode();
         } else {
             return reduced().hashCode();
         }
@@ -155,13 +179,14 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         }
 
         Rational that = (Rational) obj;
-
-        Rational reducedThis = reduced(), reducedThat = that.reduced();
-        return reducedThis.numerator.equals(reducedThat.numerator)
-                && reducedThis.denominator.equals(reducedThat.denominator);
+        return compareTo(that) == 0;
     }
 
     public String toString() {
+        if (small) {
+            return smallNumerator + "/" + smallDenominator;
+        }
+
         return numerator + "/" + denominator;
     }
 
@@ -201,19 +226,83 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         this.numerator = numerator;
         this.denominator = denominator;
 
+        small = fitsLong(numerator) && fitsLong(denominator);
+        smallNumerator = small ? numerator.longValue() : 0;
+        smallDenominator = small ? denominator.longValue() : 0;
+
         assert denominator.signum() == 1;
     }
 
+    /**
+     * Neither value may be Long.MIN_VALUE, so that the sign can always be moved to the numerator.
+     */
+    private Rational(long numerator, long denominator) {
+        super(RoundingMode.ROUND_HALF_EVEN);
+
+        assert numerator != Long.MIN_VALUE && denominator != Long.MIN_VALUE;
+
+        if (denominator == 0) {
+            throw new DivideByZeroException("denominator must be non zero");
+        }
+
+        if (numerator == 0) {
+            if (denominator != 1) {
+                throw new IllegalArgumentException("zero has a unique representation: 0/1");
+            }
+        }
+
+        if (denominator < 0) {
+            numerator = -numerator;
+            denominator = -denominator;
+        }
+
+        this.numerator = null;
+        this.denominator = null;
+
+        small = true;
+        smallNumerator = numerator;
+        smallDenominator = denominator;
+    }
+
+    /**
+     * True when |x * y| < 2 ^ 62, so that the product, and the sum of two such products, fit in
+     * a long. Tested on the bit lengths up front rather than by catching the overflow of
+     * Math.multiplyExact: an exception costs microseconds, and overflow is the common case for
+     * operands of more than about 31 bits.
+     */
+    private static boolean productFits(long x, long y) {
+        return Long.numberOfLeadingZeros(Math.abs(x)) + Long.numberOfLeadingZeros(Math.abs(y)) >= 66;
+    }
+
+    /**
+     * Long.MIN_VALUE is left out on purpose, see Rational(long, long).
+     */
+    private static boolean fitsLong(BigInteger x) {
+        return x.bitLength() < 64 && x.longValue() != Long.MIN_VALUE;
+    }
+
     public static Rational valueOf(long numerator) {
-        return create(numerator, 1);
+        return markReduced(create(numerator, 1));
     }
 
     public static Rational valueOf(BigInteger numerator) {
-        return create(numerator, BigInteger.ONE);
+        return markReduced(create(numerator, BigInteger.ONE));
     }
 
     public static Rational create(long numerator, long denominator) {
-        return create(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+        if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE) {
+            return create(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+        }
+
+        if (numerator == 0) {
+            if (denominator == 0) {
+                throw new DivideByZeroException("denominator must be non zero");
+            } else {
+                return Rational.ZERO;
+            }
+        }
+
+        return new Rational(numerator, denominator);
     }
 
     public static Rational create(BigInteger numerator, BigInteger denominator) {
@@ -228,51 +317,132 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         return new Rational(numerator, denominator);
     }
 
+    /**
+     * For fractions that the caller knows to be in lowest terms, such as the convergents of a
+     * continued fraction: no gcd is ever computed for the result. The claim is only checked when
+     * assertions are enabled.
+     */
+    public static Rational createReduced(BigInteger numerator, BigInteger denominator) {
+        Rational r = markReduced(create(numerator, denominator));
+        assert Gcd.gcd(numerator, denominator).equals(BigInteger.ONE) : r + " is not reduced";
+        return r;
+    }
+
+    private static Rational markReduced(Rational r) {
+        r.gcd = BigInteger.ONE;
+        r.reduced = r;
+        return r;
+    }
+
+    /**
+     * Sums and products computed without the reduce flag are reduced when the bit length of the
+     * denominator crosses REDUCTION_BITS, 2 * REDUCTION_BITS, 4 * REDUCTION_BITS and so on,
+     * which keeps long chains of operations from growing without bound while spending at most
+     * one gcd per doubling.
+     */
+    static final int REDUCTION_BITS = 4096;
+
+    private static int reductionLevel(int denominatorBits) {
+        return 32 - Integer.numberOfLeadingZeros(denominatorBits / REDUCTION_BITS);
+    }
+
+    private Rational deferredReduction(Rational a, Rational b) {
+        int bits = getDenominator().bitLength();
+        if (bits >= REDUCTION_BITS && reductionLevel(bits) > reductionLevel(
+                Math.max(a.getDenominator().bitLength(), b.getDenominator().bitLength()))) {
+            return reduced();
+        }
+
+        return this;
+    }
+
+    /**
+     * Created on first use for the rationals kept as longs. Racing threads may create equal
+     * instances; either one is a correct value.
+     */
     public BigInteger getNumerator() {
-        return numerator;
+        if (numerator != null) {
+            return numerator;
+        }
+
+        BigInteger n = bigNumerator;
+        if (n == null) {
+            n = BigInteger.valueOf(smallNumerator);
+            bigNumerator = n;
+        }
+
+        return n;
     }
 
     public BigInteger getDenominator() {
-        return denominator;
+        if (denominator != null) {
+            return denominator;
+        }
+
+        BigInteger d = bigDenominator;
+        if (d == null) {
+            d = BigInteger.valueOf(smallDenominator);
+            bigDenominator = d;
+        }
+
+        return d;
     }
 
     /**
      * Is this fraction in lowest terms ?
      */
     public boolean isReduced() {
-        if (gcd == null) {
-            gcd = numerator.gcd(denominator);
+        return gcd().equals(BigInteger.ONE);
+    }
+
+    private BigInteger gcd() {
+        BigInteger g = gcd;
+        if (g == null) {
+            if (small) {
+                g = BigInteger.valueOf(Gcd.gcd(Math.abs(smallNumerator), smallDenominator));
+            } else {
+                g = Gcd.gcd(numerator, denominator);
+            }
+            gcd = g;
         }
 
-        boolean isReduced = gcd.equals(BigInteger.ONE);
-        return isReduced;
+        return g;
     }
 
     private Rational reduced;
 
     public Rational reduced() {
-        if (reduced == null) {
-            if (isReduced()) {
-                reduced = this;
+        Rational r = reduced;
+        if (r == null) {
+            BigInteger g = gcd();
+            if (g.equals(BigInteger.ONE)) {
+                r = this;
             } else {
-                reduced = Rational.create(numerator.divide(gcd), denominator.divide(gcd));
-                reduced.reduced = reduced;
-                reduced.gcd = BigInteger.ONE;
-                reduced.exactDoubleValue = exactDoubleValue;
+                if (small) {
+                    long lg = g.longValue();
+                    r = Rational.create(smallNumerator / lg, smallDenominator / lg);
+                } else {
+                    r = Rational.create(numerator.divide(g), denominator.divide(g));
+                }
+                markReduced(r);
+                r.exactDoubleValue = exactDoubleValue;
             }
+            reduced = r;
         }
 
-        return reduced;
+        return r;
     }
 
     private BigInteger quotient;
 
     protected BigInteger getQuotient() {
-        if (quotient == null) {
-            quotient = numerator.divide(denominator);
+        BigInteger q = quotient;
+        if (q == null) {
+            q = getNumerator().divide(getDenominator());
+            quotient = q;
         }
 
-        return quotient;
+        return q;
     }
 
     public Rational add(Rational that) {
@@ -281,16 +451,53 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
 
     public Rational add(Rational that, boolean reduce) {
         if (!reduce) {
+            if (small && that.small && productFits(smallNumerator, that.smallDenominator)
+                    && productFits(smallDenominator, that.smallNumerator)
+                    && productFits(smallDenominator, that.smallDenominator)) {
+                return Rational.create(smallNumerator * that.smallDenominator + smallDenominator * that.smallNumerator,
+                        smallDenominator * that.smallDenominator);
+            }
+
             return Rational.create(
-                    numerator.multiply(that.denominator).add(denominator.multiply(that.numerator)),
-                    denominator.multiply(that.denominator));
+                    getNumerator().multiply(that.getDenominator()).add(getDenominator().multiply(that.getNumerator())),
+                    getDenominator().multiply(that.getDenominator())).deferredReduction(this, that);
         } else {
             Rational thisReduced = reduced(), thatReduced = that.reduced();
-            // a/b + c/exactDoubleValue
-            BigInteger a = thisReduced.numerator, b = thisReduced.denominator,
-                    c = thatReduced.numerator, d = thatReduced.denominator;
 
-            return Rational.create(a.multiply(d).add(b.multiply(c)), b.multiply(d)).reduced();
+            // a/b + c/d, Knuth, TAOCP vol. 2, 4.5.1: with g = gcd(b, d) and t = a * d/g + c * b/g,
+            // the sum in lowest terms is (t / gcd(t, g)) / (b/g * d/gcd(t, g)). Both gcds are
+            // taken on numbers smaller than the plain a * d + b * c and b * d.
+            if (thisReduced.small && thatReduced.small) {
+                long a = thisReduced.smallNumerator, b = thisReduced.smallDenominator,
+                        c = thatReduced.smallNumerator, d = thatReduced.smallDenominator;
+
+                long g = Gcd.gcd(b, d);
+                long bg = b / g, dg = d / g;
+
+                if (productFits(a, dg) && productFits(c, bg) && productFits(bg, d)) {
+                    long t = a * dg + c * bg;
+                    long tg = g == 1 ? 1 : Gcd.gcd(Math.abs(t), g);
+                    return markReduced(create(t / tg, bg * (d / tg)));
+                }
+            }
+
+            BigInteger a = thisReduced.getNumerator(), b = thisReduced.getDenominator(),
+                    c = thatReduced.getNumerator(), d = thatReduced.getDenominator();
+
+            BigInteger g = Gcd.gcd(b, d);
+            if (g.equals(BigInteger.ONE)) {
+                return markReduced(create(a.multiply(d).add(b.multiply(c)), b.multiply(d)));
+            }
+
+            BigInteger bg = b.divide(g), dg = d.divide(g);
+            BigInteger t = a.multiply(dg).add(c.multiply(bg));
+            BigInteger tg = Gcd.gcd(t, g);
+            if (!tg.equals(BigInteger.ONE)) {
+                t = t.divide(tg);
+                d = d.divide(tg);
+            }
+
+            return markReduced(create(t, bg.multiply(d)));
         }
     }
 
@@ -308,27 +515,50 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
 
     public Rational multiply(Rational that, boolean reduce) {
         if (!reduce) {
-            return Rational.create(numerator.multiply(that.numerator),
-                    denominator.multiply(that.denominator));
+            if (small && that.small && productFits(smallNumerator, that.smallNumerator)
+                    && productFits(smallDenominator, that.smallDenominator)) {
+                return Rational.create(smallNumerator * that.smallNumerator, smallDenominator * that.smallDenominator);
+            }
+
+            return Rational.create(getNumerator().multiply(that.getNumerator()),
+                    getDenominator().multiply(that.getDenominator())).deferredReduction(this, that);
         } else {
             Rational thisReduced = reduced(), thatReduced = that.reduced();
+
+            if (thisReduced.small && thatReduced.small) {
+                // a/b * c/d
+                long a = thisReduced.smallNumerator, b = thisReduced.smallDenominator,
+                        c = thatReduced.smallNumerator, d = thatReduced.smallDenominator;
+
+                long adGcd = Gcd.gcd(Math.abs(a), d);
+                long bcGcd = Gcd.gcd(b, Math.abs(c));
+                a /= adGcd;
+                d /= adGcd;
+                b /= bcGcd;
+                c /= bcGcd;
+
+                if (productFits(a, c) && productFits(b, d)) {
+                    return markReduced(create(a * c, b * d));
+                }
+            }
+
             // a/b * c/d
-            BigInteger a = thisReduced.numerator, b = thisReduced.denominator,
-                    c = thatReduced.numerator, d = thatReduced.denominator;
+            BigInteger a = thisReduced.getNumerator(), b = thisReduced.getDenominator(),
+                    c = thatReduced.getNumerator(), d = thatReduced.getDenominator();
 
-            BigInteger adGcd = a.gcd(d);
+            BigInteger adGcd = Gcd.gcd(a, d);
             if (!adGcd.equals(BigInteger.ONE)) {
                 a = a.divide(adGcd);
                 d = d.divide(adGcd);
             }
 
-            BigInteger bcGcd = b.gcd(c);
+            BigInteger bcGcd = Gcd.gcd(b, c);
             if (!bcGcd.equals(BigInteger.ONE)) {
                 b = b.divide(bcGcd);
                 c = c.divide(bcGcd);
             }
 
-            return create(a.multiply(c), b.multiply(d));
+            return markReduced(create(a.multiply(c), b.multiply(d)));
         }
     }
 
@@ -348,8 +578,7 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         if (!reduce) {
             square = multiply(this);
         } else {
-            square = Rational.create(reduced().numerator.multiply(reduced().numerator),
-                    reduced().denominator.multiply(reduced().denominator));
+            square = reduced().multiply(reduced());
         }
 
         assert square.signum() >= 0;
@@ -384,19 +613,19 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         } else {
             if (exponent < 0) {
                 if (!reduce) {
-                    power = Rational.create(denominator.pow(-exponent), numerator.pow(-exponent));
+                    power = Rational.create(getDenominator().pow(-exponent), getNumerator().pow(-exponent));
                 } else {
-                    power = Rational.create(reduced().denominator.pow(-exponent),
-                            reduced().numerator.pow(-exponent));
+                    power = Rational.create(reduced().getDenominator().pow(-exponent),
+                            reduced().getNumerator().pow(-exponent));
                 }
             } else {
                 assert exponent > 0;
 
                 if (!reduce) {
-                    power = Rational.create(numerator.pow(exponent), denominator.pow(exponent));
+                    power = Rational.create(getNumerator().pow(exponent), getDenominator().pow(exponent));
                 } else {
-                    power = Rational.create(reduced().numerator.pow(exponent),
-                            reduced().denominator.pow(exponent));
+                    power = Rational.create(reduced().getNumerator().pow(exponent),
+                            reduced().getDenominator().pow(exponent));
                 }
             }
         }
@@ -415,31 +644,45 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
     private Rational inverse;
 
     public Rational inverse() {
-        if (inverse == null) {
-            inverse = Rational.create(denominator, numerator);
-            inverse.inverse = this;
+        Rational i = inverse;
+        if (i == null) {
+            if (small) {
+                i = Rational.create(smallDenominator, smallNumerator);
+            } else {
+                i = Rational.create(denominator, numerator);
+            }
+            i.inverse = this;
 
-            if (negate != null && negate.inverse != null) {
-                inverse.negate = negate.inverse;
+            Rational n = negate;
+            if (n != null && n.inverse != null) {
+                i.negate = n.inverse;
             }
+            inverse = i;
         }
 
-        return inverse;
+        return i;
     }
 
     private Rational negate;
 
     public Rational negate() {
-        if (negate == null) {
-            negate = Rational.create(numerator.negate(), denominator);
-            negate.negate = this;
+        Rational n = negate;
+        if (n == null) {
+            if (small) {
+                n = Rational.create(-smallNumerator, smallDenominator);
+            } else {
+                n = Rational.create(numerator.negate(), denominator);
+            }
+            n.negate = this;
 
-            if (inverse != null && inverse.negate != null) {
-                negate.inverse = inverse.negate;
+            Rational i = inverse;
+            if (i != null && i.negate != null) {
+                n.inverse = i.negate;
             }
+            negate = n;
         }
 
-        return negate;
+        return n;
     }
 
     /**
@@ -448,6 +691,10 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @return -1, 0 or 1 as the value of this Rational is negative, zero or positive.
      */
     public int signum() {
+        if (small) {
+            return smallNumerator > 0 ? 1 : (smallNumerator < 0 ? -1 : 0);
+        }
+
         return numerator.signum();
     }
 
@@ -459,6 +706,13 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      *         to, or greater than <tt>val</tt>.
      */
     public int compareTo(Rational that) {
+        if (small && that.small && productFits(smallNumerator, that.smallDenominator)
+                && productFits(that.smallNumerator, smallDenominator)) {
+            long left = smallNumerator * that.smallDenominator;
+            long right = that.smallNumerator * smallDenominator;
+            return left < right ? -1 : (left == right ? 0 : +1);
+        }
+
         if (signum() < that.signum()) {
             return -1;
         } else {
@@ -467,19 +721,30 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
             } else {
                 assert signum() == that.signum();
 
-                if (this.equals(that)) {
+                if (signum() == 0) {
                     return 0;
-                } else {
-                    assert signum() != 0 && that.signum() != 0;
-                    Rational division = divide(that, true);
-                    assert division.signum() == +1;
-                    return division.numerator.compareTo(division.denominator) * signum();
                 }
+
+                if (isKnownReduced() && that.isKnownReduced()) {
+                    // lowest terms are unique
+                    if (getDenominator().equals(that.getDenominator())
+                            && getNumerator().equals(that.getNumerator())) {
+                        return 0;
+                    }
+                }
+
+                // the denominators are positive
+                return getNumerator().multiply(that.getDenominator())
+                        .compareTo(that.getNumerator().multiply(getDenominator()));
             }
         }
 
     }
 
+    private boolean isKnownReduced() {
+        return gcd != null && gcd.equals(BigInteger.ONE);
+    }
+
     public Rational abs() {
         if (signum() >= 0) {
             return this;
@@ -496,11 +761,13 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
     private BigInteger numeratorModDenominator;
 
     public BigInteger numeratorModDenominator() {
-        if (numeratorModDenominator == null) {
-            numeratorModDenominator = numerator.mod(denominator);
+        BigInteger m = numeratorModDenominator;
+        if (m == null) {
+            m = getNumerator().mod(getDenominator());
+            numeratorModDenominator = m;
         }
 
-        return numeratorModDenominator;
+        return m;
     }
 
     private BigInteger floor;
@@ -511,25 +778,27 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @link http://mathworld.wolfram.com/FloorFunction.html
      */
     public BigInteger floor() {
-        if (floor == null) {
-            BigInteger[] divRem = numerator.divideAndRemainder(denominator);
+        BigInteger f = floor;
+        if (f == null) {
+            BigInteger[] divRem = getNumerator().divideAndRemainder(getDenominator());
 
             if (divRem[1].signum() == 0) {
-                floor = ceil = divRem[0];
+                f = ceil = divRem[0];
             } else {
                 // truncation
-                if (numerator.signum() == +1) {
-                    floor = divRem[0];
+                if (signum() == +1) {
+                    f = divRem[0];
                     // ceil = floor.add(BigInteger.ONE);
                 } else {
-                    assert numerator.signum() == -1;
+                    assert signum() == -1;
                     ceil = divRem[0];
-                    floor = ceil.subtract(BigInteger.ONE);
+                    f = divRem[0].subtract(BigInteger.ONE);
                 }
             }
+            floor = f;
         }
 
-        return floor;
+        return f;
     }
 
     private Rational inverseFractionalValue;
@@ -538,14 +807,16 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @throws IllegalStateException when <code>numerator.mod(denominator)</code> is zero
      */
     public Rational inverseFractionalValue() {
-        if (inverseFractionalValue == null) {
+        Rational r = inverseFractionalValue;
+        if (r == null) {
             if (numeratorModDenominator().signum() == 0) {
                 throw new DivideByZeroException("numerator.mod(denominator) is zero");
             }
-            inverseFractionalValue = Rational.create(denominator, numeratorModDenominator());
+            r = Rational.create(getDenominator(), numeratorModDenominator());
+            inverseFractionalValue = r;
         }
 
-        return inverseFractionalValue;
+        return r;
     }
 
     private Rational fractionalValue;
@@ -555,12 +826,14 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @link http://mathworld.wolfram.com/FloorFunction.html
      */
     public Rational fractionalValue() {
-        if (fractionalValue == null) {
-            fractionalValue = Rational.create(numeratorModDenominator(), denominator);
-            fractionalValue.fractionalValue = fractionalValue;
+        Rational r = fractionalValue;
+        if (r == null) {
+            r = Rational.create(numeratorModDenominator(), getDenominator());
+            r.fractionalValue = r;
+            fractionalValue = r;
         }
 
-        return fractionalValue;
+        return r;
     }
 
     private Rational fractionalPart;
@@ -572,21 +845,21 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @link http://mathworld.wolfram.com/FractionalPart.html
      */
     public Rational fractionalPart() {
-        if (fractionalPart == null) {
+        Rational p = fractionalPart;
+        if (p == null) {
             if (this.equals(Rational.ZERO)) {
-                fractionalPart = Rational.ZERO;
+                p = Rational.ZERO;
             } else {
                 assert signum() != 0;
-                Rational p = abs().fractionalValue();
+                p = abs().fractionalValue();
                 if (signum() == -1) {
                     p = p.negate();
                 }
-                fractionalPart = p;
             }
-
+            fractionalPart = p;
         }
 
-        return fractionalPart;
+        return p;
     }
 
     private BigInteger integerPart;
@@ -597,15 +870,17 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @link http://mathworld.wolfram.com/IntegerPart.html
      */
     public BigInteger integerPart() {
-        if (integerPart == null) {
+        BigInteger i = integerPart;
+        if (i == null) {
             if (signum() >= 0) {
-                integerPart = floor();
+                i = floor();
             } else {
-                integerPart = ceil();
+                i = ceil();
             }
+            integerPart = i;
         }
 
-        return integerPart;
+        return i;
     }
 
     private BigInteger ceil;
@@ -614,15 +889,17 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * @link http://mathworld.wolfram.com/CeilingFunction.html
      */
     public BigInteger ceil() {
-        if (ceil == null) {
+        BigInteger c = ceil;
+        if (c == null) {
             if (numeratorModDenominator().signum() == 0) {
-                ceil = floor();
+                c = floor();
             } else {
-                ceil = floor().add(BigInteger.ONE);
+                c = floor().add(BigInteger.ONE);
             }
+            ceil = c;
         }
 
-        return ceil;
+        return c;
     }
 
     public ContinuedFraction expansion() {
@@ -646,12 +923,13 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
     }
 
     public boolean isFloorEqualTo(BigInteger fl) {
-        if (floor != null) {
-            return floor.equals(fl);
+        BigInteger f = floor;
+        if (f != null) {
+            return f.equals(fl);
         } else {
-            BigInteger fld = denominator.multiply(fl);
+            BigInteger fld = getDenominator().multiply(fl);
 
-            if (fld.compareTo(numerator) <= 0 && numerator.subtract(fld).compareTo(denominator) < 0) {
+            if (fld.compareTo(getNumerator()) <= 0 && getNumerator().subtract(fld).compareTo(getDenominator()) < 0) {
                 floor = fl;
                 return true;
             } else {
@@ -660,8 +938,13 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         }
     }
 
-    private int log2Low = Integer.MAX_VALUE, log2High = Integer.MIN_VALUE;
-    private boolean log2Computed;
+    private static final int LOG2_UNKNOWN = Integer.MIN_VALUE;
+
+    /**
+     * 2 * log2Low() + (log2High() - log2Low()), or LOG2_UNKNOWN. One int, so that it is always
+     * read and written as a whole.
+     */
+    private int log2 = LOG2_UNKNOWN;
 
     /**
      * If this rational is an exact two power (this = pow2(n)), then a[0] = a[1] = n. Otherwise,
@@ -670,63 +953,80 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      * Safe for use in concurrent threads.
      */
     public void log2Interval(int[] a) {
+        int l = log2();
+        a[0] = l >> 1;
+        a[1] = (l >> 1) + (l & 1);
+    }
+
+    /**
+     * a[0] of log2Interval(a), without the array.
+     */
+    int log2Low() {
+        return log2() >> 1;
+    }
+
+    /**
+     * a[1] of log2Interval(a).
+     */
+    int log2High() {
+        int l = log2();
+        return (l >> 1) + (l & 1);
+    }
+
+    private int log2() {
         if (signum() <= 0) {
             throw new ArithmeticException("log2(x) only for x > 0");
         }
 
-        if (!log2Computed) {
-            synchronized (this) {
-                if (!log2Computed) {
-                    // could be cached
-                    int cmp = numerator.compareTo(denominator);
-
-                    int shcmp;
-
-                    switch (cmp) {
-                        case -1:
-                            BigInteger shiftedNumerator = numerator.shiftLeft(
-                                    denominator.bitLength() - numerator.bitLength());
-                            shcmp = shiftedNumerator.compareTo(denominator);
-                            break;
-                        case 0:
-                            shcmp = 0;
-                            assert numerator.bitLength() == denominator.bitLength();
-                            break;
-                        case +1:
-                            BigInteger shiftedDenominator = denominator.shiftLeft(
-                                    numerator.bitLength() - denominator.bitLength());
-                            shcmp = numerator.compareTo(shiftedDenominator);
-                            break;
-                        default:
-                            throw new InternalError("cmp = " + cmp);
-                    }
-
-                    int bitLengthDiff = numerator.bitLength() - denominator.bitLength();
-
-                    switch (shcmp) {
-                        case -1:
-                            log2Low = bitLengthDiff - 1;
-                            log2High = bitLengthDiff;
-                            break;
-                        case 0:
-                            log2Low = log2High = bitLengthDiff;
-                            break;
-                        case +1:
-                            log2Low = bitLengthDiff;
-                            log2High = bitLengthDiff + 1;
-                            break;
-                        default:
-                            throw new InternalError("shcmp = " + shcmp);
-                    }
+        int l = log2;
+        if (l == LOG2_UNKNOWN) {
+            BigInteger numerator = getNumerator(), denominator = getDenominator();
+            // could be cached
+            int cmp = numerator.compareTo(denominator);
+
+            int shcmp;
+
+            switch (cmp) {
+                case -1:
+                    BigInteger shiftedNumerator = numerator.shiftLeft(
+                            denominator.bitLength() - numerator.bitLength());
+                    shcmp = shiftedNumerator.compareTo(denominator);
+                    break;
+                case 0:
+                    shcmp = 0;
+                    assert numerator.bitLength() == denominator.bitLength();
+                    break;
+                case +1:
+                    BigInteger shiftedDenominator = denominator.shiftLeft(
+                            numerator.bitLength() - denominator.bitLength());
+                    shcmp = numerator.compareTo(shiftedDenominator);
+                    break;
+                default:
+                    throw new InternalError("cmp = " + cmp);
+            }
 
-                    assert log2Low <= log2High;
-                    log2Computed = true;
-                }
+            int bitLengthDiff = numerator.bitLength() - denominator.bitLength();
+            // far beyond any realistic size, but the packing needs it
+            assert Math.abs(bitLengthDiff) < 1 << 29;
+
+            switch (shcmp) {
+                case -1:
+                    l = 2 * (bitLengthDiff - 1) + 1;
+                    break;
+                case 0:
+                    l = 2 * bitLengthDiff;
+                    break;
+                case +1:
+                    l = 2 * bitLengthDiff + 1;
+                    break;
+                default:
+                    throw new InternalError("shcmp = " + shcmp);
             }
+
+            log2 = l;
         }
 
-        a[0] = log2Low;
-        a[1] = log2High;
+        return l;
     }
 
     /**
@@ -734,6 +1034,7 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
      */
     public Rational multiplyTwoPower(int i) {
         final Rational result;
+        BigInteger numerator = getNumerator(), denominator = getDenominator();
 
         assert denominator.getLowestSetBit() >= 0;
 
@@ -776,6 +1077,36 @@ public class Rational extends DirectedNumber implements SignAware, Cloneable, Co
         return result;
     }
 
+    /**
+     * Both values exactly representable: one correctly rounded division, corrected by one ulp for
+     * the directed modes from the sign of the exact residual q * d - n.
+     */
+    public double doubleValue(RoundingMode mode) {
+        if (small && Math.abs(smallNumerator) <= DOUBLE_EXACT_LONG && smallDenominator <= DOUBLE_EXACT_LONG) {
+            double n = smallNumerator, d = smallDenominator;
+            double q = n / d;
+
+            if (mode == RoundingMode.ROUND_FLOOR) {
+                if (Math.fma(q, d, -n) > 0) {
+                    q = Math.nextDown(q);
+                }
+            } else if (mode == RoundingMode.ROUND_CEILING) {
+                if (Math.fma(q, d, -n) < 0) {
+                    q = Math.nextUp(q);
+                }
+            } else {
+                assert mode == RoundingMode.ROUND_HALF_EVEN;
+            }
+
+            return q;
+        }
+
+        return super.doubleValue(mode);
+    }
+
+    /** Longs up to this magnitude convert to double exactly. */
+    private static final long DOUBLE_EXACT_LONG = 1L << Formulas.N_DOUBLE;
+
     protected RoundNumberBase createRoundNumber() {
         return new RoundRational(this);
     }
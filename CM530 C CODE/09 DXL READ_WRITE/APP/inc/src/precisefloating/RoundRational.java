@@ -7,7 +7,9 @@ import java.math.BigInteger;
 import java.util.Arrays;
 
 /**
- * Not safe for use in concurrent threads. Could extend RoundNumberBase, but using RoundNumber as
+ * Not safe for use in concurrent threads; Rational only calls it under the lock of DirectedNumber,
+ * and takes the log2 interval it needs from the rational itself rather than from a shared
+ * scratch array. Could extend RoundNumberBase, but using RoundNumber as
  * the base class adds a lot of precomputed values with only about a 10% performance hit for
  * the single call scenario.
  * 
@@ -16,7 +18,6 @@ import java.util.Arrays;
 public class RoundRational extends RoundNumber {
 
     private final Rational r;
-    private final int[] intTemp = new int[2];
 
     public RoundRational(Rational r) {
         this.r = r.reduced();
@@ -56,38 +57,38 @@ public class RoundRational extends RoundNumber {
     private double positiveDoubleValue(int direction, Rational rational) {
         assert rational.signum() == +1;
 
-        rational.log2Interval(intTemp);
+        int log2Low = rational.log2Low(), log2High = rational.log2High();
 
         double d;
 
         switch (direction) {
             case 0:
-                if (intTemp[0] < Formulas.DOUBLE_MIN_TWO_EXPONENT) {
-                    assert intTemp[1] <= Formulas.DOUBLE_MIN_TWO_EXPONENT;
+                if (log2Low < Formulas.DOUBLE_MIN_TWO_EXPONENT) {
+                    assert log2High <= Formulas.DOUBLE_MIN_TWO_EXPONENT;
                     assert rational.compareTo(Rational.DOUBLE_MIN_VALUE) == -1;
                     d = +0.0;
                 } else {
                     assert rational.compareTo(Rational.DOUBLE_MIN_VALUE) >= 0;
 
-                    // quick check for the intTemp[0] > Formulas.DOUBLE_MAX_TWO_EXPONENT condition
-                    if (intTemp[0] > Formulas.DOUBLE_MAX_TWO_EXPONENT
+                    // quick check for the log2Low > Formulas.DOUBLE_MAX_TWO_EXPONENT condition
+                    if (log2Low > Formulas.DOUBLE_MAX_TWO_EXPONENT
                             || rational.compareTo(Rational.DOUBLE_MAX_VALUE) >= 0) {
                         // rational >= Double.MAX_VALUE
                         d = Double.MAX_VALUE;
                     } else {
                         // Double.MIN_VALUE <= rational < Double.MAX_VALUE
-                        assert Formulas.DOUBLE_MIN_TWO_EXPONENT <= intTemp[0]
-                                && intTemp[1] <= Formulas.DOUBLE_MAX_TWO_EXPONENT + 1;
+                        assert Formulas.DOUBLE_MIN_TWO_EXPONENT <= log2Low
+                                && log2High <= Formulas.DOUBLE_MAX_TWO_EXPONENT + 1;
                         assert rational.compareTo(Rational.DOUBLE_MAX_VALUE) == -1;
 
-                        if (intTemp[0] == intTemp[1]) {
+                        if (log2Low == log2High) {
                             // exact two power double value
-                            d = Formulas.pow2(intTemp[0]);
+                            d = Formulas.pow2(log2Low);
                         } else {
-                            // pow2(intTemp[0]) < rational < pow2(intTemp[1])
-                            assert rational.compareTo(Rational.create(Formulas.pow2(intTemp[0]))) == +1
-                                    && rational.compareTo(Rational.create(Formulas.pow2(intTemp[1]))) == -1;
-                            if (intTemp[1] <= 1 - Formulas.DOUBLE_BIAS) {
+                            // pow2(log2Low) < rational < pow2(log2High)
+                            assert rational.compareTo(Rational.create(Formulas.pow2(log2Low))) == +1
+                                    && rational.compareTo(Rational.create(Formulas.pow2(log2High))) == -1;
+                            if (log2High <= 1 - Formulas.DOUBLE_BIAS) {
                                 // the result is a subnormal number
                                 assert rational.compareTo(Rational.DOUBLE_MIN_NORMAL) == -1;
                                 /*
@@ -109,8 +110,8 @@ public class RoundRational extends RoundNumber {
                                 // Formulas.DOUBLE_MIN_NORMAL < rational < Double.MAX_VALUE
                                 // Formulas.DOUBLE_MIN_NORMAL <= result < Double.MAX_VALUE
                                 assert rational.compareTo(Rational.DOUBLE_MIN_NORMAL) == +1;
-                                // the exponent is intTemp[0]
-                                Rational shifted = rational.multiplyTwoPower(Formulas.N_DOUBLE - 1 - intTemp[0]);
+                                // the exponent is log2Low
+                                Rational shifted = rational.multiplyTwoPower(Formulas.N_DOUBLE - 1 - log2Low);
                                 BigInteger shiftedFloor = shifted.floor();
                                 assert shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_DOUBLE - 1)) >= 0
                                         && shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_DOUBLE)) == -1;
@@ -123,7 +124,7 @@ public class RoundRational extends RoundNumber {
 
                                 // exact. Do not collapse the last to factors into a single one.
                                 d = shiftedFloorAsDouble / Formulas.pow2(Formulas.N_DOUBLE - 1)
-                                        * Formulas.pow2(intTemp[0]);
+                                        * Formulas.pow2(log2Low);
 
                                 assert Formulas.DOUBLE_MIN_NORMAL <= d && d < Double.MAX_VALUE;
                             }
@@ -134,37 +135,37 @@ public class RoundRational extends RoundNumber {
 
                 break;
             case 1:
-                if (intTemp[1] <= Formulas.DOUBLE_MIN_TWO_EXPONENT - 1) {
+                if (log2High <= Formulas.DOUBLE_MIN_TWO_EXPONENT - 1) {
                     assert rational.compareTo(Rational.DOUBLE_HALF_MIN_VALUE) <= 0;
                     d = +0.0;
                 } else {
                     assert rational.compareTo(Rational.DOUBLE_HALF_MIN_VALUE) > 0;
 
-                    // quick check for the intTemp[0] > Formulas.DOUBLE_MAX_TWO_EXPONENT condition
-                    if (intTemp[0] > Formulas.DOUBLE_MAX_TWO_EXPONENT
+                    // quick check for the log2Low > Formulas.DOUBLE_MAX_TWO_EXPONENT condition
+                    if (log2Low > Formulas.DOUBLE_MAX_TWO_EXPONENT
                             || rational.compareTo(Rational.DOUBLE_MAX_NEAREST_THRESHOLD) >= 0) {
                         // rational >= Rational.DOUBLE_MAX_NEAREST_THRESHOLD
                         d = Double.POSITIVE_INFINITY;
                     } else {
                         // the result is a finite number
                         // Rational.DOUBLE_HALF_MIN_VALUE < rational < Rational.DOUBLE_MAX_NEAREST_THRESHOLD
-                        assert Formulas.DOUBLE_MIN_TWO_EXPONENT - 1 <= intTemp[0]
-                                && intTemp[1] <= Formulas.DOUBLE_MAX_TWO_EXPONENT + 1;
+                        assert Formulas.DOUBLE_MIN_TWO_EXPONENT - 1 <= log2Low
+                                && log2High <= Formulas.DOUBLE_MAX_TWO_EXPONENT + 1;
                         assert rational.compareTo(Rational.DOUBLE_MAX_NEAREST_THRESHOLD) == -1;
 
-                        if (intTemp[0] == intTemp[1]) {
+                        if (log2Low == log2High) {
                             // exact double value
-                            d = Formulas.pow2(intTemp[0]);
+                            d = Formulas.pow2(log2Low);
                         } else {
-                            // pow2(intTemp[0]) < rational < pow2(intTemp[1])
-                            assert rational.compareTo(Rational.create(Formulas.pow2(intTemp[0]))) == +1
-                                    && rational.compareTo(Rational.create(Formulas.pow2(intTemp[1]))) == -1;
+                            // pow2(log2Low) < rational < pow2(log2High)
+                            assert rational.compareTo(Rational.create(Formulas.pow2(log2Low))) == +1
+                                    && rational.compareTo(Rational.create(Formulas.pow2(log2High))) == -1;
                             // quick check
-                            if (intTemp[1] <= -Formulas.DOUBLE_BIAS
+                            if (log2High <= -Formulas.DOUBLE_BIAS
                                     || rational.compareTo(Rational.DOUBLE_NORMAL_NEAREST_THRESHOLD) < 0) {
                                 // the result is a subnormal number
 
-                                if (intTemp[1] <= -Formulas.DOUBLE_BIAS) {
+                                if (log2High <= -Formulas.DOUBLE_BIAS) {
                                     d = Double.MIN_VALUE;
                                 } else {
                                     if (rational.compareTo(Rational.DOUBLE_MAX_SUBNORMAL) >= 0) {
@@ -219,7 +220,7 @@ public class RoundRational extends RoundNumber {
                                 assert rational.compareTo(Rational.DOUBLE_NORMAL_NEAREST_THRESHOLD) >= 0
                                         && rational.compareTo(Rational.DOUBLE_MAX_NEAREST_THRESHOLD) == -1;
 
-                                if (intTemp[1] <= 1 - Formulas.DOUBLE_BIAS) {
+                                if (log2High <= 1 - Formulas.DOUBLE_BIAS) {
                                     d = Formulas.DOUBLE_MIN_NORMAL;
                                 } else {
                                     if (rational.compareTo(Rational.DOUBLE_MAX_VALUE) >= 0) {
@@ -228,8 +229,8 @@ public class RoundRational extends RoundNumber {
                                         assert rational.compareTo(Rational.DOUBLE_MIN_NORMAL) == +1
                                                 && rational.compareTo(Rational.DOUBLE_MAX_VALUE) == -1;
 
-                                        // the exponent is intTemp[0]
-                                        Rational shifted = rational.multiplyTwoPower(Formulas.N_DOUBLE - 1 - intTemp[0]);
+                                        // the exponent is log2Low
+                                        Rational shifted = rational.multiplyTwoPower(Formulas.N_DOUBLE - 1 - log2Low);
                                         BigInteger shiftedFloor = shifted.floor();
                                         assert shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_DOUBLE - 1)) >= 0
                                                 && shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_DOUBLE)) == -1;
@@ -242,15 +243,15 @@ public class RoundRational extends RoundNumber {
 
                                         // exact. Do not collapse the last to factors into a single one.
                                         d = shiftedFloorAsDouble / Formulas.pow2(Formulas.N_DOUBLE - 1)
-                                                * Formulas.pow2(intTemp[0]);
+                                                * Formulas.pow2(log2Low);
 
                                         assert Formulas.DOUBLE_MIN_NORMAL <= d && d < Double.MAX_VALUE;
 
                                         double dNext = Formulas.next(d);
 
-                                        // exact, actually 1.00..01*2^intTemp[0]
+                                        // exact, actually 1.00..01*2^log2Low
                                         double step = dNext - d;
-                                        assert step == Formulas.pow2(intTemp[0] - Formulas.N_DOUBLE + 1);
+                                        assert step == Formulas.pow2(log2Low - Formulas.N_DOUBLE + 1);
 
                                         Rational dAsRational = Rational.create(d),
                                                 stepAsRational = Rational.create(step);
@@ -272,33 +273,33 @@ public class RoundRational extends RoundNumber {
 
                 break;
             case 2:
-                if (intTemp[1] <= Formulas.DOUBLE_MIN_TWO_EXPONENT) {
+                if (log2High <= Formulas.DOUBLE_MIN_TWO_EXPONENT) {
                     assert rational.compareTo(Rational.DOUBLE_MIN_VALUE) <= 0;
                     d = Double.MIN_VALUE;
                 } else {
                     assert rational.compareTo(Rational.DOUBLE_MIN_VALUE) > 0;
 
-                    // quick check for the intTemp[0] > Formulas.DOUBLE_MAX_TWO_EXPONENT condition
-                    if (intTemp[0] > Formulas.DOUBLE_MAX_TWO_EXPONENT
+                    // quick check for the log2Low > Formulas.DOUBLE_MAX_TWO_EXPONENT condition
+                    if (log2Low > Formulas.DOUBLE_MAX_TWO_EXPONENT
                             || rational.compareTo(Rational.DOUBLE_MAX_VALUE) > 0) {
                         // rational > Double.MAX_VALUE
                         d = Double.POSITIVE_INFINITY;
                     } else {
                         // Double.MIN_VALUE < rational <= Double.MAX_VALUE
-                        assert Formulas.DOUBLE_MIN_TWO_EXPONENT < intTemp[1]
-                                && intTemp[1] <= Formulas.DOUBLE_MAX_TWO_EXPONENT + 1;
+                        assert Formulas.DOUBLE_MIN_TWO_EXPONENT < log2High
+                                && log2High <= Formulas.DOUBLE_MAX_TWO_EXPONENT + 1;
                         assert rational.compareTo(Rational.DOUBLE_MAX_VALUE) <= 0;
 
-                        if (intTemp[0] == intTemp[1]) {
+                        if (log2Low == log2High) {
                             // exact double value
-                            d = Formulas.pow2(intTemp[0]);
+                            d = Formulas.pow2(log2Low);
                         } else {
-                            // pow2(intTemp[0]) < rational < pow2(intTemp[1])
-                            assert rational.compareTo(Rational.create(Formulas.pow2(intTemp[0]))) == +1
-                                    && rational.compareTo(Rational.create(Formulas.pow2(intTemp[1]))) == -1;
+                            // pow2(log2Low) < rational < pow2(log2High)
+                            assert rational.compareTo(Rational.create(Formulas.pow2(log2Low))) == +1
+                                    && rational.compareTo(Rational.create(Formulas.pow2(log2High))) == -1;
                             // fast check first
-                            if (intTemp[1] < 1 - Formulas.DOUBLE_BIAS
-                                    || (intTemp[1] == 1 - Formulas.DOUBLE_BIAS
+                            if (log2High < 1 - Formulas.DOUBLE_BIAS
+                                    || (log2High == 1 - Formulas.DOUBLE_BIAS
                                     && rational.compareTo(Rational.DOUBLE_MAX_SUBNORMAL) <= 0)) {
                                 // the result is a subnormal number > Double.MIN_VALUE
                                 assert rational.compareTo(Rational.DOUBLE_MIN_NORMAL) == -1;
@@ -321,8 +322,8 @@ public class RoundRational extends RoundNumber {
                                 // Formulas.DOUBLE_MAX_SUBNORMAL < rational <= Double.DOUBLE_MAX_VALUE
                                 // Formulas.DOUBLE_MIN_NORMAL <= result <= Double.MAX_VALUE
                                 assert rational.compareTo(Rational.DOUBLE_MAX_SUBNORMAL) == +1;
-                                // the exponent is intTemp[0] or result = pow2(intTemp[1])
-                                Rational shifted = rational.multiplyTwoPower(Formulas.N_DOUBLE - 1 - intTemp[0]);
+                                // the exponent is log2Low or result = pow2(log2High)
+                                Rational shifted = rational.multiplyTwoPower(Formulas.N_DOUBLE - 1 - log2Low);
                                 BigInteger shiftedCeil = shifted.ceil();
                                 assert shiftedCeil.compareTo(Formulas.bigintPow2(Formulas.N_DOUBLE - 1)) >= 0
                                         && shiftedCeil.compareTo(Formulas.bigintPow2(Formulas.N_DOUBLE)) <= 0;
@@ -335,20 +336,20 @@ public class RoundRational extends RoundNumber {
                                 long shiftedCeilBits = shiftedCeil.longValue();
 
                                 if (shiftedCeilBits < 1L << Formulas.N_DOUBLE
-                                        || intTemp[0] < Formulas.DOUBLE_MAX_TWO_EXPONENT) {
+                                        || log2Low < Formulas.DOUBLE_MAX_TWO_EXPONENT) {
                                     // exact conversion
                                     double shiftedCeilAsDouble = (double) shiftedCeilBits;
 
                                     // exact. Do not collapse the last to factors into a single one.
                                     d = shiftedCeilAsDouble / Formulas.pow2(Formulas.N_DOUBLE - 1)
-                                            * Formulas.pow2(intTemp[0]);
+                                            * Formulas.pow2(log2Low);
 
                                     assert Formulas.DOUBLE_MIN_NORMAL <= d && d < Double.MAX_VALUE;
                                 } else {
-                                    assert shiftedCeilBits == 1L << 53 || intTemp[0] == Formulas.DOUBLE_MAX_TWO_EXPONENT;
+                                    assert shiftedCeilBits == 1L << 53 || log2Low == Formulas.DOUBLE_MAX_TWO_EXPONENT;
                                     /*
                                     The only value with shiftedCeilBits == 1L << 53
-                                    and intTemp[0] < Formulas.DOUBLE_MAX_TWO_EXPONENT is
+                                    and log2Low < Formulas.DOUBLE_MAX_TWO_EXPONENT is
                                     Double.MAX_VALUE.
                                     */
                                     d = Double.MAX_VALUE;
@@ -391,42 +392,42 @@ public class RoundRational extends RoundNumber {
     private float positiveFloatValue(int direction, Rational rational) {
         assert rational.signum() == +1;
 
-        rational.log2Interval(intTemp);
+        int log2Low = rational.log2Low(), log2High = rational.log2High();
 
         float f;
 
         switch (direction) {
             case 0:
-                if (intTemp[0] < Formulas.FLOAT_MIN_TWO_EXPONENT) {
-                    assert intTemp[1] <= Formulas.FLOAT_MIN_TWO_EXPONENT;
+                if (log2Low < Formulas.FLOAT_MIN_TWO_EXPONENT) {
+                    assert log2High <= Formulas.FLOAT_MIN_TWO_EXPONENT;
                     assert rational.compareTo(Rational.FLOAT_MIN_VALUE) == -1;
                     f = +0.0F;
                 } else {
                     assert rational.compareTo(Rational.FLOAT_MIN_VALUE) >= 0;
 
-                    // quick check for the intTemp[0] > Formulas.FLOAT_MAX_TWO_EXPONENT condition
-                    if (intTemp[0] > Formulas.FLOAT_MAX_TWO_EXPONENT
+                    // quick check for the log2Low > Formulas.FLOAT_MAX_TWO_EXPONENT condition
+                    if (log2Low > Formulas.FLOAT_MAX_TWO_EXPONENT
                             || rational.compareTo(Rational.FLOAT_MAX_VALUE) >= 0) {
                         // rational >= Float.MAX_VALUE
                         f = Float.MAX_VALUE;
                     } else {
                         // Float.MIN_VALUE <= rational < Float.MAX_VALUE
-                        assert Formulas.FLOAT_MIN_TWO_EXPONENT <= intTemp[0]
-                                && intTemp[1] <= Formulas.FLOAT_MAX_TWO_EXPONENT + 1;
+                        assert Formulas.FLOAT_MIN_TWO_EXPONENT <= log2Low
+                                && log2High <= Formulas.FLOAT_MAX_TWO_EXPONENT + 1;
                         assert rational.compareTo(Rational.FLOAT_MAX_VALUE) == -1;
 
-                        if (intTemp[0] == intTemp[1]) {
+                        if (log2Low == log2High) {
                             // exact float value
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
-                            f = (float)Formulas.pow2(intTemp[0]);
+                            assert Formulas.isExactFloat(Formulas.pow2(log2Low));
+                            f = (float)Formulas.pow2(log2Low);
                         } else {
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[1]));
+                            assert Formulas.isExactFloat(Formulas.pow2(log2Low));
+                            assert Formulas.isExactFloat(Formulas.pow2(log2High));
 
-                            // pow2(intTemp[0]) < rational < pow2(intTemp[1])
-                            assert rational.compareTo(Rational.create(Formulas.pow2(intTemp[0]))) == +1
-                                    && rational.compareTo(Rational.create(Formulas.pow2(intTemp[1]))) == -1;
-                            if (intTemp[1] <= 1 - Formulas.FLOAT_BIAS) {
+                            // pow2(log2Low) < rational < pow2(log2High)
+                            assert rational.compareTo(Rational.create(Formulas.pow2(log2Low))) == +1
+                                    && rational.compareTo(Rational.create(Formulas.pow2(log2High))) == -1;
+                            if (log2High <= 1 - Formulas.FLOAT_BIAS) {
                                 // the result is a subnormal number > Float.MIN_VALUE
                                 assert rational.compareTo(Rational.FLOAT_MIN_NORMAL) == -1;
                                 /*
@@ -448,8 +449,8 @@ public class RoundRational extends RoundNumber {
                                 // Formulas.FLOAT_MIN_NORMAL < rational < Float.MAX_VALUE
                                 // Formulas.FLOAT_MIN_NORMAL <= result < Float.MAX_VALUE
                                 assert rational.compareTo(Rational.FLOAT_MIN_NORMAL) == +1;
-                                // the exponent is intTemp[0]
-                                Rational shifted = rational.multiplyTwoPower(Formulas.N_FLOAT - 1 - intTemp[0]);
+                                // the exponent is log2Low
+                                Rational shifted = rational.multiplyTwoPower(Formulas.N_FLOAT - 1 - log2Low);
                                 BigInteger shiftedFloor = shifted.floor();
                                 assert shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_FLOAT - 1)) >= 0
                                         && shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_FLOAT)) == -1;
@@ -462,7 +463,7 @@ public class RoundRational extends RoundNumber {
 
                                 // exact. Do not collapse the last to factors into a single one.
                                 f = shiftedFloorAsFloat / (float)Formulas.pow2(Formulas.N_FLOAT - 1)
-                                        * (float)Formulas.pow2(intTemp[0]);
+                                        * (float)Formulas.pow2(log2Low);
 
                                 assert Formulas.FLOAT_MIN_NORMAL <= f && f < Float.MAX_VALUE;
                             }
@@ -473,41 +474,41 @@ public class RoundRational extends RoundNumber {
 
                 break;
             case 1:
-                if (intTemp[1] <= Formulas.FLOAT_MIN_TWO_EXPONENT - 1) {
+                if (log2High <= Formulas.FLOAT_MIN_TWO_EXPONENT - 1) {
                     assert rational.compareTo(Rational.FLOAT_HALF_MIN_VALUE) <= 0;
                     f = +0.0F;
                 } else {
                     assert rational.compareTo(Rational.FLOAT_HALF_MIN_VALUE) > 0;
 
-                    // quick check for the intTemp[0] > Formulas.FLOAT_MAX_TWO_EXPONENT condition
-                    if (intTemp[0] > Formulas.FLOAT_MAX_TWO_EXPONENT
+                    // quick check for the log2Low > Formulas.FLOAT_MAX_TWO_EXPONENT condition
+                    if (log2Low > Formulas.FLOAT_MAX_TWO_EXPONENT
                             || rational.compareTo(Rational.FLOAT_MAX_NEAREST_THRESHOLD) >= 0) {
                         // rational >= Rational.FLOAT_MAX_NEAREST_THRESHOLD
                         f = Float.POSITIVE_INFINITY;
                     } else {
                         // the result is a finite number
                         // Rational.FLOAT_HALF_MIN_VALUE < rational < Rational.FLOAT_MAX_NEAREST_THRESHOLD
-                        assert Formulas.FLOAT_MIN_TWO_EXPONENT - 1 <= intTemp[0]
-                                && intTemp[1] <= Formulas.FLOAT_MAX_TWO_EXPONENT + 1;
+                        assert Formulas.FLOAT_MIN_TWO_EXPONENT - 1 <= log2Low
+                                && log2High <= Formulas.FLOAT_MAX_TWO_EXPONENT + 1;
                         assert rational.compareTo(Rational.FLOAT_MAX_NEAREST_THRESHOLD) == -1;
 
-                        if (intTemp[0] == intTemp[1]) {
+                        if (log2Low == log2High) {
                             // exact float value
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
-                            f = (float)Formulas.pow2(intTemp[0]);
+                            assert Formulas.isExactFloat(Formulas.pow2(log2Low));
+                            f = (float)Formulas.pow2(log2Low);
                         } else {
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[1]));
+                            assert Formulas.isExactFloat(Formulas.pow2(log2Low));
+                            assert Formulas.isExactFloat(Formulas.pow2(log2High));
 
-                            // pow2(intTemp[0]) < rational < pow2(intTemp[1])
-                            assert rational.compareTo(Rational.create(Formulas.pow2(intTemp[0]))) == +1
-                                    && rational.compareTo(Rational.create(Formulas.pow2(intTemp[1]))) == -1;
+                            // pow2(log2Low) < rational < pow2(log2High)
+                            assert rational.compareTo(Rational.create(Formulas.pow2(log2Low))) == +1
+                                    && rational.compareTo(Rational.create(Formulas.pow2(log2High))) == -1;
                             // quick check
-                            if (intTemp[1] <= -Formulas.FLOAT_BIAS
+                            if (log2High <= -Formulas.FLOAT_BIAS
                                     || rational.compareTo(Rational.FLOAT_NORMAL_NEAREST_THRESHOLD) < 0) {
                                 // the result is a subnormal number
 
-                                if (intTemp[1] <= -Formulas.FLOAT_BIAS) {
+                                if (log2High <= -Formulas.FLOAT_BIAS) {
                                     f = Float.MIN_VALUE;
                                 } else {
                                     if (rational.compareTo(Rational.FLOAT_MAX_SUBNORMAL) >= 0) {
@@ -562,7 +563,7 @@ public class RoundRational extends RoundNumber {
                                 assert rational.compareTo(Rational.FLOAT_NORMAL_NEAREST_THRESHOLD) >= 0
                                         && rational.compareTo(Rational.FLOAT_MAX_NEAREST_THRESHOLD) == -1;
 
-                                if (intTemp[1] <= 1 - Formulas.FLOAT_BIAS) {
+                                if (log2High <= 1 - Formulas.FLOAT_BIAS) {
                                     f = Formulas.FLOAT_MIN_NORMAL;
                                 } else {
                                     if (rational.compareTo(Rational.FLOAT_MAX_VALUE) >= 0) {
@@ -571,8 +572,8 @@ public class RoundRational extends RoundNumber {
                                         assert rational.compareTo(Rational.FLOAT_MIN_NORMAL) == +1
                                                 && rational.compareTo(Rational.FLOAT_MAX_VALUE) == -1;
 
-                                        // the exponent is intTemp[0]
-                                        Rational shifted = rational.multiplyTwoPower(Formulas.N_FLOAT - 1 - intTemp[0]);
+                                        // the exponent is log2Low
+                                        Rational shifted = rational.multiplyTwoPower(Formulas.N_FLOAT - 1 - log2Low);
                                         BigInteger shiftedFloor = shifted.floor();
                                         assert shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_FLOAT - 1)) >= 0
                                                 && shiftedFloor.compareTo(Formulas.bigintPow2(Formulas.N_FLOAT)) == -1;
@@ -583,18 +584,18 @@ public class RoundRational extends RoundNumber {
                                         // exact conversion
                                         float shiftedFloorAsFloat = (float) shiftedFloorBits;
 
-                                        assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
+                                        assert Formulas.isExactFloat(Formulas.pow2(log2Low));
 
                                         f = shiftedFloorAsFloat / (float)Formulas.pow2(Formulas.N_FLOAT - 1)
-                                                * (float)Formulas.pow2(intTemp[0]);
+                                                * (float)Formulas.pow2(log2Low);
 
                                         assert Formulas.FLOAT_MIN_NORMAL <= f && f < Float.MAX_VALUE;
 
                                         float dNext = Formulas.next(f);
 
-                                        // exact, actually 1.00..01*2^intTemp[0]
+                                        // exact, actually 1.00..01*2^log2Low
                                         float step = dNext - f;
-                                        assert step == Formulas.pow2(intTemp[0] - Formulas.N_FLOAT + 1);
+                                        assert step == Formulas.pow2(log2Low - Formulas.N_FLOAT + 1);
 
                                         Rational dAsRational = Rational.create(f),
                                                 stepAsRational = Rational.create(step);
@@ -616,37 +617,37 @@ public class RoundRational extends RoundNumber {
 
                 break;
             case 2:
-                if (intTemp[1] <= Formulas.FLOAT_MIN_TWO_EXPONENT) {
+                if (log2High <= Formulas.FLOAT_MIN_TWO_EXPONENT) {
                     assert rational.compareTo(Rational.FLOAT_MIN_VALUE) <= 0;
                     f = Float.MIN_VALUE;
                 } else {
                     assert rational.compareTo(Rational.FLOAT_MIN_VALUE) > 0;
 
-                    // quick check for the intTemp[0] > Formulas.FLOAT_MAX_TWO_EXPONENT condition
-                    if (intTemp[0] > Formulas.FLOAT_MAX_TWO_EXPONENT
+                    // quick check for the log2Low > Formulas.FLOAT_MAX_TWO_EXPONENT condition
+                    if (log2Low > Formulas.FLOAT_MAX_TWO_EXPONENT
                             || rational.compareTo(Rational.FLOAT_MAX_VALUE) > 0) {
                         // rational > Float.MAX_VALUE
                         f = Float.POSITIVE_INFINITY;
                     } else {
                         // Float.MIN_VALUE < rational <= Float.MAX_VALUE
-                        assert Formulas.FLOAT_MIN_TWO_EXPONENT < intTemp[1]
-                                && intTemp[1] <= Formulas.FLOAT_MAX_TWO_EXPONENT + 1;
+                        assert Formulas.FLOAT_MIN_TWO_EXPONENT < log2High
+                                && log2High <= Formulas.FLOAT_MAX_TWO_EXPONENT + 1;
                         assert rational.compareTo(Rational.FLOAT_MAX_VALUE) <= 0;
 
-                        if (intTemp[0] == intTemp[1]) {
+                        if (log2Low == log2High) {
                             // exact float value
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
-                            f = (float)Formulas.pow2(intTemp[0]);
+                            assert Formulas.isExactFloat(Formulas.pow2(log2Low));
+                            f = (float)Formulas.pow2(log2Low);
                         } else {
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
-                            assert Formulas.isExactFloat(Formulas.pow2(intTemp[1]));
+                            assert Formulas.isExactFloat(Formulas.pow2(log2Low));
+                            assert Formulas.isExactFloat(Formulas.pow2(log2High));
 
-                            // pow2(intTemp[0]) < rational < pow2(intTemp[1])
-                            assert rational.compareTo(Rational.create(Formulas.pow2(intTemp[0]))) == +1
-                                    && rational.compareTo(Rational.create(Formulas.pow2(intTemp[1]))) == -1;
+                            // pow2(log2Low) < rational < pow2(log2High)
+                            assert rational.compareTo(Rational.create(Formulas.pow2(log2Low))) == +1
+                                    && rational.compareTo(Rational.create(Formulas.pow2(log2High))) == -1;
                             // fast check first
-                            if (intTemp[1] < 1 - Formulas.FLOAT_BIAS
-                                    || (intTemp[1] == 1 - Formulas.FLOAT_BIAS
+                            if (log2High < 1 - Formulas.FLOAT_BIAS
+                                    || (log2High == 1 - Formulas.FLOAT_BIAS
                                     && rational.compareTo(Rational.FLOAT_MAX_SUBNORMAL) <= 0)) {
                                 // the result is a subnormal number > Float.MIN_VALUE
                                 assert rational.compareTo(Rational.FLOAT_MIN_NORMAL) == -1;
@@ -669,8 +670,8 @@ public class RoundRational extends RoundNumber {
                                 // Formulas.FLOAT_MAX_SUBNORMAL < rational <= Float.FLOAT_MAX_VALUE
                                 // Formulas.FLOAT_MIN_NORMAL <= result <= Float.MAX_VALUE
                                 assert rational.compareTo(Rational.FLOAT_MAX_SUBNORMAL) == +1;
-                                // the exponent is intTemp[0] or result = pow2(intTemp[1])
-                                Rational shifted = rational.multiplyTwoPower(Formulas.N_FLOAT - 1 - intTemp[0]);
+                                // the exponent is log2Low or result = pow2(log2High)
+                                Rational shifted = rational.multiplyTwoPower(Formulas.N_FLOAT - 1 - log2Low);
                                 BigInteger shiftedCeil = shifted.ceil();
                                 assert shiftedCeil.compareTo(Formulas.bigintPow2(Formulas.N_FLOAT - 1)) >= 0
                                         && shiftedCeil.compareTo(Formulas.bigintPow2(Formulas.N_FLOAT)) <= 0;
@@ -683,22 +684,22 @@ public class RoundRational extends RoundNumber {
                                 int shiftedCeilBits = shiftedCeil.intValue();
 
                                 if (shiftedCeilBits < 1 << Formulas.N_FLOAT
-                                        || intTemp[0] < Formulas.FLOAT_MAX_TWO_EXPONENT) {
+                                        || log2Low < Formulas.FLOAT_MAX_TWO_EXPONENT) {
                                     // exact conversion
                                     float shiftedCeilAsFloat = (float) shiftedCeilBits;
 
-                                    assert Formulas.isExactFloat(Formulas.pow2(intTemp[0]));
+                                    assert Formulas.isExactFloat(Formulas.pow2(log2Low));
 
                                     // exact. Do not collapse the last to factors into a single one.
                                     f = shiftedCeilAsFloat / (float)Formulas.pow2(Formulas.N_FLOAT - 1)
-                                            * (float)Formulas.pow2(intTemp[0]);
+                                            * (float)Formulas.pow2(log2Low);
 
                                     assert Formulas.FLOAT_MIN_NORMAL <= f && f < Float.MAX_VALUE;
                                 } else {
-                                    assert shiftedCeilBits == 1 << 24 || intTemp[0] == Formulas.FLOAT_MAX_TWO_EXPONENT;
+                                    assert shiftedCeilBits == 1 << 24 || log2Low == Formulas.FLOAT_MAX_TWO_EXPONENT;
                                     /*
                                     The only value with shiftedCeilBits == 1 << 24
-                                    and intTemp[0] < Formulas.FLOAT_MAX_TWO_EXPONENT is
+                                    and log2Low < Formulas.FLOAT_MAX_TWO_EXPONENT is
                                     Float.MAX_VALUE.
                                     */
                                     f = Float.MAX_VALUE;
@@ -8,87 +8,80 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Starts with a known prefix of the expansion, and then continues with the iterator after
+ * scrolling it past the prefix. The prefix is an immutable array shared by the clones, so that
+ * cloning costs the same however long it is. PartialQuotientsMemo records the prefix on the fly
+ * instead, for expansions traversed repeatedly.
+ *
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
 public class CachePartialQuotientsDecorator extends PartialQuotientsDecorator
         implements Cloneable, Serializable {
 
     // todo add original when assertion enabled and ! iterator instanceof ScrollableIterator
-    private LinkedList list;
-    private final int listSize;
+    private final BigInteger[] list;
+    private boolean cached;
     private static final Logger log = Logger.getLogger(CachePartialQuotientsDecorator.class.getName());
 
     public CachePartialQuotientsDecorator(BigInteger[] list, PartialQuotients iterator) {
-        this(toLinkedList(list), iterator, false);
+        this(iterator, list.clone());
     }
 
     public Object clone() throws CloneNotSupportedException {
         CachePartialQuotientsDecorator clone = (CachePartialQuotientsDecorator) super.clone();
         clone.iterator = (PartialQuotients) ((PartialQuotients) iterator).clone();
-        clone.list = (LinkedList) list.clone();
         return clone;
     }
 
     public CachePartialQuotientsDecorator(List list, PartialQuotients iterator) {
-        this(toLinkedList(list), iterator, false);
-    }
-
-    private static LinkedList toLinkedList(List list) {
-        if (list instanceof LinkedList) {
-            return (LinkedList) ((LinkedList) list).clone();
-        } else {
-            LinkedList linkedList = new LinkedList();
-            linkedList.addAll(list);
-            return linkedList;
-        }
-    }
-
-    private static LinkedList toLinkedList(BigInteger[] list) {
-        LinkedList linkedList = new LinkedList();
-        for (int i = 0; i < list.length; i++) {
-            linkedList.add(list[i]);
-        }
-        return linkedList;
+        this(iterator, (BigInteger[]) list.toArray(new BigInteger[list.size()]));
     }
 
     public CachePartialQuotientsDecorator(LinkedList list, PartialQuotients iterator) {
-        this(list, iterator, true);
+        this((List) list, iterator);
     }
 
+    /**
+     * @deprecated the list is always copied into the shared prefix array, so <code>toClone</code>
+     *             is ignored; use {@link #CachePartialQuotientsDecorator(List, PartialQuotients)}.
+     */
+    @Deprecated
     public CachePartialQuotientsDecorator(LinkedList list, PartialQuotients iterator,
             boolean toClone) {
+        this((List) list, iterator);
+    }
+
+    /**
+     * @param list not copied
+     */
+    private CachePartialQuotientsDecorator(PartialQuotients iterator, BigInteger[] list) {
         super(iterator);
 
-        if (list.isEmpty()) {
+        if (list.length == 0) {
             throw new IllegalArgumentException("list must not be empty");
         }
 
-        if (toClone) {
-            this.list = (LinkedList) list.clone();
-        } else {
-            this.list = list;
-        }
-
-        listSize = list.size();
-        assert listSize >= 1;
+        this.list = list;
+        cached = true;
     }
 
     public boolean hasNext() {
-        return list != null || super.hasNext();
+        return cached || super.hasNext();
     }
 
     protected BigInteger computeNext() {
         BigInteger next;
 
-        if (list == null) {
+        if (!cached) {
             next = super.computeNext();
         } else {
-            assert !list.isEmpty();
+            int i = (int) (index + 1);
+            assert i < list.length;
 
-            next = (BigInteger) list.removeFirst();
+            next = list[i];
 
-            if (list.isEmpty()) {
-                list = null;
+            if (i == list.length - 1) {
+                cached = false;
 
                 if (log.isLoggable(Level.INFO)) {
                     log.info(this + " cache will miss at directionIndex " + (index + 1));
@@ -96,9 +89,9 @@ public class CachePartialQuotientsDecorator extends PartialQuotientsDecorator
 
                 if (iterator instanceof ScrollableIterator) {
                     ScrollableIterator scrollable = (ScrollableIterator) iterator;
-                    scrollable.setIndex(listSize - 1);
+                    scrollable.setIndex(list.length - 1);
                 } else {
-                    for (int i = 0; i < listSize; i++) {
+                    for (int j = 0; j < list.length; j++) {
                         iterator.next();
                     }
                 }
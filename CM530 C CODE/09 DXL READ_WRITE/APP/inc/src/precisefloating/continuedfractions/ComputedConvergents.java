@@ -55,10 +55,11 @@ public class ComputedConvergents extends Convergents {
                 assert qi.getIndex() == 1;
 
                 previousConvergent = convergent;
-                convergent = Rational.create(
+                convergent = Rational.createReduced(
                         ak.multiply(convergent.getNumerator()).add(BigInteger.ONE), ak);
             } else {
-                Rational c = Rational.create(
+                // p(k) * q(k-1) - p(k-1) * q(k) = +-1, so the convergents are always in lowest terms
+                Rational c = Rational.createReduced(
                         ak.multiply(convergent.getNumerator()).add(previousConvergent.getNumerator()),
                         ak.multiply(convergent.getDenominator()).add(previousConvergent.getDenominator()));
                 previousConvergent = convergent;
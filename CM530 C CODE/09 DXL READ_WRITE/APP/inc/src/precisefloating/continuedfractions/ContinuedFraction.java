@@ -95,6 +95,22 @@ public abstract class ContinuedFraction extends DirectedNumber implements Compar
         return new DivideContinuedFraction(this, y);
     }
 
+    /**
+     * This continued fraction, with its partial quotients recorded the first time they are
+     * computed and replayed afterwards. Worth it when the same expansion is traversed several
+     * times, for instance rounded in several directions.
+     */
+    public ContinuedFraction memoize() {
+        return memoize(PartialQuotientsMemo.DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes the estimated size above which the partial quotients are no longer recorded
+     */
+    public ContinuedFraction memoize(long maxBytes) {
+        return new MemoizedContinuedFraction(this, maxBytes);
+    }
+
     public BigInteger floor() {
         return partialQuotients().nextPartialQuotient();
     }
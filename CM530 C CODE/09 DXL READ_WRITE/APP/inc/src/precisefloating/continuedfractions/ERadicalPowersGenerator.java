@@ -3,11 +3,16 @@ package precisefloating.continuedfractions;
 import precisefloating.Rational;
 import precisefloating.directedrounding.ManagedRoundingModeControl;
 
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.RandomAccessFile;
 import java.math.BigInteger;
+import java.nio.channels.FileChannel;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Used to populate the cache tables used by the exponentiation routine.
@@ -24,47 +29,205 @@ public class ERadicalPowersGenerator {
 
     /**
      * [0, 61] - [0, 104] = [-104, 61]
+     * <p>
+     * An output file ending in .bin gets the binary table read by EResourceTable instead of the
+     * EGeneratedTable source. With -convert as the first argument, the binary table is copied from
+     * EGeneratedTable instead of being computed again.
+     * <p>
+     * The buffers of the two-powers are computed in parallel, one fork-join task each, and written
+     * in order once they are all there, so the output does not depend on the number of threads.
+     * Options before the numbers: -parallelism n, 1 for the old sequential run, and -reuse table,
+     * which takes from an existing binary table, or from EGeneratedTable if table is "generated",
+     * every buffer it has with at least bufferSize partial quotients.
      * 
-     * @param args -105 115 1280 src/com/deployedprimes/precisefloating/continuedfractions/EGeneratedTable.java
+     * @param args -105 115 1280 src/com/deployedprimes/precisefloating/continuedfractions/EGeneratedTable.java,
+     * -reuse src/precisefloating/continuedfractions/etable.bin -105 120 2048 etable.bin or
+     * -convert -105 115 src/precisefloating/continuedfractions/etable.bin
      */
-    public static void main(String[] args) throws FileNotFoundException {
-        twoPowerStart = Integer.parseInt(args[0]);
-        twoPowerCount = Integer.parseInt(args[1]);
-        bufferSize = Integer.parseInt(args[2]);
+    public static void main(String[] args) throws IOException {
+        if (args[0].equals("-convert")) {
+            int start = Integer.parseInt(args[1]);
+            List[] table = new List[Integer.parseInt(args[2])];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = EGeneratedTable.getInstance().getBuffer(start + i);
+            }
+            writeBinary(table, start, args[3]);
+            return;
+        }
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ETable reuse = new EEmptyTable();
+        int argIndex = 0;
+
+        for (; args[argIndex].startsWith("-") && !Character.isDigit(args[argIndex].charAt(1)); argIndex += 2) {
+            if (args[argIndex].equals("-parallelism")) {
+                parallelism = Integer.parseInt(args[argIndex + 1]);
+            } else if (args[argIndex].equals("-reuse")) {
+                reuse = readTable(args[argIndex + 1]);
+            } else {
+                throw new IllegalArgumentException("unknown option " + args[argIndex]);
+            }
+        }
+
+        twoPowerStart = Integer.parseInt(args[argIndex]);
+        twoPowerCount = Integer.parseInt(args[argIndex + 1]);
+        bufferSize = Integer.parseInt(args[argIndex + 2]);
+        String fileName = args[argIndex + 3];
+
+        long startTime = System.currentTimeMillis();
+        BigInteger[][] buffers = computeBuffers(twoPowerStart, twoPowerCount, bufferSize, reuse, parallelism);
+        System.out.println();
+        System.out.println(twoPowerCount + " buffers in " + (System.currentTimeMillis() - startTime)
+                + " ms, parallelism " + parallelism);
+
+        if (fileName.endsWith(".bin")) {
+            writeBinary(toLists(buffers, twoPowerStart), twoPowerStart, fileName);
+            return;
+        }
+
         bigToIndex = new HashMap(twoPowerCount * bufferSize + 1, 1);
         v = new int[twoPowerCount][bufferSize];
         bigints = new ArrayList();
 
-        out = new PrintWriter(new FileOutputStream(args[3]));
+        out = new PrintWriter(new FileOutputStream(fileName));
 
         try {
             start();
 
-            Rational expPositiveInfinityAsRational = Rational.create(ManagedRoundingModeControl.EXP_POSITIVE_INFINITY);
-
             for (int i = twoPowerStart; i < twoPowerStart + twoPowerCount; i++) {
                 startTwoPowerIndex(i);
 
-                Rational p = Rational.valueOf(BigInteger.ONE.shiftLeft(i));
+                for (int k = 0; k < bufferSize; k++) {
+                    partialQuotient(i, k, buffers[i - twoPowerStart][k]);
+                }
 
-                // do not generate not needed numbers
-                assert p.compareTo(expPositiveInfinityAsRational) <= 0;
+                endTwoPowerIndex(i);
+            }
+
+            end();
+        } finally {
+            out.close();
+        }
+    }
+
+    private static ETable readTable(String fileName) throws IOException {
+        if (fileName.equals("generated")) {
+            return EGeneratedTable.getInstance();
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(fileName, "r");
+        try {
+            return new EResourceTable(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * The first bufferSize partial quotients of e^(2^i) for every i from start on, computed by
+     * parallelism threads unless the reused table has them.
+     */
+    public static BigInteger[][] computeBuffers(int start, int count, int bufferSize, ETable reuse, int parallelism) {
+        BigInteger[][] buffers = new BigInteger[count][];
+        final BufferTask[] tasks = new BufferTask[count];
+
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new BufferTask(start + i, i, bufferSize, reuse, buffers);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                protected void compute() {
+                    invokeAll(Arrays.asList(tasks));
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        return buffers;
+    }
+
+    private static final class BufferTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
 
-                System.out.print(i + " ");
+        private final int twoPower, index, bufferSize;
+        private final ETable reuse;
+        private final BigInteger[][] buffers;
+
+        BufferTask(int twoPower, int index, int bufferSize, ETable reuse, BigInteger[][] buffers) {
+            this.twoPower = twoPower;
+            this.index = index;
+            this.bufferSize = bufferSize;
+            this.reuse = reuse;
+            this.buffers = buffers;
+        }
 
-                PartialQuotients x = eTwoPower(i);
+        protected void compute() {
+            BigInteger[] buffer = new BigInteger[bufferSize];
+            List existing = reuse.getBuffer(twoPower);
+
+            if (existing != null && existing.size() >= bufferSize) {
+                existing.subList(0, bufferSize).toArray(buffer);
+            } else {
+                Rational p = Rational.valueOf(BigInteger.ONE.shiftLeft(twoPower));
+
+                // do not generate not needed numbers
+                assert p.compareTo(Rational.create(ManagedRoundingModeControl.EXP_POSITIVE_INFINITY)) <= 0;
+
+                PartialQuotients x = eTwoPower(twoPower);
 
                 for (int k = 0; k < bufferSize; k++) {
-                    BigInteger partialQuotient = x.nextPartialQuotient();
-                    partialQuotient(i, k, partialQuotient);
+                    buffer[k] = x.nextPartialQuotient();
                 }
 
-                endTwoPowerIndex(i);
+                System.out.print(twoPower + " ");
             }
 
-            end();
+            // the join of the task publishes the buffer
+            buffers[index] = buffer;
+        }
+
+    }
+
+    /**
+     * The same lists as GUtils.toList builds from the generated source: for the radicals, the
+     * partial quotients 1, b, 1 are padded to a multiple of 3 plus 1.
+     */
+    private static List[] toLists(BigInteger[][] buffers, int start) {
+        List[] table = new List[buffers.length];
+
+        for (int i = start; i < start + buffers.length; i++) {
+            BigInteger[] buffer = buffers[i - start];
+            List list = new ArrayList(buffer.length * 3 + 1);
+
+            if (i >= 0) {
+                list.addAll(Arrays.asList(buffer));
+            } else {
+                list.add(BigInteger.ONE);
+
+                for (int k = 1; k < buffer.length; k += 3) {
+                    list.add(buffer[k]);
+                    list.add(BigInteger.ONE);
+                    list.add(BigInteger.ONE);
+                }
+            }
+
+            table[i - start] = list;
+        }
+
+        return table;
+    }
+
+    private static void writeBinary(List[] table, int start, String fileName) throws IOException {
+        OutputStream os = new FileOutputStream(fileName);
+
+        try {
+            EResourceTable.write(table, start, os);
         } finally {
-            out.close();
+            os.close();
         }
     }
 
@@ -0,0 +1,284 @@
+package precisefloating.continuedfractions;
+
+import precisefloating.Formulas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * The same partial quotients as EGeneratedTable, read from the binary resource etable.bin
+ * written by ERadicalPowersGenerator. The resource is memory mapped when it is a file, and read
+ * into one buffer otherwise; an entry is decoded the first time it is asked for, so that
+ * loading the class costs only reading the index.
+ * <p>
+ * The format, big endian: the int magic 0x45544142 ("ETAB"), the int version 1, the first
+ * two-power and the number of entries, then entry count + 1 int offsets from the end of the
+ * index, then the entries. An entry is a kind byte, the int number of values and the values.
+ * A value is its length in bytes and BigInteger.toByteArray(), the length as an unsigned
+ * variable length integer, 7 bits a byte. A plain entry is the list itself. A radical entry,
+ * kind 1, holds the partial quotients b0, b1 ... of the list 1, b0, 1, 1, b1, 1, 1 ... of the
+ * radicals e^(2^-k), as GUtils.toList builds it. An empty entry is a missing list.
+ */
+public class EResourceTable implements ETable {
+
+    static final String RESOURCE = "etable.bin";
+
+    private static final int MAGIC = 0x45544142;
+    private static final int VERSION = 1;
+    private static final byte PLAIN = 0, RADICAL = 1;
+
+    private static final Logger log = Logger.getLogger(EResourceTable.class.getName());
+
+    private static EResourceTable instance;
+
+    public static EResourceTable getInstance() {
+        if (instance == null) {
+            synchronized (EResourceTable.class) {
+                if (instance == null) {
+                    try {
+                        instance = new EResourceTable(load(EResourceTable.class.getResource(RESOURCE)));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("cannot read " + RESOURCE + ": " + e);
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final ByteBuffer buffer;
+    private final int twoPowerStart;
+    private final int[] offsets;
+    private final int dataStart;
+
+    /**
+     * The decoded entries, null until asked for. The lists only have final fields, so a thread
+     * that sees one also sees its elements; two threads may both decode the same entry.
+     */
+    private final List[] lists;
+
+    public EResourceTable(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        ByteBuffer b = buffer.duplicate();
+        if (b.getInt() != MAGIC || b.getInt() != VERSION) {
+            throw new IOException("not an e table, or an unknown version");
+        }
+
+        twoPowerStart = b.getInt();
+        int count = b.getInt();
+        offsets = new int[count + 1];
+
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = b.getInt();
+        }
+
+        dataStart = b.position();
+        lists = new List[count];
+    }
+
+    private static ByteBuffer load(URL url) throws IOException {
+        if (url == null) {
+            throw new IOException("resource not found");
+        }
+
+        if ("file".equals(url.getProtocol())) {
+            File file;
+
+            try {
+                file = new File(url.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException(e.toString());
+            }
+
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                // the mapping stays valid after the channel is closed
+                return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            } finally {
+                raf.close();
+            }
+        }
+
+        InputStream in = url.openStream();
+        try {
+            byte[] bytes = new byte[8192];
+            int length = 0;
+
+            for (int n; (n = in.read(bytes, length, bytes.length - length)) >= 0;) {
+                length += n;
+                if (length == bytes.length) {
+                    byte[] larger = new byte[2 * bytes.length];
+                    System.arraycopy(bytes, 0, larger, 0, length);
+                    bytes = larger;
+                }
+            }
+
+            return ByteBuffer.wrap(bytes, 0, length).slice();
+        } finally {
+            in.close();
+        }
+    }
+
+    public int getTwoPowerStart() {
+        return twoPowerStart;
+    }
+
+    public int getTwoPowerCount() {
+        return lists.length;
+    }
+
+    public List getBuffer(int twoPower) {
+        List list = null;
+
+        int index = twoPower - twoPowerStart;
+
+        if (Formulas.inOpenInterval(index, -1, lists.length)) {
+            list = lists[index];
+
+            if (list == null && offsets[index] != offsets[index + 1]) {
+                list = decode(index);
+                lists[index] = list;
+            }
+        }
+
+        if (list == null) {
+            log.info(twoPower + " not found in cache");
+        }
+
+        return list;
+    }
+
+    private List decode(int index) {
+        ByteBuffer b = buffer.duplicate();
+        b.position(dataStart + offsets[index]);
+
+        byte kind = b.get();
+        int count = b.getInt();
+        BigInteger[] a;
+
+        if (kind == PLAIN) {
+            a = new BigInteger[count];
+            for (int i = 0; i < count; i++) {
+                a[i] = readValue(b);
+            }
+        } else {
+            assert kind == RADICAL;
+
+            a = new BigInteger[3 * count + 1];
+            Arrays.fill(a, BigInteger.ONE);
+            for (int i = 0; i < count; i++) {
+                a[3 * i + 1] = readValue(b);
+            }
+        }
+
+        assert b.position() == dataStart + offsets[index + 1];
+
+        return Collections.unmodifiableList(Arrays.asList(a));
+    }
+
+    private static BigInteger readValue(ByteBuffer b) {
+        int length = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte x = b.get();
+            length |= (x & 0x7f) << shift;
+            if (x >= 0) {
+                break;
+            }
+        }
+
+        byte[] bytes = new byte[length];
+        b.get(bytes);
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Writes the table in the format read by this class.
+     *
+     * @param lists the entry for every two-power from twoPowerStart on, or null
+     */
+    public static void write(List[] lists, int twoPowerStart, OutputStream out) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(data);
+        int[] offsets = new int[lists.length + 1];
+
+        for (int i = 0; i < lists.length; i++) {
+            offsets[i] = dataOut.size();
+
+            if (lists[i] != null) {
+                writeEntry(lists[i], dataOut);
+            }
+        }
+        offsets[lists.length] = dataOut.size();
+
+        DataOutputStream o = new DataOutputStream(out);
+        o.writeInt(MAGIC);
+        o.writeInt(VERSION);
+        o.writeInt(twoPowerStart);
+        o.writeInt(lists.length);
+        for (int i = 0; i < offsets.length; i++) {
+            o.writeInt(offsets[i]);
+        }
+        data.writeTo(o);
+        o.flush();
+    }
+
+    private static boolean isRadical(List list) {
+        if (list.size() % 3 != 1 || !BigInteger.ONE.equals(list.get(0))) {
+            return false;
+        }
+
+        for (int i = 2; i < list.size(); i += 3) {
+            if (!BigInteger.ONE.equals(list.get(i)) || !BigInteger.ONE.equals(list.get(i + 1))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void writeEntry(List list, DataOutputStream out) throws IOException {
+        if (isRadical(list)) {
+            out.writeByte(RADICAL);
+            out.writeInt(list.size() / 3);
+            for (int i = 1; i < list.size(); i += 3) {
+                writeValue((BigInteger) list.get(i), out);
+            }
+        } else {
+            out.writeByte(PLAIN);
+            out.writeInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                writeValue((BigInteger) list.get(i), out);
+            }
+        }
+    }
+
+    private static void writeValue(BigInteger x, DataOutputStream out) throws IOException {
+        byte[] bytes = x.toByteArray();
+
+        int length = bytes.length;
+        while (length >= 0x80) {
+            out.writeByte(length & 0x7f | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+
+        out.write(bytes);
+    }
+
+}
@@ -18,7 +18,7 @@ public class ExponentialPartialQuotients extends PartialQuotientsDecorator {
     private static final Logger log = Logger.getLogger(ExponentialPartialQuotients.class.getName());
 
     public ExponentialPartialQuotients(Rational exponent) {
-        this(exponent, EGeneratedTable.getInstance());
+        this(exponent, EResourceTable.getInstance());
     }
 
     public ExponentialPartialQuotients(Rational exponent, ETable table) {
@@ -88,4 +88,37 @@ public final class GUtils {
         return a;
     }
 
+    /**
+     * Bound on the magnitude of the coefficients that TensorStartPartialQuotients and
+     * MatrixStartPartialQuotients keep in longs: a sum of four of them still fits in a long.
+     */
+    static final long SMALL_COEFFICIENT = 1L << 60;
+
+    static boolean isSmall(BigInteger x) {
+        return x.bitLength() <= 60;
+    }
+
+    /**
+     * For |x| < 2 ^ 63.
+     */
+    static boolean isSmall(long x) {
+        return Math.abs(x) <= SMALL_COEFFICIENT;
+    }
+
+    /**
+     * True when x * y + z cannot overflow a long for any small z: tested on the bit lengths,
+     * which is cheaper than catching the ArithmeticException of Math.multiplyExact. For
+     * |x|, |y| < 2 ^ 63.
+     */
+    static boolean productFits(long x, long y) {
+        return Long.numberOfLeadingZeros(Math.abs(x)) + Long.numberOfLeadingZeros(Math.abs(y)) >= 66;
+    }
+
+    /**
+     * True when the partial quotient x fits in a long usable by productFits.
+     */
+    static boolean fitsLong(BigInteger x) {
+        return x.bitLength() < 63;
+    }
+
 }
@@ -8,6 +8,9 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Like TensorStartPartialQuotients, the main loop keeps the matrix in longs while its
+ * coefficients are at most GUtils.SMALL_COEFFICIENT in magnitude.
+ *
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
 class MatrixStartPartialQuotients extends PartialQuotients {
@@ -45,6 +48,51 @@ class MatrixStartPartialQuotients extends PartialQuotients {
 
     private BigInteger x0, u, v, w, z;
 
+    /**
+     * While small, the matrix is held in lu ... lz, and u ... z are stale.
+     */
+    private boolean small;
+    private long lu, lv, lw, lz;
+
+    private void toSmall() {
+        if (GUtils.isSmall(u) && GUtils.isSmall(v) && GUtils.isSmall(w) && GUtils.isSmall(z)) {
+            lu = u.longValue();
+            lv = v.longValue();
+            lw = w.longValue();
+            lz = z.longValue();
+            small = true;
+        }
+    }
+
+    private void toBig() {
+        if (small) {
+            u = BigInteger.valueOf(lu);
+            v = BigInteger.valueOf(lv);
+            w = BigInteger.valueOf(lw);
+            z = BigInteger.valueOf(lz);
+            small = false;
+        }
+    }
+
+    private void setSmall(long a, long b, long c, long d) {
+        lu = a;
+        lv = b;
+        lw = c;
+        lz = d;
+
+        if (!(GUtils.isSmall(a) && GUtils.isSmall(b) && GUtils.isSmall(c) && GUtils.isSmall(d))) {
+            toBig();
+        }
+    }
+
+    /**
+     * The loop invariant of computeNext() on the longs; u * z != v * w is compared in 128 bits.
+     */
+    private boolean isSmallInvariant() {
+        return (Math.multiplyHigh(lu, lz) != Math.multiplyHigh(lv, lw) || lu * lz != lv * lw)
+                && Long.signum(lw) * Long.signum(lw + lz) >= 0;
+    }
+
     /**
      * @throws DivideByZeroException If and only if the value <code>x</code>
      *                               represented by the given continued fraction expansion is rational and satisfies
@@ -143,31 +191,19 @@ class MatrixStartPartialQuotients extends PartialQuotients {
                     log.fine(Long.toString(i));
                 }
 
-                assert x0.compareTo(BigInteger.ONE) >= 0
-                        && !u.multiply(z).equals(v.multiply(w)) && w.multiply(w.add(z)).signum() >= 0;
+                if (!small) {
+                    toSmall();
+                }
+
+                assert x0.compareTo(BigInteger.ONE) >= 0 && (small ? isSmallInvariant()
+                        : !u.multiply(z).equals(v.multiply(w)) && w.multiply(w.add(z)).signum() >= 0);
 
                 if (!xPartialQuotients.hasNext()) {
+                    toBig();
                     integerInput();
                     return rPartialQuotients.nextPartialQuotient();
                 } else {
-                    BigInteger digit;
-
-                    BigInteger waddz = w.add(z);
-
-                    if (w.signum() != 0 && waddz.signum() != 0) {
-                        assert w.signum() == waddz.signum();
-
-                        Rational uw = Rational.create(u, w), uvwz = Rational.create(u.add(v), waddz);
-
-                        if (uw.floor().equals(uvwz.floor())) {
-                            digit = uw.floor();
-                        } else {
-                            digit = null;
-                        }
-                    } else {
-                        assert w.signum() == 0 ^ waddz.signum() == 0;
-                        digit = null;
-                    }
+                    BigInteger digit = small ? smallDigit() : bigDigit();
 
                     if (digit != null) {
                         if (log.isLoggable(Level.FINE)) {
@@ -185,6 +221,46 @@ class MatrixStartPartialQuotients extends PartialQuotients {
         }
     }
 
+    /**
+     * The next output digit if both corners of the matrix agree on it, null otherwise.
+     */
+    private BigInteger bigDigit() {
+        BigInteger waddz = w.add(z);
+
+        if (w.signum() != 0 && waddz.signum() != 0) {
+            assert w.signum() == waddz.signum();
+
+            Rational uw = Rational.create(u, w), uvwz = Rational.create(u.add(v), waddz);
+
+            if (uw.floor().equals(uvwz.floor())) {
+                return uw.floor();
+            } else {
+                return null;
+            }
+        } else {
+            assert w.signum() == 0 ^ waddz.signum() == 0;
+            return null;
+        }
+    }
+
+    private BigInteger smallDigit() {
+        long waddz = lw + lz;
+
+        if (lw != 0 && waddz != 0) {
+            assert Long.signum(lw) == Long.signum(waddz);
+
+            long fl = Math.floorDiv(lu, lw);
+            if (Math.floorDiv(lu + lv, waddz) == fl) {
+                return BigInteger.valueOf(fl);
+            } else {
+                return null;
+            }
+        } else {
+            assert lw == 0 ^ waddz == 0;
+            return null;
+        }
+    }
+
     private void integerInput() {
         xPartialQuotients = null;
         Rational r = Rational.create(u.multiply(x0).add(v), w.multiply(x0).add(z));
@@ -205,11 +281,25 @@ class MatrixStartPartialQuotients extends PartialQuotients {
     }
 
     private void transformMatrixForInput(BigInteger x0) {
+        logState("before transform for input");
+
+        if (small && GUtils.fitsLong(x0)) {
+            long x = x0.longValue();
+
+            if (GUtils.productFits(lu, x) && GUtils.productFits(lw, x)) {
+                long a = lu, c = lw;
+                setSmall(a * x + lv, a, c * x + lz, c);
+
+                logState("after transform for input");
+                return;
+            }
+        }
+
+        toBig();
+
         // temporary variables
         BigInteger a = u, b = v, c = w, d = z;
 
-        logState("before transform for input");
-
         u = a.multiply(x0).add(b);
         v = a;
         w = c.multiply(x0).add(d);
@@ -219,11 +309,24 @@ class MatrixStartPartialQuotients extends PartialQuotients {
     }
 
     private void transformMatrixForOutput(BigInteger digit) {
+        logState("before transform for output");
+
+        if (small && GUtils.fitsLong(digit)) {
+            long t = digit.longValue();
+
+            if (GUtils.productFits(lw, t) && GUtils.productFits(lz, t)) {
+                setSmall(lw, lz, lu - lw * t, lv - lz * t);
+
+                logState("after transform for output");
+                return;
+            }
+        }
+
+        toBig();
+
         // temporary variables
         BigInteger a = u, b = v, c = w, d = z;
 
-        logState("before transform for output");
-
         u = c;
         v = d;
         w = a.subtract(c.multiply(digit));
@@ -234,6 +337,11 @@ class MatrixStartPartialQuotients extends PartialQuotients {
 
     private void logState(String s) {
         if (log.isLoggable(Level.FINE)) {
+            if (small) {
+                log.fine(s + " x0 = " + x0 + " [[u = " + lu + " v = " + lv + "] [w = " + lw + " z = " + lz
+                        + "]] in longs");
+                return;
+            }
             log.fine(s + " x0 = " + x0 + " [[u = " + u + " v = " + v + "] [w = " + w + " z = " + z + "]]");
         }
     }
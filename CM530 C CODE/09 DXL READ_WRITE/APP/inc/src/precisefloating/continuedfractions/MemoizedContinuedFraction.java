@@ -0,0 +1,39 @@
+package precisefloating.continuedfractions;
+
+/**
+ * A continued fraction whose partial quotients are computed once and replayed by every later
+ * traversal: floor, ceil, compareTo, the convergents and the rounding in each of the directions.
+ *
+ * @see ContinuedFraction#memoize()
+ */
+public class MemoizedContinuedFraction extends ContinuedFraction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PartialQuotientsMemo memo;
+
+    public MemoizedContinuedFraction(ContinuedFraction inner) {
+        this(inner, PartialQuotientsMemo.DEFAULT_MAX_BYTES);
+    }
+
+    public MemoizedContinuedFraction(ContinuedFraction inner, long maxBytes) {
+        memo = new PartialQuotientsMemo(inner, maxBytes);
+    }
+
+    public PartialQuotients partialQuotients() {
+        return memo.partialQuotients();
+    }
+
+    public ContinuedFraction getInner() {
+        return memo.getContinuedFraction();
+    }
+
+    public PartialQuotientsMemo getMemo() {
+        return memo;
+    }
+
+    public ContinuedFraction memoize(long maxBytes) {
+        return maxBytes == memo.getMaxBytes() ? this : super.memoize(maxBytes);
+    }
+
+}
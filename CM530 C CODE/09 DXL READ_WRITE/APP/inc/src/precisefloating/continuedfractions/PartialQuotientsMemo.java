@@ -0,0 +1,278 @@
+package precisefloating.continuedfractions;
+
+import java.math.BigInteger;
+
+/**
+ * Append-only record of the partial quotients of a continued fraction, shared by any number of
+ * iterators. The iterators replay what has been recorded and extend the record on demand from a
+ * single source iterator, so every partial quotient is computed once however many times the
+ * expansion is traversed. The partial quotients are kept in chunks of longs, with a parallel
+ * BigInteger chunk only for those that do not fit.
+ * <p>
+ * The record stops growing once its estimated size reaches maxBytes. An iterator that gets past
+ * the end of a full record continues on its own: the first one takes over the source iterator,
+ * the others start a new expansion and skip the recorded prefix. evict() drops the record; the
+ * iterators already started keep replaying the old one, which is collected once they are done.
+ * <p>
+ * A memo and its iterators may be used by several threads. Each iterator belongs to a single
+ * thread, as usual; replaying takes no lock, and the extension is serialized.
+ */
+public class PartialQuotientsMemo {
+
+    public static final long DEFAULT_MAX_BYTES = 1 << 20;
+
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /**
+     * Estimated bytes of a recorded partial quotient: the long slot, and for a BigInteger its
+     * object, its int array and its slot.
+     */
+    private static final int SMALL_BYTES = 8;
+    private static final int BIG_BYTES = SMALL_BYTES + 64;
+
+    private final ContinuedFraction continuedFraction;
+    private final long maxBytes;
+    private volatile Record record;
+
+    public PartialQuotientsMemo(ContinuedFraction continuedFraction) {
+        this(continuedFraction, DEFAULT_MAX_BYTES);
+    }
+
+    public PartialQuotientsMemo(ContinuedFraction continuedFraction, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        this.continuedFraction = continuedFraction;
+        this.maxBytes = maxBytes;
+        record = new Record();
+    }
+
+    public ContinuedFraction getContinuedFraction() {
+        return continuedFraction;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * A new iterator, which starts with the recorded partial quotients.
+     */
+    public PartialQuotients partialQuotients() {
+        return new MemoPartialQuotients(this, record);
+    }
+
+    /**
+     * The number of partial quotients recorded so far.
+     */
+    public int size() {
+        return record.size;
+    }
+
+    public long getBytes() {
+        return record.bytes;
+    }
+
+    /**
+     * Whether the whole expansion, which is then finite, has been recorded.
+     */
+    public boolean isComplete() {
+        return record.complete;
+    }
+
+    public boolean isFull() {
+        return record.full;
+    }
+
+    /**
+     * Drops the recorded partial quotients; the next iterators start over with a new source.
+     */
+    public void evict() {
+        record = new Record();
+    }
+
+    /**
+     * A new iterator on the expansion, positioned after the first <code>size</code> partial
+     * quotients.
+     */
+    private PartialQuotients skip(int size) {
+        PartialQuotients pqi = continuedFraction.partialQuotients();
+
+        if (pqi instanceof ScrollableIterator) {
+            ((ScrollableIterator) pqi).setIndex(size - 1);
+        } else {
+            for (int i = 0; i < size; i++) {
+                pqi.next();
+            }
+        }
+
+        return pqi;
+    }
+
+    /**
+     * The partial quotients with the indexes below size are immutable, and published by the
+     * volatile write of size. The chunk arrays are volatile as well: a reader may see the arrays
+     * of a later growth, and must then see the chunks copied into them. The rest is guarded by
+     * the record itself.
+     */
+    private final class Record {
+
+        private volatile long[][] small = new long[1][];
+        private volatile BigInteger[][] big = new BigInteger[1][];
+        private volatile int size;
+        private volatile boolean complete, full;
+        private long bytes;
+        private PartialQuotients source;
+
+        BigInteger get(int i) {
+            int chunk = i >>> CHUNK_BITS, offset = i & (CHUNK_SIZE - 1);
+            BigInteger[] bigChunk = big[chunk];
+
+            if (bigChunk != null && bigChunk[offset] != null) {
+                return bigChunk[offset];
+            }
+
+            return BigInteger.valueOf(small[chunk][offset]);
+        }
+
+        /**
+         * Records partial quotients until index i is there.
+         *
+         * @return false if the expansion ends before i or the record is full
+         */
+        synchronized boolean extend(int i) {
+            while (size <= i) {
+                if (complete || full) {
+                    return false;
+                }
+
+                if (source == null) {
+                    source = continuedFraction.partialQuotients();
+                }
+
+                if (!source.hasNext()) {
+                    complete = true;
+                    source = null;
+                    return false;
+                }
+
+                append(source.nextPartialQuotient());
+            }
+
+            return true;
+        }
+
+        private void append(BigInteger partialQuotient) {
+            int chunk = size >>> CHUNK_BITS, offset = size & (CHUNK_SIZE - 1);
+
+            if (chunk == small.length) {
+                long[][] newSmall = new long[2 * chunk][];
+                BigInteger[][] newBig = new BigInteger[2 * chunk][];
+                System.arraycopy(small, 0, newSmall, 0, chunk);
+                System.arraycopy(big, 0, newBig, 0, chunk);
+                small = newSmall;
+                big = newBig;
+            }
+
+            if (small[chunk] == null) {
+                small[chunk] = new long[CHUNK_SIZE];
+            }
+
+            if (partialQuotient.bitLength() < 64) {
+                small[chunk][offset] = partialQuotient.longValue();
+                bytes += SMALL_BYTES;
+            } else {
+                if (big[chunk] == null) {
+                    big[chunk] = new BigInteger[CHUNK_SIZE];
+                }
+                big[chunk][offset] = partialQuotient;
+                bytes += BIG_BYTES + partialQuotient.bitLength() / 8;
+            }
+
+            // publishes the partial quotient, and the arrays it is in
+            size++;
+
+            if (bytes >= maxBytes) {
+                full = true;
+            }
+        }
+
+        /**
+         * An iterator on the rest of the expansion of a full record: the source itself for the
+         * first caller.
+         */
+        PartialQuotients detach() {
+            synchronized (this) {
+                assert full && !complete;
+
+                if (source != null) {
+                    PartialQuotients pqi = source;
+                    source = null;
+                    return pqi;
+                }
+            }
+
+            return skip(size);
+        }
+
+    }
+
+    private static final class MemoPartialQuotients extends PartialQuotients implements Cloneable {
+
+        private final PartialQuotientsMemo memo;
+        private final Record record;
+
+        /** Not null once this iterator has gone past a full record. */
+        private PartialQuotients own;
+
+        MemoPartialQuotients(PartialQuotientsMemo memo, Record record) {
+            this.memo = memo;
+            this.record = record;
+        }
+
+        public boolean hasNext() {
+            if (own == null) {
+                int next = (int) (index + 1);
+
+                if (next < record.size || record.extend(next)) {
+                    return true;
+                }
+
+                if (record.complete) {
+                    return false;
+                }
+
+                own = record.detach();
+                assert own.getIndex() == index : own.getIndex() + " != " + index;
+            }
+
+            return own.hasNext();
+        }
+
+        protected BigInteger computeNext() {
+            if (own == null) {
+                return record.get((int) (index + 1));
+            } else {
+                return own.nextPartialQuotient();
+            }
+        }
+
+        public Object clone() throws CloneNotSupportedException {
+            MemoPartialQuotients clone = (MemoPartialQuotients) super.clone();
+
+            if (own != null) {
+                clone.own = (PartialQuotients) own.clone();
+            }
+
+            return clone;
+        }
+
+        public String toString() {
+            return "memo " + memo.continuedFraction + " at " + index;
+        }
+
+    }
+
+}
@@ -9,6 +9,13 @@ import java.util.logging.Level;
 
 /**
  * All the methods are guaranteed to finish in a finite number of steps.
+ * <p>
+ * The value lies between any two consecutive convergents, p(n-1) / q(n-1) and p(n) / q(n),
+ * which are 1 / (q(n-1) * q(n)) apart. The result is known once both round to the same
+ * value. As long as the bit lengths of their numerators and denominators show that they are
+ * further apart than the widest rounding cell around them can be, no convergent is rounded.
+ * While the convergents fit in longs they are not even built as Rationals, and they are
+ * rounded with one floating point division; only the longer expansions go through Rational.
  *
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
@@ -26,11 +33,164 @@ public class RoundContinuedFraction extends RoundNumber {
         this.continuedFraction = continuedFraction;
     }
 
+    private static final int DOUBLE_PRECISION = 53;
+    private static final int FLOAT_PRECISION = 24;
+
+    /**
+     * Whether the consecutive convergents x and y are certainly too far apart to round to the
+     * same value, or there is no x yet. With |x|, |y| < 2^e, every rounding cell they can be in
+     * is at most 2^(max(e, minExponent + 1) - precision + 1) wide, in all the rounding modes.
+     * The distance between them is above 2^-(bitLength(q(x)) + bitLength(q(y))).
+     */
+    static boolean isTooWide(Rational x, Rational y, int precision, int minExponent) {
+        if (x == null) {
+            return true;
+        }
+
+        int qx = x.getDenominator().bitLength(), qy = y.getDenominator().bitLength();
+        int e = Math.max(x.getNumerator().abs().bitLength() - qx,
+                y.getNumerator().abs().bitLength() - qy) + 1;
+
+        return qx + qy + Math.max(e, minExponent + 1) <= precision - 2;
+    }
+
+    /**
+     * False if |c| < 2^maxExponent, and so below the largest finite value and the threshold
+     * above which it rounds to infinity: the numerator and denominator bit lengths show it
+     * without the comparison with those long constants.
+     */
+    static boolean isLarge(Rational c, int maxExponent) {
+        return c.getNumerator().abs().bitLength() - c.getDenominator().bitLength() >= maxExponent;
+    }
+
+    private static int bitLength(long x) {
+        return 64 - Long.numberOfLeadingZeros(Math.abs(x));
+    }
+
+    /**
+     * isTooWide for the convergents px / qx and py / qy kept in longs.
+     */
+    static boolean isTooWide(long px, long qx, long py, long qy, int precision, int minExponent) {
+        int bx = bitLength(qx), by = bitLength(qy);
+        int e = Math.max(bitLength(px) - bx, bitLength(py) - by) + 1;
+
+        return bx + by + Math.max(e, minExponent + 1) <= precision - 2;
+    }
+
+    /**
+     * p / q, q > 0, rounded to the given precision, 53 or 24, in the given direction; NaN if p
+     * or q do not fit in that many bits. The quotient of two exact doubles or floats is rounded
+     * to nearest, and the remainder p - d * q, exact in this range, tells on which side of d the
+     * exact quotient lies. For floats, f * q has at most 48 bits and the remainder at most 24,
+     * so the remainder needs no fused multiply-add.
+     */
+    static double round(long p, long q, int precision, int directionIndex) {
+        if (bitLength(p) > precision || bitLength(q) > precision) {
+            return Double.NaN;
+        }
+
+        double d, remainder;
+
+        if (precision == DOUBLE_PRECISION) {
+            d = (double) p / (double) q;
+            remainder = directionIndex == 1 ? 0 : Math.fma(-d, (double) q, (double) p);
+        } else {
+            float f = (float) p / (float) q;
+            d = f;
+            remainder = directionIndex == 1 ? 0 : (double) p - d * q;
+        }
+
+        switch (directionIndex) {
+            case 0:
+                return remainder < 0 ? nextDown(d, precision) : d;
+            case 1:
+                return d;
+            case 2:
+                return remainder > 0 ? nextUp(d, precision) : d;
+            default:
+                throw new InternalError("illegal direction index " + directionIndex);
+        }
+    }
+
+    private static double nextDown(double d, int precision) {
+        return precision == DOUBLE_PRECISION ? Math.nextDown(d) : Math.nextDown((float) d);
+    }
+
+    private static double nextUp(double d, int precision) {
+        return precision == DOUBLE_PRECISION ? Math.nextUp(d) : Math.nextUp((float) d);
+    }
+
+    /**
+     * The rounded value, computed with the convergents kept in longs: p(n) = a(n) p(n-1) +
+     * p(n-2), and the same for q(n). NaN as soon as a partial quotient, a convergent or its
+     * rounding needs more bits; the value is then computed again with Rationals. A convergent
+     * of at most 63 bits is always well below the overflow threshold.
+     */
+    private double smallValue(int precision, int minExponent) {
+        PartialQuotients partialQuotients = continuedFraction.partialQuotients();
+        BigInteger a = partialQuotients.nextPartialQuotient();
+
+        if (!GUtils.isSmall(a)) {
+            return Double.NaN;
+        }
+
+        // p(n-2), q(n-2), p(n-1), q(n-1), starting with p(-1) / q(-1) = 1 / 0
+        long p0 = 1, q0 = 0, p1 = a.longValue(), q1 = 1;
+        double previousValue = Double.NaN;
+
+        while (partialQuotients.hasNext()) {
+            a = partialQuotients.nextPartialQuotient();
+
+            if (!GUtils.fitsLong(a)) {
+                return Double.NaN;
+            }
+
+            long an = a.longValue();
+
+            if (!GUtils.productFits(an, p1) || !GUtils.isSmall(p0)
+                    || !GUtils.productFits(an, q1) || !GUtils.isSmall(q0)) {
+                return Double.NaN;
+            }
+
+            long p2 = an * p1 + p0, q2 = an * q1 + q0;
+
+            if (isTooWide(p1, q1, p2, q2, precision, minExponent)) {
+                previousValue = Double.NaN;
+            } else {
+                double currentValue = round(p2, q2, precision, directionIndex());
+                if (Double.isNaN(previousValue)) {
+                    previousValue = round(p1, q1, precision, directionIndex());
+                }
+                if (Double.isNaN(currentValue) || Double.isNaN(previousValue)) {
+                    return Double.NaN;
+                }
+                if (previousValue == currentValue) {
+                    return currentValue;
+                }
+                previousValue = currentValue;
+            }
+
+            p0 = p1;
+            q0 = q1;
+            p1 = p2;
+            q1 = q2;
+        }
+
+        // the last convergent is the value itself
+        return round(p1, q1, precision, directionIndex());
+    }
+
     protected double computeDoubleValue() {
-        double d = Double.NaN;
+        double d = smallValue(DOUBLE_PRECISION, Double.MIN_EXPONENT);
+
+        if (!Double.isNaN(d)) {
+            return d;
+        }
 
         Convergents convergents = continuedFraction.convergents();
 
+        // the convergent before current, and its rounded value if already computed, or NaN
+        Rational previous = null;
         double previousValue = Double.NaN;
 
         do {
@@ -39,7 +199,8 @@ public class RoundContinuedFraction extends RoundNumber {
             }
 
             assert Double.isNaN(d) && convergents.hasNext() : "d should have been computed already";
-            assert Double.isNaN(previousValue) ^ convergents.isStarted();
+            assert (previous == null) ^ convergents.isStarted();
+            assert Double.isNaN(previousValue) || previous != null;
 
             Rational current = convergents.nextConvergent();
 
@@ -56,77 +217,85 @@ public class RoundContinuedFraction extends RoundNumber {
                 // note that convergents.getIndex() may overflow, but it always has the correct parity
 
                 final long index = convergents.getIndex();
+                final boolean large = isLarge(current, Double.MAX_EXPONENT);
+                boolean round = false;
 
                 switch (directionIndex()) {
                     case 0:
-                        if ((index & 1) == 0
+                        if (large && (index & 1) == 0
                             && current.compareTo(Rational.DOUBLE_MAX_VALUE) >= 0) {
                             d = Double.MAX_VALUE;
                         } else {
-                            if ((index & 1) == 1 && current.compareTo(Rational.DOUBLE_MAX_VALUE.negate()) <= 0) {
+                            if (large && (index & 1) == 1 && current.compareTo(Rational.DOUBLE_MAX_VALUE.negate()) <= 0) {
                                 d = Double.NEGATIVE_INFINITY;
                             } else {
-                                double currentValue = current.doubleValue(getRoundingMode());
-                                // also works for previousValue = NaN
-                                if (previousValue == currentValue) {
-                                    d = currentValue;
-                                } else {
-                                    previousValue = currentValue;
-                                }
+                                round = true;
                             }
                         }
                         break;
                     case 1:
-                        if ((index & 1) == 0
+                        if (large && (index & 1) == 0
                             && current.compareTo(Rational.DOUBLE_MAX_NEAREST_THRESHOLD) >= 0) {
                             d = Double.POSITIVE_INFINITY;
                         } else {
-                            if ((index & 1) == 0 && current.compareTo(
+                            if (large && (index & 1) == 0 && current.compareTo(
                                     Rational.DOUBLE_MAX_NEAREST_THRESHOLD.negate()) <= 0) {
                                 d = Double.NEGATIVE_INFINITY;
                             } else {
-                                double currentValue = current.doubleValue(getRoundingMode());
-                                // also works for previousValue = NaN
-                                if (previousValue == currentValue) {
-                                    d = currentValue;
-                                } else {
-                                    previousValue = currentValue;
-                                }
+                                round = true;
                             }
                         }
                         break;
                     case 2:
-                        if ((index & 1) == 1
+                        if (large && (index & 1) == 1
                             && current.compareTo(Rational.DOUBLE_MAX_VALUE.negate()) <= 0) {
                             d = -Double.MAX_VALUE;
                         } else {
-                            if ((index & 1) == 0 && current.compareTo(Rational.DOUBLE_MAX_VALUE) >= 0) {
+                            if (large && (index & 1) == 0 && current.compareTo(Rational.DOUBLE_MAX_VALUE) >= 0) {
                                 d = Double.POSITIVE_INFINITY;
                             } else {
-                                double currentValue = current.doubleValue(getRoundingMode());
-                                // also works for previousValue = NaN
-                                if (previousValue == currentValue) {
-                                    d = currentValue;
-                                } else {
-                                    previousValue = currentValue;
-                                }
+                                round = true;
                             }
                         }
                         break;
                     default:
                         throw new InternalError("illegal direction index " + directionIndex());
                 }
+
+                if (round) {
+                    if (isTooWide(previous, current, DOUBLE_PRECISION, Double.MIN_EXPONENT)) {
+                        previousValue = Double.NaN;
+                    } else {
+                        double currentValue = current.doubleValue(getRoundingMode());
+                        if (Double.isNaN(previousValue)) {
+                            previousValue = previous.doubleValue(getRoundingMode());
+                        }
+                        if (previousValue == currentValue) {
+                            d = currentValue;
+                        } else {
+                            previousValue = currentValue;
+                        }
+                    }
+                }
             }
+
+            previous = current;
         } while (Double.isNaN(d));
 
         return d;
     }
 
     protected float computeFloatValue() {
-        float f = Float.NaN;
+        float f = (float) smallValue(FLOAT_PRECISION, Float.MIN_EXPONENT);
+
+        if (!Float.isNaN(f)) {
+            return f;
+        }
 
         Convergents convergents = continuedFraction.convergents();
 
+        // the convergent before current, and its rounded value if already computed, or NaN
+        Rational previous = null;
         float previousValue = Float.NaN;
 
         do {
@@ -135,7 +304,8 @@ public class RoundContinuedFraction extends RoundNumber {
             }
 
             assert Float.isNaN(f) && convergents.hasNext() : "f should have been computed already";
-            assert Float.isNaN(previousValue) ^ convergents.isStarted();
+            assert (previous == null) ^ convergents.isStarted();
+            assert Float.isNaN(previousValue) || previous != null;
 
             Rational current = convergents.nextConvergent();
 
@@ -152,67 +322,69 @@ public class RoundContinuedFraction extends RoundNumber {
                 // note that convergents.getIndex() may overflow, but it always has the correct parity
 
                 final long index = convergents.getIndex();
+                final boolean large = isLarge(current, Float.MAX_EXPONENT);
+                boolean round = false;
 
                 switch (directionIndex()) {
                     case 0:
-                        if ((index & 1) == 0
+                        if (large && (index & 1) == 0
                             && current.compareTo(Rational.FLOAT_MAX_VALUE) >= 0) {
                             f = Float.MAX_VALUE;
                         } else {
-                            if ((index & 1) == 1 && current.compareTo(Rational.FLOAT_MAX_VALUE.negate()) >= 0) {
+                            if (large && (index & 1) == 1 && current.compareTo(Rational.FLOAT_MAX_VALUE.negate()) <= 0) {
                                 f = Float.NEGATIVE_INFINITY;
                             } else {
-                                float currentValue = current.floatValue(getRoundingMode());
-                                // also works for previousValue = NaN
-                                if (previousValue == currentValue) {
-                                    f = currentValue;
-                                } else {
-                                    previousValue = currentValue;
-                                }
+                                round = true;
                             }
                         }
                         break;
                     case 1:
-                        if ((index & 1) == 0
+                        if (large && (index & 1) == 0
                             && current.compareTo(Rational.FLOAT_MAX_NEAREST_THRESHOLD) >= 0) {
                             f = Float.POSITIVE_INFINITY;
                         } else {
-                            if ((index & 1) == 0 && current.compareTo(
+                            if (large && (index & 1) == 0 && current.compareTo(
                                     Rational.FLOAT_MAX_NEAREST_THRESHOLD.negate()) <= 0) {
                                 f = Float.NEGATIVE_INFINITY;
                             } else {
-                                float currentValue = current.floatValue(getRoundingMode());
-                                // also works for previousValue = NaN
-                                if (previousValue == currentValue) {
-                                    f = currentValue;
-                                } else {
-                                    previousValue = currentValue;
-                                }
+                                round = true;
                             }
                         }
                         break;
                     case 2:
-                        if ((index & 1) == 1
+                        if (large && (index & 1) == 1
                             && current.compareTo(Rational.FLOAT_MAX_VALUE.negate()) <= 0) {
                             f = -Float.MAX_VALUE;
                         } else {
-                            if ((index & 1) == 0 && current.compareTo(Rational.FLOAT_MAX_VALUE) >= 0) {
+                            if (large && (index & 1) == 0 && current.compareTo(Rational.FLOAT_MAX_VALUE) >= 0) {
                                 f = Float.POSITIVE_INFINITY;
                             } else {
-                                float currentValue = current.floatValue(getRoundingMode());
-                                // also works for previousValue = NaN
-                                if (previousValue == currentValue) {
-                                    f = currentValue;
-                                } else {
-                                    previousValue = currentValue;
-                                }
+                                round = true;
                             }
                         }
                         break;
                     default:
                         throw new InternalError("illegal direction index " + directionIndex());
                 }
+
+                if (round) {
+                    if (isTooWide(previous, current, FLOAT_PRECISION, Float.MIN_EXPONENT)) {
+                        previousValue = Float.NaN;
+                    } else {
+                        float currentValue = current.floatValue(getRoundingMode());
+                        if (Float.isNaN(previousValue)) {
+                            previousValue = previous.floatValue(getRoundingMode());
+                        }
+                        if (previousValue == currentValue) {
+                            f = currentValue;
+                        } else {
+                            previousValue = currentValue;
+                        }
+                    }
+                }
             }
+
+            previous = current;
         } while (Float.isNaN(f));
 
         return f;
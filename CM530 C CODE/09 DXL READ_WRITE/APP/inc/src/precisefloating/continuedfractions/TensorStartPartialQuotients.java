@@ -13,6 +13,10 @@ import java.util.logging.Logger;
  * length, the result is that all the calls to nextPartialQuotient are alternated. The alternation
  * is in the the sense that the number of calls on one continued fraction is always equal to
  * the number of calls on the other, with an error of at most one call.
+ * <p>
+ * The coefficients of the tensor usually stay small, so the main loop keeps them in longs for as
+ * long as they are at most GUtils.SMALL_COEFFICIENT in magnitude, and switches to BigInteger
+ * when a step could overflow. It switches back once they have become small again.
  * 
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
@@ -61,6 +65,60 @@ class TensorStartPartialQuotients extends PartialQuotients {
 
     BigInteger y0, u, v, w, z, p, q, r, s;
 
+    /**
+     * While small, the tensor is held in lu ... ls, and u ... s are stale.
+     */
+    private boolean small;
+    private long lu, lv, lw, lz, lp, lq, lr, ls;
+
+    private void toSmall() {
+        if (GUtils.isSmall(u) && GUtils.isSmall(v) && GUtils.isSmall(w) && GUtils.isSmall(z)
+                && GUtils.isSmall(p) && GUtils.isSmall(q) && GUtils.isSmall(r) && GUtils.isSmall(s)) {
+            lu = u.longValue();
+            lv = v.longValue();
+            lw = w.longValue();
+            lz = z.longValue();
+            lp = p.longValue();
+            lq = q.longValue();
+            lr = r.longValue();
+            ls = s.longValue();
+            small = true;
+        }
+    }
+
+    private void toBig() {
+        if (small) {
+            u = BigInteger.valueOf(lu);
+            v = BigInteger.valueOf(lv);
+            w = BigInteger.valueOf(lw);
+            z = BigInteger.valueOf(lz);
+            p = BigInteger.valueOf(lp);
+            q = BigInteger.valueOf(lq);
+            r = BigInteger.valueOf(lr);
+            s = BigInteger.valueOf(ls);
+            small = false;
+        }
+    }
+
+    /**
+     * The new state of a step done in longs: stays in longs if it is still small.
+     */
+    private void setSmall(long a, long b, long c, long d, long e, long f, long g, long h) {
+        lu = a;
+        lv = b;
+        lw = c;
+        lz = d;
+        lp = e;
+        lq = f;
+        lr = g;
+        ls = h;
+
+        if (!(GUtils.isSmall(a) && GUtils.isSmall(b) && GUtils.isSmall(c) && GUtils.isSmall(d)
+                && GUtils.isSmall(e) && GUtils.isSmall(f) && GUtils.isSmall(g) && GUtils.isSmall(h))) {
+            toBig();
+        }
+    }
+
     public BigInteger computeNext() {
         assert (!isStarted() && xPartialQuotients.hasNext() && yPartialQuotients.hasNext() && mPartialQuotients == null)
                 || (isStarted() && (xPartialQuotients != null && yPartialQuotients != null && mPartialQuotients == null)
@@ -90,6 +148,14 @@ class TensorStartPartialQuotients extends PartialQuotients {
                         xPartialQuotients = yPartialQuotients;
                         yPartialQuotients = aux;
 
+                        // transpose the tensor too, for subtraction and division are not symmetric
+                        BigInteger temp = v;
+                        v = w;
+                        w = temp;
+                        temp = q;
+                        q = r;
+                        r = temp;
+
                         y0 = x0;
 
                         integerInput();
@@ -110,25 +176,17 @@ class TensorStartPartialQuotients extends PartialQuotients {
                 logStep(i);
 
                 if (!yPartialQuotients.hasNext()) {
+                    toBig();
                     assert notOppositeSigns(p, p.add(q), p.add(r), p.add(q).add(r.add(s)));
                     integerInput();
                     return mPartialQuotients.nextPartialQuotient();
                 } else {
-                    BigInteger paddq = p.add(q), paddr = p.add(r), paddqrs = paddq.add(r.add(s));
-                    assert notOppositeSigns(p, paddq, paddr, paddqrs);
-
-                    BigInteger digit;
-
-                    if (p.signum() != 0 && paddq.signum() != 0 && paddr.signum() != 0 && paddqrs.signum() != 0) {
-                        BigInteger uaddv = u.add(v), uaddw = u.add(w), uaddvwz = uaddv.add(w.add(z));
-
-                        Rational up = Rational.create(u, p), uvpq = Rational.create(uaddv, paddq),
-                                uwpr = Rational.create(uaddw, paddr), uvwzpqrs = Rational.create(uaddvwz, paddqrs);
-                        digit = sameFloor(up, uvpq, uwpr, uvwzpqrs);
-                    } else {
-                        digit = null;
+                    if (!small) {
+                        toSmall();
                     }
 
+                    BigInteger digit = small ? smallDigit() : bigDigit();
+
                     if (digit != null) {
                         log.fine("output digit " + digit);
                         // keeps the same position in y and lets x0 unchanged
@@ -148,6 +206,44 @@ class TensorStartPartialQuotients extends PartialQuotients {
         }
     }
 
+    /**
+     * The next output digit if the four corners of the tensor agree on it, null otherwise.
+     */
+    private BigInteger bigDigit() {
+        BigInteger paddq = p.add(q), paddr = p.add(r), paddqrs = paddq.add(r.add(s));
+        assert notOppositeSigns(p, paddq, paddr, paddqrs);
+
+        if (p.signum() != 0 && paddq.signum() != 0 && paddr.signum() != 0 && paddqrs.signum() != 0) {
+            BigInteger uaddv = u.add(v), uaddw = u.add(w), uaddvwz = uaddv.add(w.add(z));
+
+            Rational up = Rational.create(u, p), uvpq = Rational.create(uaddv, paddq),
+                    uwpr = Rational.create(uaddw, paddr), uvwzpqrs = Rational.create(uaddvwz, paddqrs);
+            return sameFloor(up, uvpq, uwpr, uvwzpqrs);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * bigDigit() on the longs. The sums cannot overflow, see GUtils.SMALL_COEFFICIENT.
+     */
+    private BigInteger smallDigit() {
+        long paddq = lp + lq, paddr = lp + lr, paddqrs = paddq + lr + ls;
+        assert notOppositeSigns(lp, paddq, paddr, paddqrs);
+
+        if (lp != 0 && paddq != 0 && paddr != 0 && paddqrs != 0) {
+            long uaddv = lu + lv, uaddw = lu + lw, uaddvwz = uaddv + lw + lz;
+
+            long fl = Math.floorDiv(lu, lp);
+            if (Math.floorDiv(uaddv, paddq) == fl && Math.floorDiv(uaddw, paddr) == fl
+                    && Math.floorDiv(uaddvwz, paddqrs) == fl) {
+                return BigInteger.valueOf(fl);
+            }
+        }
+
+        return null;
+    }
+
     private void integerInput() {
         assert xPartialQuotients.hasNext();
         yPartialQuotients = null;
@@ -192,6 +288,11 @@ class TensorStartPartialQuotients extends PartialQuotients {
         return true;
     }
 
+    private static boolean notOppositeSigns(long a0, long a1, long a2, long a3) {
+        return notOppositeSigns(BigInteger.valueOf(a0), BigInteger.valueOf(a1), BigInteger.valueOf(a2),
+                BigInteger.valueOf(a3));
+    }
+
     private static void chechNotOpositeSigns(BigInteger a0, BigInteger a1, BigInteger a2, BigInteger a3) {
         int sgn = a0.signum();
 
@@ -316,11 +417,26 @@ class TensorStartPartialQuotients extends PartialQuotients {
     }
 
     private void transformTensorForInput(BigInteger y0) {
+        logState("before transform for input");
+
+        if (small && GUtils.fitsLong(y0)) {
+            long y = y0.longValue();
+
+            if (GUtils.productFits(lu, y) && GUtils.productFits(lw, y)
+                    && GUtils.productFits(lp, y) && GUtils.productFits(lr, y)) {
+                long a = lu, c = lw, e = lp, g = lr;
+                setSmall(a * y + lv, c * y + lz, a, c, e * y + lq, g * y + ls, e, g);
+
+                logState("after transform for input");
+                return;
+            }
+        }
+
+        toBig();
+
         // temporary variables
         BigInteger a = u, b = v, c = w, d = z, e = p, f = q, g = r, h = s;
 
-        logState("before transform for input");
-
         // seems ok
         u = a.multiply(y0).add(b);
         v = c.multiply(y0).add(d);
@@ -337,6 +453,20 @@ class TensorStartPartialQuotients extends PartialQuotients {
     private void transformTensorForOutput(BigInteger digit) {
         logState("before transform for output");
 
+        if (small && GUtils.fitsLong(digit)) {
+            long t = digit.longValue();
+
+            if (GUtils.productFits(lp, t) && GUtils.productFits(lq, t)
+                    && GUtils.productFits(lr, t) && GUtils.productFits(ls, t)) {
+                setSmall(lp, lq, lr, ls, lu - lp * t, lv - lq * t, lw - lr * t, lz - ls * t);
+
+                logState("after transform for output");
+                return;
+            }
+        }
+
+        toBig();
+
         // temporary variables
         BigInteger a = u, b = v, c = w, d = z, e = p, f = q, g = r, h = s;
 
@@ -354,6 +484,11 @@ class TensorStartPartialQuotients extends PartialQuotients {
 
     private void logState(String method) {
         if (log.isLoggable(Level.FINEST)) {
+            if (small) {
+                log.finest(method + " x0 = " + y0 + " [[u = " + lu + " v = " + lv + "] [w = " + lw + " z = " + lz
+                        + "]] [[p = " + lp + " q = " + lq + "] [r = " + lr + " s = " + ls + "]] in longs");
+                return;
+            }
             log.finest(method + " x0 = " + y0 + " [[u = " + u + " v = " + v + "] [w = " + w + " z = " + z
                     + "]] [[p = " + p + " q = " + q + "] [r = " + r + " s = " + s + "]]");
         }
@@ -9,6 +9,12 @@ import java.math.BigInteger;
  * Thread safe class. Can be used as superclass for immutable thread safe numbers. Supports a
  * rounding direction that is only set in the constructor and cannot be changed. Superclass for
  * the immutable classes Rational and ContinuedFraction.
+ * <p>
+ * The RoundNumberBase that does the rounding is mutable, so every computation runs while holding
+ * its lock. The double, float and BigInteger results are also kept here, one per rounding
+ * direction, as immutable Double, Float and BigInteger objects: once a value has been computed,
+ * any thread reads it without taking the lock. A thread that does not see the value yet takes the
+ * lock, and finds it in the cache of the RoundNumberBase.
  *
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
@@ -25,23 +31,39 @@ public abstract class DirectedNumber extends Number {
     }
 
     private RoundNumberBase getRoundNumber() {
-        if (roundNumber == null) {
+        RoundNumberBase rn = roundNumber;
+        if (rn == null) {
             synchronized (this) {
-                if (roundNumber == null) {
+                rn = roundNumber;
+                if (rn == null) {
+                    doubleValues = new Double[3];
+                    floatValues = new Float[3];
+                    bigIntegerValues = new BigInteger[3];
                     // three rounding modes
-                    roundNumber = createRoundNumber();
+                    rn = createRoundNumber();
+                    // publishes the arrays above as well
+                    roundNumber = rn;
                 }
             }
         }
 
-        return roundNumber;
+        return rn;
     }
 
     /**
      * Lazily initialized. Even if the rounding direction is mutable, it is completely hidden
-     * from the outer world.
+     * from the outer world. Volatile for the double-checked locking in getRoundNumber().
      */
-    private RoundNumberBase roundNumber;
+    private volatile RoundNumberBase roundNumber;
+
+    /**
+     * Indexed by RoundNumberBase.directionIndex(mode). Created before roundNumber is set, and only
+     * read after it has been read. The elements are written without synchronization, which is
+     * safe because the objects are immutable: a reader sees either null or the whole value.
+     */
+    private Double[] doubleValues;
+    private Float[] floatValues;
+    private BigInteger[] bigIntegerValues;
 
     /**
      * This method is called in a synchronized context.
@@ -50,6 +72,14 @@ public abstract class DirectedNumber extends Number {
      */
     protected abstract RoundNumberBase createRoundNumber();
 
+    private static int directionIndex(RoundingMode mode) {
+        if (mode == null) {
+            throw new NullPointerException("roundingMode must not be null");
+        }
+
+        return RoundNumberBase.directionIndex(mode);
+    }
+
     public double doubleValue() {
         return doubleValue(defaultRoundingMode);
     }
@@ -79,65 +109,86 @@ public abstract class DirectedNumber extends Number {
     }
 
     public double doubleValue(RoundingMode mode) {
-        getRoundNumber();
-
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.doubleValue();
+        int idx = directionIndex(mode);
+        RoundNumberBase rn = getRoundNumber();
+
+        Double d = doubleValues[idx];
+        if (d == null) {
+            synchronized (rn) {
+                rn.setRoundingMode(mode);
+                d = Double.valueOf(rn.doubleValue());
+            }
+            doubleValues[idx] = d;
         }
+
+        return d.doubleValue();
     }
 
     public float floatValue(RoundingMode mode) {
-        getRoundNumber();
-
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.floatValue();
+        int idx = directionIndex(mode);
+        RoundNumberBase rn = getRoundNumber();
+
+        Float f = floatValues[idx];
+        if (f == null) {
+            synchronized (rn) {
+                rn.setRoundingMode(mode);
+                f = Float.valueOf(rn.floatValue());
+            }
+            floatValues[idx] = f;
         }
+
+        return f.floatValue();
     }
 
     public BigInteger bigIntegerValue(RoundingMode mode) {
-        getRoundNumber();
-
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.bigIntegerValue();
+        int idx = directionIndex(mode);
+        RoundNumberBase rn = getRoundNumber();
+
+        BigInteger b = bigIntegerValues[idx];
+        if (b == null) {
+            synchronized (rn) {
+                rn.setRoundingMode(mode);
+                b = rn.bigIntegerValue();
+            }
+            bigIntegerValues[idx] = b;
         }
+
+        return b;
     }
 
     public long longValue(RoundingMode mode) {
-        getRoundNumber();
+        RoundNumberBase rn = getRoundNumber();
 
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.longValue();
+        synchronized (rn) {
+            rn.setRoundingMode(mode);
+            return rn.longValue();
         }
     }
 
     public int intValue(RoundingMode mode) {
-        getRoundNumber();
+        RoundNumberBase rn = getRoundNumber();
 
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.intValue();
+        synchronized (rn) {
+            rn.setRoundingMode(mode);
+            return rn.intValue();
         }
     }
 
     public short shortValue(RoundingMode mode) {
-        getRoundNumber();
+        RoundNumberBase rn = getRoundNumber();
 
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.shortValue();
+        synchronized (rn) {
+            rn.setRoundingMode(mode);
+            return rn.shortValue();
         }
     }
 
     public byte byteValue(RoundingMode mode) {
-        getRoundNumber();
+        RoundNumberBase rn = getRoundNumber();
 
-        synchronized (roundNumber) {
-            roundNumber.setRoundingMode(mode);
-            return roundNumber.byteValue();
+        synchronized (rn) {
+            rn.setRoundingMode(mode);
+            return rn.byteValue();
         }
     }
 
@@ -0,0 +1,277 @@
+package precisefloating.directedrounding;
+
+/**
+ * Static floor and ceiling of the basic operations, for the interval kernels. The result rounded
+ * to nearest is corrected by one ulp from the sign of its exact error term, computed with TwoSum
+ * for sums and with a fused multiply-add for products, quotients and square roots. Whenever the
+ * result is not a finite nonzero number, or the error term might not be exact, the value is
+ * taken from ErrorFreeRoundingModeControl instead. Those are the only cases that allocate.
+ * exp is the exception: Math.exp is within 1 ulp of the exact value, and the bounds are its
+ * neighbours, as in ManagedLooseRoundingModeControl. A rigorous but wider enclosure costs far
+ * less than the continued fraction ManagedRoundingModeControl.exp needs for the tight one.
+ * All the methods are thread safe. Needs Java 9 for Math.fma.
+ */
+final class ErrorFreeBounds {
+
+    /**
+     * Below this magnitude the remainders of quotients and square roots may underflow.
+     */
+    private static final double REMAINDER_MIN = Math.scalb(1.0, Double.MIN_EXPONENT + 2 * 53);
+
+    private ErrorFreeBounds() {
+    }
+
+    private static final ManagedRoundingModeControl FALLBACK = new ErrorFreeRoundingModeControl();
+
+    private static ManagedRoundingModeControl fallback() {
+        return FALLBACK;
+    }
+
+    /**
+     * Products at least this large have an exactly representable rounding error: with ex and
+     * ey the exponents of the factors, ex + ey >= -970, so that the last places of the factors
+     * multiply to at least Double.MIN_VALUE.
+     */
+    private static final double PRODUCT_MIN = Math.scalb(1.0, -968);
+
+    private static boolean isFiniteNonZero(double d) {
+        return d != 0 && Math.abs(d) <= Double.MAX_VALUE;
+    }
+
+    /**
+     * Math.nextDown and Math.nextUp for finite nonzero values, without their special cases.
+     */
+    private static double down(double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        return Double.longBitsToDouble(d > 0 ? bits - 1 : bits + 1);
+    }
+
+    private static double up(double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        return Double.longBitsToDouble(d > 0 ? bits + 1 : bits - 1);
+    }
+
+    /**
+     * Exact (x + y) - s for s = x + y (TwoSum), or not finite if an intermediate result overflows.
+     */
+    private static double sumError(double x, double y, double s) {
+        double yy = s - x;
+        return (x - (s - yy)) + (y - yy);
+    }
+
+    static double floorSum(double x, double y) {
+        double s = x + y;
+        if (isFiniteNonZero(s)) {
+            double e = sumError(x, y, s);
+            if (Math.abs(e) <= Double.MAX_VALUE) {
+                return e < 0 ? down(s) : s;
+            }
+        }
+
+        double[] a = new double[2];
+        fallback().add(x, y, a, 0);
+        return a[0];
+    }
+
+    static double ceilSum(double x, double y) {
+        double s = x + y;
+        if (isFiniteNonZero(s)) {
+            double e = sumError(x, y, s);
+            if (Math.abs(e) <= Double.MAX_VALUE) {
+                return e > 0 ? up(s) : s;
+            }
+        }
+
+        double[] a = new double[2];
+        fallback().add(x, y, a, 0);
+        return a[1];
+    }
+
+    private static boolean isProductInRange(double p) {
+        double abs = Math.abs(p);
+        return abs >= PRODUCT_MIN && abs <= Double.MAX_VALUE;
+    }
+
+    static double floorProduct(double x, double y) {
+        double p = x * y;
+        if (isProductInRange(p)) {
+            return Math.fma(x, y, -p) < 0 ? down(p) : p;
+        }
+
+        double[] a = new double[2];
+        fallback().multiply(x, y, a, 0);
+        return a[0];
+    }
+
+    static double ceilProduct(double x, double y) {
+        double p = x * y;
+        if (isProductInRange(p)) {
+            return Math.fma(x, y, -p) > 0 ? up(p) : p;
+        }
+
+        double[] a = new double[2];
+        fallback().multiply(x, y, a, 0);
+        return a[1];
+    }
+
+    /**
+     * x - q * y for q = x / y is exact when x is far enough from the underflow threshold and q
+     * is normal. The exact quotient is above q iff the remainder has the sign of y.
+     */
+    private static int compareQuotient(double x, double y, double q) {
+        if (Math.abs(x) >= REMAINDER_MIN && Math.abs(q) >= Double.MIN_NORMAL
+                && isFiniteNonZero(q) && isFiniteNonZero(y)) {
+            double r = Math.fma(-q, y, x);
+            return r == 0 ? 0 : ((r > 0) == (y > 0) ? +1 : -1);
+        }
+        return 2;
+    }
+
+    static double floorQuotient(double x, double y) {
+        double q = x / y;
+        int order = compareQuotient(x, y, q);
+        if (order != 2) {
+            return order < 0 ? down(q) : q;
+        }
+
+        double[] a = new double[2];
+        fallback().divide(x, y, a, 0);
+        return a[0];
+    }
+
+    static double ceilQuotient(double x, double y) {
+        double q = x / y;
+        int order = compareQuotient(x, y, q);
+        if (order != 2) {
+            return order > 0 ? up(q) : q;
+        }
+
+        double[] a = new double[2];
+        fallback().divide(x, y, a, 0);
+        return a[1];
+    }
+
+    /**
+     * The exact root is above s = sqrt(x) iff x - s * s > 0, computed exactly for x away from
+     * the underflow threshold.
+     */
+    static double floorSqrt(double x) {
+        double s = Math.sqrt(x);
+        if (x >= REMAINDER_MIN && x <= Double.MAX_VALUE) {
+            return Math.fma(-s, s, x) < 0 ? down(s) : s;
+        }
+
+        if (x == Double.POSITIVE_INFINITY) {
+            return x;
+        }
+
+        double[] a = new double[2];
+        fallback().sqrt(x, a, 0);
+        return a[0];
+    }
+
+    static double ceilSqrt(double x) {
+        double s = Math.sqrt(x);
+        if (x >= REMAINDER_MIN && x <= Double.MAX_VALUE) {
+            return Math.fma(-s, s, x) > 0 ? up(s) : s;
+        }
+
+        if (x == Double.POSITIVE_INFINITY) {
+            return x;
+        }
+
+        double[] a = new double[2];
+        fallback().sqrt(x, a, 0);
+        return a[1];
+    }
+
+    /**
+     * exp(x) is exact only for x = 0 and the infinities.
+     */
+    static double floorExp(double x) {
+        if (x == 0 || Double.isInfinite(x)) {
+            return Math.exp(x);
+        }
+        return Math.max(Math.nextDown(Math.exp(x)), 0);
+    }
+
+    static double ceilExp(double x) {
+        if (x == 0 || Double.isInfinite(x)) {
+            return Math.exp(x);
+        }
+        return Math.nextUp(Math.exp(x));
+    }
+
+    // interval endpoints
+
+    /**
+     * Endpoint products with a zero factor are zero, even when the other endpoint is infinite.
+     */
+    private static double floorEndpointProduct(double x, double y) {
+        return x == 0 || y == 0 ? 0 : floorProduct(x, y);
+    }
+
+    private static double ceilEndpointProduct(double x, double y) {
+        return x == 0 || y == 0 ? 0 : ceilProduct(x, y);
+    }
+
+    /**
+     * Lower bound of [a, b] * [c, d], by the signs of the operands: only when both contain zero
+     * in their interior are two endpoint products compared.
+     */
+    static double productLo(double a, double b, double c, double d) {
+        if (a >= 0) {
+            return c >= 0 ? floorEndpointProduct(a, c) : floorEndpointProduct(b, c);
+        }
+        if (b <= 0) {
+            return d <= 0 ? floorEndpointProduct(b, d) : floorEndpointProduct(a, d);
+        }
+        if (c >= 0) {
+            return floorEndpointProduct(a, d);
+        }
+        if (d <= 0) {
+            return floorEndpointProduct(b, c);
+        }
+        return Math.min(floorEndpointProduct(a, d), floorEndpointProduct(b, c));
+    }
+
+    static double productHi(double a, double b, double c, double d) {
+        if (a >= 0) {
+            return d <= 0 ? ceilEndpointProduct(a, d) : ceilEndpointProduct(b, d);
+        }
+        if (b <= 0) {
+            return c >= 0 ? ceilEndpointProduct(b, c) : ceilEndpointProduct(a, c);
+        }
+        if (c >= 0) {
+            return ceilEndpointProduct(b, d);
+        }
+        if (d <= 0) {
+            return ceilEndpointProduct(a, c);
+        }
+        return Math.max(ceilEndpointProduct(a, c), ceilEndpointProduct(b, d));
+    }
+
+    /**
+     * Lower bound of [a, b] / [c, d]; minus infinity when the divisor contains zero.
+     */
+    static double quotientLo(double a, double b, double c, double d) {
+        if (c > 0) {
+            return a >= 0 ? floorQuotient(a, d) : floorQuotient(a, c);
+        }
+        if (d < 0) {
+            return b >= 0 ? floorQuotient(b, d) : floorQuotient(b, c);
+        }
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    static double quotientHi(double a, double b, double c, double d) {
+        if (c > 0) {
+            return b >= 0 ? ceilQuotient(b, c) : ceilQuotient(b, d);
+        }
+        if (d < 0) {
+            return a >= 0 ? ceilQuotient(a, c) : ceilQuotient(a, d);
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+}
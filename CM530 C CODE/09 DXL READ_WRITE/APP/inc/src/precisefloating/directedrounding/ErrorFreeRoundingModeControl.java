@@ -0,0 +1,57 @@
+package precisefloating.directedrounding;
+
+/**
+ * ManagedRoundingModeControl with the exact sums and products compared to their rounded values
+ * through error free transformations rather than through DoublePrecisionNo and BigInteger.
+ * The rounding error of a sum is exactly representable and given by Fast2Sum; the rounding
+ * error of a product is given by a fused multiply-add as long as it does not underflow. The
+ * sign of the error tells on which side of the exact value the rounded to nearest result lies,
+ * so the computed intervals are identical to those of the superclass, and nothing is
+ * allocated. The few cases where the error term could be inexact fall back to the superclass.
+ * Division and square root are computed from multiply and so profit as well.
+ * Needs Java 9 for Math.fma. This class is thread safe.
+ */
+public class ErrorFreeRoundingModeControl extends ManagedRoundingModeControl {
+
+    /**
+     * Exponent of the last place of the smallest subnormal number.
+     */
+    private static final int MIN_ULP_EXPONENT = -1074;
+
+    protected int compareSum(double x, double y, double nearest) {
+        // Fast2Sum needs |x| >= |y|
+        double big = x, small = y;
+        if (Math.abs(x) < Math.abs(y)) {
+            big = y;
+            small = x;
+        }
+
+        // exact, and so is the error, unless an intermediate result overflows
+        double error = small - (nearest - big);
+
+        if (Double.isInfinite(error) || Double.isNaN(error)) {
+            return super.compareSum(x, y, nearest);
+        }
+
+        return signum(error);
+    }
+
+    protected int compareProduct(double x, double y, double nearest) {
+        // x * y - nearest is a multiple of ulp(x) * ulp(y); it is representable, and thus
+        // computed exactly by the fused multiply-add, unless that is below Double.MIN_VALUE
+        if (ulpExponent(x) + ulpExponent(y) < MIN_ULP_EXPONENT) {
+            return super.compareProduct(x, y, nearest);
+        }
+
+        return signum(Math.fma(x, y, -nearest));
+    }
+
+    private static int ulpExponent(double x) {
+        return Math.max(Math.getExponent(x), Double.MIN_EXPONENT) - 52;
+    }
+
+    private static int signum(double error) {
+        return error > 0 ? +1 : (error < 0 ? -1 : 0);
+    }
+
+}
@@ -0,0 +1,125 @@
+package precisefloating.directedrounding;
+
+/**
+ * Closed interval [lo, hi] of the extended real line with double bounds. Every operation
+ * returns an interval that contains all the exact results for operands taken from the given
+ * intervals; the bounds of the basic operations are the exact results rounded outwards, and
+ * those of exp are within one ulp of that, see ErrorFreeBounds. For many values at a time
+ * IntervalArray stores the bounds in two primitive arrays instead.
+ * Immutable and thread safe.
+ */
+public final class Interval {
+
+    public static final Interval ENTIRE = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private final double lo;
+    private final double hi;
+
+    /**
+     * @throws IllegalArgumentException if lo > hi or either bound is NaN
+     */
+    public Interval(double lo, double hi) {
+        if (!(lo <= hi)) {
+            throw new IllegalArgumentException("[" + lo + ", " + hi + "] is not an interval");
+        }
+
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    /**
+     * The degenerate interval [x, x].
+     */
+    public static Interval valueOf(double x) {
+        return new Interval(x, x);
+    }
+
+    public double getLo() {
+        return lo;
+    }
+
+    public double getHi() {
+        return hi;
+    }
+
+    public boolean contains(double x) {
+        return lo <= x && x <= hi;
+    }
+
+    public boolean contains(Interval that) {
+        return lo <= that.lo && that.hi <= hi;
+    }
+
+    /**
+     * hi - lo rounded up.
+     */
+    public double width() {
+        return ErrorFreeBounds.ceilSum(hi, -lo);
+    }
+
+    public Interval add(Interval that) {
+        return new Interval(ErrorFreeBounds.floorSum(lo, that.lo), ErrorFreeBounds.ceilSum(hi, that.hi));
+    }
+
+    public Interval subtract(Interval that) {
+        return new Interval(ErrorFreeBounds.floorSum(lo, -that.hi), ErrorFreeBounds.ceilSum(hi, -that.lo));
+    }
+
+    public Interval multiply(Interval that) {
+        return new Interval(ErrorFreeBounds.productLo(lo, hi, that.lo, that.hi),
+                ErrorFreeBounds.productHi(lo, hi, that.lo, that.hi));
+    }
+
+    /**
+     * The result is ENTIRE when the divisor contains zero.
+     */
+    public Interval divide(Interval that) {
+        return new Interval(ErrorFreeBounds.quotientLo(lo, hi, that.lo, that.hi),
+                ErrorFreeBounds.quotientHi(lo, hi, that.lo, that.hi));
+    }
+
+    /**
+     * The square roots of the nonnegative part of this interval.
+     *
+     * @throws ArithmeticException if the whole interval is negative
+     */
+    public Interval sqrt() {
+        if (hi < 0) {
+            throw new ArithmeticException("sqrt of " + this);
+        }
+
+        return new Interval(lo <= 0 ? 0 : ErrorFreeBounds.floorSqrt(lo), ErrorFreeBounds.ceilSqrt(hi));
+    }
+
+    public Interval exp() {
+        return new Interval(ErrorFreeBounds.floorExp(lo), ErrorFreeBounds.ceilExp(hi));
+    }
+
+    public Interval negate() {
+        return new Interval(-hi, -lo);
+    }
+
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof Interval)) {
+            return false;
+        }
+
+        Interval that = (Interval) obj;
+        return Double.doubleToLongBits(lo) == Double.doubleToLongBits(that.lo)
+                && Double.doubleToLongBits(hi) == Double.doubleToLongBits(that.hi);
+    }
+
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(lo) * 31 + Double.doubleToLongBits(hi);
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    public String toString() {
+        return "[" + lo + ", " + hi + "]";
+    }
+
+}
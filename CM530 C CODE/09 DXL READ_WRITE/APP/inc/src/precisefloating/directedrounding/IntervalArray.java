@@ -0,0 +1,185 @@
+package precisefloating.directedrounding;
+
+/**
+ * A vector of intervals kept as two parallel primitive arrays, lo[i] <= hi[i]. The kernels work
+ * on whole arrays with the same bounds as the Interval methods, but without an Interval per
+ * element: a loop over plain doubles that only leaves the fast path (ErrorFreeBounds) for
+ * overflow, underflow and zero results. The result array of a kernel may be one of its operands.
+ * The bounds are not checked; NaN bounds and lo[i] > hi[i] give unspecified results.
+ * Not safe for use in concurrent threads when any of them writes.
+ */
+public class IntervalArray {
+
+    private final double[] lo;
+    private final double[] hi;
+
+    /**
+     * length intervals [0, 0].
+     */
+    public IntervalArray(int length) {
+        this(new double[length], new double[length]);
+    }
+
+    /**
+     * Uses the given arrays, without copying them.
+     */
+    public IntervalArray(double[] lo, double[] hi) {
+        if (lo.length != hi.length) {
+            throw new IllegalArgumentException("lo.length " + lo.length + " != hi.length " + hi.length);
+        }
+
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    /**
+     * The degenerate intervals [values[i], values[i]].
+     */
+    public static IntervalArray valueOf(double[] values) {
+        return new IntervalArray(values.clone(), values.clone());
+    }
+
+    public int length() {
+        return lo.length;
+    }
+
+    /**
+     * The lower bounds, not a copy.
+     */
+    public double[] getLo() {
+        return lo;
+    }
+
+    /**
+     * The upper bounds, not a copy.
+     */
+    public double[] getHi() {
+        return hi;
+    }
+
+    public Interval get(int i) {
+        return new Interval(lo[i], hi[i]);
+    }
+
+    public void set(int i, Interval x) {
+        lo[i] = x.getLo();
+        hi[i] = x.getHi();
+    }
+
+    private static void checkLengths(IntervalArray x, IntervalArray y) {
+        if (x.length() != y.length()) {
+            throw new IllegalArgumentException("lengths differ: " + x.length() + " and " + y.length());
+        }
+    }
+
+    /**
+     * result[i] = x[i] + y[i]
+     */
+    public static void add(IntervalArray x, IntervalArray y, IntervalArray result) {
+        checkLengths(x, y);
+        checkLengths(x, result);
+        double[] xlo = x.lo, xhi = x.hi, ylo = y.lo, yhi = y.hi;
+        for (int i = 0; i < xlo.length; i++) {
+            double l = ErrorFreeBounds.floorSum(xlo[i], ylo[i]);
+            double h = ErrorFreeBounds.ceilSum(xhi[i], yhi[i]);
+            result.lo[i] = l;
+            result.hi[i] = h;
+        }
+    }
+
+    /**
+     * result[i] = x[i] - y[i]
+     */
+    public static void subtract(IntervalArray x, IntervalArray y, IntervalArray result) {
+        checkLengths(x, y);
+        checkLengths(x, result);
+        double[] xlo = x.lo, xhi = x.hi, ylo = y.lo, yhi = y.hi;
+        for (int i = 0; i < xlo.length; i++) {
+            double l = ErrorFreeBounds.floorSum(xlo[i], -yhi[i]);
+            double h = ErrorFreeBounds.ceilSum(xhi[i], -ylo[i]);
+            result.lo[i] = l;
+            result.hi[i] = h;
+        }
+    }
+
+    /**
+     * result[i] = x[i] * y[i]
+     */
+    public static void multiply(IntervalArray x, IntervalArray y, IntervalArray result) {
+        checkLengths(x, y);
+        checkLengths(x, result);
+        double[] xlo = x.lo, xhi = x.hi, ylo = y.lo, yhi = y.hi;
+        for (int i = 0; i < xlo.length; i++) {
+            double a = xlo[i], b = xhi[i], c = ylo[i], d = yhi[i];
+            result.lo[i] = ErrorFreeBounds.productLo(a, b, c, d);
+            result.hi[i] = ErrorFreeBounds.productHi(a, b, c, d);
+        }
+    }
+
+    /**
+     * result[i] = x[i] / y[i], the whole line where y[i] contains zero.
+     */
+    public static void divide(IntervalArray x, IntervalArray y, IntervalArray result) {
+        checkLengths(x, y);
+        checkLengths(x, result);
+        double[] xlo = x.lo, xhi = x.hi, ylo = y.lo, yhi = y.hi;
+        for (int i = 0; i < xlo.length; i++) {
+            double a = xlo[i], b = xhi[i], c = ylo[i], d = yhi[i];
+            result.lo[i] = ErrorFreeBounds.quotientLo(a, b, c, d);
+            result.hi[i] = ErrorFreeBounds.quotientHi(a, b, c, d);
+        }
+    }
+
+    /**
+     * result[i] = sqrt(x[i]), of the nonnegative part of x[i]. Intervals entirely below zero
+     * give NaN bounds.
+     */
+    public static void sqrt(IntervalArray x, IntervalArray result) {
+        checkLengths(x, result);
+        double[] xlo = x.lo, xhi = x.hi;
+        for (int i = 0; i < xlo.length; i++) {
+            double a = xlo[i], b = xhi[i];
+            result.lo[i] = b < 0 ? Double.NaN : (a <= 0 ? 0 : ErrorFreeBounds.floorSqrt(a));
+            result.hi[i] = ErrorFreeBounds.ceilSqrt(b);
+        }
+    }
+
+    /**
+     * result[i] = exp(x[i])
+     */
+    public static void exp(IntervalArray x, IntervalArray result) {
+        checkLengths(x, result);
+        double[] xlo = x.lo, xhi = x.hi;
+        for (int i = 0; i < xlo.length; i++) {
+            result.lo[i] = ErrorFreeBounds.floorExp(xlo[i]);
+            result.hi[i] = ErrorFreeBounds.ceilExp(xhi[i]);
+        }
+    }
+
+    /**
+     * Sum of all the intervals, accumulated from left to right with outward rounding.
+     */
+    public Interval sum() {
+        double l = 0, h = 0;
+        for (int i = 0; i < lo.length; i++) {
+            l = ErrorFreeBounds.floorSum(l, lo[i]);
+            h = ErrorFreeBounds.ceilSum(h, hi[i]);
+        }
+        return new Interval(l, h);
+    }
+
+    /**
+     * Sum of this[i] * that[i].
+     */
+    public Interval dot(IntervalArray that) {
+        checkLengths(this, that);
+        double l = 0, h = 0;
+        for (int i = 0; i < lo.length; i++) {
+            double a = lo[i], b = hi[i], c = that.lo[i], d = that.hi[i];
+            l = ErrorFreeBounds.floorSum(l, ErrorFreeBounds.productLo(a, b, c, d));
+            h = ErrorFreeBounds.ceilSum(h, ErrorFreeBounds.productHi(a, b, c, d));
+        }
+        return new Interval(l, h);
+    }
+
+}
@@ -9,7 +9,9 @@ import java.math.BigInteger;
 import java.util.logging.Logger;
 
 /**
- * Pure managed RoundingModeControl implementation. This class is not thread safe.
+ * Pure managed RoundingModeControl implementation. This class is thread safe: it has no state,
+ * and the single bound methods such as addRoundFloor compute both bounds into a scratch array of
+ * the calling thread.
  * 
  * @author Daniel Aioanei (aioaneid@go.ro)
  */
@@ -17,14 +19,20 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
 
     private static final Logger log = Logger.getLogger(ManagedRoundingModeControl.class.getName());
 
-    private final double[] temp = new double[2];
+    private static final ThreadLocal temps = new ThreadLocal() {
+        protected Object initialValue() {
+            return new double[2];
+        }
+    };
 
     public double addRoundFloor(double x, double y) {
+        double[] temp = (double[]) temps.get();
         add(x, y, temp, 0);
         return temp[0];
     }
 
     public double addRoundCeiling(double x, double y) {
+        double[] temp = (double[]) temps.get();
         add(x, y, temp, 0);
         return temp[1];
     }
@@ -83,6 +91,16 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
             return;
         }
 
+        result(compareSum(x, y, nearest), nearest, a, start);
+    }
+
+    /**
+     * Compares the exact sum x + y with its rounded to nearest value. The arguments are finite
+     * and nonzero, and so is nearest.
+     *
+     * @return -1, 0 or 1 as the exact sum is less than, equal to or greater than nearest
+     */
+    protected int compareSum(double x, double y, double nearest) {
         DoublePrecisionNo xDpn = new DoublePrecisionNo(x);
         DoublePrecisionNo yDpn = new DoublePrecisionNo(y);
 
@@ -124,15 +142,17 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
             order = computeOrder(exactM, nearestM, xDpn.getExponent(), nearestSum.getExponent());
         }
 
-        result(order, nearest, a, start);
+        return order;
     }
 
     public double multiplyRoundFloor(double x, double y) {
+        double[] temp = (double[]) temps.get();
         multiply(x, y, temp, 0);
         return temp[0];
     }
 
     public double multiplyRoundCeiling(double x, double y) {
+        double[] temp = (double[]) temps.get();
         multiply(x, y, temp, 0);
         return temp[1];
     }
@@ -229,6 +249,16 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
             return;
         }
 
+        result(compareProduct(x, y, nearest), nearest, a, start);
+    }
+
+    /**
+     * Compares the exact product x * y with its rounded to nearest value. The arguments are
+     * finite and nonzero, and so is nearest.
+     *
+     * @return -1, 0 or 1 as the exact product is less than, equal to or greater than nearest
+     */
+    protected int compareProduct(double x, double y, double nearest) {
         DoublePrecisionNo xDpn = new DoublePrecisionNo(x);
         DoublePrecisionNo yDpn = new DoublePrecisionNo(y);
 
@@ -263,15 +293,17 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
             order = computeOrder(exactM, nearestM, exactE, nearestProduct.getExponent());
         }
 
-        result(order, nearest, a, start);
+        return order;
     }
 
     public double subtractRoundFloor(double x, double y) {
+        double[] temp = (double[]) temps.get();
         subtract(x, y, temp, 0);
         return temp[0];
     }
 
     public double subtractRoundCeiling(double x, double y) {
+        double[] temp = (double[]) temps.get();
         subtract(x, y, temp, 0);
         return temp[1];
     }
@@ -285,11 +317,13 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
     }
 
     public double divideRoundFloor(double x, double y) {
+        double[] temp = (double[]) temps.get();
         divide(x, y, temp, 0);
         return temp[0];
     }
 
     public double divideRoundCeiling(double x, double y) {
+        double[] temp = (double[]) temps.get();
         divide(x, y, temp, 0);
         return temp[1];
     }
@@ -364,11 +398,13 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
     }
 
     public double squareRoundFloor(double x) {
+        double[] temp = (double[]) temps.get();
         square(x, temp, 0);
         return temp[0];
     }
 
     public double squareRoundCeiling(double x) {
+        double[] temp = (double[]) temps.get();
         square(x, temp, 0);
         return temp[1];
     }
@@ -400,11 +436,13 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
     }
 
     public double sqrtRoundFloor(double x) {
+        double[] temp = (double[]) temps.get();
         sqrt(x, temp, 0);
         return temp[0];
     }
 
     public double sqrtRoundCeiling(double x) {
+        double[] temp = (double[]) temps.get();
         sqrt(x, temp, 0);
         return temp[1];
     }
@@ -467,11 +505,13 @@ public class ManagedRoundingModeControl implements RoundingModeControl {
     }
 
     public double expRoundFloor(double x) {
+        double[] temp = (double[]) temps.get();
         exp(x, temp, 0);
         return temp[0];
     }
 
     public double expRoundCeiling(double x) {
+        double[] temp = (double[]) temps.get();
         exp(x, temp, 0);
         return temp[1];
     }
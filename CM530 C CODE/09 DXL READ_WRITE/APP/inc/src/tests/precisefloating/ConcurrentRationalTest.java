@@ -0,0 +1,181 @@
+package tests.precisefloating;
+
+import junit.framework.TestCase;
+import precisefloating.Rational;
+import precisefloating.directedrounding.ErrorFreeRoundingModeControl;
+import precisefloating.directedrounding.ManagedRoundingModeControl;
+import precisefloating.directedrounding.RoundingMode;
+import precisefloating.directedrounding.RoundingModeControl;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shares freshly created rationals, whose memoized values are all still missing, between several
+ * threads that fill them in concurrently, and checks every result against an equal rational used
+ * by a single thread. The same for one RoundingModeControl shared by all the threads.
+ */
+public class ConcurrentRationalTest extends TestCase {
+
+    static final int THREADS = 4;
+    static final int ROUNDS = 40;
+    static final int N = 200;
+
+    static final RoundingMode[] MODES = {
+        RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN, RoundingMode.ROUND_CEILING};
+
+    private final List errors = Collections.synchronizedList(new ArrayList());
+
+    /**
+     * Every memoized value of r, in a fixed order. The double values only for the short
+     * denominators: for the long ones, the assertions in RoundNumber.precomputeDoubles fail with
+     * -ea even in a single thread.
+     */
+    private static String evaluate(Rational r, boolean shortDenominator) {
+        StringBuffer sb = new StringBuffer();
+        sb.append(r.reduced()).append(' ').append(r.isReduced()).append(' ').append(r.hashCode());
+        sb.append(' ').append(r.inverse()).append(' ').append(r.negate()).append(' ').append(r.negate().inverse());
+        sb.append(' ').append(r.floor()).append(' ').append(r.ceil()).append(' ').append(r.integerPart());
+        sb.append(' ').append(r.fractionalPart()).append(' ').append(r.fractionalValue());
+
+        int[] a = new int[2];
+        r.abs().log2Interval(a);
+        sb.append(' ').append(a[0]).append(' ').append(a[1]);
+
+        for (int m = 0; m < MODES.length; m++) {
+            sb.append(' ').append(r.bigIntegerValue(MODES[m]));
+            if (shortDenominator) {
+                sb.append(' ').append(r.doubleValue(MODES[m]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private void runThreads(Runnable[] tasks) throws InterruptedException {
+        Thread[] threads = new Thread[tasks.length];
+        for (int t = 0; t < tasks.length; t++) {
+            threads[t] = new Thread(tasks[t]);
+        }
+        for (int t = 0; t < tasks.length; t++) {
+            threads[t].start();
+        }
+        for (int t = 0; t < tasks.length; t++) {
+            threads[t].join();
+        }
+
+        if (!errors.isEmpty()) {
+            fail(errors.size() + " errors, the first one: " + errors.get(0));
+        }
+    }
+
+    public void testSharedRationals() throws InterruptedException {
+        Random rnd = new Random(1);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final BigInteger[] numerators = new BigInteger[N], denominators = new BigInteger[N];
+            final Rational[] shared = new Rational[N];
+            final String[] expected = new String[N];
+
+            for (int i = 0; i < N; i++) {
+                if (i % 2 == 0) {
+                    // kept in longs
+                    numerators[i] = BigInteger.valueOf(rnd.nextInt(2000000) - 1000000);
+                    denominators[i] = BigInteger.valueOf(rnd.nextInt(1000) + 1);
+                } else {
+                    numerators[i] = new BigInteger(100, rnd).subtract(BigInteger.ONE.shiftLeft(99));
+                    denominators[i] = new BigInteger(90, rnd).add(BigInteger.ONE);
+                }
+                if (numerators[i].signum() == 0) {
+                    numerators[i] = BigInteger.ONE;
+                }
+
+                shared[i] = Rational.create(numerators[i], denominators[i]);
+                expected[i] = evaluate(Rational.create(numerators[i], denominators[i]), i % 2 == 0);
+            }
+
+            Runnable[] tasks = new Runnable[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t * N / THREADS;
+                tasks[t] = new Runnable() {
+                    public void run() {
+                        try {
+                            // every thread starts somewhere else, and then meets the others
+                            for (int j = 0; j < N; j++) {
+                                int i = (offset + j) % N;
+                                String actual = evaluate(shared[i], i % 2 == 0);
+                                if (!actual.equals(expected[i])) {
+                                    errors.add(numerators[i] + "/" + denominators[i] + ": " + actual
+                                            + " instead of " + expected[i]);
+                                }
+                            }
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        }
+                    }
+                };
+            }
+            runThreads(tasks);
+        }
+    }
+
+    public void testSharedConstants() throws InterruptedException {
+        final String expected = evaluate(Rational.create(Double.MAX_VALUE), false)
+                + evaluate(Rational.create(Double.MIN_VALUE), false);
+
+        Runnable[] tasks = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            tasks[t] = new Runnable() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 20; j++) {
+                            String actual = evaluate(Rational.DOUBLE_MAX_VALUE, false)
+                                    + evaluate(Rational.DOUBLE_MIN_VALUE, false);
+                            if (!actual.equals(expected)) {
+                                errors.add(actual + " instead of " + expected);
+                            }
+                            if (Rational.DOUBLE_MAX_VALUE.doubleValue() != Double.MAX_VALUE) {
+                                errors.add("DOUBLE_MAX_VALUE.doubleValue()");
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            };
+        }
+        runThreads(tasks);
+    }
+
+    public void testSharedControl() throws InterruptedException {
+        final RoundingModeControl[] shared = {new ManagedRoundingModeControl(), new ErrorFreeRoundingModeControl()};
+
+        Runnable[] tasks = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final Random rnd = new Random(t);
+            tasks[t] = new Runnable() {
+                public void run() {
+                    try {
+                        RoundingModeControl own = new ManagedRoundingModeControl();
+                        for (int j = 0; j < 20000; j++) {
+                            double x = rnd.nextGaussian(), y = rnd.nextGaussian() * 1e-10;
+                            RoundingModeControl r = shared[j % shared.length];
+                            double[] sum = own.add(x, y), product = own.multiply(x, y);
+                            if (r.addRoundFloor(x, y) != sum[0] || r.addRoundCeiling(x, y) != sum[1]
+                                    || r.multiplyRoundFloor(x, y) != product[0]
+                                    || r.multiplyRoundCeiling(x, y) != product[1]) {
+                                errors.add(x + ", " + y);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            };
+        }
+        runThreads(tasks);
+    }
+
+}
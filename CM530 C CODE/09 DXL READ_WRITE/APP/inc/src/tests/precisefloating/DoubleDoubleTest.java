@@ -0,0 +1,128 @@
+package tests.precisefloating;
+
+import junit.framework.TestCase;
+import precisefloating.DoubleDouble;
+import precisefloating.Formulas;
+import precisefloating.Rational;
+
+import java.util.Random;
+
+/**
+ * Checks the error-free transformations of Formulas exactly, and the double-double operations
+ * against the Rational result, within a relative error of 2^-100.
+ */
+public class DoubleDoubleTest extends TestCase {
+
+    private static final int PRECISION = 100;
+
+    private final Random rnd = new Random(1);
+    private final double[] pair = new double[2];
+
+    private static Rational exact(double x) {
+        return x == 0 ? Rational.ZERO : Rational.create(x);
+    }
+
+    private double randomDouble() {
+        return Math.scalb(rnd.nextDouble() + 0.5, rnd.nextInt(200) - 100) * (rnd.nextBoolean() ? 1 : -1);
+    }
+
+    private DoubleDouble randomDoubleDouble() {
+        double hi = randomDouble();
+        return DoubleDouble.valueOf(hi, Math.scalb(rnd.nextDouble() - 0.5, Math.getExponent(hi) - 53));
+    }
+
+    private static void assertClose(String message, Rational expected, DoubleDouble actual) {
+        Rational error = expected.subtract(actual.toRational()).abs();
+        assertTrue(message + ": " + actual, error.compareTo(expected.abs().multiplyTwoPower(-PRECISION)) <= 0);
+    }
+
+    public void testSplit() {
+        for (int i = 0; i < 1000; i++) {
+            double x = randomDouble();
+            Formulas.split(x, pair, 0);
+
+            assertEquals(x, pair[0] + pair[1], 0);
+            // 26 significant bits each: the low 27 bits of the mantissas are zero
+            assertEquals(0, Double.doubleToLongBits(pair[0]) & ((1L << 27) - 1));
+            assertTrue(Math.abs(pair[1]) <= Math.ulp(pair[0]) * (1 << 26));
+        }
+    }
+
+    public void testTwoSumTwoProduct() {
+        for (int i = 0; i < 1000; i++) {
+            double x = randomDouble(), y = randomDouble();
+
+            Formulas.twoSum(x, y, pair, 0);
+            assertEquals(0, exact(x).add(exact(y)).compareTo(exact(pair[0]).add(exact(pair[1]))));
+            assertEquals(x + y, pair[0], 0);
+
+            if (Math.abs(x) >= Math.abs(y)) {
+                Formulas.fastTwoSum(x, y, pair, 0);
+                assertEquals(0, exact(x).add(exact(y)).compareTo(exact(pair[0]).add(exact(pair[1]))));
+            }
+
+            Rational product = exact(x).multiply(exact(y));
+            Formulas.twoProduct(x, y, pair, 0);
+            assertEquals(0, product.compareTo(exact(pair[0]).add(exact(pair[1]))));
+
+            Formulas.twoProductDekker(x, y, pair, 0);
+            assertEquals(0, product.compareTo(exact(pair[0]).add(exact(pair[1]))));
+        }
+    }
+
+    public void testArithmetic() {
+        for (int i = 0; i < 500; i++) {
+            DoubleDouble x = randomDoubleDouble(), y = randomDoubleDouble();
+            Rational rx = x.toRational(), ry = y.toRational();
+
+            assertClose("add", rx.add(ry), x.add(y));
+            assertClose("subtract", rx.subtract(ry), x.subtract(y));
+            assertClose("multiply", rx.multiply(ry), x.multiply(y));
+            assertClose("divide", rx.divide(ry), x.divide(y));
+
+            DoubleDouble root = x.abs().sqrt();
+            assertClose("sqrt", rx.abs(), root.multiply(root));
+        }
+
+        // far more precise than the double result
+        DoubleDouble third = DoubleDouble.ONE.divide(DoubleDouble.valueOf(3));
+        assertClose("1/3", Rational.create(1, 3), third);
+        assertEquals(1.0 / 3, third.doubleValue(), 0);
+        assertEquals(DoubleDouble.valueOf(2), DoubleDouble.valueOf(4).sqrt());
+        assertTrue(Double.isNaN(DoubleDouble.valueOf(-1).sqrt().doubleValue()));
+        assertEquals(Double.POSITIVE_INFINITY, DoubleDouble.valueOf(Double.MAX_VALUE).add(DoubleDouble.valueOf(Double.MAX_VALUE)).doubleValue(), 0);
+        assertEquals(DoubleDouble.ZERO, DoubleDouble.valueOf(Rational.ZERO));
+        assertClose("valueOf", Rational.create(1, 7), DoubleDouble.valueOf(Rational.create(1, 7)));
+    }
+
+    public void testDotPolynomial() {
+        // 1e20 + 1 - 1e20 + 3e-5 loses everything but the last term in double
+        double[] x = {1e20, 1, -1e20, 3e-5}, y = {1, 1, 1, 1};
+        assertClose("dot", exact(1).add(exact(3e-5)), DoubleDouble.dot(x, y));
+
+        for (int k = 0; k < 50; k++) {
+            double[] a = new double[20], b = new double[20];
+            Rational expected = Rational.ZERO;
+            for (int i = 0; i < a.length; i++) {
+                a[i] = randomDouble();
+                b[i] = randomDouble();
+                expected = expected.add(exact(a[i]).multiply(exact(b[i])));
+            }
+            // Dot2: error below eps |s| + eps^2 cond, with cond small for random signs
+            Rational error = expected.subtract(DoubleDouble.dot(a, b).toRational()).abs();
+            Rational bound = Rational.ZERO;
+            for (int i = 0; i < a.length; i++) {
+                bound = bound.add(exact(a[i]).multiply(exact(b[i])).abs());
+            }
+            assertTrue(error.compareTo(bound.multiplyTwoPower(-100)) <= 0);
+        }
+
+        // (x - 1)^5 near its root, where Horner in double is all rounding noise
+        double[] p = {-1, 5, -10, 10, -5, 1};
+        double t = 1 + Math.scalb(1.0, -12);
+        Rational expected = exact(t).subtract(Rational.ONE);
+        expected = expected.multiply(expected).multiply(expected).multiply(expected).multiply(expected);
+        assertClose("polynomial", expected, DoubleDouble.polynomial(p, t));
+    }
+
+}
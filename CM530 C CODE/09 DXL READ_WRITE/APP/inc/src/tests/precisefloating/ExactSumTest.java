@@ -0,0 +1,167 @@
+package tests.precisefloating;
+
+import junit.framework.TestCase;
+import precisefloating.ExactSum;
+import precisefloating.Formulas;
+import precisefloating.Rational;
+import precisefloating.directedrounding.RoundingMode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares ExactSum with the Rational sum of the same doubles, and checks that the rounded
+ * value is the right neighbour of the exact one.
+ */
+public class ExactSumTest extends TestCase {
+
+    private static final RoundingMode[] MODES = {
+        RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN, RoundingMode.ROUND_CEILING
+    };
+
+    /**
+     * Also for the subnormals, which Rational.create(double) does not take.
+     */
+    private static Rational exact(double x) {
+        BigDecimal d = new BigDecimal(x);
+        return d.scale() <= 0 ? Rational.valueOf(d.toBigInteger())
+                : Rational.create(d.unscaledValue(), BigInteger.TEN.pow(d.scale()));
+    }
+
+    private static Rational rationalSum(double[] x) {
+        Rational sum = Rational.ZERO;
+        for (int i = 0; i < x.length; i++) {
+            sum = sum.add(exact(x[i]));
+        }
+        return sum;
+    }
+
+    /**
+     * Asserts that r is the exact value rounded in the given mode.
+     */
+    private static void assertRounded(String message, Rational exact, double r, RoundingMode mode) {
+        if (Double.isInfinite(r)) {
+            int signum = r > 0 ? +1 : -1;
+            Rational max = exact(signum * Double.MAX_VALUE);
+            assertTrue(message, signum * exact.compareTo(max) > 0);
+            return;
+        }
+
+        Rational rr = exact(r);
+        int c = exact.compareTo(rr);
+
+        if (mode == RoundingMode.ROUND_FLOOR) {
+            assertTrue(message, c >= 0);
+            assertTrue(message, c == 0 || exact.compareTo(exact(Formulas.next(r))) < 0 || r == Double.MAX_VALUE);
+        } else if (mode == RoundingMode.ROUND_CEILING) {
+            assertTrue(message, c <= 0);
+            assertTrue(message, c == 0 || exact.compareTo(exact(Formulas.previous(r))) > 0 || r == -Double.MAX_VALUE);
+        } else if (c != 0) {
+            double other = c > 0 ? Formulas.next(r) : Formulas.previous(r);
+            Rational error = exact.subtract(rr).abs();
+            int d = error.compareTo(exact.subtract(exact(other)).abs());
+            assertTrue(message, d < 0 || d == 0 && (Double.doubleToLongBits(r) & 1) == 0);
+        }
+    }
+
+    private static double[] random(Random rnd, int n, int exponentRange) {
+        double[] x = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            // the subnormals, but no overflow
+            int exponent = Math.min(rnd.nextInt(2 * exponentRange + 1) - exponentRange, 1020);
+            x[i] = Math.scalb(rnd.nextDouble() - 0.5, exponent);
+            if (i > 0 && rnd.nextInt(4) == 0) {
+                // cancellation
+                x[i] = -x[i - 1];
+            }
+        }
+
+        return x;
+    }
+
+    public void testRandom() {
+        Random rnd = new Random(1);
+        int[] ranges = {2, 60, 300, 1070};
+
+        for (int k = 0; k < 400; k++) {
+            double[] x = random(rnd, 1 + rnd.nextInt(40), ranges[k % ranges.length]);
+            Rational exact = rationalSum(x);
+            ExactSum sum = new ExactSum(x);
+
+            assertEquals(0, exact.compareTo(sum.rationalValue()));
+            for (int m = 0; m < MODES.length; m++) {
+                double r = sum.doubleValue(MODES[m]);
+                assertEquals(r, Formulas.exactSummation(x, MODES[m]), 0);
+                assertRounded(k + " " + MODES[m], exact, r, MODES[m]);
+            }
+        }
+    }
+
+    public void testExactCases() {
+        assertEquals(1.0, Formulas.exactSummation(new double[]{1e100, 1.0, -1e100}, RoundingMode.ROUND_HALF_EVEN), 0);
+        assertEquals(Double.MIN_VALUE, Formulas.exactSummation(new double[]{Double.MAX_VALUE, Double.MIN_VALUE, -Double.MAX_VALUE}, RoundingMode.ROUND_HALF_EVEN), 0);
+
+        double[] tenth = new double[10];
+        java.util.Arrays.fill(tenth, 0.1);
+        // 10 * 0.1 is 1 + 2^-54 exactly
+        assertEquals(1.0, Formulas.exactSummation(tenth, RoundingMode.ROUND_HALF_EVEN), 0);
+        assertEquals(1.0, Formulas.exactSummation(tenth, RoundingMode.ROUND_FLOOR), 0);
+        assertEquals(Formulas.next(1.0), Formulas.exactSummation(tenth, RoundingMode.ROUND_CEILING), 0);
+
+        // ties to even
+        double ulp = Math.ulp(1.0);
+        assertEquals(1.0, Formulas.exactSummation(new double[]{1.0, ulp / 2}, RoundingMode.ROUND_HALF_EVEN), 0);
+        assertEquals(1 + 2 * ulp, Formulas.exactSummation(new double[]{1.0 + ulp, ulp / 2}, RoundingMode.ROUND_HALF_EVEN), 0);
+    }
+
+    public void testSpecialValues() {
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(new ExactSum(new double[]{-0.0, -0.0}).doubleValue()));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(new ExactSum(new double[]{-0.0, 0.0}).doubleValue()));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(new ExactSum(new double[]{1.5, -1.5}).doubleValue()));
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(new ExactSum(new double[]{1.5, -1.5}).doubleValue(RoundingMode.ROUND_FLOOR)));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(new ExactSum().doubleValue()));
+
+        assertTrue(Double.isNaN(new ExactSum(new double[]{1, Double.NaN}).doubleValue()));
+        assertTrue(Double.isNaN(new ExactSum(new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}).doubleValue()));
+        assertEquals(Double.NEGATIVE_INFINITY, new ExactSum(new double[]{Double.MAX_VALUE, Double.NEGATIVE_INFINITY}).doubleValue(), 0);
+
+        double[] overflow = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+        assertEquals(Double.MAX_VALUE, Formulas.exactSummation(overflow, RoundingMode.ROUND_HALF_EVEN), 0);
+        double[] twice = {Double.MAX_VALUE, Double.MAX_VALUE};
+        assertEquals(Double.POSITIVE_INFINITY, Formulas.exactSummation(twice, RoundingMode.ROUND_HALF_EVEN), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Formulas.exactSummation(twice, RoundingMode.ROUND_CEILING), 0);
+        assertEquals(Double.MAX_VALUE, Formulas.exactSummation(twice, RoundingMode.ROUND_FLOOR), 0);
+        double[] negative = {-Double.MAX_VALUE, -Double.MAX_VALUE};
+        assertEquals(-Double.MAX_VALUE, Formulas.exactSummation(negative, RoundingMode.ROUND_CEILING), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, Formulas.exactSummation(negative, RoundingMode.ROUND_FLOOR), 0);
+    }
+
+    public void testMerge() {
+        Random rnd = new Random(2);
+        double[] x = random(rnd, 10000, 1000);
+        ExactSum whole = new ExactSum(x);
+
+        ExactSum left = new ExactSum(), right = new ExactSum();
+        left.add(x, 0, 3000);
+        right.add(x, 3000, 7000);
+        ExactSum copy = (ExactSum) right.clone();
+        right.merge(left);
+
+        ExactSum parallel = (ExactSum) new ForkJoinPool(3).invoke(ExactSum.task(x, 0, x.length, 100));
+
+        for (int m = 0; m < MODES.length; m++) {
+            double expected = whole.doubleValue(MODES[m]);
+            assertEquals(expected, right.doubleValue(MODES[m]), 0);
+            assertEquals(expected, parallel.doubleValue(MODES[m]), 0);
+        }
+        assertEquals(0, whole.rationalValue().compareTo(parallel.rationalValue()));
+
+        // the clone did not see the merge
+        copy.add(x, 0, 3000);
+        assertEquals(0, whole.rationalValue().compareTo(copy.rationalValue()));
+    }
+
+}
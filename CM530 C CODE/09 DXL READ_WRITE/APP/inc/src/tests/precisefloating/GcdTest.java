@@ -0,0 +1,48 @@
+package tests.precisefloating;
+
+import junit.framework.TestCase;
+import precisefloating.Gcd;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class GcdTest extends TestCase {
+
+    public void testLong() {
+        assertEquals(0, Gcd.gcd(0, 0));
+        assertEquals(5, Gcd.gcd(0, 5));
+        assertEquals(5, Gcd.gcd(5, 0));
+        assertEquals(1, Gcd.gcd(1, Long.MAX_VALUE));
+        assertEquals(1L << 40, Gcd.gcd(3L << 40, 5L << 41));
+        assertEquals(Long.MAX_VALUE, Gcd.gcd(Long.MAX_VALUE, Long.MAX_VALUE));
+
+        Random rnd = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            long a = (rnd.nextLong() >>> 1) >> rnd.nextInt(63), b = (rnd.nextLong() >>> 1) >> rnd.nextInt(63);
+            assertEquals(BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).longValue(), Gcd.gcd(a, b));
+        }
+    }
+
+    public void testBigInteger() {
+        assertEquals(BigInteger.ZERO, Gcd.gcd(BigInteger.ZERO, BigInteger.ZERO));
+        assertEquals(BigInteger.valueOf(7), Gcd.gcd(BigInteger.valueOf(-7), BigInteger.ZERO));
+
+        Random rnd = new Random(1);
+        // across the long, BigInteger.gcd and Lehmer ranges, with and without a common factor
+        int[] sizes = {10, 62, 63, 64, 100, 511, 512, 513, 1000, 3000};
+        for (int k = 0; k < sizes.length; k++) {
+            for (int i = 0; i < 20; i++) {
+                BigInteger common = new BigInteger(rnd.nextInt(sizes[k]) + 1, rnd);
+                BigInteger a = new BigInteger(sizes[k], rnd).multiply(common);
+                BigInteger b = new BigInteger(rnd.nextInt(sizes[k]) + 1, rnd).multiply(common);
+                if (rnd.nextBoolean()) {
+                    a = a.negate();
+                }
+
+                assertEquals(a.gcd(b), Gcd.gcd(a, b));
+                assertEquals(a.gcd(b), Gcd.gcd(b, a));
+            }
+        }
+    }
+
+}
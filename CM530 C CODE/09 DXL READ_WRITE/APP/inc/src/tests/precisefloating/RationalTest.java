@@ -4,6 +4,7 @@ import junit.framework.TestCase;
 import precisefloating.DivideByZeroException;
 import precisefloating.Formulas;
 import precisefloating.Rational;
+import precisefloating.directedrounding.RoundingMode;
 
 import java.math.BigInteger;
 
@@ -162,4 +163,121 @@ public class RationalTest extends TestCase {
         assertTrue(Rational.ZERO.reduced() == Rational.ZERO);
     }
 
+    public void testLongOverflow() {
+        p = Rational.create(Long.MAX_VALUE, 3);
+        q = Rational.create(Long.MAX_VALUE, 5);
+
+        r = p.add(q);
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(8)), r.getNumerator());
+        assertEquals(BigInteger.valueOf(15), r.getDenominator());
+
+        r = p.multiply(q);
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).pow(2), r.getNumerator());
+        assertEquals(BigInteger.valueOf(15), r.getDenominator());
+
+        assertEquals(-1, q.compareTo(p));
+        assertEquals(0, r.compareTo(r.negate().negate()));
+
+        r = Rational.create(Long.MIN_VALUE, -1);
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE).negate(), r.getNumerator());
+        assertEquals(BigInteger.ONE, r.getDenominator());
+        assertEquals(Rational.valueOf(Long.MAX_VALUE).add(Rational.ONE), r);
+    }
+
+    public void testLongMatchesBigInteger() {
+        BigInteger k = BigInteger.ONE.shiftLeft(70);
+        long[] values = {1, -1, 2, 3, -7, 10, 1L << 52, (1L << 53) + 1, -(1L << 53), 1000000007L, Long.MAX_VALUE};
+
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                p = Rational.create(values[i], Math.abs(values[j]));
+                // same value, too large for the long representation
+                q = Rational.create(BigInteger.valueOf(values[i]).multiply(k),
+                        BigInteger.valueOf(Math.abs(values[j])).multiply(k));
+
+                assertEquals(p, q);
+                assertEquals(0, p.compareTo(q));
+                assertEquals(q.add(q, true), p.add(p, true));
+                assertEquals(q.multiply(q, true), p.multiply(p, true));
+                assertEquals(q.multiply(q.inverse()), p.multiply(p.inverse()));
+            }
+        }
+    }
+
+    public void testLongDoubleValue() {
+        long[] values = {1, -1, 3, -7, 10, 1000000007L, (1L << 53) - 1, 1L << 53, -(1L << 53)};
+
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                r = Rational.create(values[i], Math.abs(values[j]));
+
+                double floor = r.doubleValue(RoundingMode.ROUND_FLOOR);
+                double ceiling = r.doubleValue(RoundingMode.ROUND_CEILING);
+                double nearest = r.doubleValue(RoundingMode.ROUND_HALF_EVEN);
+
+                assertTrue(Rational.create(floor).compareTo(r) <= 0);
+                assertTrue(Rational.create(ceiling).compareTo(r) >= 0);
+
+                if (floor == ceiling) {
+                    assertEquals(0, Rational.create(floor).compareTo(r));
+                    assertEquals(floor, nearest, 0);
+                } else {
+                    assertEquals(Formulas.next(floor), ceiling, 0);
+                    int cmp = r.subtract(Rational.create(floor)).compareTo(Rational.create(ceiling).subtract(r));
+                    assertTrue(cmp != 0);
+                    assertEquals(cmp < 0 ? floor : ceiling, nearest, 0);
+                }
+            }
+        }
+    }
+
+    public void testReducedSum() {
+        java.util.Random rnd = new java.util.Random(1);
+        int[] sizes = {4, 20, 40, 100};
+
+        for (int k = 0; k < sizes.length; k++) {
+            for (int i = 0; i < 200; i++) {
+                // small common factors in the denominators, so that both gcds of the sum matter
+                BigInteger common = BigInteger.valueOf(rnd.nextInt(30) + 1);
+                p = Rational.create(new BigInteger(sizes[k], rnd).subtract(BigInteger.ONE.shiftLeft(sizes[k] - 1)),
+                        new BigInteger(sizes[k], rnd).add(BigInteger.ONE).multiply(common));
+                q = Rational.create(new BigInteger(sizes[k], rnd),
+                        new BigInteger(sizes[k], rnd).add(BigInteger.ONE).multiply(common));
+
+                r = p.add(q, true);
+                Rational plain = p.add(q);
+                assertTrue(r.isReduced());
+                assertEquals(plain, r);
+                assertEquals(plain.reduced().getNumerator(), r.getNumerator());
+                assertEquals(plain.reduced().getDenominator(), r.getDenominator());
+
+                r = p.multiply(q, true);
+                assertTrue(r.isReduced());
+                assertEquals(p.multiply(q).reduced().getNumerator(), r.getNumerator());
+            }
+        }
+    }
+
+    public void testCreateReduced() {
+        r = Rational.createReduced(BigInteger.valueOf(355), BigInteger.valueOf(113));
+        assertTrue(r.isReduced());
+        assertSame(r, r.reduced());
+        assertEquals(Rational.create(710, 226), r);
+        assertEquals(Rational.create(710, 226).hashCode(), r.hashCode());
+    }
+
+    public void testDeferredReduction() {
+        // 2^k / 3^k, kept unreduced by multiplying it by 2/2 over and over
+        p = Rational.create(BigInteger.valueOf(2), BigInteger.valueOf(3));
+        q = Rational.create(2, 2);
+        r = p;
+        for (int i = 0; i < 5000; i++) {
+            r = r.multiply(q);
+        }
+
+        assertEquals(p, r);
+        // without the deferred reduction the denominator would be 3 * 2^5000
+        assertTrue(r.getDenominator().bitLength() < 5000);
+    }
+
 }
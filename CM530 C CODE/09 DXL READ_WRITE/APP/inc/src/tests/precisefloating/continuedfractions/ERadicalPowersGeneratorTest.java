@@ -0,0 +1,42 @@
+package tests.precisefloating.continuedfractions;
+
+import junit.framework.TestCase;
+import precisefloating.continuedfractions.*;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The buffers must not depend on the number of threads, nor on what is reused.
+ */
+public class ERadicalPowersGeneratorTest extends TestCase {
+
+    public void testParallel() {
+        BigInteger[][] sequential = ERadicalPowersGenerator.computeBuffers(-8, 14, 200, new EEmptyTable(), 1);
+        BigInteger[][] parallel = ERadicalPowersGenerator.computeBuffers(-8, 14, 200, new EEmptyTable(), 3);
+
+        for (int i = 0; i < sequential.length; i++) {
+            assertTrue(String.valueOf(i - 8), Arrays.equals(sequential[i], parallel[i]));
+
+            ContinuedFractionTestUtils.assertStartsWith(sequential[i], true, ERadicalPowersGenerator.eTwoPower(i - 8));
+        }
+    }
+
+    public void testReuse() {
+        // the table starts at -105, the rest is computed
+        ETable table = EResourceTable.getInstance();
+        BigInteger[][] reused = ERadicalPowersGenerator.computeBuffers(-110, 10, 100, table, 2);
+        BigInteger[][] computed = ERadicalPowersGenerator.computeBuffers(-110, 10, 100, new EEmptyTable(), 2);
+
+        for (int i = 0; i < reused.length; i++) {
+            assertTrue(String.valueOf(i - 110), Arrays.equals(computed[i], reused[i]));
+
+            List list = table.getBuffer(i - 110);
+            if (list != null) {
+                assertSame(list.get(99), reused[i][99]);
+            }
+        }
+    }
+
+}
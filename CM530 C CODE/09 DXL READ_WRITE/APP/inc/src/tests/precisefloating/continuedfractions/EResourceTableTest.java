@@ -0,0 +1,65 @@
+package tests.precisefloating.continuedfractions;
+
+import junit.framework.TestCase;
+import precisefloating.Rational;
+import precisefloating.continuedfractions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The binary table must hold exactly the lists of EGeneratedTable.
+ */
+public class EResourceTableTest extends TestCase {
+
+    public void testSameAsGenerated() {
+        EResourceTable table = EResourceTable.getInstance();
+        assertEquals(-105, table.getTwoPowerStart());
+        assertEquals(115, table.getTwoPowerCount());
+
+        for (int i = -110; i < 15; i++) {
+            List expected = EGeneratedTable.getInstance().getBuffer(i);
+            assertEquals(String.valueOf(i), expected, table.getBuffer(i));
+            // decoded once
+            assertSame(table.getBuffer(i), table.getBuffer(i));
+        }
+    }
+
+    public void testWrite() throws IOException {
+        BigInteger big = BigInteger.ONE.shiftLeft(1100).negate();
+        List[] lists = {
+            Arrays.asList(new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(5), BigInteger.ONE, BigInteger.ONE}),
+            null,
+            Arrays.asList(new BigInteger[]{BigInteger.ZERO, big, BigInteger.valueOf(-1)}),
+            Arrays.asList(new BigInteger[]{BigInteger.ONE}),
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EResourceTable.write(lists, 7, out);
+        EResourceTable table = new EResourceTable(ByteBuffer.wrap(out.toByteArray()));
+
+        assertNull(table.getBuffer(6));
+        for (int i = 0; i < lists.length; i++) {
+            assertEquals(lists[i], table.getBuffer(7 + i));
+        }
+        assertNull(table.getBuffer(7 + lists.length));
+    }
+
+    public void testExponential() {
+        Rational[] exponents = {Rational.create(1, 3), Rational.create(7, 5), Rational.create(1000001, 1024)};
+
+        for (int i = 0; i < exponents.length; i++) {
+            PartialQuotients expected = new ExponentialPartialQuotients(exponents[i], EGeneratedTable.getInstance());
+            PartialQuotients actual = new ExponentialPartialQuotients(exponents[i], EResourceTable.getInstance());
+
+            for (int k = 0; k < 100; k++) {
+                assertEquals(expected.nextPartialQuotient(), actual.nextPartialQuotient());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+package tests.precisefloating.continuedfractions;
+
+import junit.framework.TestCase;
+import precisefloating.Rational;
+import precisefloating.continuedfractions.*;
+import precisefloating.directedrounding.RoundingMode;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the iterators of a PartialQuotientsMemo, interleaved, past a full record, after an
+ * eviction and in several threads, with a fresh expansion of the same continued fraction.
+ */
+public class PartialQuotientsMemoTest extends TestCase {
+
+    static final int N = 300;
+
+    private static BigInteger[] expansion(ContinuedFraction cf, int n) {
+        List list = new ArrayList();
+        PartialQuotients pqi = cf.partialQuotients();
+
+        while (list.size() < n && pqi.hasNext()) {
+            list.add(pqi.nextPartialQuotient());
+        }
+
+        return (BigInteger[]) list.toArray(new BigInteger[list.size()]);
+    }
+
+    private static ContinuedFraction sum() {
+        return ContinuedFraction.exponential(Rational.create(1, 3)).add(new ERadicalExpansion(5));
+    }
+
+    public void testInterleaved() {
+        ContinuedFraction cf = sum();
+        BigInteger[] expected = expansion(cf, N);
+        PartialQuotientsMemo memo = new PartialQuotientsMemo(cf);
+
+        PartialQuotients x = memo.partialQuotients(), y = memo.partialQuotients();
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i], x.nextPartialQuotient());
+            if (i % 2 == 0) {
+                assertEquals(expected[i / 2], y.nextPartialQuotient());
+            }
+        }
+
+        // a late iterator replays what the others have recorded
+        ContinuedFractionTestUtils.assertStartsWith(expected, memo.partialQuotients());
+
+        assertEquals(N, memo.size());
+        assertFalse(memo.isComplete());
+        assertFalse(memo.isFull());
+    }
+
+    public void testFinite() {
+        // 1 + 1 / 2^100, the second partial quotient does not fit in a long
+        BigInteger big = BigInteger.ONE.shiftLeft(100);
+        ContinuedFraction cf = new RationalExpansion(Rational.create(big.add(BigInteger.ONE), big));
+        BigInteger[] expected = expansion(cf, Integer.MAX_VALUE);
+
+        PartialQuotientsMemo memo = new PartialQuotientsMemo(cf);
+        for (int i = 0; i < 3; i++) {
+            ContinuedFractionTestUtils.assertStartsWith(expected, false, memo.partialQuotients());
+        }
+
+        assertTrue(memo.isComplete());
+        assertEquals(expected.length, memo.size());
+
+        memo = new PartialQuotientsMemo(new RationalExpansion(Rational.valueOf(-7)));
+        ContinuedFractionTestUtils.assertStartsWith(new long[]{-7}, false, memo.partialQuotients());
+        ContinuedFractionTestUtils.assertStartsWith(new long[]{-7}, false, memo.partialQuotients());
+    }
+
+    public void testFull() {
+        // a scrollable expansion, and one that is not
+        ContinuedFraction[] cfs = {new ERadicalExpansion(3), sum()};
+
+        for (int c = 0; c < cfs.length; c++) {
+            BigInteger[] expected = expansion(cfs[c], N);
+            PartialQuotientsMemo memo = new PartialQuotientsMemo(cfs[c], 80);
+
+            PartialQuotients x = memo.partialQuotients(), y = memo.partialQuotients();
+            ContinuedFractionTestUtils.assertStartsWith(expected, x);
+            assertTrue(memo.isFull());
+            assertEquals(10, memo.size());
+
+            // x has taken over the source, y and z skip the recorded prefix
+            PartialQuotients z = memo.partialQuotients();
+            ContinuedFractionTestUtils.assertStartsWith(expected, y);
+            ContinuedFractionTestUtils.assertStartsWith(expected, z);
+            assertEquals(10, memo.size());
+        }
+    }
+
+    public void testEvict() {
+        ContinuedFraction cf = sum();
+        BigInteger[] expected = expansion(cf, N);
+        PartialQuotientsMemo memo = new PartialQuotientsMemo(cf);
+
+        PartialQuotients x = memo.partialQuotients();
+        for (int i = 0; i < N / 2; i++) {
+            assertEquals(expected[i], x.nextPartialQuotient());
+        }
+
+        memo.evict();
+        assertEquals(0, memo.size());
+
+        PartialQuotients y = memo.partialQuotients();
+        for (int i = N / 2; i < N; i++) {
+            assertEquals(expected[i], x.nextPartialQuotient());
+            assertEquals(expected[i - N / 2], y.nextPartialQuotient());
+        }
+        assertEquals(N / 2, memo.size());
+    }
+
+    public void testMemoize() {
+        ContinuedFraction cf = sum(), memoized = sum().memoize();
+        RoundingMode[] modes = {RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN,
+                                RoundingMode.ROUND_CEILING};
+
+        // not doubleValue: the assertions in RoundNumber.precomputeDoubles fail for this value
+        for (int m = 0; m < modes.length; m++) {
+            assertEquals(cf.bigIntegerValue(modes[m]), memoized.bigIntegerValue(modes[m]));
+        }
+
+        Convergents expected = cf.convergents(), actual = memoized.convergents();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected.nextConvergent(), actual.nextConvergent());
+        }
+
+        assertEquals(cf.floor(), memoized.floor());
+        assertEquals(cf.ceil(), memoized.ceil());
+        assertEquals(+1, memoized.compareTo(new RationalExpansion(Rational.valueOf(cf.floor()))));
+        assertEquals(-1, memoized.compareTo(new RationalExpansion(Rational.valueOf(cf.ceil()))));
+        assertTrue(((MemoizedContinuedFraction) memoized).getMemo().size() > 2);
+    }
+
+    public void testSharedThreads() throws InterruptedException {
+        ContinuedFraction cf = sum();
+        final BigInteger[] expected = expansion(cf, N);
+        final PartialQuotientsMemo memo = new PartialQuotientsMemo(cf);
+        final List errors = Collections.synchronizedList(new ArrayList());
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 5; j++) {
+                            PartialQuotients pqi = memo.partialQuotients();
+                            for (int i = 0; i < N; i++) {
+                                BigInteger actual = pqi.nextPartialQuotient();
+                                if (!actual.equals(expected[i])) {
+                                    errors.add(i + ": " + actual + " instead of " + expected[i]);
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            };
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+
+        assertEquals(Collections.EMPTY_LIST, errors);
+    }
+
+    public void testReplayWhileGrowing() throws InterruptedException {
+        // 64 chunks of 64: the chunk arrays grow 6 times while the readers replay
+        final int n = 64 * 64;
+        ContinuedFraction cf = new ERadicalExpansion(3);
+        final BigInteger[] expected = expansion(cf, n);
+        final PartialQuotientsMemo memo = new PartialQuotientsMemo(cf);
+        final List errors = Collections.synchronizedList(new ArrayList());
+
+        Thread writer = new Thread() {
+            public void run() {
+                try {
+                    PartialQuotients pqi = memo.partialQuotients();
+                    for (int i = 0; i < n; i++) {
+                        pqi.nextPartialQuotient();
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+        };
+
+        Thread[] readers = new Thread[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread() {
+                public void run() {
+                    try {
+                        int size;
+                        do {
+                            // only what is recorded: the replay never extends the record
+                            size = memo.size();
+                            PartialQuotients pqi = memo.partialQuotients();
+                            for (int i = 0; i < size; i++) {
+                                BigInteger actual = pqi.nextPartialQuotient();
+                                if (!actual.equals(expected[i])) {
+                                    errors.add(i + ": " + actual + " instead of " + expected[i]);
+                                }
+                            }
+                        } while (size < n);
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            };
+        }
+        for (int t = 0; t < readers.length; t++) {
+            readers[t].start();
+        }
+        writer.start();
+        writer.join();
+        for (int t = 0; t < readers.length; t++) {
+            readers[t].join();
+        }
+
+        assertEquals(Collections.EMPTY_LIST, errors);
+        assertEquals(n, memo.size());
+    }
+
+}
@@ -3,10 +3,13 @@ package tests.precisefloating.continuedfractions;
 import junit.framework.TestCase;
 import precisefloating.continuedfractions.ContinuedFraction;
 import precisefloating.continuedfractions.ContinuedFractionConstants;
+import precisefloating.continuedfractions.Convergents;
+import precisefloating.continuedfractions.ERadicalExpansion;
 import precisefloating.continuedfractions.RoundContinuedFraction;
 import precisefloating.Rational;
 import precisefloating.directedrounding.RoundingMode;
 
+import java.math.BigInteger;
 import java.util.Random;
 
 /**
@@ -61,4 +64,74 @@ public class RoundContinuedFractionTest extends TestCase {
         }
     }
 
+    private static final RoundingMode[] MODES = {
+        RoundingMode.ROUND_FLOOR, RoundingMode.ROUND_HALF_EVEN, RoundingMode.ROUND_CEILING};
+
+    /**
+     * Rounds every convergent until two consecutive ones agree. Fresh convergents for every
+     * call, as rounding one value in several directions trips the assertions in
+     * RoundNumber.precomputeDoubles for some of them.
+     */
+    private static double referenceDouble(ContinuedFraction cf, RoundingMode mode) {
+        Convergents convergents = cf.convergents();
+        double previous = Double.NaN;
+
+        while (true) {
+            double current = convergents.nextConvergent().doubleValue(mode);
+            if (!convergents.hasNext() || current == previous) {
+                return current;
+            }
+            previous = current;
+        }
+    }
+
+    private static float referenceFloat(ContinuedFraction cf, RoundingMode mode) {
+        Convergents convergents = cf.convergents();
+        float previous = Float.NaN;
+
+        while (true) {
+            float current = convergents.nextConvergent().floatValue(mode);
+            if (!convergents.hasNext() || current == previous) {
+                return current;
+            }
+            previous = current;
+        }
+    }
+
+    private void assertRounding(ContinuedFraction cf) {
+        for (int m = 0; m < MODES.length; m++) {
+            RoundContinuedFraction rcf = new RoundContinuedFraction(cf);
+            rcf.setRoundingMode(MODES[m]);
+            assertEquals(cf + " " + MODES[m], referenceDouble(cf, MODES[m]), rcf.doubleValue(), 0);
+
+            rcf = new RoundContinuedFraction(cf);
+            rcf.setRoundingMode(MODES[m]);
+            assertEquals(cf + " " + MODES[m], referenceFloat(cf, MODES[m]), rcf.floatValue(), 0);
+        }
+    }
+
+    public void testSkippedConvergents() {
+        for (int k = -20; k <= 20; k++) {
+            assertRounding(ContinuedFraction.exponential(Rational.create(k, 7)));
+        }
+
+        for (int p = 2; p <= 10; p++) {
+            assertRounding(new ERadicalExpansion(p));
+            assertRounding(new ERadicalExpansion(p).inverse());
+        }
+
+        Random rnd = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            // long expansions, and subnormal magnitudes
+            BigInteger numerator = new BigInteger(100, rnd).add(BigInteger.ONE);
+            BigInteger denominator = new BigInteger(100, rnd).add(BigInteger.ONE);
+            if (i % 4 == 0) {
+                denominator = denominator.shiftLeft(1000 + rnd.nextInt(200));
+            }
+            Rational r = Rational.create(numerator, denominator);
+            assertRounding(r.expansion());
+            assertRounding(r.negate().expansion());
+        }
+    }
+
 }
@@ -5,6 +5,7 @@ import precisefloating.Rational;
 import precisefloating.continuedfractions.*;
 
 import java.math.BigInteger;
+import java.util.Random;
 
 /**
  * @author Daniel Aioanei (aioaneid@go.ro)
@@ -100,4 +101,41 @@ public class TensorStartExpansionTest extends TestCase {
         assertFalse(pqi.hasNext());
     }
 
+    /**
+     * Operands of 1 to 70 bits, so that the tensor and the matrix states cross the range kept in
+     * longs in both directions.
+     */
+    public void testLongRange() {
+        Random rnd = new Random(1);
+
+        for (int i = 0; i < 300; i++) {
+            x = random(rnd);
+            y = random(rnd);
+            xExpansion = new RationalExpansion(x);
+            yExpansion = new RationalExpansion(y);
+
+            assertExpansion(x.add(y), xExpansion.add(yExpansion));
+            assertExpansion(x.subtract(y), xExpansion.subtract(yExpansion));
+            assertExpansion(x.multiply(y), xExpansion.multiply(yExpansion));
+            assertExpansion(x.divide(y), xExpansion.divide(yExpansion));
+        }
+    }
+
+    private static Rational random(Random rnd) {
+        BigInteger n = new BigInteger(1 + rnd.nextInt(70), rnd).add(BigInteger.ONE);
+        BigInteger d = new BigInteger(1 + rnd.nextInt(70), rnd).add(BigInteger.ONE);
+        return Rational.create(rnd.nextBoolean() ? n : n.negate(), d);
+    }
+
+    private static void assertExpansion(Rational expected, ContinuedFraction actual) {
+        PartialQuotients expectedPqs = new RationalExpansion(expected).partialQuotients();
+        PartialQuotients actualPqs = actual.partialQuotients();
+
+        while (expectedPqs.hasNext()) {
+            assertTrue(expected.toString(), actualPqs.hasNext());
+            assertEquals(expected.toString(), expectedPqs.nextPartialQuotient(), actualPqs.nextPartialQuotient());
+        }
+        assertFalse(expected.toString(), actualPqs.hasNext());
+    }
+
 }
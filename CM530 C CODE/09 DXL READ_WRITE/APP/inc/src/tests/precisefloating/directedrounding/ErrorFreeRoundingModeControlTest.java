@@ -0,0 +1,79 @@
+package tests.precisefloating.directedrounding;
+
+import precisefloating.Formulas;
+import precisefloating.directedrounding.ErrorFreeRoundingModeControl;
+import precisefloating.directedrounding.ManagedRoundingModeControl;
+
+import java.util.Random;
+
+/**
+ * Runs the ManagedRoundingModeControl tests against ErrorFreeRoundingModeControl and checks
+ * that both give bit for bit the same intervals.
+ */
+public class ErrorFreeRoundingModeControlTest extends ManagedRoundingModeControlTest {
+
+    private final ManagedRoundingModeControl managed = new ManagedRoundingModeControl();
+
+    protected void setUp() {
+        r = new ErrorFreeRoundingModeControl();
+    }
+
+    public void testSameAsManaged() {
+        Random rnd = new Random(1);
+        double[] b = new double[2];
+
+        double[] special = {0.0, -0.0, Double.MIN_VALUE, -Double.MIN_VALUE, Formulas.DOUBLE_MAX_SUBNORMAL,
+                Formulas.DOUBLE_MIN_NORMAL, Double.MAX_VALUE, -Double.MAX_VALUE, 1, -1,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN};
+
+        for (int i = 0; i < 200000; i++) {
+            x = i < special.length * special.length ? special[i % special.length] : random(rnd);
+            y = i < special.length * special.length ? special[i / special.length] : random(rnd);
+
+            // around the same exponent, to get cancellations and exact results as well
+            if (rnd.nextInt(4) == 0) {
+                y = -x * (1 + rnd.nextInt(8) * Math.ulp(1.0));
+            }
+
+            r.add(x, y, a, 0);
+            managed.add(x, y, b, 0);
+            assertSame("add", a, b);
+
+            r.multiply(x, y, a, 0);
+            managed.multiply(x, y, b, 0);
+            assertSame("multiply", a, b);
+
+            r.divide(x, y, a, 0);
+            managed.divide(x, y, b, 0);
+            assertSame("divide", a, b);
+
+            // sqrt(+infinity) trips an assertion of ManagedRoundingModeControl.exactValue
+            if (!Double.isInfinite(x)) {
+                r.sqrt(Math.abs(x), a, 0);
+                managed.sqrt(Math.abs(x), b, 0);
+                assertSame("sqrt", a, b);
+            }
+        }
+    }
+
+    /**
+     * Any finite double, with the exponents spread uniformly, so that subnormal numbers and
+     * products near the underflow and overflow thresholds are frequent.
+     */
+    private static double random(Random rnd) {
+        long bits = rnd.nextLong() & 0x800FFFFFFFFFFFFFL;
+        long exponent = rnd.nextInt(2047);
+        if (rnd.nextInt(8) == 0) {
+            // short mantissas make exact sums and products likely
+            bits &= 0x800FF00000000000L;
+        }
+        return Double.longBitsToDouble(bits | exponent << 52);
+    }
+
+    private void assertSame(String operation, double[] a, double[] b) {
+        String message = operation + "(" + x + ", " + y + ")";
+        assertEquals(message, Double.doubleToLongBits(b[0]), Double.doubleToLongBits(a[0]));
+        assertEquals(message, Double.doubleToLongBits(b[1]), Double.doubleToLongBits(a[1]));
+    }
+
+}
@@ -0,0 +1,201 @@
+package tests.precisefloating.directedrounding;
+
+import junit.framework.TestCase;
+import precisefloating.Formulas;
+import precisefloating.Rational;
+import precisefloating.directedrounding.Interval;
+import precisefloating.directedrounding.IntervalArray;
+
+import java.util.Random;
+
+/**
+ * Checks the interval kernels against exact rational arithmetic: every result must contain the
+ * exact value, and for degenerate operands the bounds must be the exact value rounded down and up.
+ */
+public class IntervalArrayTest extends TestCase {
+
+    static final int N = 2000;
+
+    Random rnd = new Random(1);
+
+    private double random() {
+        switch (rnd.nextInt(4)) {
+            case 0:
+                return rnd.nextGaussian();
+            case 1:
+                return (rnd.nextDouble() - 0.5) * Math.scalb(1.0, rnd.nextInt(200) - 100);
+            case 2:
+                // short mantissas, so that some results are exact
+                return rnd.nextInt(2000) - 1000;
+            default:
+                // tiny and huge magnitudes
+                return (rnd.nextDouble() - 0.5) * Math.scalb(1.0, rnd.nextBoolean() ? -1060 : 1020);
+        }
+    }
+
+    private double[] randoms() {
+        double[] x = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = random();
+        }
+        return x;
+    }
+
+    /**
+     * lo and hi are exact rounded down and up: equal if exact is a double, adjacent otherwise.
+     */
+    private static void assertTight(String message, Rational exact, double lo, double hi) {
+        assertTrue(message, Rational.create(lo).compareTo(exact) <= 0);
+        assertTrue(message, Rational.create(hi).compareTo(exact) >= 0);
+        if (lo != hi) {
+            assertEquals(message, Math.nextUp(lo), hi, 0);
+        }
+    }
+
+    public void testPointOperations() {
+        double[] xs = randoms(), ys = randoms();
+        IntervalArray x = IntervalArray.valueOf(xs), y = IntervalArray.valueOf(ys), z = new IntervalArray(N);
+
+        IntervalArray.add(x, y, z);
+        for (int i = 0; i < N; i++) {
+            Rational exact = Rational.create(xs[i]).add(Rational.create(ys[i]));
+            assertTight(xs[i] + " + " + ys[i], exact, z.getLo()[i], z.getHi()[i]);
+        }
+
+        IntervalArray.subtract(x, y, z);
+        for (int i = 0; i < N; i++) {
+            Rational exact = Rational.create(xs[i]).subtract(Rational.create(ys[i]));
+            assertTight(xs[i] + " - " + ys[i], exact, z.getLo()[i], z.getHi()[i]);
+        }
+
+        IntervalArray.multiply(x, y, z);
+        for (int i = 0; i < N; i++) {
+            Rational exact = Rational.create(xs[i]).multiply(Rational.create(ys[i]));
+            if (Math.abs(xs[i] * ys[i]) < Double.MAX_VALUE) {
+                assertTight(xs[i] + " * " + ys[i], exact, z.getLo()[i], z.getHi()[i]);
+            }
+        }
+
+        IntervalArray.divide(x, y, z);
+        for (int i = 0; i < N; i++) {
+            Rational exact = Rational.create(xs[i]).divide(Rational.create(ys[i]));
+            if (Math.abs(xs[i] / ys[i]) < Double.MAX_VALUE) {
+                assertTight(xs[i] + " / " + ys[i], exact, z.getLo()[i], z.getHi()[i]);
+            }
+        }
+    }
+
+    public void testSqrt() {
+        double[] xs = randoms();
+        for (int i = 0; i < N; i++) {
+            xs[i] = Math.abs(xs[i]);
+        }
+        IntervalArray z = new IntervalArray(N);
+        IntervalArray.sqrt(IntervalArray.valueOf(xs), z);
+
+        for (int i = 0; i < N; i++) {
+            double lo = z.getLo()[i], hi = z.getHi()[i];
+            Rational x = Rational.create(xs[i]);
+            String message = "sqrt(" + xs[i] + ")";
+            assertTrue(message, Rational.create(lo).square().compareTo(x) <= 0);
+            assertTrue(message, Rational.create(hi).square().compareTo(x) >= 0);
+            if (lo != hi) {
+                assertEquals(message, Math.nextUp(lo), hi, 0);
+            }
+        }
+
+        assertEquals(new Interval(0, 2), new Interval(-1, 4).sqrt());
+    }
+
+    public void testExp() {
+        double[] xs = randoms();
+        IntervalArray z = new IntervalArray(N);
+        IntervalArray.exp(IntervalArray.valueOf(xs), z);
+
+        for (int i = 0; i < N; i++) {
+            double lo = z.getLo()[i], hi = z.getHi()[i], e = Math.exp(xs[i]);
+            assertTrue(lo <= e && e <= hi);
+            if (xs[i] != 0) {
+                assertTrue(lo < hi);
+            }
+        }
+
+        assertEquals(Interval.valueOf(1), Interval.valueOf(0).exp());
+    }
+
+    public void testIntervalOperands() {
+        for (int i = 0; i < N; i++) {
+            double a = random(), b = random(), c = random(), d = random();
+            Interval x = new Interval(Math.min(a, b), Math.max(a, b));
+            Interval y = new Interval(Math.min(c, d), Math.max(c, d));
+
+            // the endpoints and an inner point of each interval
+            double[] xp = {x.getLo(), x.getHi(), (x.getLo() + x.getHi()) / 2};
+            double[] yp = {y.getLo(), y.getHi(), (y.getLo() + y.getHi()) / 2};
+
+            Interval sum = x.add(y), difference = x.subtract(y), product = x.multiply(y),
+                    quotient = x.divide(y);
+
+            for (int j = 0; j < xp.length; j++) {
+                for (int k = 0; k < yp.length; k++) {
+                    Rational p = Rational.create(xp[j]), q = Rational.create(yp[k]);
+                    assertContains(sum, p.add(q));
+                    assertContains(difference, p.subtract(q));
+                    if (Math.abs(xp[j] * yp[k]) < Double.MAX_VALUE) {
+                        assertContains(product, p.multiply(q));
+                    }
+                    if (yp[k] != 0 && Math.abs(xp[j] / yp[k]) < Double.MAX_VALUE) {
+                        assertContains(quotient, p.divide(q));
+                    }
+                }
+            }
+        }
+
+        assertEquals(Interval.ENTIRE, new Interval(1, 2).divide(new Interval(-1, 1)));
+        assertEquals(new Interval(-4, 8), new Interval(-2, 4).multiply(new Interval(-1, 2)));
+        assertEquals(Interval.valueOf(0), Interval.ENTIRE.multiply(Interval.valueOf(0)));
+    }
+
+    /**
+     * Also for the zero and infinite bounds Rational.create does not accept.
+     */
+    private static int compare(double d, Rational exact) {
+        if (Double.isInfinite(d)) {
+            return d > 0 ? +1 : -1;
+        }
+        return d == 0 ? -exact.signum() : Rational.create(d).compareTo(exact);
+    }
+
+    private static void assertContains(Interval x, Rational exact) {
+        if (compare(x.getLo(), exact) > 0 || compare(x.getHi(), exact) < 0) {
+            fail(x + " does not contain " + exact);
+        }
+    }
+
+    public void testSumAndDot() {
+        double[] xs = randoms(), ys = randoms();
+        for (int i = 0; i < N; i++) {
+            // no overflow in the products
+            xs[i] = Math.max(-1e150, Math.min(1e150, xs[i]));
+            ys[i] = Math.max(-1e150, Math.min(1e150, ys[i]));
+        }
+
+        IntervalArray x = IntervalArray.valueOf(xs), y = IntervalArray.valueOf(ys);
+        Rational sum = Rational.ZERO, dot = Rational.ZERO;
+        for (int i = 0; i < N; i++) {
+            sum = sum.add(Rational.create(xs[i]));
+            dot = dot.add(Rational.create(xs[i]).multiply(Rational.create(ys[i])));
+        }
+
+        assertContains(x.sum(), sum);
+        assertContains(x.dot(y), dot);
+
+        // a short exact case; 3 + -3 rounded down is -0
+        x = IntervalArray.valueOf(new double[]{1, 2, 3});
+        y = new IntervalArray(new double[]{1, 1, -1}, new double[]{1, 2, 1});
+        assertEquals(new Interval(-0.0, 8), x.dot(y));
+        assertEquals(Interval.valueOf(6), x.sum());
+        assertEquals(Formulas.DOUBLE_MIN_NORMAL, new Interval(-Formulas.DOUBLE_MIN_NORMAL, 0).width(), 0);
+    }
+
+}
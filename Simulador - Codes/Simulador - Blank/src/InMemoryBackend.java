@@ -0,0 +1,255 @@
+import java.util.HashMap;
+import java.util.concurrent.locks.LockSupport;
+
+import coppelia.CharWA;
+import coppelia.FloatW;
+import coppelia.FloatWA;
+import coppelia.IntW;
+import coppelia.IntWA;
+import coppelia.StringWA;
+
+/*
+ * In-process stand-in for the V-REP server, used to exercise Bioloid and the control loops
+ * without the simulator or the native library.
+ *
+ * Every joint is a first-order servo: each simulation step moves it a fixed fraction
+ * 1 - exp(-step/timeConstant) of the way to its target. In synchronous mode a step is taken
+ * on every trigger; otherwise the server runs freely, modelled as one step per remote call
+ * (none while the communication is paused). Every call is counted.
+ */
+public class InMemoryBackend implements VrepBackend {
+
+	static final int MAX_HANDLES = 64;
+
+	private final HashMap<String,Integer> handles = new HashMap<String,Integer>();
+	private final String[] names = new String[MAX_HANDLES];
+	private final float[] target = new float[MAX_HANDLES];
+	private final float[] position = new float[MAX_HANDLES];
+	private final boolean[] streamed = new boolean[MAX_HANDLES];
+	private boolean synchronous = false;
+	private boolean paused = false;
+	private boolean groupStreamed = false;
+
+	private final int stepMillis;
+	private final float gain;
+	private int simulationTime = 0;
+
+	public long calls = 0;
+	public long steps = 0;
+	public long triggers = 0;
+	public long pausedFrames = 0;
+	public long callLatencyNanos = 0; // busy-waited on every call, to stand in for the JNI + socket cost
+	public boolean blockingLatency = false; // parks for the latency instead, like a thread waiting on the socket
+	public long roundTripNanos = 0; // parked, on top of the latency, by the calls that wait for the server's reply
+
+	// 50 ms steps (the V-REP default) and servos with a 50 ms time constant.
+	public InMemoryBackend(){
+		this(0.05, 0.05);
+	}
+
+	public InMemoryBackend(double stepSeconds, double timeConstant){
+		if(stepSeconds <= 0 || timeConstant <= 0)
+			throw new IllegalArgumentException("step and time constant must be positive");
+		this.stepMillis = (int)Math.round(stepSeconds*1000);
+		this.gain = (float)(1 - Math.exp(-stepSeconds/timeConstant));
+	}
+
+	private void call(){
+		calls++;
+		if(callLatencyNanos > 0 && blockingLatency){
+			LockSupport.parkNanos(callLatencyNanos);
+		}
+		else if(callLatencyNanos > 0){
+			long end = System.nanoTime() + callLatencyNanos;
+			while(System.nanoTime() < end){
+			}
+		}
+		if(!synchronous && !paused)
+			step();
+	}
+
+	// A call in blocking mode (or simxStart, simxGetPingTime) waits for the reply of the server.
+	private void reply(int operationMode){
+		if(roundTripNanos > 0 && operationMode == simx_opmode_blocking)
+			LockSupport.parkNanos(roundTripNanos);
+	}
+
+	private void step(){
+		int n = handles.size();
+		for(int h=0;h<n;h++)
+			position[h] += (target[h] - position[h])*gain;
+		simulationTime += stepMillis;
+		steps++;
+	}
+
+	// Current (simulated) position of a joint, for checks outside the remote API.
+	public float position(int jointHandle){
+		return position[jointHandle];
+	}
+
+	public float target(int jointHandle){
+		return target[jointHandle];
+	}
+
+	public int simxStart(final String connectionAddress, int connectionPort, boolean waitUntilConnected, boolean doNotReconnectOnceDisconnected, int timeOutInMs, int commThreadCycleInMs){
+		call();
+		reply(simx_opmode_blocking);
+		return 0;
+	}
+
+	public void simxFinish(int clientID){
+		call();
+	}
+
+	public int simxGetConnectionId(int clientID){
+		call();
+		return clientID;
+	}
+
+	// Adds an object to the scene, without a remote call, and returns its handle (-1 if the scene is full).
+	// simxGetObjectHandle adds the objects it does not know yet, so this is only needed to list them first.
+	public int addObject(String name){
+		Integer h = handles.get(name);
+		if(h == null){
+			if(handles.size() == MAX_HANDLES)
+				return -1;
+			h = Integer.valueOf(handles.size());
+			handles.put(name, h);
+			names[h.intValue()] = name;
+		}
+		return h.intValue();
+	}
+
+	public int simxGetObjectHandle(int clientID, final String objectName, IntW handle, int operationMode){
+		call();
+		reply(operationMode);
+		int h = addObject(objectName);
+		if(h < 0)
+			return simx_return_remote_error_flag;
+		handle.setValue(h);
+		return simx_return_ok;
+	}
+
+	public int simxSetJointTargetPosition(int clientID, int jointHandle, float targetPosition, int operationMode){
+		call();
+		reply(operationMode);
+		if(jointHandle < 0 || jointHandle >= MAX_HANDLES)
+			return simx_return_remote_error_flag;
+		target[jointHandle] = targetPosition;
+		return simx_return_ok;
+	}
+
+	public int simxGetJointPosition(int clientID, int jointHandle, FloatW position, int operationMode){
+		call();
+		reply(operationMode);
+		if(jointHandle < 0 || jointHandle >= MAX_HANDLES)
+			return simx_return_remote_error_flag;
+		if(operationMode == simx_opmode_streaming)
+			streamed[jointHandle] = true;
+		else if(operationMode == simx_opmode_discontinue)
+			streamed[jointHandle] = false;
+		else if(operationMode == simx_opmode_buffer && !streamed[jointHandle])
+			return simx_return_novalue_flag;
+		position.setValue(this.position[jointHandle]);
+		return simx_return_ok;
+	}
+
+	public int simxGetObjectPosition(int clientID, int objectHandle, int relativeToObjectHandle, FloatWA position, int operationMode){
+		call();
+		reply(operationMode);
+		float[] p = position.getNewArray(3);
+		p[2] = 0.25f;
+		return simx_return_ok;
+	}
+
+	public int simxCallScriptFunction(int clientID, final String scriptDescription, int options, final String functionName, final IntWA inInts, final FloatWA inFloats, final StringWA inStrings, final CharWA inBuffer, IntWA outInts, FloatWA outFloats, StringWA outStrings, CharWA outBuffer, int operationMode){
+		call();
+		reply(operationMode);
+		if(outFloats != null)
+			outFloats.getNewArray(3);
+		return simx_return_ok;
+	}
+
+	// Only the object names (data type 0) and the joint state (15: position and force per joint) are modelled;
+	// every handle counts as a joint. The force is taken proportional to the position error.
+	public int simxGetObjectGroupData(int clientID, int objectType, int dataType, IntWA handles, IntWA intData, FloatWA floatData, StringWA stringData, int operationMode){
+		call();
+		reply(operationMode);
+		if(dataType == 0){
+			int n = this.handles.size();
+			int[] h = handles.getNewArray(n);
+			String[] s = stringData.getNewArray(n);
+			for(int k=0;k<n;k++){
+				h[k] = k;
+				s[k] = names[k];
+			}
+			return simx_return_ok;
+		}
+		if(dataType != 15)
+			return simx_return_remote_error_flag;
+		if(operationMode == simx_opmode_discontinue){
+			groupStreamed = false;
+			return simx_return_ok;
+		}
+		if(operationMode == simx_opmode_streaming)
+			groupStreamed = true;
+		else if(operationMode == simx_opmode_buffer && !groupStreamed)
+			return simx_return_novalue_flag;
+		int n = this.handles.size();
+		int[] h = handles.getNewArray(n);
+		float[] data = floatData.getNewArray(2*n);
+		for(int k=0;k<n;k++){
+			h[k] = k;
+			data[2*k] = position[k];
+			data[2*k+1] = target[k] - position[k];
+		}
+		return simx_return_ok;
+	}
+
+	public int simxPauseCommunication(int clientID, boolean enable){
+		call();
+		if(paused && !enable)
+			pausedFrames++;
+		paused = enable;
+		return simx_return_ok;
+	}
+
+	public int simxSynchronous(int clientID, boolean enable){
+		call();
+		synchronous = enable;
+		return simx_return_ok;
+	}
+
+	public int simxSynchronousTrigger(int clientID){
+		call();
+		if(!synchronous)
+			return simx_return_remote_error_flag;
+		triggers++;
+		step();
+		return simx_return_ok;
+	}
+
+	public int simxGetPingTime(int clientID, IntW pingTime){
+		call();
+		reply(simx_opmode_blocking);
+		pingTime.setValue(0);
+		return simx_return_ok;
+	}
+
+	public int simxGetLastCmdTime(int clientID){
+		call();
+		return simulationTime;
+	}
+
+	public int simxStartSimulation(int clientID, int operationMode){
+		call();
+		reply(operationMode);
+		return simx_return_ok;
+	}
+
+	public int simxStopSimulation(int clientID, int operationMode){
+		call();
+		reply(operationMode);
+		return simx_return_ok;
+	}
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.math.BigDecimal;
 
 import coppelia.IntW;
@@ -6,7 +7,7 @@ import coppelia.remoteApi;
 public class Run {
 	
 	
-	public static void main(String[] args){
+	public static void main(String[] args) throws IOException{
 		
 		//Getting access VREP's libraries ------------------------------------------------------------------
     	remoteApi vrep = new remoteApi();
@@ -31,7 +32,7 @@ public class Run {
 		
 		
 		BIOLOID func = new BIOLOID(vrep,clientID,id1,id2,id3,id4,id5,id6,id7,id8,id9,id10,id11,id12,id13,id14,id15,id16,id17,id18,robo,chao);
-		func.techCheck();
+		func.techCheck(HandleCache.load("handles.properties"), "RunBioloid_v2.ttt"); // handles cached between runs, see HandleCache
 		
 		// COMEAR A ESCREVER SEU CDIGO AQUI --------------------------------------------------------------
 		
@@ -0,0 +1,92 @@
+/*
+ * Conversion between AX-12 servo units (0 to 1023 ticks over 300 degrees) and the joint angles
+ * V-REP works with (radians), in one place for every joint.
+ *
+ * Each joint has a trim (ticks added before converting), a direction and a range of ticks its
+ * targets are clamped to. They are folded into one scale and one offset per joint, so converting a
+ * pose is a clamp and a multiply-add per joint, in plain loops over parallel arrays.
+ * version() changes on every calibration, so precomputed radians (see GaitTable.toRadians) can
+ * tell when they are stale.
+ */
+public class ServoModel {
+
+	public static final int TICKS = 1024;
+	public static final double OFFSET = -2.62; // radians at tick 0
+	public static final double RADIANS_PER_TICK = 0.00511711875;
+
+	private final double[] scale;
+	private final double[] offset;
+	private final double[] minTicks;
+	private final double[] maxTicks;
+	private int version = 0;
+
+	// Joints with no trim, the normal direction and the whole range of the servo.
+	public ServoModel(int joints){
+		scale = new double[joints];
+		offset = new double[joints];
+		minTicks = new double[joints];
+		maxTicks = new double[joints];
+		for(int j=0;j<joints;j++)
+			calibrate(j, 0, false, 0, TICKS - 1);
+		version = 0;
+	}
+
+	public static ServoModel bioloid(){
+		return new ServoModel(18);
+	}
+
+	public int joints(){
+		return scale.length;
+	}
+
+	public int version(){
+		return version;
+	}
+
+	// reversed mirrors the joint around 0 radians; the targets are clamped to [min, max] ticks before the trim.
+	public void calibrate(int joint, double trimTicks, boolean reversed, double min, double max){
+		if(min > max || min < 0 || max > TICKS - 1)
+			throw new IllegalArgumentException("joint " + (joint+1) + ": range must lie within 0.." + (TICKS-1) + ": " + min + ".." + max);
+		double direction = reversed ? -1 : 1;
+		scale[joint] = direction*RADIANS_PER_TICK;
+		offset[joint] = direction*(OFFSET + trimTicks*RADIANS_PER_TICK);
+		minTicks[joint] = min;
+		maxTicks[joint] = max;
+		version++;
+	}
+
+	public float radians(int joint, double ticks){
+		double t = Math.min(Math.max(ticks, minTicks[joint]), maxTicks[joint]);
+		return (float)(offset[joint] + scale[joint]*t);
+	}
+
+	// Inverse of radians(), without clamping, e.g. to print the joint positions read from V-REP.
+	public double ticks(int joint, float radians){
+		return (radians - offset[joint])/scale[joint];
+	}
+
+	// One pose: ticks[j] to radians[j] for every joint.
+	public void toRadians(double[] ticks, float[] radians){
+		for(int j=0;j<scale.length;j++){
+			double t = Math.min(Math.max(ticks[j], minTicks[j]), maxTicks[j]);
+			radians[j] = (float)(offset[j] + scale[j]*t);
+		}
+	}
+
+	// count consecutive poses stored flat, as in GaitTable.
+	public void toRadians(float[] ticks, float[] radians, int count){
+		int n = scale.length;
+		for(int p=0;p<count;p++){
+			int base = p*n;
+			for(int j=0;j<n;j++){
+				double t = Math.min(Math.max(ticks[base + j], minTicks[j]), maxTicks[j]);
+				radians[base + j] = (float)(offset[j] + scale[j]*t);
+			}
+		}
+	}
+
+	public void toTicks(float[] radians, double[] ticks){
+		for(int j=0;j<scale.length;j++)
+			ticks[j] = (radians[j] - offset[j])/scale[j];
+	}
+}
@@ -0,0 +1,60 @@
+import java.util.Arrays;
+
+/*
+ * Runs the continuous walk headless: Bioloid in synchronous mode against InMemoryBackend,
+ * one simulation step per command. Prints the throughput and the latency distribution of
+ * a command (setDegrees from the gait table) and of a command followed by readJoints().
+ * With "instrumented", the backend is wrapped in InstrumentedBackend and its report printed.
+ * Usage: java BackendBenchmark [steps] [call latency in ns] [instrumented]
+ */
+public class BackendBenchmark {
+
+	public static void main(String[] args){
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		long latency = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		boolean instrumented = args.length > 2 && args[2].equals("instrumented");
+
+		run("command", false, steps/10, latency, instrumented, false); // warm up
+		run("command", false, steps, latency, instrumented, true);
+		run("cmd+read", true, steps/10, latency, instrumented, false);
+		run("cmd+read", true, steps, latency, instrumented, true);
+	}
+
+	static void run(String label, boolean read, int steps, long latency, boolean instrumented, boolean print){
+		InMemoryBackend vrep = new InMemoryBackend();
+		int clientID = vrep.simxStart("127.0.0.1",19999,true,true,5000,5);
+		InstrumentedBackend backend = instrumented ? new InstrumentedBackend(vrep) : null;
+		Bioloid bioloid = new Bioloid(instrumented ? backend : vrep, clientID);
+		JointTable joints = bioloid.getJoints();
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetObjectHandle(clientID, joints.name(i), joints.handle, vrep.simx_opmode_oneshot_wait);
+			joints.handles[i] = joints.handle.getValue();
+		}
+		bioloid.setBulkReads(true);
+		bioloid.startSynchronous(new SynchronousStepper(1));
+		vrep.callLatencyNanos = latency;
+
+		GaitTable gait = Run.GAIT;
+		long[] nanos = new long[steps];
+		long calls = vrep.calls;
+		long start = System.nanoTime();
+		for(int k=0;k<steps;k++){
+			long t0 = System.nanoTime();
+			bioloid.setDegrees(0, gait, k % gait.ticks());
+			if(read)
+				bioloid.readJoints();
+			nanos[k] = System.nanoTime() - t0;
+		}
+		long elapsed = System.nanoTime() - start;
+		calls = vrep.calls - calls;
+		bioloid.stopSynchronous();
+		if(!print)
+			return;
+
+		Arrays.sort(nanos);
+		System.out.printf("%-9s %9d steps %12.0f steps/s  p50 %7d ns  p99 %7d ns  max %9d ns  %5.1f calls/command%n",
+				label, vrep.steps, vrep.steps/(elapsed/1e9), nanos[steps/2], nanos[(int)(steps*0.99)], nanos[steps-1], (double)calls/steps);
+		if(instrumented)
+			backend.report(System.out);
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * A gait compiled into one flat array: the pose of tick t is data[t*joints .. t*joints+joints-1].
+ * The table is built once from a GaitSource and never changes, so reading a tick costs a few
+ * array loads and allocates nothing.
+ */
+public class GaitTable {
+
+	private final float[] data;
+	private final int ticks;
+	private final int joints;
+
+	private GaitTable(float[] data, int ticks, int joints){
+		this.data = data;
+		this.ticks = ticks;
+		this.joints = joints;
+	}
+
+	public static GaitTable compile(GaitSource source){
+		int ticks = source.ticks();
+		int joints = source.joints();
+		float[] data = new float[ticks*joints];
+		double[] pose = new double[joints];
+		for(int t=0;t<ticks;t++){
+			source.pose(t, pose);
+			for(int j=0;j<joints;j++)
+				data[t*joints + j] = (float)pose[j];
+		}
+		return new GaitTable(data, ticks, joints);
+	}
+
+	public int ticks(){
+		return ticks;
+	}
+
+	public int joints(){
+		return joints;
+	}
+
+	// Position of one joint at one tick, in servo units.
+	public float get(int tick, int joint){
+		return data[tick*joints + joint];
+	}
+
+	// Every tick converted to radians by the servos, in the same layout, so that sending a tick is a copy.
+	public float[] toRadians(ServoModel servos){
+		if(servos.joints() != joints)
+			throw new IllegalArgumentException("the gait has " + joints + " joints, the servos " + servos.joints());
+		float[] radians = new float[data.length];
+		servos.toRadians(data, radians, ticks);
+		return radians;
+	}
+
+	// Copies the pose of the tick into degrees, e.g. to keep editing it before a setDegrees call.
+	public void copyTick(int tick, double[] degrees){
+		int base = tick*joints;
+		for(int j=0;j<joints;j++)
+			degrees[j] = data[base + j];
+	}
+}
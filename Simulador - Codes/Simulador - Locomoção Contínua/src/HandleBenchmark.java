@@ -0,0 +1,88 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/*
+ * Time from simxStart to the first pose sent, against InMemoryBackend with a simulated round trip
+ * on every blocking call: techCheck() looking up each object, techCheck(cache, scene) discovering the
+ * handles on the first connection, again on a reconnection, with the handles in the cache, and on a
+ * scene whose handles moved since they were cached, which must be noticed and discovered again.
+ * Usage: java HandleBenchmark [round trip in us] [connections]
+ */
+public class HandleBenchmark {
+
+	public static void main(String[] args) throws IOException{
+		long rtt = (args.length > 0 ? Long.parseLong(args[0]) : 2000)*1000;
+		int connections = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		File file = File.createTempFile("handles", ".properties");
+		file.deleteOnExit();
+		String fileName = file.getPath();
+
+		for(int pass=0;pass<2;pass++){ // the first pass warms up
+			long lookup = 0, discovery = 0, cached = 0, stale = 0;
+			for(int c=0;c<connections;c++){
+				lookup += connect(rtt, null, null, 0);
+				file.delete();
+				discovery += connect(rtt, HandleCache.load(fileName), "Bioloid.ttt", 0);
+				cached += connect(rtt, HandleCache.load(fileName), "Bioloid.ttt", 0);
+				stale += connect(rtt, HandleCache.load(fileName), "Bioloid.ttt", 3);
+				connect(rtt, HandleCache.load(fileName), "Bioloid.ttt", 0); // back to the first scene
+			}
+			if(pass == 0)
+				continue;
+			System.out.printf("round trip %.1f ms%n", rtt/1e6);
+			System.out.printf("%-10s %8.1f ms to the first pose%n", "lookup", lookup/1e6/connections);
+			System.out.printf("%-10s %8.1f ms to the first pose%n", "discovery", discovery/1e6/connections);
+			System.out.printf("%-10s %8.1f ms to the first pose%n", "cached", cached/1e6/connections);
+			System.out.printf("%-10s %8.1f ms to the first pose%n", "stale", stale/1e6/connections);
+		}
+	}
+
+	// Nanoseconds from simxStart to the first pose sent; without a cache, techCheck() as Run did.
+	// extra objects ahead of the others give the scene other handles.
+	static long connect(long rtt, HandleCache cache, String scene, int extra){
+		InMemoryBackend vrep = new InMemoryBackend();
+		for(int k=0;k<extra;k++)
+			vrep.addObject("Dummy_" + k);
+		vrep.addObject("ResizableFloor_5_25");
+		vrep.addObject("DefaultCamera");
+		for(int i=18;i>=1;i--) // handles in another order than the joints, as in the real scene
+			vrep.addObject("ART_" + i);
+		vrep.addObject("5mx5mWoodenFloor");
+		for(int k=0;k<20;k++)
+			vrep.addObject("Bioloid_link_" + k);
+		vrep.addObject("BIOLOID");
+		vrep.roundTripNanos = rtt;
+
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream(){
+			public void write(int b){
+			}
+		}));
+		try{
+			long start = System.nanoTime();
+			int clientID = vrep.simxStart("127.0.0.1",19999,true,true,5000,5);
+			Bioloid bioloid = new Bioloid(vrep, clientID);
+			bioloid.setSettleStrategy(SettleStrategy.NONE);
+			if(cache == null)
+				bioloid.techCheck();
+			else
+				bioloid.techCheck(cache, scene);
+			bioloid.initialPos(0, new double[18]);
+			long elapsed = System.nanoTime() - start;
+			JointTable joints = bioloid.getJoints();
+			for(int i=0;i<joints.size();i++){
+				if(joints.handle(i) != vrep.addObject(joints.name(i)))
+					throw new IllegalStateException(joints.name(i) + " has the handle of another object");
+			}
+			if(vrep.target(joints.handle(0)) == 0)
+				throw new IllegalStateException("the first joint was not found");
+			return elapsed;
+		}
+		finally{
+			System.setOut(out);
+		}
+	}
+}
@@ -0,0 +1,177 @@
+import coppelia.FloatWA;
+import coppelia.IntWA;
+
+/*
+ * Joint positions served from the remote API stream buffers.
+ * start() asks V-REP once per joint to stream its position (simx_opmode_streaming); from then on
+ * refresh() only copies the last received values (simx_opmode_buffer, no round trip) into the
+ * positions array of the JointTable, which is the snapshot handed out to callers.
+ *
+ * In bulk mode a single simxGetObjectGroupData stream (joint state: position and force of every
+ * joint in the scene) replaces the per-joint streams. The result is mapped onto the table by handle,
+ * and refresh() falls back to the per-joint streams while the bulk data is missing or incomplete.
+ */
+public class JointStateCache {
+
+	static final int JOINT_STATE = 15; // simxGetObjectGroupData data type: position and force/torque per joint
+
+	private final VrepBackend vrep;
+	private final int clientID;
+	private final JointTable joints;
+	private boolean streaming = false;
+	private int time = -1;
+
+	private boolean bulk = false;
+	private boolean bulkStreaming = false;
+	private final IntWA groupHandles = new IntWA(0);
+	private final FloatWA groupData = new FloatWA(0);
+	private int[] indexOfHandle = new int[0];
+	private final boolean[] seen;
+	private final float[] forces;
+	private final float[] velocities;
+	private final float[] previous;
+	private int previousTime = -1;
+
+	public JointStateCache(VrepBackend vrep, int clientID, JointTable joints){
+		this.vrep = vrep;
+		this.clientID = clientID;
+		this.joints = joints;
+		this.seen = new boolean[joints.size()];
+		this.forces = new float[joints.size()];
+		this.velocities = new float[joints.size()];
+		this.previous = new float[joints.size()];
+	}
+
+	// Switches between one group data stream for all joints (true) and one stream per joint (false).
+	public void setBulk(boolean bulk){
+		this.bulk = bulk;
+	}
+
+	public void start(){
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetJointPosition(clientID, joints.handles[i], joints.position, vrep.simx_opmode_streaming);
+		}
+		streaming = true;
+	}
+
+	public void stop(){
+		stopJointStreams();
+		if(bulkStreaming){
+			vrep.simxGetObjectGroupData(clientID, vrep.sim_object_joint_type, JOINT_STATE, groupHandles, null, groupData, null, vrep.simx_opmode_discontinue);
+			bulkStreaming = false;
+		}
+	}
+
+	private void stopJointStreams(){
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetJointPosition(clientID, joints.handles[i], joints.position, vrep.simx_opmode_discontinue);
+		}
+		streaming = false;
+	}
+
+	// Copies the buffered positions into the snapshot. Returns false while some joint has not received data yet.
+	public boolean refresh(){
+		boolean complete = bulk && refreshBulk();
+		if(complete && streaming)
+			stopJointStreams(); // the group data covers every joint now
+		if(!complete){
+			if(!streaming)
+				start();
+			complete = true;
+			for(int i=0;i<joints.size();i++){
+				if(vrep.simxGetJointPosition(clientID, joints.handles[i], joints.position, vrep.simx_opmode_buffer)==vrep.simx_return_ok)
+					joints.positions[i] = joints.position.getValue();
+				else
+					complete = false;
+			}
+		}
+		time = vrep.simxGetLastCmdTime(clientID);
+		updateVelocities();
+		return complete;
+	}
+
+	private boolean refreshBulk(){
+		int opMode = bulkStreaming ? vrep.simx_opmode_buffer : vrep.simx_opmode_streaming;
+		bulkStreaming = true;
+		if(vrep.simxGetObjectGroupData(clientID, vrep.sim_object_joint_type, JOINT_STATE, groupHandles, null, groupData, null, opMode)!=vrep.simx_return_ok)
+			return false;
+		int[] handles = groupHandles.getArray();
+		float[] data = groupData.getArray();
+		if(data.length < 2*handles.length)
+			return false;
+		mapHandles();
+		for(int i=0;i<seen.length;i++)
+			seen[i] = false;
+		int found = 0;
+		for(int k=0;k<handles.length;k++){
+			int h = handles[k];
+			if(h<0 || h>=indexOfHandle.length)
+				continue;
+			int i = indexOfHandle[h];
+			if(i<0)
+				continue;
+			joints.positions[i] = data[2*k];
+			forces[i] = data[2*k+1];
+			if(!seen[i]){
+				seen[i] = true;
+				found++;
+			}
+		}
+		return found==joints.size();
+	}
+
+	// handle -> table index, rebuilt only when the table handles changed (e.g. after techCheck).
+	private void mapHandles(){
+		int max = -1;
+		boolean mapped = true;
+		for(int i=0;i<joints.size();i++){
+			int h = joints.handles[i];
+			max = Math.max(max, h);
+			mapped = mapped && h>=0 && h<indexOfHandle.length && indexOfHandle[h]==i;
+		}
+		if(mapped)
+			return;
+		indexOfHandle = new int[max+1];
+		for(int h=0;h<indexOfHandle.length;h++)
+			indexOfHandle[h] = -1;
+		for(int i=0;i<joints.size();i++)
+			if(joints.handles[i] >= 0)
+				indexOfHandle[joints.handles[i]] = i;
+	}
+
+	private void updateVelocities(){
+		if(previousTime >= 0 && time > previousTime){
+			float dt = (time - previousTime) / 1000f;
+			for(int i=0;i<joints.size();i++)
+				velocities[i] = (joints.positions[i] - previous[i]) / dt;
+		}
+		if(time != previousTime){
+			System.arraycopy(joints.positions, 0, previous, 0, joints.size());
+			previousTime = time;
+		}
+	}
+
+	public boolean isStreaming(){
+		return streaming || bulkStreaming;
+	}
+
+	// Positions in radians, indexed like the JointTable. The array is reused by every refresh().
+	public float[] positions(){
+		return joints.positions;
+	}
+
+	// Joint forces/torques, only filled by bulk reads.
+	public float[] forces(){
+		return forces;
+	}
+
+	// Radians per second, from the two last snapshots with different time stamps.
+	public float[] velocities(){
+		return velocities;
+	}
+
+	// Simulation time (ms) of the last message received from V-REP, as given by simxGetLastCmdTime.
+	public int time(){
+		return time;
+	}
+}
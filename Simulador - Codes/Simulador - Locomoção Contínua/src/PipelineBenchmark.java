@@ -0,0 +1,64 @@
+/*
+ * Runs the continuous walk headless against InMemoryBackend, with the poses computed from the
+ * polynomials on the fly, once sending from the loop and once through the pose pipeline.
+ * Every remote call waits the given latency without using the processor, like a real socket,
+ * and every pose costs the given amount of gait computation, so the pipeline can overlap them.
+ * Both report the poses that reached V-REP per second; the pipeline also skips the poses that went
+ * stale while the sender was busy, so their share is printed next to it.
+ * Usage: java PipelineBenchmark [poses] [call latency in us] [evaluations per pose] [depth]
+ */
+public class PipelineBenchmark {
+
+	static double sink;
+
+	public static void main(String[] args){
+		int poses = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long latency = (args.length > 1 ? Long.parseLong(args[1]) : 20)*1000;
+		int work = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		int depth = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+		run("serial", poses/10, latency, work, 0, false); // warm up
+		run("serial", poses, latency, work, 0, true);
+		run("pipeline", poses/10, latency, work, depth, false);
+		run("pipeline", poses, latency, work, depth, true);
+	}
+
+	static void run(String label, int poses, long latency, int work, int depth, boolean print){
+		InMemoryBackend vrep = new InMemoryBackend();
+		int clientID = vrep.simxStart("127.0.0.1",19999,true,true,5000,5);
+		Bioloid bioloid = new Bioloid(vrep, clientID);
+		JointTable joints = bioloid.getJoints();
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetObjectHandle(clientID, joints.name(i), joints.handle, vrep.simx_opmode_oneshot_wait);
+			joints.handles[i] = joints.handle.getValue();
+		}
+		bioloid.setSettleStrategy(SettleStrategy.NONE);
+		vrep.callLatencyNanos = latency;
+		vrep.blockingLatency = true;
+		if(depth > 0)
+			bioloid.startPipeline(depth);
+
+		PolynomialTrajectory trajectory = new PolynomialTrajectory(Run.COEFFICIENTS);
+		double[] degrees = new double[joints.size()];
+		long start = System.nanoTime();
+		for(int k=0;k<poses;k++){
+			double phase = 1 + (k % 274)*0.05;
+			for(int w=0;w<work;w++){
+				trajectory.evaluate(phase, degrees); // stands in for a costlier gait generator
+				sink += degrees[w % degrees.length];
+			}
+			bioloid.setDegrees(0, degrees);
+		}
+		long compute = System.nanoTime() - start;
+		PosePipeline pipeline = bioloid.stopPipeline();
+		long elapsed = System.nanoTime() - start;
+
+		if(!print)
+			return;
+		long sent = pipeline != null ? pipeline.getSent() : poses;
+		System.out.printf("%-9s %6d poses %6d sent %9.1f sent/s  %5.1f%% dropped  loop %7.1f ms  total %7.1f ms  %d calls%n",
+				label, poses, sent, sent/(elapsed/1e9), 100.0*(poses - sent)/poses, compute/1e6, elapsed/1e6, vrep.calls);
+		if(pipeline != null)
+			System.out.println("          " + pipeline);
+	}
+}
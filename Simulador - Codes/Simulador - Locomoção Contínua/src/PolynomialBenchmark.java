@@ -0,0 +1,117 @@
+import java.math.BigDecimal;
+
+/*
+ * Evaluates the continuous walk (Run.COEFFICIENTS over its 274 phases) four ways:
+ * the original BigDecimal phase + Math.pow terms, Horner, Estrin and the batch Horner.
+ * Prints the time per pose and the largest difference (servo units) to an exact BigDecimal evaluation;
+ * the batch writes floats, like the GaitTable, so its error includes the rounding to float.
+ * Usage: java PolynomialBenchmark [rounds]
+ */
+public class PolynomialBenchmark {
+
+	static final int TICKS = 274;
+	static final int JOINTS = Run.COEFFICIENTS.length;
+
+	static double sink;
+
+	public static void main(String[] args){
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		PolynomialTrajectory trajectory = new PolynomialTrajectory(Run.COEFFICIENTS);
+		double[] phases = new double[TICKS];
+		for(int t=0;t<TICKS;t++)
+			phases[t] = 1 + t*0.05;
+
+		double[][] exact = exact(phases);
+		double[] pose = new double[JOINTS];
+		float[] poses = new float[TICKS*JOINTS];
+		double[] pow = new double[TICKS*JOINTS], horner = new double[TICKS*JOINTS], estrin = new double[TICKS*JOINTS];
+		for(int t=0;t<TICKS;t++){
+			mathPow(new BigDecimal("1").add(new BigDecimal("0.05").multiply(new BigDecimal(t))), pose);
+			System.arraycopy(pose, 0, pow, t*JOINTS, JOINTS);
+			trajectory.evaluate(phases[t], pose);
+			System.arraycopy(pose, 0, horner, t*JOINTS, JOINTS);
+			trajectory.evaluateEstrin(phases[t], pose);
+			System.arraycopy(pose, 0, estrin, t*JOINTS, JOINTS);
+		}
+		trajectory.evaluate(phases, TICKS, poses);
+		double[] batch = new double[TICKS*JOINTS];
+		for(int k=0;k<batch.length;k++)
+			batch[k] = poses[k];
+
+		for(int pass=0;pass<2;pass++){ // the first pass is the warm up
+			boolean print = pass == 1;
+			long start = System.nanoTime();
+			for(int r=0;r<rounds;r++){
+				BigDecimal i = new BigDecimal("1");
+				BigDecimal a = new BigDecimal("0.05");
+				for(int t=0;t<TICKS;t++, i = i.add(a)){
+					mathPow(i, pose);
+					sink += pose[JOINTS-1];
+				}
+			}
+			report(print, "Math.pow", start, rounds, pow, exact);
+
+			start = System.nanoTime();
+			for(int r=0;r<rounds;r++)
+				for(int t=0;t<TICKS;t++){
+					trajectory.evaluate(phases[t], pose);
+					sink += pose[JOINTS-1];
+				}
+			report(print, "Horner", start, rounds, horner, exact);
+
+			start = System.nanoTime();
+			for(int r=0;r<rounds;r++)
+				for(int t=0;t<TICKS;t++){
+					trajectory.evaluateEstrin(phases[t], pose);
+					sink += pose[JOINTS-1];
+				}
+			report(print, "Estrin", start, rounds, estrin, exact);
+
+			start = System.nanoTime();
+			for(int r=0;r<rounds;r++){
+				trajectory.evaluate(phases, TICKS, poses);
+				sink += poses[poses.length-1];
+			}
+			report(print, "batch", start, rounds, batch, exact);
+		}
+		if(sink == 42)
+			System.out.println();
+	}
+
+	// The formulation Run used before the gait tables: every term through Math.pow of the BigDecimal phase.
+	static void mathPow(BigDecimal i, double[] pose){
+		for(int j=0;j<JOINTS;j++){
+			double[] c = Run.COEFFICIENTS[j];
+			double y = 0;
+			for(int k=0;k<c.length;k++)
+				y += c[k]*Math.pow(i.doubleValue(), c.length-1-k);
+			pose[j] = y;
+		}
+	}
+
+	static double[][] exact(double[] phases){
+		double[][] exact = new double[TICKS][JOINTS];
+		for(int t=0;t<TICKS;t++){
+			BigDecimal x = new BigDecimal(phases[t]);
+			for(int j=0;j<JOINTS;j++){
+				double[] c = Run.COEFFICIENTS[j];
+				BigDecimal y = BigDecimal.ZERO;
+				for(int k=0;k<c.length;k++)
+					y = y.multiply(x).add(new BigDecimal(c[k]));
+				exact[t][j] = y.doubleValue();
+			}
+		}
+		return exact;
+	}
+
+	static void report(boolean print, String label, long start, int rounds, double[] values, double[][] exact){
+		long elapsed = System.nanoTime() - start;
+		if(!print)
+			return;
+		double error = 0;
+		for(int t=0;t<TICKS;t++)
+			for(int j=0;j<JOINTS;j++)
+				error = Math.max(error, Math.abs(values[t*JOINTS + j] - exact[t][j]));
+		System.out.printf("%-10s %10.1f ns/pose   max error %.3e%n", label, (double)elapsed/((long)rounds*TICKS), error);
+	}
+}
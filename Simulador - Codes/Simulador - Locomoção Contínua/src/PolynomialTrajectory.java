@@ -0,0 +1,126 @@
+/*
+ * One polynomial per joint of a common phase x, evaluated for every joint in a single pass.
+ * coefficients[joint] lists the coefficients from the highest degree down to the constant term
+ * (the order they are written in Run); internally they are kept lowest degree first.
+ *
+ * evaluate() uses Horner's method. evaluateEstrin() splits every polynomial in pairs combined with
+ * x, x^2, x^4, ..., which shortens the dependency chain of the high degree joints and shares the
+ * powers between all joints. The batch evaluate() runs each Horner step over a whole array of
+ * phases, an inner loop without dependencies that the JIT can vectorize.
+ *
+ * The scratch arrays make an instance unsafe to share between threads.
+ */
+public class PolynomialTrajectory {
+
+	private final double[][] ascending;
+	private final double[][] padded; // ascending, zero filled up to a power of two for Estrin
+	private final double[] scratch;
+	private double[] column = new double[0];
+
+	public PolynomialTrajectory(double[][] coefficients){
+		ascending = new double[coefficients.length][];
+		padded = new double[coefficients.length][];
+		int longest = 1;
+		for(int j=0;j<coefficients.length;j++){
+			int n = coefficients[j].length;
+			if(n == 0)
+				throw new IllegalArgumentException("joint " + j + " has no coefficients");
+			ascending[j] = new double[n];
+			for(int k=0;k<n;k++)
+				ascending[j][k] = coefficients[j][n-1-k];
+			padded[j] = new double[Math.max(2, Integer.highestOneBit(n-1) << 1)];
+			System.arraycopy(ascending[j], 0, padded[j], 0, n);
+			longest = Math.max(longest, padded[j].length);
+		}
+		scratch = new double[longest/2];
+	}
+
+	public int joints(){
+		return ascending.length;
+	}
+
+	public int degree(int joint){
+		return ascending[joint].length - 1;
+	}
+
+	// Horner's method: pose[j] = p_j(x).
+	public void evaluate(double x, double[] pose){
+		for(int j=0;j<ascending.length;j++){
+			double[] c = ascending[j];
+			double y = c[c.length-1];
+			for(int k=c.length-2;k>=0;k--)
+				y = y*x + c[k];
+			pose[j] = y;
+		}
+	}
+
+	// Estrin's scheme: same polynomials, shorter dependency chains. x^2, x^4 and x^8 are shared by all joints.
+	public void evaluateEstrin(double x, double[] pose){
+		double x2 = x*x;
+		double x4 = x2*x2;
+		double x8 = x4*x4;
+		for(int j=0;j<padded.length;j++){
+			double[] c = padded[j];
+			switch(c.length){
+			case 2:
+				pose[j] = c[0] + c[1]*x;
+				break;
+			case 4:
+				pose[j] = (c[0] + c[1]*x) + (c[2] + c[3]*x)*x2;
+				break;
+			case 8:
+				pose[j] = ((c[0] + c[1]*x) + (c[2] + c[3]*x)*x2)
+						+ ((c[4] + c[5]*x) + (c[6] + c[7]*x)*x2)*x4;
+				break;
+			case 16:
+				pose[j] = (((c[0] + c[1]*x) + (c[2] + c[3]*x)*x2)
+						+ ((c[4] + c[5]*x) + (c[6] + c[7]*x)*x2)*x4)
+						+ (((c[8] + c[9]*x) + (c[10] + c[11]*x)*x2)
+						+ ((c[12] + c[13]*x) + (c[14] + c[15]*x)*x2)*x4)*x8;
+				break;
+			default:
+				pose[j] = estrin(c, x, x2);
+			}
+		}
+	}
+
+	// Degree 16 and above: the same pairing, level by level through the scratch array.
+	private double estrin(double[] c, double x, double x2){
+		int m = c.length/2;
+		for(int k=0;k<m;k++)
+			scratch[k] = c[2*k] + c[2*k+1]*x;
+		double p = x2;
+		while(m > 1){
+			m /= 2;
+			for(int k=0;k<m;k++)
+				scratch[k] = scratch[2*k] + scratch[2*k+1]*p;
+			p = p*p;
+		}
+		return scratch[0];
+	}
+
+	// One joint over count phases: out[t] = p_joint(phases[t]).
+	public void evaluate(int joint, double[] phases, int count, double[] out){
+		double[] c = ascending[joint];
+		double top = c[c.length-1];
+		for(int t=0;t<count;t++)
+			out[t] = top;
+		for(int k=c.length-2;k>=0;k--){
+			double ck = c[k];
+			for(int t=0;t<count;t++)
+				out[t] = out[t]*phases[t] + ck;
+		}
+	}
+
+	// Every joint over count phases, row by row: poses[t*joints() + j] = p_j(phases[t]), the GaitTable layout.
+	public void evaluate(double[] phases, int count, float[] poses){
+		if(column.length < count)
+			column = new double[count];
+		int joints = ascending.length;
+		for(int j=0;j<joints;j++){
+			evaluate(j, phases, count, column);
+			for(int t=0;t<count;t++)
+				poses[t*joints + j] = (float)column[t];
+		}
+	}
+}
@@ -0,0 +1,87 @@
+import coppelia.CharWA;
+import coppelia.FloatW;
+import coppelia.FloatWA;
+import coppelia.IntW;
+import coppelia.IntWA;
+import coppelia.StringWA;
+import coppelia.remoteApi;
+
+/*
+ * VrepBackend over the native remote API library.
+ */
+public class RemoteApiBackend implements VrepBackend {
+
+	private final remoteApi vrep;
+
+	public RemoteApiBackend(remoteApi vrep){
+		this.vrep = vrep;
+	}
+
+	public remoteApi getRemoteApi(){
+		return vrep;
+	}
+
+	public int simxStart(final String connectionAddress, int connectionPort, boolean waitUntilConnected, boolean doNotReconnectOnceDisconnected, int timeOutInMs, int commThreadCycleInMs){
+		return vrep.simxStart(connectionAddress, connectionPort, waitUntilConnected, doNotReconnectOnceDisconnected, timeOutInMs, commThreadCycleInMs);
+	}
+
+	public void simxFinish(int clientID){
+		vrep.simxFinish(clientID);
+	}
+
+	public int simxGetConnectionId(int clientID){
+		return vrep.simxGetConnectionId(clientID);
+	}
+
+	public int simxGetObjectHandle(int clientID, final String objectName, IntW handle, int operationMode){
+		return vrep.simxGetObjectHandle(clientID, objectName, handle, operationMode);
+	}
+
+	public int simxSetJointTargetPosition(int clientID, int jointHandle, float targetPosition, int operationMode){
+		return vrep.simxSetJointTargetPosition(clientID, jointHandle, targetPosition, operationMode);
+	}
+
+	public int simxGetJointPosition(int clientID, int jointHandle, FloatW position, int operationMode){
+		return vrep.simxGetJointPosition(clientID, jointHandle, position, operationMode);
+	}
+
+	public int simxGetObjectPosition(int clientID, int objectHandle, int relativeToObjectHandle, FloatWA position, int operationMode){
+		return vrep.simxGetObjectPosition(clientID, objectHandle, relativeToObjectHandle, position, operationMode);
+	}
+
+	public int simxCallScriptFunction(int clientID, final String scriptDescription, int options, final String functionName, final IntWA inInts, final FloatWA inFloats, final StringWA inStrings, final CharWA inBuffer, IntWA outInts, FloatWA outFloats, StringWA outStrings, CharWA outBuffer, int operationMode){
+		return vrep.simxCallScriptFunction(clientID, scriptDescription, options, functionName, inInts, inFloats, inStrings, inBuffer, outInts, outFloats, outStrings, outBuffer, operationMode);
+	}
+
+	public int simxGetObjectGroupData(int clientID, int objectType, int dataType, IntWA handles, IntWA intData, FloatWA floatData, StringWA stringData, int operationMode){
+		return vrep.simxGetObjectGroupData(clientID, objectType, dataType, handles, intData, floatData, stringData, operationMode);
+	}
+
+	public int simxPauseCommunication(int clientID, boolean enable){
+		return vrep.simxPauseCommunication(clientID, enable);
+	}
+
+	public int simxSynchronous(int clientID, boolean enable){
+		return vrep.simxSynchronous(clientID, enable);
+	}
+
+	public int simxSynchronousTrigger(int clientID){
+		return vrep.simxSynchronousTrigger(clientID);
+	}
+
+	public int simxGetPingTime(int clientID, IntW pingTime){
+		return vrep.simxGetPingTime(clientID, pingTime);
+	}
+
+	public int simxGetLastCmdTime(int clientID){
+		return vrep.simxGetLastCmdTime(clientID);
+	}
+
+	public int simxStartSimulation(int clientID, int operationMode){
+		return vrep.simxStartSimulation(clientID, operationMode);
+	}
+
+	public int simxStopSimulation(int clientID, int operationMode){
+		return vrep.simxStopSimulation(clientID, operationMode);
+	}
+}
@@ -1,11 +1,36 @@
-import java.math.BigDecimal;
+import java.io.IOException;
 
 import coppelia.IntW;
 import coppelia.remoteApi;
 
 public class Run {
 	
-	public static void main(String[] args){
+	// One polynomial per motor of the phase x (1, 1.05, ... 14.65), highest degree first.
+	// Motors 1 to 8 stay still during the walk.
+	static final double[][] COEFFICIENTS = {
+		{333.5},
+		{690},
+		{297.8},
+		{724},
+		{412},
+		{611.2},
+		{355},
+		{664},
+		{-0.000275921606029018, 0.0224866058355711, -0.554002659792176, 5.27359561063168, -16.6250714681205, 1.07731363098685, 492.577239841013},
+		{-0.000140124106979082, 0.00957747098059501, -0.17601617035749, 0.366976848153587, 13.7934195723444, -82.4753256531787, 597.355314009854},
+		{0.00000140489885303541, -0.000137098037479588, 0.00593962266650624, -0.150467310047963, 2.47028882826084, -27.5207922276621, 211.699439008591, -1121.79501433143, 4012.95422656784, -9303.65422686671, 13044.0770540131, -9823.0075743571, 3401.38059312374},
+		{0.00000011672084327608, -0.000012662080312946, 0.000615851466539234, -0.017737457506048, 0.336649535916704, -4.43504476680317, 41.6304852819428, -281.48687768283, 1370.97665082275, -4763.85605618472, 11574.9816970237, -18997.7828225834, 19842.4241425091, -11754.8617513084, 3597.71125928176},
+		{-0.0000148141287899076, 0.00119700195674767, -0.0415853177723568, 0.813243772863493, -9.8518102730438, 76.7204688187178, -385.724100593995, 1221.58291298422, -2295.15666871898, 2304.35552800843, -643.058578051134},
+		{0.00000083846544852191, -0.00000812251364211665, -0.00194976423616432, 0.0861933684303852, -1.69603346375747, 18.9297051399361, -127.429816133823, 517.304913254853, -1215.69884225685, 1501.00777573452, 34.6214069610031},
+		{0.0000217898674376092, -0.00168504911464163, 0.0556171425516435, -1.02212510842425, 11.4361911769592, -79.9218400189809, 343.33892677256, -852.044744171629, 1066.9698822212, -535.985198422995, 651.394169313619},
+		{0.00000000000000169781, -0.00000000000114195557, 0.0000000003205168261, -0.00000004861846167056, 0.00000431745554052764, -0.000227785393706015, 0.00695986354954629, -0.115867307099457, 0.98139855231603, -5.02402746704548, 408.282838474984},
+		{-0.00000000002207423705, 0.00000013940017298063, -0.0000388516514384058, 0.00287853127038045, 0.0113291712063454, -4.03370820349286, 484.338989789182},
+		{0.00000000106620325477, -0.00000039137397328349, 0.00005975188055747080, -0.00578251928904135, 0.372719505143808, -10.2603081750749, 541.359629594152}
+	};
+	
+	static final GaitTable GAIT = GaitTable.compile(new PolynomialGait(COEFFICIENTS, 1, 0.05, 274));
+	
+	public static void main(String[] args) throws IOException{
 		
 		//Getting access VREP's libraries ------------------------------------------------------------------
 		remoteApi vrep = new remoteApi();
@@ -30,7 +55,7 @@ public class Run {
 		
 		
 		Bioloid func = new Bioloid(vrep,clientID,id1,id2,id3,id4,id5,id6,id7,id8,id9,id10,id11,id12,id13,id14,id15,id16,id17,id18,robo,chao);
-		func.techCheck();
+		func.techCheck(HandleCache.load("handles.properties"), "RunBioloid_v2.ttt"); // handles cached between runs, see HandleCache
 		
 		func.clear(5000,degrees);
 		//System.out.println("Posio Original: ");
@@ -44,50 +69,15 @@ public class Run {
 		func.readCM();
 		func.readCM();
 		
-		BigDecimal i = new BigDecimal("1");
-        BigDecimal a = new BigDecimal("0.05");
-        BigDecimal b = new BigDecimal("1");
-        BigDecimal p = i;
-        
-		degrees[0]= 333.5;
-		degrees[1]= 690;
-		degrees[2]= 297.8;
-		degrees[3]= 724;
-		degrees[4]= 412;
-		degrees[5]= 611.2;
-		degrees[6]= 355;
-		degrees[7]= 664;
-		
 		int c = 0;
 		while(c < 3){
-			for(i=p;i.doubleValue()<14.7;i = i.add(a)){		
-				
-				
-				degrees[8]=-0.000275921606029018*Math.pow(i.doubleValue(),6)+0.0224866058355711*Math.pow(i.doubleValue(),5)-0.554002659792176*Math.pow(i.doubleValue(),4)+5.27359561063168*Math.pow(i.doubleValue(),3)-16.6250714681205*Math.pow(i.doubleValue(),2)+1.07731363098685*i.doubleValue()+492.577239841013;  //ok
-				degrees[9]=-0.000140124106979082*Math.pow(i.doubleValue(),6)+0.00957747098059501*Math.pow(i.doubleValue(),5)-0.17601617035749*Math.pow(i.doubleValue(),4)+0.366976848153587*Math.pow(i.doubleValue(),3)+13.7934195723444*Math.pow(i.doubleValue(),2)-82.4753256531787*i.doubleValue()+597.355314009854; // ok
-				degrees[10]=0.00000140489885303541*Math.pow(i.doubleValue(),12)-0.000137098037479588*Math.pow(i.doubleValue(),11)+0.00593962266650624*Math.pow(i.doubleValue(),10)-0.150467310047963*Math.pow(i.doubleValue(),9)+2.47028882826084*Math.pow(i.doubleValue(),8)-27.5207922276621*Math.pow(i.doubleValue(),7)+211.699439008591*Math.pow(i.doubleValue(),6)-1121.79501433143*Math.pow(i.doubleValue(),5)+4012.95422656784*Math.pow(i.doubleValue(),4)-9303.65422686671*Math.pow(i.doubleValue(),3)+13044.0770540131*Math.pow(i.doubleValue(),2)-9823.0075743571*i.doubleValue()+3401.38059312374;
-				degrees[11]=0.00000011672084327608*Math.pow(i.doubleValue(),14)-0.000012662080312946*Math.pow(i.doubleValue(),13)+0.000615851466539234*Math.pow(i.doubleValue(),12)-0.017737457506048*Math.pow(i.doubleValue(),11)+0.336649535916704*Math.pow(i.doubleValue(),10)-4.43504476680317*Math.pow(i.doubleValue(),9)+41.6304852819428*Math.pow(i.doubleValue(),8)-281.48687768283*Math.pow(i.doubleValue(),7)+1370.97665082275*Math.pow(i.doubleValue(),6)-4763.85605618472*Math.pow(i.doubleValue(),5)+11574.9816970237*Math.pow(i.doubleValue(),4)-18997.7828225834*Math.pow(i.doubleValue(),3)+19842.4241425091*Math.pow(i.doubleValue(),2)-11754.8617513084*i.doubleValue()+3597.71125928176;
-				degrees[12]=-0.0000148141287899076*Math.pow(i.doubleValue(),10)+0.00119700195674767*Math.pow(i.doubleValue(),9)-0.0415853177723568*Math.pow(i.doubleValue(),8)+0.813243772863493*Math.pow(i.doubleValue(),7)-9.8518102730438*Math.pow(i.doubleValue(),6)+76.7204688187178*Math.pow(i.doubleValue(),5)-385.724100593995*Math.pow(i.doubleValue(),4)+1221.58291298422*Math.pow(i.doubleValue(),3)-2295.15666871898*Math.pow(i.doubleValue(),2)+2304.35552800843*i.doubleValue()-643.058578051134; //ok
-				degrees[13]=0.00000083846544852191*Math.pow(i.doubleValue(),10)-0.00000812251364211665*Math.pow(i.doubleValue(),9)-0.00194976423616432*Math.pow(i.doubleValue(),8)+0.0861933684303852*Math.pow(i.doubleValue(),7)-1.69603346375747*Math.pow(i.doubleValue(),6)+18.9297051399361*Math.pow(i.doubleValue(),5)-127.429816133823*Math.pow(i.doubleValue(),4)+517.304913254853*Math.pow(i.doubleValue(),3)-1215.69884225685*Math.pow(i.doubleValue(),2)+1501.00777573452*i.doubleValue()+34.6214069610031; //ok
-				degrees[14]=0.0000217898674376092*Math.pow(i.doubleValue(),10)-0.00168504911464163*Math.pow(i.doubleValue(),9)+0.0556171425516435*Math.pow(i.doubleValue(),8)-1.02212510842425*Math.pow(i.doubleValue(),7)+11.4361911769592*Math.pow(i.doubleValue(),6)-79.9218400189809*Math.pow(i.doubleValue(),5)+343.33892677256*Math.pow(i.doubleValue(),4)-852.044744171629*Math.pow(i.doubleValue(),3)+1066.9698822212*Math.pow(i.doubleValue(),2)-535.985198422995*i.doubleValue()+651.394169313619; //ok
-				degrees[15]=0.0000248742798796263*Math.pow(i.doubleValue(),10)-0.00191083364372945*Math.pow(i.doubleValue(),9)+0.0626362655558014*Math.pow(i.doubleValue(),8)-1.1448672116933*Math.pow(i.doubleValue(),7)+12.8113562500397*Math.pow(i.doubleValue(),6)-90.8916292359355*Math.pow(i.doubleValue(),5)+410.536161792987*Math.pow(i.doubleValue(),4)-1157.63710507665*Math.pow(i.doubleValue(),3)+1944.09966170448*Math.pow(i.doubleValue(),2)-1764.8116655254*i.doubleValue()+1056.68768177018; //ok				
-				degrees[16]=-0.000602821242505626*Math.pow(i.doubleValue(),6)+0.0405315649727053*Math.pow(i.doubleValue(),5)-0.916931723020958 *Math.pow(i.doubleValue(),4)+8.3576698861698*Math.pow(i.doubleValue(),3)-25.507120415259*Math.pow(i.doubleValue(),2)-1.29495830014807*i.doubleValue()+497.088587623408;
-				degrees[17]=-0.00021958932773343*Math.pow(i.doubleValue(),6)+0.0135980370756124*Math.pow(i.doubleValue(),5)-0.239784506804081 *Math.pow(i.doubleValue(),4)+0.466436883005924*Math.pow(i.doubleValue(),3)+18.9979103475509*Math.pow(i.doubleValue(),2)-113.421209371814*i.doubleValue()+620.07665583061;
-				
-				degrees[15] = 0.00000000000000169781*Math.pow(i.doubleValue(),10)-0.00000000000114195557*Math.pow(i.doubleValue(),9)+0.0000000003205168261*Math.pow(i.doubleValue(),8)-0.00000004861846167056*Math.pow(i.doubleValue(),7)+0.00000431745554052764*Math.pow(i.doubleValue(),6)-0.000227785393706015*Math.pow(i.doubleValue(),5)+0.00695986354954629*Math.pow(i.doubleValue(),4)-0.115867307099457*Math.pow(i.doubleValue(),3)+0.98139855231603*Math.pow(i.doubleValue(),2)-5.02402746704548*Math.pow(i.doubleValue(),1) + 408.282838474984;
-				degrees[16] = -0.00000000002207423705*Math.pow(i.doubleValue(),6) + 0.00000013940017298063*Math.pow(i.doubleValue(),5)-0.0000388516514384058*Math.pow(i.doubleValue(),4)+0.00287853127038045*Math.pow(i.doubleValue(),3)+0.0113291712063454*Math.pow(i.doubleValue(),2)-4.03370820349286*Math.pow(i.doubleValue(),1)+484.338989789182;
-				degrees[17]= 0.00000000106620325477*Math.pow(i.doubleValue(),6)- 0.00000039137397328349 *Math.pow(i.doubleValue(),5) + 0.00005975188055747080*Math.pow(i.doubleValue(),4) - 0.00578251928904135 *Math.pow(i.doubleValue(),3) + 0.372719505143808 *Math.pow(i.doubleValue(),2) - 10.2603081750749*Math.pow(i.doubleValue(),1) + 541.359629594152; 
-				
-				func.setDegrees(1000,degrees);
-				//t = t + 1;
+			for(int t=0;t<GAIT.ticks();t++){
+				func.setDegrees(1000,GAIT,t);
 				//func.readMotors();
 				//func.ReadCM();
 			}
-			p = b;
-			//t=0;
-			//break;
 			c += 1;
-		}		
+		}
 	}
 }
 
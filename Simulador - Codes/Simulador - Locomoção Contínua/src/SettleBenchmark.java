@@ -0,0 +1,63 @@
+/*
+ * Wall-clock time and native calls per pose of setDegrees against InMemoryBackend, with every call
+ * costing the given time as a stand-in for the JNI call: the original loop, which resent the 18
+ * targets and polled the connection connectionTime times, against the pose sent once and held by
+ * each SettleStrategy. CallTime (the default) should hold as long as the original loop.
+ * Usage: java SettleBenchmark [connectionTime] [call cost in ns] [poses]
+ */
+public class SettleBenchmark {
+
+	public static void main(String[] args){
+		int units = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long latency = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+		int poses = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+		for(int pass=0;pass<2;pass++){ // the first pass warms up
+			boolean print = pass == 1;
+			run("resend", null, units, latency, poses, print);
+			run("COUNT", SettleStrategy.COUNT, units, latency, poses, print);
+			run("CallTime", new SettleStrategy.CallTime(19), units, latency, poses, print);
+			run("NONE", SettleStrategy.NONE, units, latency, poses, print);
+		}
+	}
+
+	// strategy null: the loop Bioloid had before the pose was sent once.
+	static void run(String label, SettleStrategy strategy, int units, long latency, int poses, boolean print){
+		InMemoryBackend vrep = new InMemoryBackend();
+		int clientID = vrep.simxStart("127.0.0.1",19999,true,true,5000,5);
+		Bioloid bioloid = new Bioloid(vrep, clientID);
+		JointTable joints = bioloid.getJoints();
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetObjectHandle(clientID, joints.name(i), joints.handle, vrep.simx_opmode_oneshot_wait);
+			joints.handles[i] = joints.handle.getValue();
+		}
+		if(strategy != null)
+			bioloid.setSettleStrategy(strategy);
+		vrep.callLatencyNanos = latency;
+		if(strategy instanceof SettleStrategy.CallTime)
+			((SettleStrategy.CallTime)strategy).calibrate(vrep, clientID);
+
+		double[] degrees = Bioloid.INITIAL_POSE.clone();
+		float[] radians = new float[joints.size()];
+		long calls = vrep.calls;
+		long start = System.nanoTime();
+		for(int p=0;p<poses;p++){
+			degrees[0] = Bioloid.INITIAL_POSE[0] + p;
+			if(strategy != null){
+				bioloid.setDegrees(units, degrees);
+				continue;
+			}
+			bioloid.getServos().toRadians(degrees, radians);
+			int cont = 0;
+			while(vrep.simxGetConnectionId(clientID)!=-1 && cont!=units){
+				for(int i=0;i<joints.size();i++)
+					vrep.simxSetJointTargetPosition(clientID, joints.handles[i], radians[i], vrep.simx_opmode_streaming);
+				cont++;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		calls = vrep.calls - calls;
+		if(print)
+			System.out.printf("%-9s %9.2f ms/pose %10.1f calls/pose%n", label, elapsed/1e6/poses, (double)calls/poses);
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Checks the synchronous mode headless against InMemoryBackend, which counts the triggers: every
+ * command of a short gait must trigger exactly stepsPerCommand simulation steps, and stopping
+ * must give back the settle strategy set before. Throws IllegalStateException on a mismatch.
+ * Usage: java SynchronousCheck [ticks of the gait]
+ */
+public class SynchronousCheck {
+
+	public static void main(String[] args){
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		for(int stepsPerCommand=1;stepsPerCommand<=3;stepsPerCommand++)
+			check(ticks, stepsPerCommand);
+	}
+
+	static void check(int ticks, int stepsPerCommand){
+		InMemoryBackend vrep = new InMemoryBackend();
+		int clientID = vrep.simxStart("127.0.0.1",19999,true,true,5000,5);
+		Bioloid bioloid = new Bioloid(vrep, clientID);
+		JointTable joints = bioloid.getJoints();
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetObjectHandle(clientID, joints.name(i), joints.handle, vrep.simx_opmode_oneshot_wait);
+			joints.handles[i] = joints.handle.getValue();
+		}
+		SettleStrategy before = new SettleStrategy.Sleep(1);
+		bioloid.setSettleStrategy(before);
+
+		SynchronousStepper stepper = new SynchronousStepper(stepsPerCommand);
+		bioloid.startSynchronous(stepper);
+		double[] degrees = new double[joints.size()];
+		bioloid.clear(5000, degrees);
+		bioloid.initialPos(15000, degrees);
+		int commands = 2;
+		for(int t=0;t<ticks && t<Run.GAIT.ticks();t++){
+			bioloid.setDegrees(1000, Run.GAIT, t);
+			commands++;
+		}
+		bioloid.stopSynchronous();
+
+		long expected = (long)commands*stepsPerCommand;
+		System.out.printf("%d steps per command: %d commands, %d triggers, %d steps%n",
+				stepsPerCommand, commands, vrep.triggers, stepper.getSteps());
+		if(vrep.triggers != expected || stepper.getSteps() != expected)
+			throw new IllegalStateException(expected + " triggers expected, " + vrep.triggers + " sent");
+		if(bioloid.settleStrategy != before)
+			throw new IllegalStateException("stopSynchronous() did not restore the settle strategy");
+	}
+}
@@ -0,0 +1,62 @@
+import coppelia.IntW;
+
+/*
+ * Control loop built on the remote API synchronous mode (see coppelia.simpleSynchronousTest).
+ * V-REP only advances when the client triggers it, so every command is followed by a fixed
+ * number of physics steps instead of a busy-wait repetition count.
+ * The server must be started with synchronous mode pre-enabled (simExtRemoteApiStart(19999,1300,false,true)).
+ */
+public class SynchronousStepper implements SettleStrategy {
+
+	private final int stepsPerCommand;
+	private final IntW pingTime = new IntW(0);
+	private long steps = 0;
+	private boolean running = false;
+
+	public SynchronousStepper(int stepsPerCommand){
+		if(stepsPerCommand < 1)
+			throw new IllegalArgumentException("stepsPerCommand must be at least 1: " + stepsPerCommand);
+		this.stepsPerCommand = stepsPerCommand;
+	}
+
+	// Enables the synchronous mode on the client and starts the simulation.
+	public void start(VrepBackend vrep, int clientID){
+		vrep.simxSynchronous(clientID, true);
+		vrep.simxStartSimulation(clientID, vrep.simx_opmode_blocking);
+		running = true;
+	}
+
+	// Stops the simulation and gives the server its own clock back.
+	public void stop(VrepBackend vrep, int clientID){
+		vrep.simxStopSimulation(clientID, vrep.simx_opmode_blocking);
+		vrep.simxSynchronous(clientID, false);
+		running = false;
+	}
+
+	// Advances the simulation n physics steps, waiting for each one to be executed.
+	public void step(VrepBackend vrep, int clientID, int n){
+		for(int k = 0; k < n; k++){
+			if(vrep.simxSynchronousTrigger(clientID)!=vrep.simx_return_ok)
+				return;
+			vrep.simxGetPingTime(clientID, pingTime); // returns once the triggered step is done
+			steps++;
+		}
+	}
+
+	// connectionTime is ignored: every command gets the same number of steps.
+	public void settle(VrepBackend vrep, int clientID, int connectionTime){
+		step(vrep, clientID, stepsPerCommand);
+	}
+
+	public int getStepsPerCommand(){
+		return stepsPerCommand;
+	}
+
+	public long getSteps(){
+		return steps;
+	}
+
+	public boolean isRunning(){
+		return running;
+	}
+}
@@ -0,0 +1,103 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/*
+ * Object handles of V-REP scenes, saved in a properties file as scene/name=handle, so that a
+ * program reconnecting to a scene it has seen before can skip looking the handles up.
+ *
+ * The scene key is chosen by the caller and should change whenever the handles may change, for
+ * instance the scene file name and its modification date. V-REP gives the same handles to the
+ * objects of a scene every time it is loaded on its own; forget() drops a scene whose handles
+ * turned out to be stale.
+ */
+public class HandleCache {
+
+	private final String fileName;
+	private final Properties handles = new Properties();
+
+	private HandleCache(String fileName){
+		this.fileName = fileName;
+	}
+
+	// An empty cache if the file does not exist yet.
+	public static HandleCache load(String fileName) throws IOException{
+		HandleCache cache = new HandleCache(fileName);
+		if(new File(fileName).exists()){
+			InputStream in = new FileInputStream(fileName);
+			try{
+				cache.handles.load(in);
+			}
+			finally{
+				in.close();
+			}
+		}
+		return cache;
+	}
+
+	public void save() throws IOException{
+		OutputStream out = new FileOutputStream(fileName);
+		try{
+			handles.store(out, "V-REP object handles: scene/name=handle");
+		}
+		finally{
+			out.close();
+		}
+	}
+
+	public String getFileName(){
+		return fileName;
+	}
+
+	private static String key(String scene, String name){
+		return scene + "/" + name;
+	}
+
+	// The handle of the object in the scene, or -1 if it is not cached.
+	public int get(String scene, String name){
+		String value = handles.getProperty(key(scene, name));
+		if(value == null)
+			return -1;
+		try{
+			return Integer.parseInt(value.trim());
+		}
+		catch(NumberFormatException e){
+			return -1;
+		}
+	}
+
+	// Fills found with the handles of names; returns false, leaving -1 where missing, unless all are cached.
+	public boolean get(String scene, String[] names, int[] found){
+		boolean all = true;
+		for(int i=0;i<names.length;i++){
+			found[i] = get(scene, names[i]);
+			if(found[i] < 0)
+				all = false;
+		}
+		return all;
+	}
+
+	public void put(String scene, String name, int handle){
+		handles.setProperty(key(scene, name), Integer.toString(handle));
+	}
+
+	// Caches the handles found, skipping the missing ones (-1).
+	public void put(String scene, String[] names, int[] found){
+		for(int i=0;i<names.length;i++){
+			if(found[i] >= 0)
+				put(scene, names[i], found[i]);
+		}
+	}
+
+	public void forget(String scene){
+		String prefix = scene + "/";
+		for(String name : handles.stringPropertyNames()){
+			if(name.startsWith(prefix))
+				handles.remove(name);
+		}
+	}
+}
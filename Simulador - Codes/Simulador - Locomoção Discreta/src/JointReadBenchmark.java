@@ -0,0 +1,41 @@
+import coppelia.IntW;
+
+/*
+ * Compares per-joint stream reads with one simxGetObjectGroupData read against InMemoryBackend.
+ * Usage: java JointReadBenchmark [reads] [call latency in ns]
+ */
+public class JointReadBenchmark {
+
+	public static void main(String[] args){
+		int reads = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		long latency = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+		run("per-joint", false, reads, latency);
+		run("bulk", true, reads, latency);
+	}
+
+	static void run(String label, boolean bulk, int reads, long latency){
+		InMemoryBackend vrep = new InMemoryBackend();
+		int clientID = vrep.simxStart("127.0.0.1",19999,true,true,5000,5);
+		JointTable joints = JointTable.bioloid();
+		IntW handle = new IntW(0);
+		for(int i=0;i<joints.size();i++){
+			vrep.simxGetObjectHandle(clientID, joints.name(i), handle, vrep.simx_opmode_oneshot_wait);
+			joints.handles[i] = handle.getValue();
+		}
+
+		JointStateCache state = new JointStateCache(vrep, clientID, joints);
+		state.setBulk(bulk);
+		for(int k=0;k<reads/10;k++) // warm up, and let both paths reach their steady state
+			state.refresh();
+
+		vrep.callLatencyNanos = latency;
+		vrep.calls = 0;
+		long start = System.nanoTime();
+		for(int k=0;k<reads;k++)
+			state.refresh();
+		long elapsed = System.nanoTime() - start;
+
+		System.out.printf("%-10s %10.1f ns/read %8.1f calls/read%n", label, (double)elapsed/reads, (double)vrep.calls/reads);
+	}
+}
@@ -0,0 +1,434 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * Gait given as keyframes (motor positions in servo units) with the number of ticks taken to
+ * reach each one from the previous, interpolated linearly or with a natural cubic spline through
+ * the keyframes. GaitTable.compile turns it into one pose per tick: tick 0 is the first keyframe
+ * and each keyframe is reached on the last tick of its segment.
+ *
+ * When the gait loops, the last keyframe stands for the loop keyframe reached again, so the cubic
+ * spline is periodic over the keyframes from the loop keyframe to the last one: the velocity does
+ * not jump when the gait wraps around. The keyframes before the loop keyframe are played once; their
+ * spline starts natural and reaches the loop keyframe with the slope the loop leaves it with.
+ *
+ * Text form, one statement per line ('#' starts a comment, joints are numbered from 1):
+ *	joints 18
+ *	interpolation linear|cubic
+ *	pairs 9-10 11-12            left/right joints swapped by mirror
+ *	key <name> <ticks> <position of each joint>
+ *	mirror <name> <ticks> <key> [joint=position ...]   the key seen from the other side
+ *	repeat <name> <ticks> <key> [joint=position ...]   the key again
+ *	loop <key>                  after the last keyframe the gait goes on from this one
+ * A mirrored joint takes 1024 minus the position of its pair, as the discrete gait always did;
+ * joints outside the pairs keep their position.
+ *
+ * The compact binary form (see save) keeps the resolved keyframes as floats; load reads either.
+ * Usage: java KeyframeGait <text file> <binary file>
+ */
+public class KeyframeGait implements GaitSource {
+
+	public static final int LINEAR = 0;
+	public static final int CUBIC = 1;
+
+	static final int MAGIC = 0x424B4631; // "BKF1"
+
+	private final double[][] keys;
+	private final int[] keyTicks; // tick at which each keyframe is reached
+	private final int interpolation;
+	private final int loopKey; // -1 if the gait does not loop
+	private final double[][] curvature; // second derivative at each keyframe per joint, for the cubic spline;
+	                                    // when looping, an extra row for the loop keyframe first reached
+
+	// durations[k] ticks go from keyframe k-1 to keyframe k; durations[0] is ignored.
+	public KeyframeGait(double[][] keys, int[] durations, int interpolation, int loopKey){
+		if(keys.length == 0 || durations.length != keys.length)
+			throw new IllegalArgumentException("one duration per keyframe, and at least one keyframe");
+		if(loopKey >= keys.length)
+			throw new IllegalArgumentException("no keyframe " + loopKey + " to loop to");
+		int joints = keys[0].length;
+		this.keys = new double[keys.length][];
+		this.keyTicks = new int[keys.length];
+		for(int k=0;k<keys.length;k++){
+			if(keys[k].length != joints)
+				throw new IllegalArgumentException("keyframe " + k + " has " + keys[k].length + " joints, not " + joints);
+			if(k > 0 && durations[k] < 1)
+				throw new IllegalArgumentException("keyframe " + k + " must take at least one tick");
+			this.keys[k] = keys[k].clone();
+			this.keyTicks[k] = k == 0 ? 0 : keyTicks[k-1] + durations[k];
+		}
+		this.interpolation = keys.length < 3 ? LINEAR : interpolation;
+		this.loopKey = loopKey;
+		if(this.interpolation != CUBIC)
+			this.curvature = null;
+		else if(loopKey >= 0 && loopKey < keys.length - 1)
+			this.curvature = periodicSpline(this.keys, keyTicks, loopKey);
+		else
+			this.curvature = naturalSpline(this.keys, keyTicks);
+	}
+
+	// Second derivatives of the natural cubic spline of every joint through the keyframes.
+	private static double[][] naturalSpline(double[][] keys, int[] x){
+		double[][] m = new double[keys.length][keys[0].length];
+		spline(keys, x, keys.length - 1, m, null);
+		return m;
+	}
+
+	// Second derivatives of the spline that is periodic from keyframe loop to the last keyframe, which
+	// stands for keyframe loop again, and before it natural at the first keyframe and clamped to the
+	// slope of the loop; row n holds the second derivative at keyframe loop at the end of that part.
+	private static double[][] periodicSpline(double[][] keys, int[] x, int loop){
+		int n = keys.length;
+		int joints = keys[0].length;
+		int p = n - 1 - loop; // unknowns m[loop..n-2]; m[n-1] = m[loop]
+		double[][] a = new double[p][p];
+		double[][] rhs = new double[p][joints];
+		for(int i=0;i<p;i++){
+			int k = loop + i;
+			int prev = i == 0 ? n - 2 : k - 1, in = i == 0 ? n - 1 : k; // the segment arriving at the keyframe
+			double h0 = x[in] - x[prev], h1 = x[k+1] - x[k];
+			a[i][i == 0 ? p - 1 : i - 1] += h0;
+			a[i][i] += 2*(h0 + h1);
+			a[i][i == p - 1 ? 0 : i + 1] += h1;
+			for(int j=0;j<joints;j++)
+				rhs[i][j] = 6*((keys[k+1][j] - keys[k][j])/h1 - (keys[in][j] - keys[prev][j])/h0);
+		}
+		// cyclic tridiagonal, diagonally dominant: Gaussian elimination without pivoting
+		for(int c=0;c<p;c++){
+			for(int r=c+1;r<p;r++){
+				double w = a[r][c]/a[c][c];
+				if(w == 0)
+					continue;
+				for(int q=c;q<p;q++)
+					a[r][q] -= w*a[c][q];
+				for(int j=0;j<joints;j++)
+					rhs[r][j] -= w*rhs[c][j];
+			}
+		}
+		double[][] m = new double[n + 1][joints];
+		for(int i=p-1;i>=0;i--){
+			for(int j=0;j<joints;j++){
+				double sum = rhs[i][j];
+				for(int q=i+1;q<p;q++)
+					sum -= a[i][q]*m[loop + q][j];
+				m[loop + i][j] = sum/a[i][i];
+			}
+		}
+		System.arraycopy(m[loop], 0, m[n-1], 0, joints);
+		if(loop > 0){
+			double h = x[loop+1] - x[loop];
+			double[] slope = new double[joints];
+			for(int j=0;j<joints;j++)
+				slope[j] = (keys[loop+1][j] - keys[loop][j])/h - h*(2*m[loop][j] + m[loop+1][j])/6;
+			double[][] intro = new double[loop + 1][];
+			for(int k=0;k<=loop;k++)
+				intro[k] = new double[joints];
+			spline(keys, x, loop, intro, slope);
+			for(int k=1;k<loop;k++)
+				m[k] = intro[k];
+			m[n] = intro[loop];
+		}
+		return m;
+	}
+
+	// Fills m[1..last-1] for every joint, so that the spline through the keyframes 0..last has a
+	// continuous slope, with m[0] = 0 and either m[last] given (slope null) or m[last] such that the
+	// spline ends with the given slope of each joint.
+	private static void spline(double[][] keys, int[] x, int last, double[][] m, double[] slope){
+		int joints = keys[0].length;
+		int top = slope == null ? last - 1 : last; // last unknown
+		double[] diagonal = new double[last + 1];
+		double[] rhs = new double[last + 1];
+		for(int j=0;j<joints;j++){
+			// tridiagonal system for m[1..top] (Thomas algorithm)
+			for(int k=1;k<=top;k++){
+				double h0 = x[k] - x[k-1];
+				if(k < last){
+					double h1 = x[k+1] - x[k];
+					diagonal[k] = 2*(h0 + h1);
+					rhs[k] = 6*((keys[k+1][j] - keys[k][j])/h1 - (keys[k][j] - keys[k-1][j])/h0);
+					if(k == top)
+						rhs[k] -= h1*m[last][j];
+				}
+				else{
+					diagonal[k] = 2*h0;
+					rhs[k] = 6*(slope[j] - (keys[k][j] - keys[k-1][j])/h0);
+				}
+				if(k > 1){
+					double w = h0/diagonal[k-1];
+					diagonal[k] -= w*h0;
+					rhs[k] -= w*rhs[k-1];
+				}
+			}
+			for(int k=top;k>=1;k--){
+				double h1 = k < last ? x[k+1] - x[k] : 0;
+				m[k][j] = (rhs[k] - (k < top ? h1*m[k+1][j] : 0))/diagonal[k];
+			}
+		}
+	}
+
+	public int ticks(){
+		return keyTicks[keyTicks.length-1] + 1;
+	}
+
+	public int joints(){
+		return keys[0].length;
+	}
+
+	public int keyframes(){
+		return keys.length;
+	}
+
+	// Tick at which the keyframe is reached.
+	public int keyframeTick(int key){
+		return keyTicks[key];
+	}
+
+	public int getInterpolation(){
+		return interpolation;
+	}
+
+	// Tick played after this one: the next, or after the last the one following the loop keyframe; -1 at the end.
+	public int next(int tick){
+		if(tick + 1 < ticks())
+			return tick + 1;
+		return loopKey < 0 ? -1 : Math.min(keyTicks[loopKey] + 1, ticks() - 1);
+	}
+
+	// Keyframe index plus the fraction of the way to the next keyframe, e.g. 2.3.
+	public double position(int tick){
+		int k = segment(tick);
+		if(k == keys.length - 1)
+			return k;
+		return k + (double)(tick - keyTicks[k])/(keyTicks[k+1] - keyTicks[k]);
+	}
+
+	// Last keyframe reached at or before the tick.
+	private int segment(int tick){
+		int low = 0, high = keyTicks.length - 1;
+		while(low < high){
+			int mid = (low + high + 1) >>> 1;
+			if(keyTicks[mid] <= tick)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		return low;
+	}
+
+	public void pose(int tick, double[] pose){
+		int k = segment(tick);
+		int joints = keys[0].length;
+		if(k == keys.length - 1){
+			System.arraycopy(keys[k], 0, pose, 0, joints);
+			return;
+		}
+		double h = keyTicks[k+1] - keyTicks[k];
+		double b = (tick - keyTicks[k])/h, a = 1 - b;
+		double[] end = curvature == null ? null : k + 1 == loopKey && curvature.length > keys.length ? curvature[keys.length] : curvature[k+1];
+		for(int j=0;j<joints;j++){
+			double p = a*keys[k][j] + b*keys[k+1][j];
+			if(curvature != null)
+				p += ((a*a*a - a)*curvature[k][j] + (b*b*b - b)*end[j])*h*h/6;
+			pose[j] = p;
+		}
+	}
+
+	// The pose seen from the other side: pairs holds 0-based joint pairs (left, right, left, right, ...).
+	public static double[] mirror(double[] pose, int[] pairs){
+		double[] mirrored = pose.clone();
+		for(int p=0;p+1<pairs.length;p+=2){
+			mirrored[pairs[p]] = 1024 - pose[pairs[p+1]];
+			mirrored[pairs[p+1]] = 1024 - pose[pairs[p]];
+		}
+		return mirrored;
+	}
+
+	// Reads the text or the binary form.
+	public static KeyframeGait load(String fileName) throws IOException{
+		InputStream in = new BufferedInputStream(new FileInputStream(fileName));
+		try{
+			in.mark(4);
+			DataInputStream data = new DataInputStream(in);
+			int magic = data.available() >= 4 ? data.readInt() : 0;
+			if(magic == MAGIC)
+				return readBinary(data, fileName);
+			in.reset();
+			return readText(new BufferedReader(new InputStreamReader(in, "ISO-8859-1")), fileName);
+		}
+		finally{
+			in.close();
+		}
+	}
+
+	private static KeyframeGait readText(BufferedReader in, String fileName) throws IOException{
+		int joints = -1;
+		int interpolation = LINEAR;
+		int[] pairs = new int[0];
+		String loop = null;
+		ArrayList<double[]> keys = new ArrayList<double[]>();
+		ArrayList<Integer> durations = new ArrayList<Integer>();
+		HashMap<String,Integer> names = new HashMap<String,Integer>();
+		String line;
+		int lineNumber = 0;
+		while((line = in.readLine()) != null){
+			lineNumber++;
+			int comment = line.indexOf('#');
+			if(comment >= 0)
+				line = line.substring(0, comment);
+			line = line.trim();
+			if(line.length() == 0)
+				continue;
+			String[] f = line.split("\\s+");
+			String where = fileName + ":" + lineNumber + ": ";
+			try{
+				if(f[0].equals("joints") && f.length == 2){
+					joints = Integer.parseInt(f[1]);
+				}
+				else if(f[0].equals("interpolation") && f.length == 2){
+					if(f[1].equals("linear"))
+						interpolation = LINEAR;
+					else if(f[1].equals("cubic"))
+						interpolation = CUBIC;
+					else
+						throw new IOException(where + "unknown interpolation: " + f[1]);
+				}
+				else if(f[0].equals("pairs")){
+					pairs = new int[2*(f.length-1)];
+					for(int p=1;p<f.length;p++){
+						String[] pair = f[p].split("-");
+						if(pair.length != 2)
+							throw new IOException(where + "not a pair of joints: " + f[p]);
+						pairs[2*(p-1)] = joint(pair[0], joints, where);
+						pairs[2*(p-1)+1] = joint(pair[1], joints, where);
+					}
+				}
+				else if(f[0].equals("key") || f[0].equals("mirror") || f[0].equals("repeat")){
+					if(joints < 0)
+						throw new IOException(where + "joints must come before the keyframes");
+					if(f.length < 3 || names.containsKey(f[1]))
+						throw new IOException(where + "keyframe without a name and a duration, or named twice");
+					double[] key;
+					int overrides;
+					if(f[0].equals("key")){
+						if(f.length != 3 + joints)
+							throw new IOException(where + "expected " + joints + " positions, found " + (f.length - 3));
+						key = new double[joints];
+						for(int j=0;j<joints;j++)
+							key[j] = Double.parseDouble(f[3+j]);
+						overrides = f.length;
+					}
+					else{
+						if(f.length < 4 || !names.containsKey(f[3]))
+							throw new IOException(where + "unknown keyframe: " + (f.length < 4 ? "" : f[3]));
+						key = keys.get(names.get(f[3]).intValue());
+						key = f[0].equals("mirror") ? mirror(key, pairs) : key.clone();
+						overrides = 4;
+					}
+					for(int o=overrides;o<f.length;o++){
+						String[] assignment = f[o].split("=");
+						if(assignment.length != 2)
+							throw new IOException(where + "expected joint=position: " + f[o]);
+						key[joint(assignment[0], joints, where)] = Double.parseDouble(assignment[1]);
+					}
+					names.put(f[1], Integer.valueOf(keys.size()));
+					keys.add(key);
+					durations.add(Integer.valueOf(keys.size() == 1 ? 0 : Integer.parseInt(f[2])));
+				}
+				else if(f[0].equals("loop") && f.length == 2){
+					loop = f[1];
+				}
+				else{
+					throw new IOException(where + "unknown statement: " + line);
+				}
+			}
+			catch(NumberFormatException e){
+				throw new IOException(where + "not a number: " + e.getMessage());
+			}
+		}
+		if(keys.isEmpty())
+			throw new IOException(fileName + ": no keyframes");
+		if(loop != null && !names.containsKey(loop))
+			throw new IOException(fileName + ": unknown loop keyframe: " + loop);
+		int[] ticks = new int[durations.size()];
+		for(int k=0;k<ticks.length;k++)
+			ticks[k] = durations.get(k).intValue();
+		try{
+			return new KeyframeGait(keys.toArray(new double[keys.size()][]), ticks, interpolation, loop == null ? -1 : names.get(loop).intValue());
+		}
+		catch(IllegalArgumentException e){
+			throw new IOException(fileName + ": " + e.getMessage());
+		}
+	}
+
+	private static int joint(String number, int joints, String where) throws IOException{
+		int joint = Integer.parseInt(number);
+		if(joint < 1 || joint > joints)
+			throw new IOException(where + "no joint " + number);
+		return joint - 1;
+	}
+
+	private static KeyframeGait readBinary(DataInputStream in, String fileName) throws IOException{
+		if(in.readUnsignedByte() != 1)
+			throw new IOException(fileName + ": unknown version");
+		int interpolation = in.readUnsignedByte();
+		int joints = in.readUnsignedShort();
+		int count = in.readUnsignedShort();
+		int loopKey = in.readShort();
+		double[][] keys = new double[count][joints];
+		int[] durations = new int[count];
+		for(int k=0;k<count;k++){
+			durations[k] = in.readUnsignedShort();
+			for(int j=0;j<joints;j++)
+				keys[k][j] = in.readFloat();
+		}
+		try{
+			return new KeyframeGait(keys, durations, interpolation, loopKey);
+		}
+		catch(IllegalArgumentException e){
+			throw new IOException(fileName + ": " + e.getMessage());
+		}
+	}
+
+	// Binary form: magic, version, interpolation, joints, keyframes, loop keyframe, then the ticks
+	// and the positions (floats) of every keyframe, with the mirrors already resolved.
+	public void save(String fileName) throws IOException{
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+		try{
+			out.writeInt(MAGIC);
+			out.writeByte(1);
+			out.writeByte(interpolation);
+			out.writeShort(joints());
+			out.writeShort(keys.length);
+			out.writeShort(loopKey);
+			for(int k=0;k<keys.length;k++){
+				out.writeShort(k == 0 ? 0 : keyTicks[k] - keyTicks[k-1]);
+				for(int j=0;j<keys[k].length;j++)
+					out.writeFloat((float)keys[k][j]);
+			}
+		}
+		finally{
+			out.close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException{
+		if(args.length != 2){
+			System.out.println("Usage: java KeyframeGait <text file> <binary file>");
+			return;
+		}
+		KeyframeGait gait = load(args[0]);
+		gait.save(args[1]);
+		System.out.println(gait.keyframes() + " keyframes, " + gait.ticks() + " ticks, written to " + args[1]);
+	}
+}
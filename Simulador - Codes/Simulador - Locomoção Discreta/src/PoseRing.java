@@ -0,0 +1,73 @@
+/*
+ * Single-producer, single-consumer ring of preallocated poses (one float per joint).
+ * The producer fills the slot returned by claim() and makes it visible with publish(); the
+ * consumer takes only the newest published pose and skips the older ones, which are stale by
+ * then. head and tail only grow and each is written by one thread, so no lock is needed: the
+ * volatile write of head publishes the slot, the volatile write of tail gives the slots back.
+ */
+public class PoseRing {
+
+	private final float[][] slots;
+	private final long[] stamps; // System.nanoTime() of the publication of each slot
+	private final int mask;
+
+	private volatile long head = 0; // next slot to publish, written by the producer
+	private volatile long tail = 0; // next slot to take, written by the consumer
+
+	private long takenStamp = 0;
+
+	// capacity is rounded up to a power of two.
+	public PoseRing(int capacity, int width){
+		if(capacity < 1 || width < 1)
+			throw new IllegalArgumentException("capacity and width must be positive: " + capacity + ", " + width);
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity)
+			size <<= 1;
+		slots = new float[size][width];
+		stamps = new long[size];
+		mask = size - 1;
+	}
+
+	public int capacity(){
+		return slots.length;
+	}
+
+	// Poses published and not taken yet.
+	public int size(){
+		return (int)(head - tail);
+	}
+
+	// Producer: the slot to fill next, or null while the ring is full.
+	public float[] claim(){
+		long h = head;
+		if(h - tail == slots.length)
+			return null;
+		return slots[(int)h & mask];
+	}
+
+	// Producer: publishes the slot returned by the last claim().
+	public void publish(){
+		long h = head;
+		stamps[(int)h & mask] = System.nanoTime();
+		head = h + 1;
+	}
+
+	// Consumer: copies the newest pose into pose and frees every published slot.
+	// Returns the number of poses taken, 0 if there was none; all but the last one are dropped.
+	public int takeLatest(float[] pose){
+		long h = head;
+		long t = tail;
+		if(h == t)
+			return 0;
+		int last = (int)(h - 1) & mask;
+		System.arraycopy(slots[last], 0, pose, 0, pose.length);
+		takenStamp = stamps[last];
+		tail = h;
+		return (int)(h - t);
+	}
+
+	// Consumer: publication time of the pose returned by the last takeLatest().
+	public long takenStamp(){
+		return takenStamp;
+	}
+}
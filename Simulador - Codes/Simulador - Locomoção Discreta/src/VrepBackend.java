@@ -0,0 +1,63 @@
+import coppelia.CharWA;
+import coppelia.FloatW;
+import coppelia.FloatWA;
+import coppelia.IntW;
+import coppelia.IntWA;
+import coppelia.StringWA;
+
+/*
+ * The part of the V-REP remote API used by Bioloid and its control loops, with the same names,
+ * arguments and return codes as coppelia.remoteApi. RemoteApiBackend forwards to the native
+ * library; InMemoryBackend runs everything in process, so the control code can be exercised
+ * without V-REP or the dll.
+ */
+public interface VrepBackend {
+
+	int simx_return_ok = 0;
+	int simx_return_novalue_flag = 1;
+	int simx_return_timeout_flag = 2;
+	int simx_return_remote_error_flag = 8;
+
+	int simx_opmode_oneshot = 0;
+	int simx_opmode_blocking = 65536;
+	int simx_opmode_oneshot_wait = 65536;
+	int simx_opmode_streaming = 131072;
+	int simx_opmode_discontinue = 327680;
+	int simx_opmode_buffer = 393216;
+
+	int sim_object_joint_type = 1;
+	int sim_scripttype_childscript = 1;
+	int sim_appobj_object_type = 109;
+
+	int simxStart(final String connectionAddress, int connectionPort, boolean waitUntilConnected, boolean doNotReconnectOnceDisconnected, int timeOutInMs, int commThreadCycleInMs);
+
+	void simxFinish(int clientID);
+
+	int simxGetConnectionId(int clientID);
+
+	int simxGetObjectHandle(int clientID, final String objectName, IntW handle, int operationMode);
+
+	int simxSetJointTargetPosition(int clientID, int jointHandle, float targetPosition, int operationMode);
+
+	int simxGetJointPosition(int clientID, int jointHandle, FloatW position, int operationMode);
+
+	int simxGetObjectPosition(int clientID, int objectHandle, int relativeToObjectHandle, FloatWA position, int operationMode);
+
+	int simxCallScriptFunction(int clientID, final String scriptDescription, int options, final String functionName, final IntWA inInts, final FloatWA inFloats, final StringWA inStrings, final CharWA inBuffer, IntWA outInts, FloatWA outFloats, StringWA outStrings, CharWA outBuffer, int operationMode);
+
+	int simxGetObjectGroupData(int clientID, int objectType, int dataType, IntWA handles, IntWA intData, FloatWA floatData, StringWA stringData, int operationMode);
+
+	int simxPauseCommunication(int clientID, boolean enable);
+
+	int simxSynchronous(int clientID, boolean enable);
+
+	int simxSynchronousTrigger(int clientID);
+
+	int simxGetPingTime(int clientID, IntW pingTime);
+
+	int simxGetLastCmdTime(int clientID);
+
+	int simxStartSimulation(int clientID, int operationMode);
+
+	int simxStopSimulation(int clientID, int operationMode);
+}
@@ -1,31 +1,29 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
 import coppelia.remoteApi;
-import coppelia.FloatW;
 import coppelia.FloatWA;
 import coppelia.IntW;
+import coppelia.IntWA;
+import coppelia.StringWA;
 
 public class Bioloid{
 
-	public remoteApi vrep;
+	public VrepBackend vrep;
 	int clientID; // Setting client
-	int cont = 0; // counter variable
-	int i = 0;
 	
-	//Setting ID of Motors -------------------------------------------------------------------------------
+	//Setting the joints (handles and positions of the motors) --------------------------------------------
 	
-	IntW id1;IntW id2;IntW id3;IntW id4;IntW id5;IntW id6;IntW id7;	IntW id8;IntW id9;
-	IntW id10;IntW id11;IntW id12;IntW id13;IntW id14;IntW id15;IntW id16;IntW id17;IntW id18;
+	JointTable joints;
+	JointStateCache state;
 	IntW robot; IntW floor;
 	
-	//----------------------------------------------------------------------------------------------------
-	
-	//Setting the variables for motors positions ---------------------------------------------------------
-	
-	FloatW position1 = new FloatW(0); FloatW position2 = new FloatW(0);	FloatW position3 = new FloatW(0);
-	FloatW position4 = new FloatW(0); FloatW position5 = new FloatW(0);	FloatW position6 = new FloatW(0);
-	FloatW position7 = new FloatW(0); FloatW position8 = new FloatW(0);	FloatW position9 = new FloatW(0);
-	FloatW position10 = new FloatW(0);FloatW position11 = new FloatW(0);FloatW position12 = new FloatW(0);
-	FloatW position13 = new FloatW(0);FloatW position14 = new FloatW(0);FloatW position15 = new FloatW(0);
-	FloatW position16 = new FloatW(0);FloatW position17 = new FloatW(0);FloatW position18 = new FloatW(0);
+	//Motor positions, in servo units, for the initial and for the clear poses
+	static final double[] INITIAL_POSE = {336,687,298,724,412,611,355,664,491,530,394,625,278,743,616,405,490,530};
+	static final double[] CLEAR_POSE = {512,512,512,512,512,512,361,663,512,512,512,512,512,512,512,512,512,512};
+	static final String ROBOT = "BIOLOID", FLOOR = "5mx5mWoodenFloor"; // scene objects looked up by techCheck()
+	static final int OBJECT_NAMES = 0; // simxGetObjectGroupData data type: the name of each object
 	
 	//----------------------------------------------------------------------------------------------------
 	
@@ -34,172 +32,225 @@ public class Bioloid{
 	FloatWA CM=new FloatWA(0);
 	//----------------------------------------------------------------------------------------------------
 	
-	public Bioloid(remoteApi vrep, int clientID, IntW id1 , IntW id2, IntW id3, IntW id4, IntW id5, IntW id6 ,IntW id7 ,IntW id8 ,IntW id9 ,IntW id10, IntW id11, IntW id12, IntW id13, IntW id14, IntW id15, IntW id16,IntW id17,IntW id18,IntW robot, IntW floor){
+	SettleStrategy settleStrategy; // how long each pose is held after it is sent
+	SynchronousStepper stepper; // null while V-REP runs on its own clock
+	SettleStrategy settleBeforeSynchronous; // restored by stopSynchronous()
+	PosePipeline pipeline; // null while the poses are sent by the calling thread
+	SettleStrategy settleBeforePipeline; // restored by stopPipeline()
+	final float[] targets; // radians for every joint, filled by the motion methods and sent by sendTargets()
+	final ServoModel servos; // servo units to radians, with the calibration of every joint
+	GaitTable convertedGait; float[] gaitRadians; int gaitVersion; // the last gait sent, converted to radians
+	
+	public Bioloid(VrepBackend vrep, int clientID, JointTable joints){
 		this.vrep=vrep;
 		this.clientID=clientID;
-		this.id1 = id1;
-		this.id2 = id2;
-		this.id3 = id3;
-		this.id4 = id4;
-		this.id5 = id5;
-		this.id6 = id6;
-		this.id7 = id7;
-		this.id8 = id8;
-		this.id9 = id9;
-		this.id10 = id10;
-		this.id11 = id11;
-		this.id12 = id12;
-		this.id13 = id13;
-		this.id14 = id14;
-		this.id15 = id15;
-		this.id16 = id16;
-		this.id17 = id17;
-		this.id18 = id18;
+		this.joints = joints;
+		this.state = new JointStateCache(vrep, clientID, joints);
+		this.targets = new float[joints.size()];
+		this.servos = new ServoModel(joints.size());
+		this.settleStrategy = new SettleStrategy.CallTime(joints.size() + 1); // as long as resending every target and polling the connection
+		this.robot = new IntW(1);
+		this.floor = new IntW(1);
+	}
+	
+	public Bioloid(VrepBackend vrep, int clientID){
+		this(vrep, clientID, JointTable.bioloid());
+	}
+	
+	public Bioloid(remoteApi vrep, int clientID, JointTable joints){
+		this(new RemoteApiBackend(vrep), clientID, joints);
+	}
+	
+	public Bioloid(remoteApi vrep, int clientID){
+		this(new RemoteApiBackend(vrep), clientID);
+	}
+	
+	// The motor handles are resolved by techCheck(), so id1..id18 are not used; kept for the existing Run programs.
+	public Bioloid(remoteApi vrep, int clientID, IntW id1 , IntW id2, IntW id3, IntW id4, IntW id5, IntW id6 ,IntW id7 ,IntW id8 ,IntW id9 ,IntW id10, IntW id11, IntW id12, IntW id13, IntW id14, IntW id15, IntW id16,IntW id17,IntW id18,IntW robot, IntW floor){
+		this(new RemoteApiBackend(vrep), clientID);
 		this.robot = robot;
 		this.floor = floor;
 	}
 	
+	public JointTable getJoints(){
+		return joints;
+	}
+	
+	// Reads every joint with one simxGetObjectGroupData stream instead of one stream per joint.
+	public void setBulkReads(boolean bulk){
+		state.setBulk(bulk);
+	}
+	
+	public void setSettleStrategy(SettleStrategy settleStrategy){
+		if(pipeline!=null && callsVrep(settleStrategy))
+			throw new IllegalStateException("only the pose sender may call V-REP while the pipeline runs: settle with SettleStrategy.Sleep or NONE");
+		this.settleStrategy = settleStrategy;
+	}
+	
+	// Switches to synchronous mode: every command advances the simulation by a fixed number of steps.
+	public void startSynchronous(SynchronousStepper stepper){
+		if(pipeline!=null)
+			throw new IllegalStateException("stop the pose pipeline first: each step must follow its pose");
+		if(this.stepper!=null)
+			throw new IllegalStateException("already in synchronous mode: call stopSynchronous() first");
+		settleBeforeSynchronous = settleStrategy;
+		this.stepper = stepper;
+		this.settleStrategy = stepper;
+		stepper.start(vrep, clientID);
+	}
+	
+	// Gives V-REP its own clock back, with the settle strategy used before startSynchronous().
+	public void stopSynchronous(){
+		if(stepper==null)
+			return;
+		stepper.stop(vrep, clientID);
+		stepper = null;
+		settleStrategy = settleBeforeSynchronous;
+		settleBeforeSynchronous = null;
+	}
+	
+	// Sends the poses from a separate thread through a ring of depth poses (see PosePipeline).
+	// Only that thread calls V-REP meanwhile: SettleStrategy.COUNT, which polls the connection, is
+	// replaced by NONE until stopPipeline(), CallTime is calibrated first so that it only parks, and
+	// the read methods throw IllegalStateException.
+	public PosePipeline startPipeline(int depth){
+		if(stepper!=null)
+			throw new IllegalStateException("the pose pipeline needs the asynchronous mode");
+		if(pipeline==null){
+			settleBeforePipeline = settleStrategy;
+			if(settleStrategy instanceof SettleStrategy.CallTime)
+				((SettleStrategy.CallTime)settleStrategy).calibrate(vrep, clientID);
+			if(settleStrategy==SettleStrategy.COUNT)
+				settleStrategy = SettleStrategy.NONE;
+			pipeline = new PosePipeline(vrep, clientID, joints, depth);
+			pipeline.start();
+		}
+		return pipeline;
+	}
+	
+	// Sends the poses still queued and goes back to sending from the calling thread, with the settle
+	// strategy used before startPipeline().
+	public PosePipeline stopPipeline(){
+		PosePipeline stopped = pipeline;
+		if(stopped!=null){
+			stopped.stop();
+			pipeline = null;
+			settleStrategy = settleBeforePipeline;
+			settleBeforePipeline = null;
+		}
+		return stopped;
+	}
+	
+	public PosePipeline getPipeline(){
+		return pipeline;
+	}
+	
+	// Whether the strategy calls V-REP from the thread that settles.
+	private static boolean callsVrep(SettleStrategy strategy){
+		if(strategy instanceof SettleStrategy.CallTime)
+			return !((SettleStrategy.CallTime)strategy).isCalibrated();
+		return strategy==SettleStrategy.COUNT || strategy instanceof SynchronousStepper;
+	}
+	
+	// The calling thread may not share the connection with the pose sender.
+	private void checkNoPipeline(String what){
+		if(pipeline!=null)
+			throw new IllegalStateException(what + " calls V-REP, which only the pose sender may do while the pipeline runs: call stopPipeline() first");
+	}
+	
+	// Calibration of the joints (trim, direction and range), used by every motion and read method.
+	public ServoModel getServos(){
+		return servos;
+	}
+	
 	public void techCheck(){
+		checkNoPipeline("techCheck");
 	
 		if (clientID!=-1){
 			System.out.println("Connected to remote API server");
 			
-			if(vrep.simxGetObjectHandle(clientID, "ART_1",id1, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 1 disconnected");
-			}
-			else{
-				System.out.println("Motor 1 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_2",id2, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 2 disconnected");
-			}
-			else{
-				System.out.println("Motor 2 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_3",id3, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 3 disconnected");
-			}
-			else{
-				System.out.println("Motor 3 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_4",id4, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 4 disconnected");
-			}
-			else{
-				System.out.println("Motor 4 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_5",id5, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 5 disconnected");
-			}
-			else{
-				System.out.println("Motor 5 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_6",id6, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 6 disconnected");
-			}
-			else{
-				System.out.println("Motor 6 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_7",id7, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 7 disconnected");
-			}
-			else{
-				System.out.println("Motor 7 connected");
+			for(int i=0;i<joints.size();i++){
+				if(vrep.simxGetObjectHandle(clientID, joints.names[i], joints.handle, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
+					System.out.println("Motor " + (i+1) + " disconnected");
+				}
+				else{
+					joints.handles[i] = joints.handle.getValue();
+					System.out.println("Motor " + (i+1) + " connected");
+				}
 			}
 			
-			if(vrep.simxGetObjectHandle(clientID, "ART_8",id8, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 8 disconnected");
-			}
-			else{
-				System.out.println("Motor 8 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_9",id9, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 9 disconnected");
-			}
-			else{
-				System.out.println("Motor 9 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_10",id10, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 10 disconnected");
-			}
-			else{
-				System.out.println("Motor 10 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_11",id11, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 11 disconnected");
-			}
-			else{
-				System.out.println("Motor 11 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_12",id12, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 12 disconnected");
-			}
-			else{
-				System.out.println("Motor 12 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_13",id13, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 13 disconnected");
-			}
-			else{
-				System.out.println("Motor 13 connected");
-			}
-			
-			if(vrep.simxGetObjectHandle(clientID, "ART_14",id14, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 14 disconnected");
+			if(vrep.simxGetObjectHandle(clientID, ROBOT,robot, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
+				System.out.println("robot disconnected");
 			}
 			else{
-				System.out.println("Motor 14 connected");
-			}
+				System.out.println("robot connected");
+			}	
 			
-			if(vrep.simxGetObjectHandle(clientID, "ART_15",id15, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 15 disconnected");
+			if(vrep.simxGetObjectHandle(clientID, FLOOR,floor, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
+				System.out.println("Floor disconnected");
 			}
 			else{
-				System.out.println("Motor 15 connected");
+				System.out.println("Floor connected");
 			}
+		}
+		else{
+			System.out.println("Failed connecting to remote API server - Try to run the simulator");
+			System.exit(0);
+		}
+	}
+	
+	// techCheck() with the handles taken from the cache when it knows the scene, and otherwise
+	// discovered with discoverHandles() and saved to it, instead of one round trip per object.
+	// A cache hit costs one round trip, looking the robot up: if its handle changed, the scene is
+	// not the one cached (stale entry or wrong scene key), so it is forgotten and discovered again.
+	public void techCheck(HandleCache cache, String scene){
+		checkNoPipeline("techCheck");
+	
+		if (clientID!=-1){
+			System.out.println("Connected to remote API server");
 			
-			if(vrep.simxGetObjectHandle(clientID, "ART_16",id16, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 16 disconnected");
-			}
-			else{
-				System.out.println("Motor 16 connected");
+			String[] names = sceneObjects();
+			int[] found = new int[names.length];
+			boolean cached = cache.get(scene, names, found);
+			if(cached && !isRobot(found[joints.size()])){
+				System.out.println("Handles cached for " + scene + " are stale, discovering them again");
+				cache.forget(scene);
+				cached = false;
+			}
+			if(!cached){
+				discoverHandles(names, found);
+				cache.put(scene, names, found);
+				try{
+					cache.save();
+				}
+				catch(IOException e){
+					System.out.println("Handle cache not saved: " + e.getMessage());
+				}
 			}
 			
-			if(vrep.simxGetObjectHandle(clientID, "ART_17",id17, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 17 disconnected");
-			}
-			else{
-				System.out.println("Motor 17 connected");
+			for(int i=0;i<joints.size();i++){
+				if(found[i]<0){
+					System.out.println("Motor " + (i+1) + " disconnected");
+				}
+				else{
+					joints.handles[i] = found[i];
+					System.out.println("Motor " + (i+1) + " connected");
+				}
 			}
 			
-			if(vrep.simxGetObjectHandle(clientID, "ART_18",id18, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
-				System.out.println("Motor 18 disconnected");
-			}
-			else{
-				System.out.println("Motor 18 connected");
-			}	
-			if(vrep.simxGetObjectHandle(clientID, "BIOLOID",robot, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
+			if(found[joints.size()]<0){
 				System.out.println("robot disconnected");
 			}
 			else{
+				robot.setValue(found[joints.size()]);
 				System.out.println("robot connected");
-			}	
+			}
 			
-			if(vrep.simxGetObjectHandle(clientID, "5mx5mWoodenFloor",floor, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok){
+			if(found[joints.size()+1]<0){
 				System.out.println("Floor disconnected");
 			}
 			else{
+				floor.setValue(found[joints.size()+1]);
 				System.out.println("Floor connected");
 			}
 		}
@@ -208,280 +259,142 @@ public class Bioloid{
 			System.exit(0);
 		}
 	}
-		
-	public void initialPos(int connectionTime, double degrees[]){
-		cont = 0;
-		while(vrep.simxGetConnectionId(clientID)!=-1 && cont!=connectionTime){
-			vrep.simxSetJointTargetPosition(clientID,id1.getValue(),(float)(-2.62 + (336 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id2.getValue(),(float)(-2.62 + (687 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id3.getValue(),(float)(-2.62 + (298 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id4.getValue(),(float)(-2.62 + (724 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id5.getValue(),(float)(-2.62 + (412 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id6.getValue(),(float)(-2.62 + (611 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id7.getValue(),(float)(-2.62 + (355 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id8.getValue(),(float)(-2.62 + (664 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id9.getValue(),(float)(-2.62 + (491 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id10.getValue(),(float)(-2.62 + (530 * 0.00511711875)),vrep.simx_opmode_streaming);		
-			vrep.simxSetJointTargetPosition(clientID,id11.getValue(),(float)(-2.62 + (394 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id12.getValue(),(float)(-2.62 + (625 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id13.getValue(),(float)(-2.62 + (278 * 0.00511711875)),vrep.simx_opmode_streaming);
-    		vrep.simxSetJointTargetPosition(clientID,id14.getValue(),(float)(-2.62 + (743 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id15.getValue(),(float)(-2.62 + (616 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id16.getValue(),(float)(-2.62 + (405 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id17.getValue(),(float)(-2.62 + (490 * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id18.getValue(),(float)(-2.62 + (530 * 0.00511711875)),vrep.simx_opmode_streaming);
-			cont++;
-		}
-		degrees[0]= 336;
-		degrees[1]= 687;
-		degrees[2]= 298;
-		degrees[3]= 724;
-		degrees[4]= 412;
-		degrees[5]= 611;
-		degrees[6]= 355;
-		degrees[7]= 664;
-		degrees[8]= 491;
-		degrees[9]= 530;
-		degrees[10]= 394;
-		degrees[11]= 625;
-		degrees[12]= 278;
-		degrees[13]= 743;
-		degrees[14]= 616;
-		degrees[15]= 405;
-		degrees[16]= 490;
-		degrees[17]= 530;
 	
+	// Whether the handle is the one V-REP gives the robot now.
+	private boolean isRobot(int handle){
+		if(vrep.simxGetObjectHandle(clientID, ROBOT, joints.handle, vrep.simx_opmode_oneshot_wait)!=vrep.simx_return_ok)
+			return false;
+		return joints.handle.getValue()==handle;
 	}
 	
-	public void clear(int connectionTime, double degrees[]){
-		cont = 0;
-		while(vrep.simxGetConnectionId(clientID)!=-1 && cont!=connectionTime){
-			vrep.simxSetJointTargetPosition(clientID,id1.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id2.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id3.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id4.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id5.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id6.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id7.getValue(),(float)-0.78,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id8.getValue(),(float) 0.78,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id9.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id10.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id11.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id12.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id13.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id14.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id15.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id16.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id17.getValue(),0,vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id18.getValue(),0,vrep.simx_opmode_streaming);
-			cont++;
-		}
-		
-		for(i=0;i<18;i++){
-			if(i==6)
-				degrees[i]=361;
-			else{
-				if(i==7)
-					degrees[i]=663;
-				else
-					degrees[i]=512;
+	// The objects techCheck() looks for: the joints, then the robot and the floor.
+	String[] sceneObjects(){
+		String[] names = new String[joints.size()+2];
+		System.arraycopy(joints.names, 0, names, 0, joints.size());
+		names[joints.size()] = ROBOT;
+		names[joints.size()+1] = FLOOR;
+		return names;
+	}
+	
+	// Looks up the handles of names (-1 where missing) with a single simxGetObjectGroupData that lists
+	// the name of every object in the scene; the names it does not find are looked up one by one.
+	// Returns the number of round trips.
+	public int discoverHandles(String[] names, int[] found){
+		checkNoPipeline("discoverHandles");
+		Arrays.fill(found, -1);
+		int trips = 1;
+		IntWA sceneHandles = new IntWA(0);
+		StringWA sceneNames = new StringWA(0);
+		if(vrep.simxGetObjectGroupData(clientID, vrep.sim_appobj_object_type, OBJECT_NAMES, sceneHandles, null, null, sceneNames, vrep.simx_opmode_oneshot_wait)==vrep.simx_return_ok){
+			int[] h = sceneHandles.getArray();
+			String[] n = sceneNames.getArray();
+			HashMap<String,Integer> index = new HashMap<String,Integer>();
+			for(int k=0;k<names.length;k++)
+				index.put(names[k], Integer.valueOf(k));
+			for(int k=0;k<h.length && k<n.length;k++){
+				Integer i = index.get(n[k]);
+				if(i!=null)
+					found[i.intValue()] = h[k];
 			}
-			
 		}
+		for(int i=0;i<names.length;i++){
+			if(found[i]>=0)
+				continue;
+			trips++;
+			if(vrep.simxGetObjectHandle(clientID, names[i], joints.handle, vrep.simx_opmode_oneshot_wait)==vrep.simx_return_ok)
+				found[i] = joints.handle.getValue();
+		}
+		return trips;
+	}
+		
+	public void initialPos(int connectionTime, double degrees[]){
+		servos.toRadians(INITIAL_POSE, targets);
+		sendTargets();
+		settleStrategy.settle(vrep, clientID, connectionTime);
+		System.arraycopy(INITIAL_POSE, 0, degrees, 0, joints.size());
+	}
 	
+	public void clear(int connectionTime, double degrees[]){
+		servos.toRadians(CLEAR_POSE, targets);
+		sendTargets();
+		settleStrategy.settle(vrep, clientID, connectionTime);
+		System.arraycopy(CLEAR_POSE, 0, degrees, 0, joints.size());
 	}
 	
 	public void setDegrees(int connectionTime, double degrees[]){
-		cont = 0;
-		
-		
-		while(vrep.simxGetConnectionId(clientID)!=-1 && cont!=connectionTime){
-			vrep.simxSetJointTargetPosition(clientID,id1.getValue(),(float)(-2.62 + (degrees[0] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id2.getValue(),(float)(-2.62 + (degrees[1] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id3.getValue(),(float)(-2.62 + (degrees[2] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id4.getValue(),(float)(-2.62 + (degrees[3] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id5.getValue(),(float)(-2.62 + (degrees[4] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id6.getValue(),(float)(-2.62 + (degrees[5] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id7.getValue(),(float)(-2.62 + (degrees[6] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id8.getValue(),(float)(-2.62 + (degrees[7] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id9.getValue(),(float)(-2.62 + (degrees[8] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id10.getValue(),(float)(-2.62 + (degrees[9] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id11.getValue(),(float)(-2.62 + (degrees[10] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id12.getValue(),(float)(-2.62 + (degrees[11] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id13.getValue(),(float)(-2.62 + (degrees[12] * 0.00511711875)),vrep.simx_opmode_streaming);
-      		vrep.simxSetJointTargetPosition(clientID,id14.getValue(),(float)(-2.62 + (degrees[13] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id15.getValue(),(float)(-2.62 + (degrees[14] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id16.getValue(),(float)(-2.62 + (degrees[15] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id17.getValue(),(float)(-2.62 + (degrees[16] * 0.00511711875)),vrep.simx_opmode_streaming);
-			vrep.simxSetJointTargetPosition(clientID,id18.getValue(),(float)(-2.62 + (degrees[17] * 0.00511711875)),vrep.simx_opmode_streaming);
-			cont++;
-		}
-		
+		servos.toRadians(degrees, targets);
+		sendTargets();
+		settleStrategy.settle(vrep, clientID, connectionTime);
 	}
 
-	public void readMotor(int motor){
-		cont = 0;
-		while(cont<=3000){	
-			vrep.simxGetJointPosition(clientID, id1.getValue(), position1, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id2.getValue(), position2, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id3.getValue(), position3, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id4.getValue(), position4, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id5.getValue(), position5, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id6.getValue(), position6, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id7.getValue(), position7, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id8.getValue(), position8, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id9.getValue(), position9, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id10.getValue(), position10, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id11.getValue(), position11, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id12.getValue(), position12, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id13.getValue(), position13, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id14.getValue(), position14, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id15.getValue(), position15, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id16.getValue(), position16, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id17.getValue(), position17, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id18.getValue(), position18, vrep.simx_opmode_streaming);
-			cont++;
+	// Sends one tick of a compiled gait. The whole gait is converted to radians the first time it is
+	// sent (and again after a calibration), so every tick is then copied straight from the table.
+	public void setDegrees(int connectionTime, GaitTable gait, int tick){
+		if(gait!=convertedGait || servos.version()!=gaitVersion){
+			gaitRadians = gait.toRadians(servos);
+			convertedGait = gait;
+			gaitVersion = servos.version();
 		}
-		
-		switch(motor){
-			case 1:
-				System.out.print("Motor 1: ");
-				System.out.printf("%.4f\n", ((position1.getValue()+2.62)/0.00511711875));
-				break;
-			case 2:
-				System.out.print("Motor 2: ");
-				System.out.printf("%.4f\n", ((position2.getValue()+2.62)/0.00511711875));
-				break;
-			case 3:
-				System.out.print("Motor 3: ");
-				System.out.printf("%.4f\n", ((position3.getValue()+2.62)/0.00511711875));
-				break;
-			case 4:
-				System.out.print("Motor 4: ");
-				System.out.printf("%.4f\n", ((position4.getValue()+2.62)/0.00511711875));
-				break;
-			case 5:
-				System.out.print("Motor 5: ");
-				System.out.printf("%.4f\n", ((position5.getValue()+2.62)/0.00511711875));
-				break;
-			case 6:
-				System.out.print("Motor 6: ");
-				System.out.printf("%.4f\n", ((position6.getValue()+2.62)/0.00511711875));
-				break;
-			case 7:
-				System.out.print("Motor 7: ");
-				System.out.printf("%.4f\n", ((position7.getValue()+2.62)/0.00511711875));
-				break;
-			case 8:
-				System.out.print("Motor 8: ");
-				System.out.printf("%.4f\n", ((position8.getValue()+2.62)/0.00511711875));
-				break;
-			case 9:
-				System.out.print("Motor 9: ");
-				System.out.printf("%.4f\n", ((position9.getValue()+2.62)/0.00511711875));
-				break;
-			case 10:
-				System.out.print("Motor 10: ");
-				System.out.printf("%.4f\n", ((position10.getValue()+2.62)/0.00511711875));
-				break;
-			case 11:
-				System.out.print("Motor 11: ");
-				System.out.printf("%.4f\n", ((position11.getValue()+2.62)/0.00511711875));
-				break;
-			case 12:
-				System.out.print("Motor 12: ");
-				System.out.printf("%.4f\n", ((position12.getValue()+2.62)/0.00511711875));
-				break;
-			case 13:
-				System.out.print("Motor 13: ");
-				System.out.printf("%.4f\n", ((position13.getValue()+2.62)/0.00511711875));
-				break;
-			case 14:
-				System.out.print("Motor 14: ");
-				System.out.printf("%.4f\n", ((position14.getValue()+2.62)/0.00511711875));
-				break;
-			case 15:
-				System.out.print("Motor 15: ");
-				System.out.printf("%.4f\n", ((position15.getValue()+2.62)/0.00511711875));
-				break;
-			case 16:
-				System.out.print("Motor 16: ");
-				System.out.printf("%.4f\n", ((position16.getValue()+2.62)/0.00511711875));
-				break;
-			case 17:
-				System.out.print("Motor 17: ");
-				System.out.printf("%.4f\n", ((position17.getValue()+2.62)/0.00511711875));
-				break;
-			case 18:
-				System.out.print("Motor 18: ");
-				System.out.printf("%.4f\n", ((position18.getValue()+2.62)/0.00511711875));
-				break;
+		System.arraycopy(gaitRadians, tick*joints.size(), targets, 0, joints.size());
+		sendTargets();
+		settleStrategy.settle(vrep, clientID, connectionTime);
+	}
+	
+	// Sends the targets, to V-REP in a single message or to the pose pipeline when it runs.
+	private void sendTargets(){
+		if(pipeline!=null){
+			float[] pose = pipeline.claim();
+			System.arraycopy(targets, 0, pose, 0, targets.length);
+			pipeline.publish();
+			return;
 		}
-		
+		vrep.simxPauseCommunication(clientID, true); // all the targets go out in a single message
+		for(int i=0;i<joints.size();i++){
+			vrep.simxSetJointTargetPosition(clientID,joints.handles[i],targets[i],vrep.simx_opmode_oneshot);
+		}
+		vrep.simxPauseCommunication(clientID, false);
+	}
+
+	// Current joint positions (radians, indexed like the JointTable) and their time stamp, without printing.
+	public JointStateCache readJoints(){
+		checkNoPipeline("readJoints");
+		waitForPositions();
+		return state;
+	}
+	
+	public void readMotor(int motor){
+		if(motor<1 || motor>joints.size())
+			return;
+		float[] positions = readJoints().positions();
+		System.out.print("Motor " + motor + ": ");
+		System.out.printf("%.4f\n", servos.ticks(motor-1, positions[motor-1]));
 	}	
 	
 	public void readMotors(){
-		cont = 0;
-		while(cont<=3000){
-			vrep.simxGetJointPosition(clientID, id1.getValue(), position1, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id2.getValue(), position2, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id3.getValue(), position3, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id4.getValue(), position4, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id5.getValue(), position5, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id6.getValue(), position6, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id7.getValue(), position7, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id8.getValue(), position8, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id9.getValue(), position9, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id10.getValue(), position10, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id11.getValue(), position11, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id12.getValue(), position12, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id13.getValue(), position13, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id14.getValue(), position14, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id15.getValue(), position15, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id16.getValue(), position16, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id17.getValue(), position17, vrep.simx_opmode_streaming);
-			vrep.simxGetJointPosition(clientID, id18.getValue(), position18, vrep.simx_opmode_streaming);
-		cont++;	
+		float[] positions = readJoints().positions();
+		for(int i=0;i<joints.size();i++){
+			System.out.print("Motor " + (i+1) + ": ");
+			System.out.printf("%.1f\n", servos.ticks(i, positions[i]));
+		}
+	}
+
+	// Refreshes the joint state snapshot, starting the position streams on first use.
+	private void waitForPositions(){
+		if(stepper==null){
+			// only spins until the first streamed values arrive, later refreshes are buffer reads
+			for(int cont=0;cont<=3000 && !state.refresh();cont++){
+			}
+		}
+		else{
+			if(!state.isStreaming())
+				state.start();
+			stepper.step(vrep, clientID, 1); // the next step publishes fresh values
+			state.refresh();
 		}
-		System.out.print("Motor 1: ");
-		System.out.printf("%.1f\n", ((position1.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 2: ");
-		System.out.printf("%.1f\n", ((position2.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 3: ");
-		System.out.printf("%.1f\n", ((position3.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 4: ");
-		System.out.printf("%.1f\n", ((position4.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 5: ");
-		System.out.printf("%.1f\n", ((position5.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 6: ");
-		System.out.printf("%.1f\n", ((position6.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 7: ");
-		System.out.printf("%.1f\n", ((position7.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 8: ");
-		System.out.printf("%.1f\n", ((position8.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 9: ");
-		System.out.printf("%.1f\n", ((position9.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 10: ");
-		System.out.printf("%.1f\n", ((position10.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 11: ");
-		System.out.printf("%.1f\n", ((position11.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 12: ");
-		System.out.printf("%.1f\n", ((position12.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 13: ");
-		System.out.printf("%.1f\n", ((position13.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 14: ");
-		System.out.printf("%.1f\n", ((position14.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 15: ");
-		System.out.printf("%.1f\n", ((position15.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 16: ");
-		System.out.printf("%.1f\n", ((position16.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 17: ");
-		System.out.printf("%.1f\n", ((position17.getValue()+2.62)/0.00511711875));
-		System.out.print("Motor 18: ");
-		System.out.printf("%.1f\n", ((position18.getValue()+2.62)/0.00511711875));		
 	}
 
 	public void readGyroSensor(){ 
+		checkNoPipeline("readGyroSensor");
 		long startTime=System.currentTimeMillis();
         
         // Initialize streaming of the desired data:
@@ -497,6 +410,7 @@ public class Bioloid{
 	}
 
     public void readCM(){
+    	checkNoPipeline("readCM");
     	vrep.simxGetObjectPosition(clientID, robot.getValue(), floor.getValue(), CM, vrep.simx_opmode_streaming);
     	System.out.println("x: " + CM.getArray()[0]);
     	System.out.println("y: " + CM.getArray()[1]);
@@ -0,0 +1,159 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/*
+ * Latency histogram and return-code counters of one remote API method, kept by InstrumentedBackend.
+ * record() only updates preallocated counters, so it can sit on the control loop.
+ *
+ * The histogram has four buckets per power of two of nanoseconds, so a percentile is known
+ * within 25%; it is reported as the upper bound of its bucket. The counters are plain longs:
+ * a method should be called from one thread at a time (see PosePipeline), and a report taken
+ * from another thread may be a few calls behind.
+ */
+public class CallStats {
+
+	static final int SUB_BITS = 2;
+	static final int BUCKETS = (64 - SUB_BITS) << SUB_BITS;
+	static final int FLAGS = 7; // novalue, timeout, illegal opmode, remote error, split progress, local error, initialize error
+
+	private final String name;
+	private final long[] buckets = new long[BUCKETS];
+	private final long[] flags = new long[FLAGS];
+	private long count = 0;
+	private long failures = 0;
+	private long others = 0; // failures with neither the novalue nor the timeout flag
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+
+	public CallStats(String name){
+		this.name = name;
+	}
+
+	public String getName(){
+		return name;
+	}
+
+	public void record(long nanos, int returnCode){
+		if(nanos < 0)
+			nanos = 0;
+		count++;
+		totalNanos += nanos;
+		if(nanos > maxNanos)
+			maxNanos = nanos;
+		buckets[bucket(nanos)]++;
+		if(returnCode != VrepBackend.simx_return_ok){
+			failures++;
+			if((returnCode & (VrepBackend.simx_return_novalue_flag | VrepBackend.simx_return_timeout_flag)) == 0)
+				others++;
+			for(int f=0;f<FLAGS;f++){
+				if((returnCode & (1 << f)) != 0)
+					flags[f]++;
+			}
+		}
+	}
+
+	// Methods without a return code.
+	public void record(long nanos){
+		record(nanos, VrepBackend.simx_return_ok);
+	}
+
+	static int bucket(long nanos){
+		if(nanos < (1 << SUB_BITS))
+			return (int)nanos;
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int)(nanos >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+		return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+	}
+
+	// Largest latency that falls in the bucket.
+	static long bucketLimit(int bucket){
+		if(bucket < (1 << SUB_BITS))
+			return bucket;
+		int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+		long sub = bucket & ((1 << SUB_BITS) - 1);
+		long limit = ((1L << SUB_BITS) + sub + 1) << (exponent - SUB_BITS);
+		return limit < 0 ? Long.MAX_VALUE : limit - 1;
+	}
+
+	public long getCount(){
+		return count;
+	}
+
+	// Calls that did not return simx_return_ok.
+	public long getFailures(){
+		return failures;
+	}
+
+	public long getNoValue(){
+		return flags[0];
+	}
+
+	public long getTimeouts(){
+		return flags[1];
+	}
+
+	// Calls whose return code had the given simx_return_*_flag set.
+	public long getFlagCount(int flag){
+		long total = 0;
+		for(int f=0;f<FLAGS;f++){
+			if((flag & (1 << f)) != 0)
+				total += flags[f];
+		}
+		return total;
+	}
+
+	public long getTotalNanos(){
+		return totalNanos;
+	}
+
+	public long getMaxNanos(){
+		return maxNanos;
+	}
+
+	public double getMeanMicros(){
+		return count == 0 ? 0 : totalNanos/1e3/count;
+	}
+
+	// Upper bound of the latency below which the fraction q (0 to 1) of the calls fall.
+	public long percentileNanos(double q){
+		if(count == 0)
+			return 0;
+		long rank = (long)Math.ceil(q*count);
+		if(rank < 1)
+			rank = 1;
+		long seen = 0;
+		for(int b=0;b<BUCKETS;b++){
+			seen += buckets[b];
+			if(seen >= rank)
+				return Math.min(bucketLimit(b), maxNanos);
+		}
+		return maxNanos;
+	}
+
+	public void reset(){
+		Arrays.fill(buckets, 0);
+		Arrays.fill(flags, 0);
+		count = 0;
+		failures = 0;
+		others = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+
+	static void printHeader(PrintStream out){
+		out.printf("%-28s %10s %10s %6s %9s %9s %9s %9s %8s %8s %8s%n",
+				"method", "calls", "total ms", "share", "mean us", "p50 us", "p99 us", "max us", "novalue", "timeout", "other");
+	}
+
+	void print(PrintStream out, long allNanos){
+		out.printf("%-28s %10d %10.1f %5.1f%% %9.1f %9.1f %9.1f %9.1f %8d %8d %8d%n",
+				name, count, totalNanos/1e6, allNanos == 0 ? 0 : 100.0*totalNanos/allNanos, getMeanMicros(),
+				percentileNanos(0.5)/1e3, percentileNanos(0.99)/1e3, maxNanos/1e3,
+				getNoValue(), getTimeouts(), others);
+	}
+
+	public String toString(){
+		return String.format("%s: %d calls, mean %.1f us, p99 %.1f us, max %.1f us, %d novalue, %d timeouts",
+				name, count, getMeanMicros(), percentileNanos(0.99)/1e3, maxNanos/1e3, getNoValue(), getTimeouts());
+	}
+}
@@ -0,0 +1,64 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/*
+ * Gait read from a text file with one tick per line and one motor position (servo units) per column.
+ * Columns may be separated by commas, semicolons, tabs or spaces; empty lines and lines starting
+ * with '#' are skipped.
+ */
+public class CsvGait implements GaitSource {
+
+	private final double[][] rows;
+
+	private CsvGait(double[][] rows){
+		this.rows = rows;
+	}
+
+	public static CsvGait load(String fileName) throws IOException{
+		ArrayList<double[]> rows = new ArrayList<double[]>();
+		BufferedReader in = new BufferedReader(new FileReader(fileName));
+		try{
+			String line;
+			int lineNumber = 0;
+			while((line = in.readLine()) != null){
+				lineNumber++;
+				line = line.trim();
+				if(line.length() == 0 || line.startsWith("#"))
+					continue;
+				String[] fields = line.split("[,;\\s]+");
+				double[] row = new double[fields.length];
+				for(int j=0;j<fields.length;j++){
+					try{
+						row[j] = Double.parseDouble(fields[j]);
+					}
+					catch(NumberFormatException e){
+						throw new IOException(fileName + ":" + lineNumber + ": not a number: " + fields[j]);
+					}
+				}
+				if(!rows.isEmpty() && row.length != rows.get(0).length)
+					throw new IOException(fileName + ":" + lineNumber + ": expected " + rows.get(0).length + " columns, found " + row.length);
+				rows.add(row);
+			}
+		}
+		finally{
+			in.close();
+		}
+		if(rows.isEmpty())
+			throw new IOException(fileName + ": no poses");
+		return new CsvGait(rows.toArray(new double[rows.size()][]));
+	}
+
+	public int ticks(){
+		return rows.length;
+	}
+
+	public int joints(){
+		return rows[0].length;
+	}
+
+	public void pose(int tick, double[] pose){
+		System.arraycopy(rows[tick], 0, pose, 0, rows[tick].length);
+	}
+}
@@ -0,0 +1,13 @@
+/*
+ * A gait described tick by tick, in servo units (0-1023, the same values passed to Bioloid.setDegrees).
+ * GaitTable.compile samples it once; nothing on the control path calls it afterwards.
+ */
+public interface GaitSource {
+
+	int ticks();
+
+	int joints();
+
+	// Writes the pose of the given tick into pose[0..joints()-1].
+	void pose(int tick, double[] pose);
+}
@@ -0,0 +1,204 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import coppelia.CharWA;
+import coppelia.FloatW;
+import coppelia.FloatWA;
+import coppelia.IntW;
+import coppelia.IntWA;
+import coppelia.StringWA;
+
+/*
+ * VrepBackend that times every call to another backend and counts its return codes, one
+ * CallStats per method, to show where the control loop spends its time:
+ *
+ *	InstrumentedBackend backend = new InstrumentedBackend(new RemoteApiBackend(vrep));
+ *	backend.reportAtShutdown(System.out);
+ *	Bioloid robot = new Bioloid(backend, clientID);
+ *
+ * Recording costs two System.nanoTime() calls and a few counter updates, with no allocation.
+ */
+public class InstrumentedBackend implements VrepBackend {
+
+	private final VrepBackend backend;
+
+	public final CallStats start = new CallStats("simxStart");
+	public final CallStats finish = new CallStats("simxFinish");
+	public final CallStats getConnectionId = new CallStats("simxGetConnectionId");
+	public final CallStats getObjectHandle = new CallStats("simxGetObjectHandle");
+	public final CallStats setJointTargetPosition = new CallStats("simxSetJointTargetPosition");
+	public final CallStats getJointPosition = new CallStats("simxGetJointPosition");
+	public final CallStats getObjectPosition = new CallStats("simxGetObjectPosition");
+	public final CallStats callScriptFunction = new CallStats("simxCallScriptFunction");
+	public final CallStats getObjectGroupData = new CallStats("simxGetObjectGroupData");
+	public final CallStats pauseCommunication = new CallStats("simxPauseCommunication");
+	public final CallStats synchronous = new CallStats("simxSynchronous");
+	public final CallStats synchronousTrigger = new CallStats("simxSynchronousTrigger");
+	public final CallStats getPingTime = new CallStats("simxGetPingTime");
+	public final CallStats getLastCmdTime = new CallStats("simxGetLastCmdTime");
+	public final CallStats startSimulation = new CallStats("simxStartSimulation");
+	public final CallStats stopSimulation = new CallStats("simxStopSimulation");
+
+	private final CallStats[] all = {start, finish, getConnectionId, getObjectHandle, setJointTargetPosition,
+			getJointPosition, getObjectPosition, callScriptFunction, getObjectGroupData, pauseCommunication,
+			synchronous, synchronousTrigger, getPingTime, getLastCmdTime, startSimulation, stopSimulation};
+
+	public InstrumentedBackend(VrepBackend backend){
+		this.backend = backend;
+	}
+
+	public VrepBackend getBackend(){
+		return backend;
+	}
+
+	public CallStats[] getStats(){
+		return all.clone();
+	}
+
+	public void reset(){
+		for(CallStats stats : all){
+			stats.reset();
+		}
+	}
+
+	// Prints the methods that were called, the most expensive first.
+	public void report(PrintStream out){
+		CallStats[] sorted = getStats();
+		Arrays.sort(sorted, new Comparator<CallStats>(){
+			public int compare(CallStats a, CallStats b){
+				return Long.compare(b.getTotalNanos(), a.getTotalNanos());
+			}
+		});
+		long allNanos = 0;
+		for(CallStats stats : sorted){
+			allNanos += stats.getTotalNanos();
+		}
+		CallStats.printHeader(out);
+		for(CallStats stats : sorted){
+			if(stats.getCount() > 0)
+				stats.print(out, allNanos);
+		}
+		out.flush();
+	}
+
+	// Prints the report when the JVM exits, System.exit included.
+	public void reportAtShutdown(final PrintStream out){
+		Runtime.getRuntime().addShutdownHook(new Thread("remote API report"){
+			public void run(){
+				report(out);
+			}
+		});
+	}
+
+	public int simxStart(final String connectionAddress, int connectionPort, boolean waitUntilConnected, boolean doNotReconnectOnceDisconnected, int timeOutInMs, int commThreadCycleInMs){
+		long t0 = System.nanoTime();
+		int id = backend.simxStart(connectionAddress, connectionPort, waitUntilConnected, doNotReconnectOnceDisconnected, timeOutInMs, commThreadCycleInMs);
+		start.record(System.nanoTime() - t0, id == -1 ? simx_return_timeout_flag : simx_return_ok); // -1: could not connect
+		return id;
+	}
+
+	public void simxFinish(int clientID){
+		long t0 = System.nanoTime();
+		backend.simxFinish(clientID);
+		finish.record(System.nanoTime() - t0);
+	}
+
+	public int simxGetConnectionId(int clientID){
+		long t0 = System.nanoTime();
+		int id = backend.simxGetConnectionId(clientID);
+		getConnectionId.record(System.nanoTime() - t0);
+		return id;
+	}
+
+	public int simxGetObjectHandle(int clientID, final String objectName, IntW handle, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxGetObjectHandle(clientID, objectName, handle, operationMode);
+		getObjectHandle.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxSetJointTargetPosition(int clientID, int jointHandle, float targetPosition, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxSetJointTargetPosition(clientID, jointHandle, targetPosition, operationMode);
+		setJointTargetPosition.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxGetJointPosition(int clientID, int jointHandle, FloatW position, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxGetJointPosition(clientID, jointHandle, position, operationMode);
+		getJointPosition.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxGetObjectPosition(int clientID, int objectHandle, int relativeToObjectHandle, FloatWA position, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxGetObjectPosition(clientID, objectHandle, relativeToObjectHandle, position, operationMode);
+		getObjectPosition.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxCallScriptFunction(int clientID, final String scriptDescription, int options, final String functionName, final IntWA inInts, final FloatWA inFloats, final StringWA inStrings, final CharWA inBuffer, IntWA outInts, FloatWA outFloats, StringWA outStrings, CharWA outBuffer, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxCallScriptFunction(clientID, scriptDescription, options, functionName, inInts, inFloats, inStrings, inBuffer, outInts, outFloats, outStrings, outBuffer, operationMode);
+		callScriptFunction.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxGetObjectGroupData(int clientID, int objectType, int dataType, IntWA handles, IntWA intData, FloatWA floatData, StringWA stringData, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxGetObjectGroupData(clientID, objectType, dataType, handles, intData, floatData, stringData, operationMode);
+		getObjectGroupData.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxPauseCommunication(int clientID, boolean enable){
+		long t0 = System.nanoTime();
+		int r = backend.simxPauseCommunication(clientID, enable);
+		pauseCommunication.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxSynchronous(int clientID, boolean enable){
+		long t0 = System.nanoTime();
+		int r = backend.simxSynchronous(clientID, enable);
+		synchronous.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxSynchronousTrigger(int clientID){
+		long t0 = System.nanoTime();
+		int r = backend.simxSynchronousTrigger(clientID);
+		synchronousTrigger.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxGetPingTime(int clientID, IntW pingTime){
+		long t0 = System.nanoTime();
+		int r = backend.simxGetPingTime(clientID, pingTime);
+		getPingTime.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxGetLastCmdTime(int clientID){
+		long t0 = System.nanoTime();
+		int time = backend.simxGetLastCmdTime(clientID);
+		getLastCmdTime.record(System.nanoTime() - t0);
+		return time;
+	}
+
+	public int simxStartSimulation(int clientID, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxStartSimulation(clientID, operationMode);
+		startSimulation.record(System.nanoTime() - t0, r);
+		return r;
+	}
+
+	public int simxStopSimulation(int clientID, int operationMode){
+		long t0 = System.nanoTime();
+		int r = backend.simxStopSimulation(clientID, operationMode);
+		stopSimulation.record(System.nanoTime() - t0, r);
+		return r;
+	}
+}
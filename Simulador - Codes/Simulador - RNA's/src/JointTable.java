@@ -0,0 +1,51 @@
+import coppelia.FloatW;
+import coppelia.IntW;
+
+/*
+ * Joints of a robot kept in parallel primitive arrays: joint i (0-based) is the scene object names[i],
+ * its V-REP handle is handles[i] and its last read position (radians) is positions[i].
+ * The two wrappers are scratch space for the remote API calls, so the Bioloid loops allocate nothing.
+ */
+public class JointTable {
+
+	final String[] names;
+	final int[] handles;
+	final float[] positions;
+
+	final IntW handle = new IntW(0);
+	final FloatW position = new FloatW(0);
+
+	public JointTable(String[] names){
+		this.names = names.clone();
+		this.handles = new int[names.length];
+		this.positions = new float[names.length];
+	}
+
+	// Joints named prefix1..prefixN, the way the Bioloid scene names its servos (ART_1..ART_18).
+	public static JointTable numbered(String prefix, int count){
+		String[] names = new String[count];
+		for(int i=0;i<count;i++)
+			names[i] = prefix + (i+1);
+		return new JointTable(names);
+	}
+
+	public static JointTable bioloid(){
+		return numbered("ART_", 18);
+	}
+
+	public int size(){
+		return handles.length;
+	}
+
+	public String name(int joint){
+		return names[joint];
+	}
+
+	public int handle(int joint){
+		return handles[joint];
+	}
+
+	public float position(int joint){
+		return positions[joint];
+	}
+}
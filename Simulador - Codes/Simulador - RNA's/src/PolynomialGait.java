@@ -0,0 +1,31 @@
+/*
+ * Gait given by one polynomial per joint of the phase x = phaseStart + tick*phaseStep.
+ * coefficients[joint] lists the coefficients from the highest degree down to the constant term,
+ * so a joint that does not move is a single constant. Evaluated by PolynomialTrajectory.
+ */
+public class PolynomialGait implements GaitSource {
+
+	private final PolynomialTrajectory trajectory;
+	private final double phaseStart;
+	private final double phaseStep;
+	private final int ticks;
+
+	public PolynomialGait(double[][] coefficients, double phaseStart, double phaseStep, int ticks){
+		this.trajectory = new PolynomialTrajectory(coefficients);
+		this.phaseStart = phaseStart;
+		this.phaseStep = phaseStep;
+		this.ticks = ticks;
+	}
+
+	public int ticks(){
+		return ticks;
+	}
+
+	public int joints(){
+		return trajectory.joints();
+	}
+
+	public void pose(int tick, double[] pose){
+		trajectory.evaluate(phaseStart + tick*phaseStep, pose);
+	}
+}
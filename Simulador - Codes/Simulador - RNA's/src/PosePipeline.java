@@ -0,0 +1,150 @@
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Sends the poses of a Bioloid from its own thread, so that the next pose can be computed while
+ * the previous one is on its way to V-REP. The motion methods write the joint targets (radians)
+ * into a PoseRing; the sender thread takes the newest one, skipping any that went stale while it
+ * was busy, and sends it in one paused message as Bioloid does.
+ *
+ * Only the sender thread may talk to V-REP while the pipeline runs: neither remoteApi nor
+ * InMemoryBackend is meant to be called from two threads. Bioloid.startPipeline() enforces it by
+ * settling with NONE instead of SettleStrategy.COUNT and by rejecting the read methods until
+ * stopPipeline().
+ *
+ * The metrics are written by the sender thread only and may be read from any thread.
+ */
+public class PosePipeline implements Runnable {
+
+	private final VrepBackend vrep;
+	private final int clientID;
+	private final int[] handles;
+	private final PoseRing ring;
+	private final float[] pose;
+
+	private Thread sender;
+	private volatile Thread waiting; // the producer, while it waits for a free slot
+	private volatile boolean running = false;
+
+	private volatile long sent = 0;
+	private volatile long dropped = 0;
+	private volatile long latencyNanos = 0; // from publication to the end of the send, summed over the sent poses
+	private volatile long maxLatencyNanos = 0;
+	private volatile long fullWaits = 0; // written by the producer
+
+	public PosePipeline(VrepBackend vrep, int clientID, JointTable joints, int depth){
+		this.vrep = vrep;
+		this.clientID = clientID;
+		this.handles = joints.handles;
+		this.ring = new PoseRing(depth, joints.size());
+		this.pose = new float[joints.size()];
+	}
+
+	public void start(){
+		if(running)
+			return;
+		running = true;
+		sender = new Thread(this, "pose sender");
+		sender.setDaemon(true);
+		sender.start();
+	}
+
+	// Sends what is left in the ring, then stops the sender thread.
+	public void stop(){
+		if(!running)
+			return;
+		running = false;
+		LockSupport.unpark(sender);
+		try{
+			sender.join();
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public boolean isRunning(){
+		return running;
+	}
+
+	// Producer: the slot for the next pose, parked until the sender frees one while the ring is full.
+	public float[] claim(){
+		float[] slot = ring.claim();
+		if(slot != null)
+			return slot;
+		fullWaits++;
+		waiting = Thread.currentThread(); // before the claim below, so the sender cannot miss it
+		while((slot = ring.claim()) == null)
+			LockSupport.park(this);
+		waiting = null;
+		return slot;
+	}
+
+	// Producer: hands the slot returned by claim() to the sender thread.
+	public void publish(){
+		ring.publish();
+		LockSupport.unpark(sender);
+	}
+
+	public void run(){
+		while(true){
+			int taken = ring.takeLatest(pose);
+			if(taken == 0){
+				if(!running && ring.size() == 0)
+					return;
+				LockSupport.park(this);
+				continue;
+			}
+			Thread producer = waiting; // the slots taken are free again
+			if(producer != null)
+				LockSupport.unpark(producer);
+			vrep.simxPauseCommunication(clientID, true); // all the targets go out in a single message
+			for(int i=0;i<handles.length;i++){
+				vrep.simxSetJointTargetPosition(clientID, handles[i], pose[i], vrep.simx_opmode_oneshot);
+			}
+			vrep.simxPauseCommunication(clientID, false);
+
+			long latency = System.nanoTime() - ring.takenStamp();
+			latencyNanos += latency;
+			if(latency > maxLatencyNanos)
+				maxLatencyNanos = latency;
+			dropped += taken - 1;
+			sent++;
+		}
+	}
+
+	// Poses waiting in the ring.
+	public int getDepth(){
+		return ring.size();
+	}
+
+	public int getCapacity(){
+		return ring.capacity();
+	}
+
+	public long getSent(){
+		return sent;
+	}
+
+	// Poses skipped because a newer one was published before they could be sent.
+	public long getDropped(){
+		return dropped;
+	}
+
+	// Times the producer found the ring full and had to wait.
+	public long getFullWaits(){
+		return fullWaits;
+	}
+
+	public double getMeanLatencyMillis(){
+		return sent == 0 ? 0 : latencyNanos/1e6/sent;
+	}
+
+	public double getMaxLatencyMillis(){
+		return maxLatencyNanos/1e6;
+	}
+
+	public String toString(){
+		return String.format("sent %d, dropped %d, full waits %d, depth %d/%d, latency mean %.3f ms max %.3f ms",
+				sent, dropped, fullWaits, getDepth(), getCapacity(), getMeanLatencyMillis(), getMaxLatencyMillis());
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Gait given as sampled motor positions: every joint starts at base[joint], and from firstJoint on
+ * joint firstJoint+c follows columns[c][tick]. This is the layout of the arrays exported from MATLAB.
+ */
+public class SampledGait implements GaitSource {
+
+	private final double[] base;
+	private final int[][] columns;
+	private final int firstJoint;
+	private final int ticks;
+
+	public SampledGait(double[] base, int firstJoint, int[][] columns){
+		if(firstJoint + columns.length > base.length)
+			throw new IllegalArgumentException("more columns than joints");
+		int ticks = Integer.MAX_VALUE;
+		for(int c=0;c<columns.length;c++)
+			ticks = Math.min(ticks, columns[c].length);
+		this.base = base.clone();
+		this.columns = columns;
+		this.firstJoint = firstJoint;
+		this.ticks = columns.length == 0 ? 1 : ticks;
+	}
+
+	public int ticks(){
+		return ticks;
+	}
+
+	public int joints(){
+		return base.length;
+	}
+
+	public void pose(int tick, double[] pose){
+		System.arraycopy(base, 0, pose, 0, base.length);
+		for(int c=0;c<columns.length;c++)
+			pose[firstJoint + c] = columns[c][tick];
+	}
+}
@@ -0,0 +1,97 @@
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Decides how long the robot holds a pose after it has been sent to V-REP.
+ * The pose itself goes out once; the strategy only paces the caller, so the
+ * "connectionTime" argument of the Bioloid motion methods keeps its meaning
+ * as the speed of the movement.
+ */
+public interface SettleStrategy {
+
+	// Holds the current pose for connectionTime units. Returns early if the connection drops.
+	void settle(VrepBackend vrep, int clientID, int connectionTime);
+
+	// Polls the connection connectionTime times, one native call per unit: about 19 times shorter a hold
+	// than the original loop, which also resent the 18 joint targets on every unit.
+	SettleStrategy COUNT = new SettleStrategy(){
+		public void settle(VrepBackend vrep, int clientID, int connectionTime){
+			int cont = 0;
+			while(vrep.simxGetConnectionId(clientID)!=-1 && cont!=connectionTime){
+				cont++;
+			}
+		}
+	};
+
+	// Returns as soon as the pose is sent.
+	SettleStrategy NONE = new SettleStrategy(){
+		public void settle(VrepBackend vrep, int clientID, int connectionTime){
+		}
+	};
+
+	// Holds the pose as long as the original loop did, which resent every joint target on each unit:
+	// the time of callsPerUnit native calls per unit. The cost of a call is measured once, on the first
+	// pose, with simxGetConnectionId; the hold itself parks without calling V-REP. The default of Bioloid.
+	public static class CallTime implements SettleStrategy {
+
+		static final int SAMPLES = 1000;
+
+		private final int callsPerUnit;
+		private long nanosPerCall = -1;
+
+		public CallTime(int callsPerUnit){
+			if(callsPerUnit < 1)
+				throw new IllegalArgumentException("callsPerUnit must be at least 1: " + callsPerUnit);
+			this.callsPerUnit = callsPerUnit;
+		}
+
+		// Times SAMPLES native calls, unless done already.
+		public void calibrate(VrepBackend vrep, int clientID){
+			if(nanosPerCall >= 0)
+				return;
+			for(int k=0;k<SAMPLES;k++) // warm up
+				vrep.simxGetConnectionId(clientID);
+			long start = System.nanoTime();
+			for(int k=0;k<SAMPLES;k++)
+				vrep.simxGetConnectionId(clientID);
+			nanosPerCall = (System.nanoTime() - start)/SAMPLES;
+		}
+
+		public boolean isCalibrated(){
+			return nanosPerCall >= 0;
+		}
+
+		public long getNanosPerCall(){
+			return nanosPerCall;
+		}
+
+		public void settle(VrepBackend vrep, int clientID, int connectionTime){
+			calibrate(vrep, clientID);
+			long end = System.nanoTime() + (long)connectionTime*callsPerUnit*nanosPerCall;
+			long left;
+			while((left = end - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted())
+				LockSupport.parkNanos(left);
+		}
+	}
+
+	// Sleeps for connectionTime * millisPerUnit milliseconds instead of spinning.
+	public static class Sleep implements SettleStrategy {
+
+		private final double millisPerUnit;
+
+		public Sleep(double millisPerUnit){
+			this.millisPerUnit = millisPerUnit;
+		}
+
+		public void settle(VrepBackend vrep, int clientID, int connectionTime){
+			long millis = (long)(connectionTime * millisPerUnit);
+			if(millis <= 0)
+				return;
+			try{
+				Thread.sleep(millis);
+			}
+			catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -31,7 +31,10 @@ package coppelia;
 public class remoteApi
 {
     static{ 
-        System.load("C:/Program Files/V-REP3/V-REP_PRO_EDU/programming/remoteApiBindings/java/lib/64Bit/remoteApiJava.dll");
+    	// -DremoteApi.library=<path> points to another dll/so; an empty value skips loading
+    	String library = System.getProperty("remoteApi.library", "C:/Program Files/V-REP3/V-REP_PRO_EDU/programming/remoteApiBindings/java/lib/64Bit/remoteApiJava.dll");
+    	if (library.length() != 0)
+    		System.load(library);
     }
 
     public native int simxStart(final String connectionAddress, int connectionPort, boolean waitUntilConnected, boolean doNotReconnectOnceDisconnected, int timeOutInMs, int commThreadCycleInMs);